@@ -20,11 +20,20 @@ namespace net.sf.robocode.dotnet.peer
         public String recipient;
         public String sender;
 
+        // true if the message holds the bytes sent by the robot as is; false if it holds a serialized object
+        public bool isBinary;
+
         public TeamMessage(String sender, String recipient, byte[] message)
+            : this(sender, recipient, message, false)
+        {
+        }
+
+        public TeamMessage(String sender, String recipient, byte[] message, bool isBinary)
         {
             this.sender = sender;
             this.recipient = recipient;
             this.message = message;
+            this.isBinary = isBinary;
         }
 
         // ReSharper disable UnusedMember.Local
@@ -46,7 +55,7 @@ namespace net.sf.robocode.dotnet.peer
                 int r = serializer.sizeOf(obj.recipient);
                 int m = serializer.sizeOf(obj.message);
 
-                return RbSerializerN.SIZEOF_TYPEINFO + s + r + m;
+                return RbSerializerN.SIZEOF_TYPEINFO + s + r + m + RbSerializerN.SIZEOF_BOOL;
             }
 
             public void serialize(RbSerializerN serializer, ByteBuffer buffer, Object obje)
@@ -56,6 +65,7 @@ namespace net.sf.robocode.dotnet.peer
                 serializer.serialize(buffer, obj.sender);
                 serializer.serialize(buffer, obj.recipient);
                 serializer.serialize(buffer, obj.message);
+                serializer.serialize(buffer, obj.isBinary);
             }
 
             public Object deserialize(RbSerializerN serializer, ByteBuffer buffer)
@@ -63,8 +73,9 @@ namespace net.sf.robocode.dotnet.peer
                 String sender = serializer.deserializeString(buffer);
                 String recipient = serializer.deserializeString(buffer);
                 byte[] message = serializer.deserializeBytes(buffer);
+                bool isBinary = serializer.deserializeBoolean(buffer);
 
-                return new TeamMessage(sender, recipient, message);
+                return new TeamMessage(sender, recipient, message, isBinary);
             }
 
             #endregion
@@ -25,4 +25,6 @@ public interface IBattleManagerBase {
 	void stop(boolean waitTillEnd);
 
 	void startNewBattle(BattleSpecification spec, String initialPositions, boolean waitTillOver, boolean enableCLIRecording);
+
+	void runConcurrentBattle(BattleSpecification spec, IBattleListener listener);
 }
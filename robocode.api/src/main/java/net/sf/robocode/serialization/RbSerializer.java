@@ -17,14 +17,20 @@ import robocode.Event;
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 import java.nio.charset.*;
 import java.util.HashMap;
 import java.util.Map;
 
 
 /**
+ * Serializer for the data exchanged with robots, e.g. {@code ExecCommands} and {@code ExecResults}.
+ * <p>
+ * Data is serialized in a single pass, where the lengths of the data and strings are written afterwards at their
+ * place in front of the data. Each serializer reuses its own buffers for serializing to and deserializing from
+ * streams, so a serializer must only be used by one thread at a time, e.g. the one of a single robot.
+ *
  * @author Pavel Savara (original)
  */
 public final class RbSerializer {
@@ -76,26 +82,26 @@ public final class RbSerializer {
 	private final static ISerializableHelper[] typeToHelper = new ISerializableHelper[256];
 	private static Map<Class<?>, Byte> classToType = new HashMap<Class<?>, Byte>();
 	private final static Charset charset;
-	private final CharsetEncoder encoder;
 	private final CharsetDecoder decoder;
 
 	private static final int BYTE_ORDER = 0xC0DEDEA1;
+	private static final int SIZEOF_HEADER = SIZEOF_INT + SIZEOF_INT + SIZEOF_INT;
+	private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
 	private final int currentVersion;
 
+	// Reused for serializing to streams and new buffers, and for deserializing from streams
+	private ByteBuffer writeBuffer;
+	private ByteBuffer readBuffer;
+	private char[] chars = new char[64];
+
 	static {
-		charset = Charset.forName("UTF8"); // we will use it as UCS-2
+		charset = Charset.forName("UTF8");
 		register(null, TERMINATOR_TYPE); // reserved for end of (list) element
 	}
 
 	public RbSerializer() {
 		this.currentVersion = ContainerBase.getComponent(IVersionManagerBase.class).getVersionAsInt();
-		encoder = charset.newEncoder();
-		encoder.onMalformedInput(CodingErrorAction.REPORT);
-		encoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
-		// throw away forst bom
-		ByteBuffer buffer = ByteBuffer.allocate(8);
-
-		encoder.encode(CharBuffer.wrap("BOM"), buffer, false);
 
 		decoder = charset.newDecoder();
 		decoder.onMalformedInput(CodingErrorAction.REPORT);
@@ -103,63 +109,33 @@ public final class RbSerializer {
 	}
 
 	public void serialize(OutputStream target, byte type, Object object) throws IOException {
-		int length = sizeOf(type, object);
+		final ByteBuffer buffer = serializeToWriteBuffer(type, object);
 
-		// header
-		ByteBuffer buffer = ByteBuffer.allocate(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT);
-
-		buffer.putInt(BYTE_ORDER);
-		buffer.putInt(currentVersion);
-		buffer.putInt(length);
-		target.write(buffer.array());
-
-		// body
-		buffer = ByteBuffer.allocate(length);
-		serialize(buffer, type, object);
-		if (buffer.remaining() != 0) {
-			throw new IOException("Serialization failed: bad size"); 
-		}
-		target.write(buffer.array());
+		target.write(buffer.array(), 0, buffer.position());
 	}
 
 	public ByteBuffer serialize(byte type, Object object) throws IOException {
-		int length = sizeOf(type, object);
-
-		// header
-		ByteBuffer buffer = ByteBuffer.allocateDirect(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT + length);
-
-		buffer.putInt(BYTE_ORDER);
-		buffer.putInt(currentVersion);
-		buffer.putInt(length);
+		final ByteBuffer data = serializeToWriteBuffer(type, object);
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(data.position());
 
-		// body
-		serialize(buffer, type, object);
-		if (buffer.remaining() != 0) {
-			throw new IOException("Serialization failed: bad size");
-		}
+		buffer.put(data.array(), 0, data.position());
 		return buffer;
 	}
 
 	public ByteBuffer serializeToBuffer(ByteBuffer buffer, byte type, Object object) throws IOException {
-		int length = sizeOf(type, object);
-
-		buffer.limit(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT + length);
-
-		buffer.putInt(BYTE_ORDER);
-		buffer.putInt(currentVersion);
-		buffer.putInt(length);
-
-		// body
-		serialize(buffer, type, object);
-		if (buffer.remaining() != 0) {
-			throw new IOException("Serialization failed: bad size");
+		buffer.limit(buffer.capacity());
+		try {
+			serializeWithHeader(buffer, type, object);
+		} catch (BufferOverflowException e) {
+			throw new IOException("Serialization failed: buffer too small");
 		}
+		buffer.limit(buffer.position());
 		return buffer;
 	}
 
 	public Object deserialize(InputStream source) throws IOException {
 		// header
-		ByteBuffer buffer = ByteBuffer.allocate(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT);
+		ByteBuffer buffer = getReadBuffer(SIZEOF_HEADER);
 
 		fillBuffer(source, buffer);
 		buffer.flip();
@@ -176,7 +152,7 @@ public final class RbSerializer {
 		int length = buffer.getInt();
 
 		// body
-		buffer = ByteBuffer.allocate(length);
+		buffer = getReadBuffer(length);
 		fillBuffer(source, buffer);
 		buffer.flip();
 		final Object res = deserializeAny(buffer);
@@ -234,10 +210,11 @@ public final class RbSerializer {
 		if (data == null) {
 			buffer.putInt(-1);
 		} else {
-			ByteBuffer slice = encode(data);
+			final int start = buffer.position();
 
-			buffer.putInt(slice.limit());
-			buffer.put(slice);
+			buffer.putInt(0);
+			encode(buffer, data);
+			buffer.putInt(start, buffer.position() - start - SIZEOF_INT);
 		}
 	}
 
@@ -335,6 +312,21 @@ public final class RbSerializer {
 		if (bytes == -1) {
 			return null;
 		}
+		final int start = buffer.position();
+
+		// ASCII strings are decoded directly, and other strings by the charset decoder
+		if (chars.length < bytes) {
+			chars = new char[Math.max(bytes, chars.length * 2)];
+		}
+		int i = 0;
+
+		for (byte b; i < bytes && (b = buffer.get(start + i)) >= 0; i++) {
+			chars[i] = (char) b;
+		}
+		if (i == bytes) {
+			buffer.position(start + bytes);
+			return new String(chars, 0, bytes);
+		}
 		final ByteBuffer slice = buffer.slice();
 
 		slice.limit(bytes);
@@ -442,7 +434,7 @@ public final class RbSerializer {
 	}
 
 	public int sizeOf(String data) {
-		return (data == null) ? SIZEOF_INT : SIZEOF_INT + encode(data).limit();
+		return (data == null) ? SIZEOF_INT : SIZEOF_INT + encodedLength(data);
 	}
 
 	public int sizeOf(byte[] data) {
@@ -466,12 +458,101 @@ public final class RbSerializer {
 		return helper;
 	}
 
-	private ByteBuffer encode(String data) {
-		final ByteBuffer slice = ByteBuffer.allocate(data.length() * 3);
+	/**
+	 * Serializes data with a header into the write buffer, which is enlarged until the data fits into it.
+	 */
+	private ByteBuffer serializeToWriteBuffer(byte type, Object object) {
+		if (writeBuffer == null) {
+			writeBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+		}
+		while (true) {
+			writeBuffer.clear();
+			try {
+				serializeWithHeader(writeBuffer, type, object);
+				return writeBuffer;
+			} catch (BufferOverflowException e) {
+				writeBuffer = ByteBuffer.allocate(writeBuffer.capacity() * 2);
+			}
+		}
+	}
+
+	private void serializeWithHeader(ByteBuffer buffer, byte type, Object object) {
+		final int start = buffer.position();
 
-		encoder.encode(CharBuffer.wrap(data), slice, false);
-		slice.flip();
-		return slice;
+		buffer.putInt(BYTE_ORDER);
+		buffer.putInt(currentVersion);
+		buffer.putInt(0); // the length of the body is written when it is known
+
+		serialize(buffer, type, object);
+
+		buffer.putInt(start + SIZEOF_INT + SIZEOF_INT, buffer.position() - start - SIZEOF_HEADER);
+	}
+
+	private ByteBuffer getReadBuffer(int length) {
+		if (readBuffer == null || readBuffer.capacity() < length) {
+			readBuffer = ByteBuffer.allocate(Math.max(length, INITIAL_BUFFER_SIZE));
+		}
+		readBuffer.clear();
+		readBuffer.limit(length);
+		return readBuffer;
+	}
+
+	/**
+	 * Encodes a string as UTF-8 into a buffer, where unpaired surrogates are replaced by '?'.
+	 */
+	private static void encode(ByteBuffer buffer, String data) {
+		final int length = data.length();
+
+		for (int i = 0; i < length; i++) {
+			final char c = data.charAt(i);
+
+			if (c < 0x80) {
+				buffer.put((byte) c);
+			} else if (c < 0x800) {
+				buffer.put((byte) (0xC0 | (c >> 6)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			} else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(data.charAt(i + 1))) {
+					final int codePoint = Character.toCodePoint(c, data.charAt(++i));
+
+					buffer.put((byte) (0xF0 | (codePoint >> 18)));
+					buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+					buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+					buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+				} else {
+					buffer.put((byte) '?');
+				}
+			} else {
+				buffer.put((byte) (0xE0 | (c >> 12)));
+				buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+	}
+
+	private static int encodedLength(String data) {
+		final int length = data.length();
+		int result = 0;
+
+		for (int i = 0; i < length; i++) {
+			final char c = data.charAt(i);
+
+			if (c < 0x80) {
+				result++;
+			} else if (c < 0x800) {
+				result += 2;
+			} else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(data.charAt(i + 1))) {
+					result += 4;
+					i++;
+				} else {
+					result++;
+				}
+			} else {
+				result += 3;
+			}
+		}
+		return result;
 	}
 
 	private void fillBuffer(InputStream source, ByteBuffer buffer) throws IOException {
@@ -15,6 +15,7 @@ import robocode.robotinterfaces.ITeamRobot;
 
 import java.awt.*;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -30,6 +31,7 @@ public final class MessageEvent extends Event {
 
 	private final String sender;
 	private final Serializable message;
+	private final byte[] binaryMessage;
 
 	/**
 	 * Called by the game to create a new MessageEvent.
@@ -38,8 +40,30 @@ public final class MessageEvent extends Event {
 	 * @param message the message for your robot
 	 */
 	public MessageEvent(String sender, Serializable message) {
+		this(sender, message, null);
+	}
+
+	private MessageEvent(String sender, Serializable message, byte[] binaryMessage) {
 		this.sender = sender;
 		this.message = message;
+		this.binaryMessage = binaryMessage;
+	}
+
+	/**
+	 * Called by the game to create a new MessageEvent for a binary message.
+	 * The bytes of the message are copied, so the buffer is not used by the event.
+	 *
+	 * @param sender  the name of the sending robot
+	 * @param message the binary message for your robot, which is made of the
+	 *                bytes from the position to the limit of the buffer
+	 * @return a new MessageEvent with the binary message
+	 * @since 1.9.3.5
+	 */
+	public static MessageEvent createBinaryMessageEvent(String sender, ByteBuffer message) {
+		final byte[] bytes = new byte[message.remaining()];
+
+		message.duplicate().get(bytes);
+		return new MessageEvent(sender, null, bytes);
 	}
 
 	/**
@@ -54,12 +78,39 @@ public final class MessageEvent extends Event {
 	/**
 	 * Returns the message itself.
 	 *
-	 * @return the message
+	 * @return the message, or {@code null} if the message is a binary message
+	 * @see #getBinaryMessage()
 	 */
 	public Serializable getMessage() {
 		return message;
 	}
 
+	/**
+	 * Returns the binary message sent with
+	 * {@link TeamRobot#sendBinaryMessage(String, ByteBuffer) sendBinaryMessage()} or
+	 * {@link TeamRobot#broadcastBinaryMessage(ByteBuffer) broadcastBinaryMessage()}.
+	 * The message is returned as a new read-only buffer every time, where the
+	 * position is 0 and the limit is the size of the message.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 *   public void onMessageReceived(MessageEvent e) {
+	 *       ByteBuffer message = e.getBinaryMessage();
+	 *       if (message != null) {
+	 *           double enemyX = message.getDouble();
+	 *           double enemyY = message.getDouble();
+	 *       }
+	 *   }
+	 * </pre>
+	 *
+	 * @return the binary message, or {@code null} if the message is not a binary message
+	 * @see #getMessage()
+	 * @since 1.9.3.5
+	 */
+	public ByteBuffer getBinaryMessage() {
+		return binaryMessage != null ? ByteBuffer.wrap(binaryMessage).asReadOnlyBuffer() : null;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
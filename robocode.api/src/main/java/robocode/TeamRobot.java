@@ -14,6 +14,7 @@ import robocode.robotinterfaces.peer.ITeamRobotPeer;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Vector;
 
 
@@ -185,4 +186,60 @@ public class TeamRobot extends AdvancedRobot implements ITeamRobot, ITeamEvents
 			uninitializedException();
 		}
 	}
+
+	/**
+	 * Broadcasts a binary message to all teammates.
+	 * <p>
+	 * Unlike {@link #broadcastMessage(Serializable)}, the message is not
+	 * serialized, but sent as the bytes from the position to the limit of the
+	 * buffer, which is much faster for small messages sent every turn. The
+	 * position of the buffer is not changed.
+	 * <p>
+	 * Example:
+	 * <pre>
+	 *   public void onScannedRobot(ScannedRobotEvent e) {
+	 *       ByteBuffer message = ByteBuffer.allocate(16);
+	 *       message.putDouble(getX()).putDouble(getY());
+	 *       message.flip();
+	 *       broadcastBinaryMessage(message);
+	 *   }
+	 * </pre>
+	 *
+	 * @param message the binary message to broadcast to all teammates
+	 * @throws IOException if the message could not be broadcasted to the
+	 *                     teammates
+	 * @see #sendBinaryMessage(String, ByteBuffer)
+	 * @see MessageEvent#getBinaryMessage()
+	 * @since 1.9.3.5
+	 */
+	public void broadcastBinaryMessage(ByteBuffer message) throws IOException {
+		if (peer != null) {
+			((ITeamRobotPeer) peer).broadcastBinaryMessage(message);
+		} else {
+			uninitializedException();
+		}
+	}
+
+	/**
+	 * Sends a binary message to one (or more) teammates.
+	 * <p>
+	 * Unlike {@link #sendMessage(String, Serializable)}, the message is not
+	 * serialized, but sent as the bytes from the position to the limit of the
+	 * buffer, which is much faster for small messages sent every turn. The
+	 * position of the buffer is not changed.
+	 *
+	 * @param name	the name of the intended recipient of the message
+	 * @param message the binary message to send
+	 * @throws IOException if the message could not be sent
+	 * @see #broadcastBinaryMessage(ByteBuffer)
+	 * @see MessageEvent#getBinaryMessage()
+	 * @since 1.9.3.5
+	 */
+	public void sendBinaryMessage(String name, ByteBuffer message) throws IOException {
+		if (peer != null) {
+			((ITeamRobotPeer) peer).sendBinaryMessage(name, message);
+		} else {
+			uninitializedException();
+		}
+	}
 }
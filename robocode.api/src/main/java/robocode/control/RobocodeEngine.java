@@ -255,6 +255,31 @@ public class RobocodeEngine implements IRobocodeEngine {
 				waitTillOver, false);
 	}
 
+	/**
+	 * Runs the specified battle concurrently with other battles started with this method, and blocks the caller
+	 * until the battle is over.
+	 * This method may be called from several threads at the same time in order to run independent battles
+	 * side by side, e.g. one battle per available processor.
+	 * <p>
+	 * The events from the battle are only sent to the specified listener, not to the listeners added with
+	 * {@link #addBattleListener(IBattleListener) addBattleListener()}. Concurrent battles are never recorded.
+	 * <p>
+	 * When the RANDOMSEED option is set, the random generator of each battle, which decides the start positions and
+	 * the order in which robots and bullets are processed, is seeded from the deterministic random generator in the
+	 * order the battles are started. The robots themselves are not deterministic, as all robots share the random
+	 * number generator behind {@link Math#random()}.
+	 *
+	 * @param battleSpecification the specification of the battle to run including the
+	 *                     participating robots.
+	 * @param listener the listener that must receive the events from the battle, or {@code null}.
+	 * @see #runBattle(BattleSpecification, boolean)
+	 * @see BattleSpecification
+	 * @since 1.9.3.5
+	 */
+	public void runConcurrentBattle(BattleSpecification battleSpecification, IBattleListener listener) {
+		ContainerBase.getComponent(IBattleManagerBase.class).runConcurrentBattle(battleSpecification, listener);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -89,6 +89,22 @@ public abstract class BattleAdaptor implements IBattleListener {
 	 */
 	public void onTurnEnded(final TurnEndedEvent event) {}
 
+	/**
+	 * This method is called when a round has ended, with the durations of the turns in the round, and the time
+	 * every robot has used for its turns. The durations are only measured when a battle adaptor is overriding this
+	 * method, and this event is only sent to battle adaptors, as it is not part of the {@link IBattleListener}.
+	 * <p>
+	 * You must override this method in order to get informed about this event and receive the event details.
+	 *
+	 * @see TimingStatisticsEvent
+	 * @see #onRoundEnded(RoundEndedEvent)
+	 *
+	 * @param event the event details.
+	 *
+	 * @since 1.9.3.5
+	 */
+	public void onTimingStatistics(final TimingStatisticsEvent event) {}
+
 	/**
 	 * {@inheritDoc}
 	 */
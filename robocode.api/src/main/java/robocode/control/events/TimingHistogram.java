@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package robocode.control.events;
+
+
+/**
+ * A histogram of durations in nanoseconds, e.g. the durations of a phase of every turn in a round.
+ * <p>
+ * Like HdrHistogram, the durations are counted in buckets of increasing size, where every power of two
+ * is divided into 32 buckets. Hence, recording a duration only increments a counter, and percentiles are
+ * accurate within about 3% of the duration, while the histogram has a fixed size of less than 16 KB.
+ * Durations below 64 nanoseconds are counted exactly.
+ * <p>
+ * A histogram is not thread-safe. The histograms received with a {@link TimingStatisticsEvent} are no longer
+ * changed by the game.
+ *
+ * @see TimingStatisticsEvent
+ *
+ * @since 1.9.3.5
+ */
+public final class TimingHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS; // buckets per power of two
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final long[] counts = new long[BUCKET_COUNT];
+	private long count;
+	private long total;
+	private long min = Long.MAX_VALUE;
+	private long max;
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param nanos the duration in nanoseconds. Negative durations are recorded as 0.
+	 */
+	public void recordValue(long nanos) {
+		final long value = Math.max(0, nanos);
+
+		counts[indexOf(value)]++;
+		count++;
+		total += value;
+		if (value < min) {
+			min = value;
+		}
+		if (value > max) {
+			max = value;
+		}
+	}
+
+	/**
+	 * Returns the number of recorded durations.
+	 *
+	 * @return the number of recorded durations.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the sum of all recorded durations.
+	 *
+	 * @return the sum of all recorded durations in nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return total;
+	}
+
+	/**
+	 * Returns the mean of the recorded durations.
+	 *
+	 * @return the mean duration in nanoseconds, or 0 if no duration has been recorded.
+	 */
+	public double getMeanNanos() {
+		return count == 0 ? 0 : (double) total / count;
+	}
+
+	/**
+	 * Returns the shortest recorded duration.
+	 *
+	 * @return the shortest duration in nanoseconds, or 0 if no duration has been recorded.
+	 */
+	public long getMinNanos() {
+		return count == 0 ? 0 : min;
+	}
+
+	/**
+	 * Returns the longest recorded duration.
+	 *
+	 * @return the longest duration in nanoseconds, or 0 if no duration has been recorded.
+	 */
+	public long getMaxNanos() {
+		return max;
+	}
+
+	/**
+	 * Returns the duration at a percentile, i.e. the duration that the given percentage of the recorded durations
+	 * are shorter than or equal to. E.g. {@code getNanosAtPercentile(99)} returns the duration that only 1% of the
+	 * turns took longer than.
+	 *
+	 * @param percentile the percentile between 0 and 100.
+	 * @return the duration in nanoseconds at the percentile, or 0 if no duration has been recorded.
+	 */
+	public long getNanosAtPercentile(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		final double p = Math.min(Math.max(percentile, 0), 100);
+		final long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.max(min, Math.min(max, highestValueOf(i)));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Adds all durations recorded by another histogram to this histogram, e.g. to get the durations of all rounds.
+	 *
+	 * @param other the histogram to add.
+	 */
+	public void add(TimingHistogram other) {
+		if (other.count == 0) {
+			return;
+		}
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		total += other.total;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count + ", mean=" + (long) getMeanNanos() + "ns, p50=" + getNanosAtPercentile(50)
+				+ "ns, p99=" + getNanosAtPercentile(99) + "ns, max=" + max + "ns";
+	}
+
+	private static int indexOf(long value) {
+		if (value < 2 * SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+		return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+	}
+
+	private static long highestValueOf(int index) {
+		if (index < 2 * SUB_BUCKET_COUNT) {
+			return index;
+		}
+		final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		final long lowest = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+
+		return lowest + (1L << shift) - 1;
+	}
+}
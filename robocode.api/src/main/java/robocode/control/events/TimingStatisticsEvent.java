@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package robocode.control.events;
+
+
+/**
+ * A TimingStatisticsEvent is sent to {@link BattleAdaptor#onTimingStatistics(TimingStatisticsEvent)
+ * onTimingStatistics()} when a round has ended, right after the {@link RoundEndedEvent}. It contains the durations
+ * of the phases of every turn in the round, and the time every robot has used for its turns, which makes it possible
+ * to find slow robots and slow turns of the game itself.
+ * <p>
+ * The durations are only measured when a battle adaptor is overriding the event handler, so the game is not slowed down
+ * otherwise.
+ *
+ * @see BattleAdaptor
+ * @see TurnPhase
+ * @see TimingHistogram
+ *
+ * @since 1.9.3.5
+ */
+public class TimingStatisticsEvent extends BattleEvent {
+	private final int round;
+	private final TimingHistogram[] phaseTimings;
+	private final String[] robotNames;
+	private final TimingHistogram[] robotTimings;
+
+	/**
+	 * Called by the game to create a new TimingStatisticsEvent.
+	 * Please don't use this constructor as it might change.
+	 *
+	 * @param round the round number that was ended (zero indexed).
+	 * @param phaseTimings the durations of every phase, indexed by the ordinal of the {@link TurnPhase}.
+	 * @param robotNames the names of the robots, indexed by robot index.
+	 * @param robotTimings the time used by every robot for its turns, indexed by robot index.
+	 */
+	public TimingStatisticsEvent(int round, TimingHistogram[] phaseTimings, String[] robotNames, TimingHistogram[] robotTimings) {
+		super();
+		this.round = round;
+		this.phaseTimings = phaseTimings;
+		this.robotNames = robotNames;
+		this.robotTimings = robotTimings;
+	}
+
+	/**
+	 * Returns the round number that has ended.
+	 *
+	 * @return the round number that has ended, which is zero indexed.
+	 */
+	public int getRound() {
+		return round;
+	}
+
+	/**
+	 * Returns the durations of a phase of every turn in the round.
+	 *
+	 * @param phase the phase of the turns.
+	 * @return the durations of the phase.
+	 */
+	public TimingHistogram getPhaseTimings(TurnPhase phase) {
+		return phaseTimings[phase.ordinal()];
+	}
+
+	/**
+	 * Returns the names of the robots, in the same order as {@link #getRobotTimings()}.
+	 *
+	 * @return the names of the robots indexed by robot index.
+	 */
+	public String[] getRobotNames() {
+		return robotNames.clone();
+	}
+
+	/**
+	 * Returns the time every robot has used for its turns in the round, i.e. the time from waking up the robot
+	 * until the robot has executed its commands. Only the turns where the robot was alive are included.
+	 * <p>
+	 * When robots are running in parallel with the {@code -DPARALLEL=true} option, the time of a robot is the time
+	 * from waking up all robots until the robot has executed its commands.
+	 *
+	 * @return the time used by every robot, indexed by robot index.
+	 */
+	public TimingHistogram[] getRobotTimings() {
+		return robotTimings.clone();
+	}
+}
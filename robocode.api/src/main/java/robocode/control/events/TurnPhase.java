@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package robocode.control.events;
+
+
+/**
+ * The phases of a turn, which are timed by the game when a battle adaptor is overriding
+ * {@link BattleAdaptor#onTimingStatistics(TimingStatisticsEvent) onTimingStatistics()}.
+ *
+ * @see TimingStatisticsEvent
+ *
+ * @since 1.9.3.5
+ */
+public enum TurnPhase {
+
+	/**
+	 * The commands sent by the robots in the last turn are loaded, e.g. new bullets are fired.
+	 */
+	LOAD_COMMANDS,
+
+	/**
+	 * The bullets are moved and checked for hits, including rebuilding the spatial index used for finding the
+	 * robots and bullets that can be hit.
+	 */
+	UPDATE_BULLETS,
+
+	/**
+	 * The robots are moved, and the robots are scanning.
+	 */
+	UPDATE_ROBOTS,
+
+	/**
+	 * The robots that died in this turn are scored, and their death is published to the other robots.
+	 */
+	HANDLE_DEAD_ROBOTS,
+
+	/**
+	 * The new status of every robot is published to the robot.
+	 */
+	PUBLISH_STATUSES,
+
+	/**
+	 * The robots are woken up, and the game waits for every robot to finish its turn.
+	 */
+	WAKEUP_ROBOTS,
+
+	/**
+	 * The whole turn, i.e. all the other phases and the work done by the game between them.
+	 */
+	TURN
+}
@@ -21,6 +21,7 @@ import robocode.control.events.BattleResumedEvent;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -33,6 +34,9 @@ public abstract class BaseBattle implements IBattle, Runnable {
 	// Maximum turns to display the battle when battle ended
 	protected final static int TURNS_DISPLAYED_AFTER_ENDING = 30;
 
+	// Number of battles currently running in this JVM, as concurrent battles share the jar collector
+	private final static AtomicInteger runningBattles = new AtomicInteger();
+
 	// Objects we use
 	private Thread battleThread;
 	IBattleManager battleManager;
@@ -58,6 +62,7 @@ public abstract class BaseBattle implements IBattle, Runnable {
 	// Battle state
 	private final AtomicBoolean isRunning = new AtomicBoolean(false);
 	protected boolean isAborted;
+	private boolean isCounted;
 
 	// Battle control
 	protected boolean isPaused;
@@ -145,8 +150,26 @@ public abstract class BaseBattle implements IBattle, Runnable {
 			pendingCommands.clear();
 			// don't pendingCommands = null;
 		}
-		URLJarCollector.enableGc(true);
-		URLJarCollector.gc();
+		synchronized (runningBattles) {
+			if (isCounted) {
+				isCounted = false;
+				runningBattles.decrementAndGet();
+			}
+			// Other battles might still be loading classes from the robot jars
+			if (!isAnyBattleRunning()) {
+				URLJarCollector.enableGc(true);
+				URLJarCollector.gc();
+			}
+		}
+	}
+
+	/**
+	 * Checks if any battle is running in this JVM, including battles running concurrently with this one.
+	 *
+	 * @return true if any battle is running; false otherwise.
+	 */
+	protected static boolean isAnyBattleRunning() {
+		return runningBattles.get() > 0;
 	}
 
 	public void waitTillStarted() {
@@ -215,7 +238,11 @@ public abstract class BaseBattle implements IBattle, Runnable {
 	}
 
 	protected void initializeBattle() {
-		URLJarCollector.enableGc(false);
+		synchronized (runningBattles) {
+			runningBattles.incrementAndGet();
+			isCounted = true;
+			URLJarCollector.enableGc(false);
+		}
 		roundNum = 0;
 		totalTurns = 0;
 
@@ -12,7 +12,9 @@ import net.sf.robocode.battle.events.BattleEventDispatcher;
 import net.sf.robocode.battle.peer.BulletPeer;
 import net.sf.robocode.battle.peer.ContestantPeer;
 import net.sf.robocode.battle.peer.RobotPeer;
+import net.sf.robocode.battle.peer.SpatialIndex;
 import net.sf.robocode.battle.peer.TeamPeer;
+import net.sf.robocode.battle.peer.ThreadCpuTime;
 import net.sf.robocode.battle.snapshot.TurnSnapshot;
 import net.sf.robocode.host.ICpuManager;
 import net.sf.robocode.host.IHostManager;
@@ -22,7 +24,6 @@ import net.sf.robocode.repository.IRobotItem;
 import net.sf.robocode.security.HiddenAccess;
 import net.sf.robocode.settings.ISettingsManager;
 import robocode.*;
-import robocode.control.RandomFactory;
 import robocode.control.RobotResults;
 import robocode.control.RobotSetup;
 import robocode.control.RobotSpecification;
@@ -53,6 +54,9 @@ public final class Battle extends BaseBattle {
 
 	private static final int DEBUG_TURN_WAIT_MILLIS = 10 * 60 * 1000; // 10 seconds
 
+	// Max. wall-clock time for a turn compared to the CPU time budget, when robots are blocked or not scheduled
+	private static final int CPU_TIME_MAX_WAIT_FACTOR = 5;
+
 	private final IHostManager hostManager;
 	private final long cpuConstant;
 
@@ -62,8 +66,10 @@ public final class Battle extends BaseBattle {
 
 	// Turn skip related items
 	private boolean parallelOn;
+	private boolean cpuTimeBudgetOn;
 	private long millisWait;
 	private int nanoWait;
+	private long cpuTimeMaxWait;
 
 	// Objects in the battle
 	private int robotsCount;
@@ -81,6 +87,22 @@ public final class Battle extends BaseBattle {
 	// Initial robot setups (if any)
 	private RobotSetup[] initialRobotSetups;
 
+	// Random number generator used by the game itself, which is private when running concurrently with other battles
+	private Random random;
+
+	// Reusable buffers for visiting robots and bullets in random order
+	private final RandomOrder<RobotPeer> robotOrder = new RandomOrder<RobotPeer>();
+	private final RandomOrder<RobotPeer> otherRobotOrder = new RandomOrder<RobotPeer>();
+	private final RandomOrder<RobotPeer> deathRobotOrder = new RandomOrder<RobotPeer>();
+	private final RandomOrder<BulletPeer> bulletOrder = new RandomOrder<BulletPeer>();
+	private final RandomOrder<BulletPeer> otherBulletOrder = new RandomOrder<BulletPeer>();
+
+	// Index used by the peers for finding collision and scan candidates
+	private SpatialIndex spatialIndex;
+
+	// Measures the durations of the turns, when somebody is listening for them
+	private final TurnProfiler profiler = new TurnProfiler();
+
 	public Battle(ISettingsManager properties, IBattleManager battleManager, IHostManager hostManager, ICpuManager cpuManager, BattleEventDispatcher eventDispatcher) { // NO_UCD (unused code)
 		super(
 				properties, battleManager, eventDispatcher);
@@ -88,11 +110,13 @@ public final class Battle extends BaseBattle {
 		this.cpuConstant = cpuManager.getCpuConstant();
 	}
 
-	void setup(RobotSpecification[] battlingRobotsList, BattleProperties battleProps, boolean paused) {
+	void setup(RobotSpecification[] battlingRobotsList, BattleProperties battleProps, boolean paused, Random random) {
 		isPaused = paused;
+		this.random = random;
 		battleRules = HiddenAccess.createRules(battleProps.getBattlefieldWidth(), battleProps.getBattlefieldHeight(),
 				battleProps.getNumRounds(), battleProps.getGunCoolingRate(), battleProps.getInactivityTime(),
 				battleProps.getHideEnemyNames(), battleProps.getSentryBorderSize());
+		spatialIndex = new SpatialIndex(battleRules, System.getProperty("SPATIALINDEX", "true").equals("true"));
 		robotsCount = battlingRobotsList.length;
 		computeInitialPositions(battleProps.getInitialPositions());
 		createPeers(battlingRobotsList);
@@ -225,16 +249,45 @@ public final class Battle extends BaseBattle {
 		return battleRules;
 	}
 
+	/**
+	 * Returns the random number generator used by the game for e.g. initial robot positions and turn order.
+	 *
+	 * @return the random number generator of this battle.
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Returns the spatial index used by the peers for finding robots and bullets that might collide.
+	 *
+	 * @return the spatial index of this battle.
+	 */
+	public SpatialIndex getSpatialIndex() {
+		return spatialIndex;
+	}
+
 	public int getRobotsCount() {
 		return robotsCount;
 	}
 
+	/**
+	 * Checks if robots running in parallel are charged for the CPU time they use in a turn instead of the
+	 * wall-clock time, which is the case when the PARALLEL option is set and the JVM can measure thread CPU time.
+	 *
+	 * @return {@code true} if the CPU time budget is used; {@code false} otherwise.
+	 */
+	public boolean isCpuTimeBudgetOn() {
+		return cpuTimeBudgetOn;
+	}
+
 	public boolean isDebugging() {
 		return RobocodeProperties.isDebuggingOn();
 	}
 
 	public void addBullet(BulletPeer bullet) {
 		bullets.add(bullet);
+		spatialIndex.addBullet(bullet);
 	}
 
 	public void resetInactiveTurnCount(double energyLoss) {
@@ -283,9 +336,11 @@ public final class Battle extends BaseBattle {
 
 		battleManager = null;
 
-		// Request garbage collecting
-		for (int i = 4; i >= 0; i--) { // Make sure it is run
-			System.gc();
+		// Request garbage collecting, but do not stall other battles that are still running
+		if (!isAnyBattleRunning()) {
+			for (int i = 4; i >= 0; i--) { // Make sure it is run
+				System.gc();
+			}
 		}
 	}
 
@@ -306,6 +361,10 @@ public final class Battle extends BaseBattle {
 
 			millisWait = waitTime / 1000000;
 			nanoWait = (int) (waitTime % 1000000);
+
+			// robots sharing CPUs are only charged for the CPU time they used themselves
+			cpuTimeBudgetOn = ThreadCpuTime.isSupported();
+			cpuTimeMaxWait = waitTime * CPU_TIME_MAX_WAIT_FACTOR;
 		} else {
 			millisWait = cpuConstant / 1000000;
 			nanoWait = (int) (cpuConstant % 1000000);
@@ -323,10 +382,10 @@ public final class Battle extends BaseBattle {
 			eventDispatcher.onBattleCompleted(new BattleCompletedEvent(battleRules, computeBattleResults()));
 		}
 
+		// Each robot unregisters its own thread groups, as other battles might be running concurrently
 		for (RobotPeer robotPeer : robots) {
 			robotPeer.cleanup();
 		}
-		hostManager.resetThreadManager();
 
 		super.finalizeBattle();
 	}
@@ -381,11 +440,16 @@ public final class Battle extends BaseBattle {
 			robotPeer.startRound(waitMillis, waitNanos);
 		}
 
+		profiler.startRound(eventDispatcher.hasListenersFor(TimingStatisticsEvent.class), robots);
+
 		Logger.logMessage(""); // puts in a new-line in the log message
 
-		final ITurnSnapshot snapshot = new TurnSnapshot(this, robots, bullets, false);
+		// Only create the snapshot if somebody is listening, which is not the case when running headless
+		if (eventDispatcher.hasListenersFor(RoundStartedEvent.class)) {
+			final ITurnSnapshot snapshot = new TurnSnapshot(this, robots, bullets, false);
 
-		eventDispatcher.onRoundStarted(new RoundStartedEvent(snapshot, getRoundNum()));
+			eventDispatcher.onRoundStarted(new RoundStartedEvent(snapshot, getRoundNum()));
+		}
 	}
 
 	@Override
@@ -398,26 +462,42 @@ public final class Battle extends BaseBattle {
 		bullets.clear();
 
 		eventDispatcher.onRoundEnded(new RoundEndedEvent(getRoundNum(), currentTime, totalTurns));
+
+		final TimingStatisticsEvent timingStatistics = profiler.endRound(getRoundNum());
+
+		if (timingStatistics != null) {
+			eventDispatcher.onTimingStatistics(timingStatistics);
+		}
 	}
 
 	@Override
 	protected void initializeTurn() {
 		super.initializeTurn();
 
-		eventDispatcher.onTurnStarted(new TurnStartedEvent());
+		if (eventDispatcher.hasListenersFor(TurnStartedEvent.class)) {
+			eventDispatcher.onTurnStarted(new TurnStartedEvent());
+		}
 	}
 
 	@Override
 	protected void runTurn() {
 		super.runTurn();
 
+		profiler.startTurn();
+
 		loadCommands();
+		profiler.endPhase(TurnPhase.LOAD_COMMANDS);
+
+		spatialIndex.rebuild(robots, bullets);
 
 		updateBullets();
+		profiler.endPhase(TurnPhase.UPDATE_BULLETS);
 
 		updateRobots();
+		profiler.endPhase(TurnPhase.UPDATE_ROBOTS);
 
 		handleDeadRobots();
+		profiler.endPhase(TurnPhase.HANDLE_DEAD_ROBOTS);
 
 		if (isAborted() || oneTeamRemaining()) {
 			shutdownTurn();
@@ -427,10 +507,15 @@ public final class Battle extends BaseBattle {
 
 		computeActiveRobots();
 
+		profiler.startPhase();
 		publishStatuses();
+		profiler.endPhase(TurnPhase.PUBLISH_STATUSES);
 
 		// Robot time!
 		wakeupRobots();
+		profiler.endPhase(TurnPhase.WAKEUP_ROBOTS);
+
+		profiler.endTurn(getRoundNum(), currentTime);
 	}
 
 	@Override
@@ -496,7 +581,14 @@ public final class Battle extends BaseBattle {
 
 	@Override
 	protected void finalizeTurn() {
-		eventDispatcher.onTurnEnded(new TurnEndedEvent(new TurnSnapshot(this, robots, bullets, true)));
+		if (eventDispatcher.hasListenersFor(TurnEndedEvent.class)) {
+			eventDispatcher.onTurnEnded(new TurnEndedEvent(new TurnSnapshot(this, robots, bullets, true)));
+		} else {
+			// The output text is normally read out by the turn snapshot, so it must be thrown away here instead
+			for (RobotPeer robotPeer : robots) {
+				robotPeer.clearOutText();
+			}
+		}
 
 		super.finalizeTurn();
 	}
@@ -528,38 +620,54 @@ public final class Battle extends BaseBattle {
 	 * checks if a robot has won, is dead, etc.
 	 * This method was introduced as two equal robots like sample.RamFire got different scores even
 	 * though the code was exactly the same.
+	 * <p>
+	 * The returned list is reused by the next call to this method. Use {@link #getOtherRobotsAtRandom()}
+	 * for a second random order while iterating the first one.
 	 *
 	 * @return a list of robot peers.
 	 */
 	private List<RobotPeer> getRobotsAtRandom() {
-		List<RobotPeer> shuffledList = new ArrayList<RobotPeer>(robots);
+		return spatialIndex.rankRobots(robotOrder.shuffle(robots, random));
+	}
 
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
-		return shuffledList;
+	/**
+	 * Returns a list of all robots in random order, which is independent of the list returned by
+	 * {@link #getRobotsAtRandom()}.
+	 *
+	 * @return a list of robot peers.
+	 */
+	private List<RobotPeer> getOtherRobotsAtRandom() {
+		return spatialIndex.rankRobots(otherRobotOrder.shuffle(robots, random));
 	}
 
 	/**
 	 * Returns a list of all bullets in random order. This method is used to gain fair play in Robocode.
+	 * The returned list is reused by the next call to this method.
 	 *
 	 * @return a list of bullet peers.
 	 */
 	private List<BulletPeer> getBulletsAtRandom() {
-		List<BulletPeer> shuffledList = new ArrayList<BulletPeer>(bullets);
+		return bulletOrder.shuffle(bullets, random);
+	}
 
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
-		return shuffledList;
+	/**
+	 * Returns a list of all bullets in random order, which is independent of the list returned by
+	 * {@link #getBulletsAtRandom()}.
+	 *
+	 * @return a list of bullet peers.
+	 */
+	private List<BulletPeer> getOtherBulletsAtRandom() {
+		return spatialIndex.rankBullets(otherBulletOrder.shuffle(bullets, random));
 	}
 
 	/**
 	 * Returns a list of all death robots in random order. This method is used to gain fair play in Robocode.
+	 * The returned list is reused by the next call to this method.
 	 *
 	 * @return a list of robot peers.
 	 */
 	private List<RobotPeer> getDeathRobotsAtRandom() {
-		List<RobotPeer> shuffledList = new ArrayList<RobotPeer>(deathRobots);
-
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
-		return shuffledList;
+		return deathRobotOrder.shuffle(deathRobots, random);
 	}
 
 	private void loadCommands() {
@@ -571,9 +679,11 @@ public final class Battle extends BaseBattle {
 
 	private void updateBullets() {
 		for (BulletPeer bullet : getBulletsAtRandom()) {
-			bullet.update(getRobotsAtRandom(), getBulletsAtRandom());
+			bullet.update(getRobotsAtRandom(), getOtherBulletsAtRandom());
+			spatialIndex.updateBullet(bullet);
 			if (bullet.getState() == BulletState.INACTIVE) {
 				bullets.remove(bullet);
+				spatialIndex.removeBullet(bullet);
 			}
 		}
 	}
@@ -585,12 +695,13 @@ public final class Battle extends BaseBattle {
 
 		// Move all bots
 		for (RobotPeer robotPeer : getRobotsAtRandom()) {
-			robotPeer.performMove(getRobotsAtRandom(), zapEnergy);
+			robotPeer.performMove(getOtherRobotsAtRandom(), zapEnergy);
+			spatialIndex.updateRobot(robotPeer);
 		}
 
 		// Scan after moved all
 		for (RobotPeer robotPeer : getRobotsAtRandom()) {
-			robotPeer.performScan(getRobotsAtRandom());
+			robotPeer.performScan(getOtherRobotsAtRandom());
 		}
 	}
 
@@ -666,6 +777,8 @@ public final class Battle extends BaseBattle {
 	private void wakeupSerial(List<RobotPeer> robotsAtRandom) {
 		for (RobotPeer robotPeer : robotsAtRandom) {
 			if (robotPeer.isRunning()) {
+				final long turnStart = profiler.startRobotTurn();
+
 				// This call blocks until the robot's thread actually wakes up.
 				robotPeer.waitWakeup();
 
@@ -677,12 +790,15 @@ public final class Battle extends BaseBattle {
 					} else {
 						robotPeer.waitSleeping(millisWait, nanoWait);
 					}
+					profiler.endRobotTurn(robotPeer, turnStart);
 				}
 			}
 		}
 	}
 
 	private void wakeupParallel(List<RobotPeer> robotsAtRandom) {
+		final long turnStart = profiler.startRobotTurn();
+
 		for (RobotPeer robotPeer : robotsAtRandom) {
 			if (robotPeer.isRunning()) {
 				// This call blocks until the robot's thread actually wakes up.
@@ -695,9 +811,12 @@ public final class Battle extends BaseBattle {
 					robotPeer.waitSleeping(DEBUG_TURN_WAIT_MILLIS, 1);
 				} else if (currentTime == 1) {
 					robotPeer.waitSleeping(millisWait * 10, 1);
+				} else if (cpuTimeBudgetOn) {
+					robotPeer.waitSleepingCpuTime(cpuConstant, cpuTimeMaxWait);
 				} else {
 					robotPeer.waitSleeping(millisWait, nanoWait);
 				}
+				profiler.endRobotTurn(robotPeer, turnStart);
 			}
 		}
 	}
@@ -753,8 +872,6 @@ public final class Battle extends BaseBattle {
 		for (int i = 0; i < positions.size(); i++) {
 			coords = positions.get(i).split(",");
 
-			Random random = RandomFactory.getRandom();
-
 			x = RobotPeer.WIDTH + random.nextDouble() * (battleRules.getBattlefieldWidth() - 2 * RobotPeer.WIDTH);
 			y = RobotPeer.HEIGHT + random.nextDouble() * (battleRules.getBattlefieldHeight() - 2 * RobotPeer.HEIGHT);
 			heading = 2 * Math.PI * random.nextDouble();
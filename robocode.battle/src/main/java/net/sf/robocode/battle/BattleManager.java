@@ -31,7 +31,9 @@ import robocode.control.events.BattleResumedEvent;
 import robocode.control.events.IBattleListener;
 
 import java.io.*;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -61,6 +63,9 @@ public class BattleManager implements IBattleManager {
 	private int pauseCount = 0;
 	private final AtomicBoolean isManagedTPS = new AtomicBoolean(false);
 
+	private final AtomicInteger concurrentBattleCount = new AtomicInteger();
+	private boolean isConcurrentRandomSeeded;
+
 	public BattleManager(ISettingsManager properties, IRepositoryManager repositoryManager, IHostManager hostManager, ICpuManager cpuManager, BattleEventDispatcher battleEventDispatcher, IRecordManager recordManager) { // NO_UCD (unused code)
 		this.properties = properties;
 		this.recordManager = recordManager;
@@ -90,7 +95,69 @@ public class BattleManager implements IBattleManager {
 
 	// Called from the RobocodeEngine
 	public void startNewBattle(BattleSpecification spec, String initialPositions, boolean waitTillOver, boolean enableCLIRecording) {
-		battleProperties = new BattleProperties();
+		battleProperties = createBattleProperties(spec, initialPositions);
+
+		final RobotSpecification[] robots = repositoryManager.loadSelectedRobots(spec.getRobots());
+
+		startNewBattleImpl(robots, waitTillOver, enableCLIRecording);
+	}
+
+	// Called from the RobocodeEngine, possibly from several threads at the same time
+	public void runConcurrentBattle(BattleSpecification spec, IBattleListener listener) {
+		final BattleProperties concurrentBattleProperties = createBattleProperties(spec, null);
+		final RobotSpecification[] robots = repositoryManager.loadSelectedRobots(spec.getRobots());
+
+		// The battle gets its own dispatcher and random generator, so it does not interfere with other battles
+		final BattleEventDispatcher concurrentEventDispatcher = new BattleEventDispatcher();
+
+		if (listener != null) {
+			concurrentEventDispatcher.addListener(listener);
+		}
+
+		Battle concurrentBattle = new Battle(properties, this, hostManager, cpuManager, concurrentEventDispatcher);
+		concurrentBattle.setup(robots, concurrentBattleProperties, false, createConcurrentRandom());
+
+		Thread concurrentBattleThread = new Thread(Thread.currentThread().getThreadGroup(), concurrentBattle);
+		concurrentBattleThread.setPriority(Thread.NORM_PRIORITY);
+		concurrentBattleThread.setName("Battle Thread " + concurrentBattleCount.incrementAndGet());
+		concurrentBattle.setBattleThread(concurrentBattleThread);
+
+		if (RobocodeProperties.isSecurityOn()) {
+			hostManager.addSafeThread(concurrentBattleThread);
+		}
+		try {
+			concurrentBattleThread.start();
+
+			concurrentBattle.waitTillStarted();
+			concurrentBattle.waitTillOver();
+		} finally {
+			if (RobocodeProperties.isSecurityOn()) {
+				hostManager.removeSafeThread(concurrentBattleThread);
+			}
+		}
+	}
+
+	// Seeds the random generator of a concurrent battle from RandomFactory, which is reset once with RANDOMSEED
+	private Random createConcurrentRandom() {
+		synchronized (concurrentBattleCount) {
+			if (!isConcurrentRandomSeeded) {
+				final String seed = System.getProperty("RANDOMSEED", "none");
+
+				if (!seed.equals("none")) {
+					// init soon as it reads random
+					cpuManager.getCpuConstant();
+
+					RandomFactory.resetDeterministic(Long.valueOf(seed));
+				}
+				isConcurrentRandomSeeded = true;
+			}
+			return new Random(RandomFactory.getRandom().nextLong());
+		}
+	}
+
+	private static BattleProperties createBattleProperties(BattleSpecification spec, String initialPositions) {
+		BattleProperties battleProperties = new BattleProperties();
+
 		battleProperties.setBattlefieldWidth(spec.getBattlefield().getWidth());
 		battleProperties.setBattlefieldHeight(spec.getBattlefield().getHeight());
 		battleProperties.setGunCoolingRate(spec.getGunCoolingRate());
@@ -106,10 +173,7 @@ public class BattleManager implements IBattleManager {
 		} else {
 			battleProperties.setInitialPositions(initialPositions);
 		}
-
-		final RobotSpecification[] robots = repositoryManager.loadSelectedRobots(spec.getRobots());
-
-		startNewBattleImpl(robots, waitTillOver, enableCLIRecording);
+		return battleProperties;
 	}
 
 	private void startNewBattleImpl(RobotSpecification[] battlingRobotsList, boolean waitTillOver, boolean enableCLIRecording) {
@@ -138,7 +202,7 @@ public class BattleManager implements IBattleManager {
 		}
 
 		Battle realBattle = Container.createComponent(Battle.class);
-		realBattle.setup(battlingRobotsList, battleProperties, isPaused());
+		realBattle.setup(battlingRobotsList, battleProperties, isPaused(), RandomFactory.getRandom());
 
 		battle = realBattle;
 
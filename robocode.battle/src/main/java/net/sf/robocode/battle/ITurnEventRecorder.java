@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle;
+
+
+import robocode.control.events.TimingHistogram;
+
+
+/**
+ * Recorder of the timing events of a battle for an external profiler, e.g. the Java Flight Recorder.
+ *
+ * @see TurnProfiler
+ */
+interface ITurnEventRecorder {
+
+	/**
+	 * Checks if the profiler is recording the events, which is checked at the start of every round.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Called at the start of a turn.
+	 */
+	void beginTurn();
+
+	/**
+	 * Called at the end of a turn with the durations of its phases.
+	 *
+	 * @param phaseNanos the durations in nanoseconds, indexed by the ordinal of the turn phase.
+	 */
+	void commitTurn(int round, int turn, long[] phaseNanos);
+
+	/**
+	 * Called at the end of a round with the time a robot has used for its turns in the round.
+	 */
+	void commitRobotTurns(int round, String robotName, TimingHistogram robotTimings);
+}
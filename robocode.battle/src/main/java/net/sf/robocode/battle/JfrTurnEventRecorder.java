@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle;
+
+
+import jdk.jfr.*;
+import robocode.control.events.TimingHistogram;
+import robocode.control.events.TurnPhase;
+
+
+/**
+ * Records the timing events of a battle as events of the Java Flight Recorder (JFR), i.e. a "robocode.Turn" event
+ * for every turn and a "robocode.RobotTurns" event for every robot at the end of every round. The events are
+ * recorded when a flight recording is running, e.g. when Robocode is started with
+ * {@code -XX:StartFlightRecording=filename=robocode.jfr}.
+ * <p>
+ * The JFR API is only available with Java 8u262 or newer, so this class must only be loaded by
+ * {@link TurnProfiler} when the API is available.
+ */
+final class JfrTurnEventRecorder implements ITurnEventRecorder {
+
+	private final EventType turnEventType = EventType.getEventType(TurnEvent.class);
+	private final EventType robotTurnsEventType = EventType.getEventType(RobotTurnsEvent.class);
+
+	private TurnEvent turnEvent;
+
+	public boolean isEnabled() {
+		return turnEventType.isEnabled() || robotTurnsEventType.isEnabled();
+	}
+
+	public void beginTurn() {
+		turnEvent = new TurnEvent();
+		turnEvent.begin();
+	}
+
+	public void commitTurn(int round, int turn, long[] phaseNanos) {
+		final TurnEvent event = turnEvent;
+
+		if (event == null) {
+			return;
+		}
+		turnEvent = null;
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.round = round;
+			event.turn = turn;
+			event.loadCommands = phaseNanos[TurnPhase.LOAD_COMMANDS.ordinal()];
+			event.updateBullets = phaseNanos[TurnPhase.UPDATE_BULLETS.ordinal()];
+			event.updateRobots = phaseNanos[TurnPhase.UPDATE_ROBOTS.ordinal()];
+			event.handleDeadRobots = phaseNanos[TurnPhase.HANDLE_DEAD_ROBOTS.ordinal()];
+			event.publishStatuses = phaseNanos[TurnPhase.PUBLISH_STATUSES.ordinal()];
+			event.wakeupRobots = phaseNanos[TurnPhase.WAKEUP_ROBOTS.ordinal()];
+			event.commit();
+		}
+	}
+
+	public void commitRobotTurns(int round, String robotName, TimingHistogram robotTimings) {
+		final RobotTurnsEvent event = new RobotTurnsEvent();
+
+		if (event.shouldCommit()) {
+			event.round = round;
+			event.robot = robotName;
+			event.turns = robotTimings.getCount();
+			event.mean = (long) robotTimings.getMeanNanos();
+			event.p99 = robotTimings.getNanosAtPercentile(99);
+			event.max = robotTimings.getMaxNanos();
+			event.commit();
+		}
+	}
+
+	@Name("robocode.Turn")
+	@Label("Turn")
+	@Category("Robocode")
+	@Description("A turn of a battle, and the durations of its phases")
+	@StackTrace(false)
+	static final class TurnEvent extends Event {
+		@Label("Round")
+		int round;
+
+		@Label("Turn")
+		int turn;
+
+		@Label("Load Commands")
+		@Timespan(Timespan.NANOSECONDS)
+		long loadCommands;
+
+		@Label("Update Bullets")
+		@Timespan(Timespan.NANOSECONDS)
+		long updateBullets;
+
+		@Label("Update Robots")
+		@Timespan(Timespan.NANOSECONDS)
+		long updateRobots;
+
+		@Label("Handle Dead Robots")
+		@Timespan(Timespan.NANOSECONDS)
+		long handleDeadRobots;
+
+		@Label("Publish Statuses")
+		@Timespan(Timespan.NANOSECONDS)
+		long publishStatuses;
+
+		@Label("Wakeup Robots")
+		@Timespan(Timespan.NANOSECONDS)
+		long wakeupRobots;
+	}
+
+	@Name("robocode.RobotTurns")
+	@Label("Robot Turns")
+	@Category("Robocode")
+	@Description("The time a robot has used for its turns in a round")
+	@StackTrace(false)
+	static final class RobotTurnsEvent extends Event {
+		@Label("Round")
+		int round;
+
+		@Label("Robot")
+		String robot;
+
+		@Label("Turns")
+		long turns;
+
+		@Label("Mean")
+		@Timespan(Timespan.NANOSECONDS)
+		long mean;
+
+		@Label("99th Percentile")
+		@Timespan(Timespan.NANOSECONDS)
+		long p99;
+
+		@Label("Max")
+		@Timespan(Timespan.NANOSECONDS)
+		long max;
+	}
+}
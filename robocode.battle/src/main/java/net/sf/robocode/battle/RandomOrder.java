@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Reusable buffer for visiting a list in random order without allocating a new list per call.
+ * The permutation is computed on a primitive index array and is drawn exactly like
+ * {@link java.util.Collections#shuffle(List, Random)} draws it, so a battle running with a fixed
+ * random seed will visit robots and bullets in the very same order as before.
+ * <p>
+ * The list returned by {@link #shuffle(List, Random)} is owned by this buffer and is overwritten by the
+ * next call to it. Hence, a caller that needs two random orders at the same time, e.g. in nested loops,
+ * must use two buffers.
+ *
+ * @param <T> the type of the elements to visit.
+ */
+public final class RandomOrder<T> {
+
+	private int[] indices = new int[0];
+	private final ArrayList<T> ordered = new ArrayList<T>();
+
+	/**
+	 * Returns the elements of the specified list in random order.
+	 *
+	 * @param source the list containing the elements to visit.
+	 * @param random the random number generator to draw the permutation from.
+	 * @return the elements of the source list in random order. The returned list must not be modified.
+	 */
+	public List<T> shuffle(List<T> source, Random random) {
+		final int size = source.size();
+		final int[] permutation = permutation(size, random);
+
+		ordered.clear();
+		for (int i = 0; i < size; i++) {
+			ordered.add(source.get(permutation[i]));
+		}
+		return ordered;
+	}
+
+	private int[] permutation(int size, Random random) {
+		if (indices.length < size) {
+			indices = new int[Math.max(size, 2 * indices.length)];
+		}
+		final int[] permutation = indices;
+
+		for (int i = 0; i < size; i++) {
+			permutation[i] = i;
+		}
+		// Same draws and swaps as Collections.shuffle() does for a random access list
+		for (int i = size; i > 1; i--) {
+			int j = random.nextInt(i);
+			int tmp = permutation[i - 1];
+
+			permutation[i - 1] = permutation[j];
+			permutation[j] = tmp;
+		}
+		return permutation;
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle;
+
+
+import net.sf.robocode.battle.peer.RobotPeer;
+import net.sf.robocode.io.Logger;
+import robocode.control.events.TimingHistogram;
+import robocode.control.events.TimingStatisticsEvent;
+import robocode.control.events.TurnPhase;
+
+import java.util.List;
+
+
+/**
+ * Measures the durations of the phases of every turn and the time every robot uses for its turns, which are
+ * reported with a {@link TimingStatisticsEvent} at the end of every round and recorded as events of the Java Flight
+ * Recorder when a flight recording is running.
+ * <p>
+ * Whether the durations are measured is decided at the start of every round. When they are not, every method returns
+ * right away without reading the clock.
+ */
+final class TurnProfiler {
+
+	private static final int PHASE_COUNT = TurnPhase.values().length;
+
+	private final ITurnEventRecorder eventRecorder = createEventRecorder();
+
+	private boolean isOn;
+	private boolean isReporting;
+	private boolean isRecording;
+
+	private TimingHistogram[] phaseTimings;
+	private TimingHistogram[] robotTimings;
+	private String[] robotNames;
+
+	private final long[] phaseNanos = new long[PHASE_COUNT];
+	private long turnStart;
+	private long phaseStart;
+
+	/**
+	 * Called at the start of a round.
+	 *
+	 * @param isReporting true if the durations must be reported with a {@link TimingStatisticsEvent}.
+	 * @param robots the robots of the battle, in order of robot index.
+	 */
+	void startRound(boolean isReporting, List<RobotPeer> robots) {
+		this.isReporting = isReporting;
+		isRecording = eventRecorder != null && eventRecorder.isEnabled();
+		isOn = isReporting || isRecording;
+
+		if (isOn) {
+			phaseTimings = new TimingHistogram[PHASE_COUNT];
+			for (int i = 0; i < PHASE_COUNT; i++) {
+				phaseTimings[i] = new TimingHistogram();
+			}
+			robotNames = new String[robots.size()];
+			robotTimings = new TimingHistogram[robots.size()];
+			for (RobotPeer robotPeer : robots) {
+				robotNames[robotPeer.getRobotIndex()] = robotPeer.getName();
+				robotTimings[robotPeer.getRobotIndex()] = new TimingHistogram();
+			}
+		}
+	}
+
+	void startTurn() {
+		if (isOn) {
+			if (isRecording) {
+				eventRecorder.beginTurn();
+			}
+			turnStart = System.nanoTime();
+			phaseStart = turnStart;
+		}
+	}
+
+	/**
+	 * Starts timing the next phase, where the time since the end of the last phase is not included in any phase.
+	 */
+	void startPhase() {
+		if (isOn) {
+			phaseStart = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Ends a phase, which has started at the end of the last phase or when {@link #startPhase()} was called.
+	 */
+	void endPhase(TurnPhase phase) {
+		if (isOn) {
+			final long now = System.nanoTime();
+			final long nanos = now - phaseStart;
+
+			phaseNanos[phase.ordinal()] = nanos;
+			phaseTimings[phase.ordinal()].recordValue(nanos);
+			phaseStart = now;
+		}
+	}
+
+	void endTurn(int round, int turn) {
+		if (isOn) {
+			final long nanos = System.nanoTime() - turnStart;
+
+			phaseNanos[TurnPhase.TURN.ordinal()] = nanos;
+			phaseTimings[TurnPhase.TURN.ordinal()].recordValue(nanos);
+			if (isRecording) {
+				eventRecorder.commitTurn(round, turn, phaseNanos);
+			}
+		}
+	}
+
+	/**
+	 * Returns the time a robot starts its turn, which must be passed to {@link #endRobotTurn(RobotPeer, long)}.
+	 */
+	long startRobotTurn() {
+		return isOn ? System.nanoTime() : 0;
+	}
+
+	void endRobotTurn(RobotPeer robotPeer, long start) {
+		if (isOn) {
+			robotTimings[robotPeer.getRobotIndex()].recordValue(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Called at the end of a round.
+	 *
+	 * @return the event reporting the durations measured in the round, or null if they must not be reported.
+	 */
+	TimingStatisticsEvent endRound(int round) {
+		if (!isOn) {
+			return null;
+		}
+		isOn = false;
+
+		if (isRecording) {
+			for (int i = 0; i < robotNames.length; i++) {
+				eventRecorder.commitRobotTurns(round, robotNames[i], robotTimings[i]);
+			}
+		}
+		final TimingStatisticsEvent event = isReporting
+				? new TimingStatisticsEvent(round, phaseTimings, robotNames, robotTimings)
+				: null;
+
+		// The histograms are handed over to the event, so new ones are used for the next round
+		phaseTimings = null;
+		robotTimings = null;
+		robotNames = null;
+
+		return event;
+	}
+
+	private static ITurnEventRecorder createEventRecorder() {
+		try {
+			Class.forName("jdk.jfr.Event");
+		} catch (ClassNotFoundException e) {
+			return null; // the Java Flight Recorder is not available with this JVM
+		}
+		try {
+			return (ITurnEventRecorder) Class.forName("net.sf.robocode.battle.JfrTurnEventRecorder").newInstance();
+		} catch (Throwable t) {
+			Logger.logError("Could not record flight recorder events: " + t);
+			return null;
+		}
+	}
+}
@@ -62,6 +62,11 @@ public class BulletPeer {
 
 	protected int explosionImageIndex; // Do not set to -1
 
+	// Maintained by the SpatialIndex
+	int spatialGeneration;
+	int spatialId;
+	int spatialRank;
+
 	BulletPeer(RobotPeer owner, BattleRules battleRules, int bulletId) {
 		super();
 		this.owner = owner;
@@ -72,7 +77,9 @@ public class BulletPeer {
 	}
 
 	private void checkBulletCollision(List<BulletPeer> bullets) {
-		for (BulletPeer b : bullets) {
+		final SpatialIndex spatialIndex = owner.getSpatialIndex();
+
+		for (BulletPeer b : spatialIndex.queryBullets(boundingLine, bullets)) {
 			if (b != null && b != this && b.owner != owner && b.isActive() && intersect(b.boundingLine)) {
 				// Check if one of the bullets belongs to a sentry robot and is within the safe zone
 				if (owner.isSentryRobot() || b.getOwner().isSentryRobot()) {
@@ -137,7 +144,9 @@ public class BulletPeer {
 	}
 
 	private void checkRobotCollision(List<RobotPeer> robots) {
-		for (RobotPeer otherRobot : robots) {
+		final SpatialIndex spatialIndex = owner.getSpatialIndex();
+
+		for (RobotPeer otherRobot : spatialIndex.queryRobots(boundingLine, robots)) {
 			if (!(otherRobot == null || otherRobot == owner || otherRobot.isDead())
 					&& otherRobot.getBoundingBox().intersectsLine(boundingLine)) {
 
@@ -229,6 +238,10 @@ public class BulletPeer {
 		return bulletId;
 	}
 
+	Line2D getBoundingLine() {
+		return boundingLine;
+	}
+
 	public int getFrame() {
 		return frame;
 	}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Turn synchronizer, which spins for a short while and then parks the waiting thread with LockSupport.
+ * No monitor is taken, so a robot that is done quickly is handed over without any context switch on
+ * multi-core machines. On a single core machine no spinning is done, as it would only delay the other thread.
+ * <p>
+ * Parking is done in slices of max. one millisecond, so the battle thread notices when a robot thread stops.
+ */
+public final class ParkingTurnSynchronizer extends TurnSynchronizer {
+
+	private static final int SPIN_TRIES = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0;
+
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private volatile boolean isSleeping;
+	private volatile boolean isWakeupSignaled;
+
+	// Incremented by the robot thread every time it wakes up
+	private volatile int wakeupCount;
+
+	private volatile Thread robotThread;
+	private volatile Thread battleThread;
+
+	public ParkingTurnSynchronizer(AtomicBoolean isRunning) {
+		super(isRunning);
+	}
+
+	@Override
+	public boolean isSleeping() {
+		return isSleeping;
+	}
+
+	@Override
+	public void sleep() {
+		final Thread currentThread = Thread.currentThread();
+
+		robotThread = currentThread;
+
+		// The signal must be cleared before the battle can see that we are sleeping
+		isWakeupSignaled = false;
+		isSleeping = true;
+		LockSupport.unpark(battleThread);
+
+		for (int spins = SPIN_TRIES; spins > 0 && !isWakeupSignaled; spins--) {
+			// busy-wait
+		}
+		while (!isWakeupSignaled && !currentThread.isInterrupted()) {
+			LockSupport.park(this);
+		}
+		// The interrupted status is kept, as we are expecting this to happen when a round is ended
+
+		wakeupCount++;
+		isSleeping = false;
+		LockSupport.unpark(battleThread);
+	}
+
+	@Override
+	public void wakeup() {
+		if (!isSleeping) {
+			return;
+		}
+		final Thread currentThread = Thread.currentThread();
+		final int lastWakeupCount = wakeupCount;
+
+		battleThread = currentThread;
+		isWakeupSignaled = true;
+		LockSupport.unpark(robotThread);
+
+		// Wait for the robot to wake up. It might go back to sleep before we notice, hence the wakeup count.
+		for (int spins = SPIN_TRIES; spins > 0 && wakeupCount == lastWakeupCount; spins--) {
+			// busy-wait
+		}
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAKEUP_TIMEOUT_MILLIS);
+
+		while (wakeupCount == lastWakeupCount && !currentThread.isInterrupted()) {
+			long remaining = deadline - System.nanoTime();
+
+			if (remaining <= 0) {
+				break;
+			}
+			LockSupport.parkNanos(this, remaining);
+		}
+	}
+
+	@Override
+	public void wakeupNoWait() {
+		if (isSleeping) {
+			isWakeupSignaled = true;
+			LockSupport.unpark(robotThread);
+		}
+	}
+
+	@Override
+	public void awaitSleeping(long millisWait, int nanosWait) throws InterruptedException {
+		await(millisWait, nanosWait, true);
+	}
+
+	@Override
+	public void awaitStarted(long millisWait, int nanosWait) throws InterruptedException {
+		await(millisWait, nanosWait, false);
+	}
+
+	private void await(long millisWait, int nanosWait, boolean whileRunning) throws InterruptedException {
+		// Must be set before testing the flag, so we cannot miss the unpark() from the robot thread
+		battleThread = Thread.currentThread();
+
+		// It's quite possible for simple robots to complete their processing before we get here,
+		// so we test if the robot is already asleep.
+		if (isSleeping) {
+			return;
+		}
+
+		for (int spins = SPIN_TRIES; spins > 0 && !isSleeping; spins--) {
+			// busy-wait
+		}
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millisWait) + nanosWait;
+
+		while (!isSleeping && (!whileRunning || isRunning.get())) {
+			long remaining = deadline - System.nanoTime();
+
+			if (remaining <= 0) {
+				break;
+			}
+			LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+	}
+}
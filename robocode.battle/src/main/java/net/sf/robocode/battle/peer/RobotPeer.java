@@ -22,7 +22,6 @@ import net.sf.robocode.repository.IRobotItem;
 import net.sf.robocode.security.HiddenAccess;
 import net.sf.robocode.serialization.RbSerializer;
 import robocode.*;
-import robocode.control.RandomFactory;
 import robocode.control.RobotSetup;
 import robocode.control.RobotSpecification;
 import robocode.control.snapshot.BulletState;
@@ -83,7 +82,10 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private IHostingRobotProxy robotProxy;
 	private AtomicReference<RobotStatus> status = new AtomicReference<RobotStatus>();
 	private AtomicReference<ExecCommands> commands = new AtomicReference<ExecCommands>();
-	private AtomicReference<EventQueue> events = new AtomicReference<EventQueue>(new EventQueue());
+	// Double-buffered event queues, where the battle adds events to one queue, while the other has been handed over
+	// to the robot, and is cleared and reused for new events, when the robot reads out the next events
+	private final EventQueue[] eventQueues = { new EventQueue(), new EventQueue() };
+	private AtomicReference<EventQueue> events = new AtomicReference<EventQueue>(eventQueues[0]);
 	private AtomicReference<List<TeamMessage>> teamMessages = new AtomicReference<List<TeamMessage>>(
 			new ArrayList<TeamMessage>());
 	private AtomicReference<List<BulletStatus>> bulletUpdates = new AtomicReference<List<BulletStatus>>(
@@ -120,9 +122,13 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private boolean sgPaintEnabled;
 
 	// waiting for next tick
-	private final AtomicBoolean isSleeping = new AtomicBoolean(false);
+	private final TurnSynchronizer turnSynchronizer;
 	private final AtomicBoolean halt = new AtomicBoolean(false);
 
+	// robot thread and its CPU time when it was woken up, for the CPU time budget in parallel mode
+	private volatile Thread robotThread;
+	private long turnCpuTimeStart = -1;
+
 	// last and current execution time and detecting skipped turns
 	private int lastExecutionTime = -1;
 	private int currentExecutionTime;
@@ -138,6 +144,11 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private final BoundingRectangle boundingBox;
 	private final RbSerializer rbSerializer;
 
+	// Maintained by the SpatialIndex
+	int spatialGeneration;
+	int spatialId;
+	int spatialRank;
+
 	public RobotPeer(Battle battle, IHostManager hostManager, RobotSpecification robotSpecification, int duplicate, TeamPeer team, int robotIndex) {
 		super();
 
@@ -148,6 +159,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 		this.boundingBox = new BoundingRectangle();
 		this.scanArc = new Arc2D.Double();
+		this.turnSynchronizer = TurnSynchronizer.create(isRunning);
 		this.teamPeer = team;
 		this.state = RobotState.ACTIVE;
 		this.battleRules = battle.getBattleRules();
@@ -202,6 +214,13 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 	}
 
+	public void clearOutText() {
+		synchronized (proxyText) {
+			battleText.setLength(0);
+			proxyText.setLength(0);
+		}
+	}
+
 	public RobotStatistics getRobotStatistics() {
 		return statistics;
 	}
@@ -250,6 +269,10 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		return statics.getName();
 	}
 
+	public String getFullClassName() {
+		return statics.getFullClassName();
+	}
+
 	public String getAnnonymousName() {
 		return statics.getAnnonymousName();
 	}
@@ -319,7 +342,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	public boolean isSleeping() {
-		return isSleeping.get();
+		return turnSynchronizer.isSleeping();
 	}
 
 	public boolean isHalt() {
@@ -330,6 +353,10 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		halt.set(value);
 	}
 
+	SpatialIndex getSpatialIndex() {
+		return battle.getSpatialIndex();
+	}
+
 	public BoundingRectangle getBoundingBox() {
 		return boundingBox;
 	}
@@ -534,7 +561,11 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	private List<Event> readoutEvents() {
-		return events.getAndSet(new EventQueue());
+		// The queue that was handed over with the last turn has been read by the robot, before it took action again
+		final EventQueue nextQueue = (events.get() == eventQueues[0]) ? eventQueues[1] : eventQueues[0];
+
+		nextQueue.clear(true);
+		return events.getAndSet(nextQueue);
 	}
 
 	private List<TeamMessage> readoutTeamMessages() {
@@ -546,29 +577,8 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	private void waitForNextTurn() {
-		synchronized (isSleeping) {
-			// Notify the battle that we are now asleep.
-			// This ends any pending wait() call in battle.runRound().
-			// Should not actually take place until we release the lock in wait(), below.
-			isSleeping.set(true);
-			isSleeping.notifyAll();
-			// Notifying battle that we're asleep
-			// Sleeping and waiting for battle to wake us up.
-			try {
-				isSleeping.wait();
-			} catch (InterruptedException e) {
-				// We are expecting this to happen when a round is ended!
-
-				// Immediately reasserts the exception by interrupting the caller thread itself
-				Thread.currentThread().interrupt();
-			}
-			isSleeping.set(false);
-			// Notify battle thread, which is waiting in
-			// our wakeup() call, to return.
-			// It's quite possible, by the way, that we'll be back in sleep (above)
-			// before the battle thread actually wakes up
-			isSleeping.notifyAll();
-		}
+		robotThread = Thread.currentThread();
+		turnSynchronizer.sleep();
 	}
 
 	// -----------
@@ -576,50 +586,67 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	// -----------
 
 	public void waitWakeup() {
-		synchronized (isSleeping) {
-			if (isSleeping()) {
-				// Wake up the thread
-				isSleeping.notifyAll();
-				try {
-					isSleeping.wait(10000);
-				} catch (InterruptedException e) {
-					// Immediately reasserts the exception by interrupting the caller thread itself
-					Thread.currentThread().interrupt();
-				}
-			}
+		if (battle.isCpuTimeBudgetOn()) {
+			// The robot is sleeping, so this is the CPU time it had used when the turn began
+			turnCpuTimeStart = ThreadCpuTime.of(robotThread);
 		}
+		turnSynchronizer.wakeup();
 	}
 
 	private void waitWakeupNoWait() {
-		synchronized (isSleeping) {
-			if (isSleeping()) {
-				// Wake up the thread
-				isSleeping.notifyAll();
-			}
-		}
+		turnSynchronizer.wakeupNoWait();
 	}
 
 	public void waitSleeping(long millisWait, int nanosWait) {
-		synchronized (isSleeping) {
-			// It's quite possible for simple robots to
-			// complete their processing before we get here,
-			// so we test if the robot is already asleep.
-
-			if (!isSleeping()) {
-				try {
-					for (long i = millisWait; i > 0 && !isSleeping() && isRunning(); i--) {
-						isSleeping.wait(0, 999999);
-					}
-					if (!isSleeping() && isRunning()) {
-						isSleeping.wait(0, nanosWait);
-					}
-				} catch (InterruptedException e) {
-					// Immediately reasserts the exception by interrupting the caller thread itself
-					Thread.currentThread().interrupt();
+		try {
+			turnSynchronizer.awaitSleeping(millisWait, nanosWait);
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+
+			logMessage("Wait for " + getName() + " interrupted.");
+		}
+	}
+
+	/**
+	 * Waits for the robot to go to sleep until it has used up its CPU time budget for the current turn.
+	 * Time where the robot thread is not scheduled by the OS does not count against the budget, so the robot
+	 * only skips the turn when it has used too much CPU time itself, or when the max. wall-clock time has
+	 * passed, e.g. because the robot is blocked. Only the max. wall-clock time is used if the CPU time of the
+	 * robot thread is not available.
+	 *
+	 * @param cpuTimeBudget the CPU time in nanoseconds the robot may use in a turn.
+	 * @param maxWaitNanos the max. wall-clock time in nanoseconds to wait.
+	 */
+	public void waitSleepingCpuTime(long cpuTimeBudget, long maxWaitNanos) {
+		final long deadline = System.nanoTime() + maxWaitNanos;
 
-					logMessage("Wait for " + getName() + " interrupted.");
+		try {
+			while (isRunning() && !isSleeping()) {
+				final long remainingWaitTime = deadline - System.nanoTime();
+
+				if (remainingWaitTime <= 0) {
+					break;
+				}
+				final long cpuTime = ThreadCpuTime.of(robotThread);
+				long waitTime = remainingWaitTime;
+
+				if (cpuTime >= 0 && turnCpuTimeStart >= 0) {
+					final long remainingCpuTime = cpuTimeBudget - (cpuTime - turnCpuTimeStart);
+
+					if (remainingCpuTime <= 0) {
+						break;
+					}
+					// The robot cannot use more CPU time than the time that passes, so we do not need to check earlier
+					waitTime = Math.min(remainingCpuTime, remainingWaitTime);
 				}
+				turnSynchronizer.awaitSleeping(waitTime / 1000000, Math.max(1, (int) (waitTime % 1000000)));
 			}
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+
+			logMessage("Wait for " + getName() + " interrupted.");
 		}
 	}
 
@@ -671,7 +698,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 
 		if (!valid) {
-			final Random random = RandomFactory.getRandom();
+			final Random random = battle.getRandom();
 
 			double maxWidth = battleRules.getBattlefieldWidth() - RobotPeer.WIDTH;
 			double maxHeight = battleRules.getBattlefieldHeight() - RobotPeer.HEIGHT;
@@ -808,16 +835,14 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		status.set(stat);
 		robotProxy.startRound(currentCommands, stat);
 
-		synchronized (isSleeping) {
-			try {
-				// Wait for the robot to go to sleep (take action)
-				isSleeping.wait(waitMillis, waitNanos);
-			} catch (InterruptedException e) {
-				logMessage("Wait for " + getName() + " interrupted.");
+		try {
+			// Wait for the robot to go to sleep (take action)
+			turnSynchronizer.awaitStarted(waitMillis, waitNanos);
+		} catch (InterruptedException e) {
+			logMessage("Wait for " + getName() + " interrupted.");
 
-				// Immediately reasserts the exception by interrupting the caller thread itself
-				Thread.currentThread().interrupt();
-			}
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
 		}
 		if (!isSleeping() && !battle.isDebugging()) {
 			logMessage("\n" + getName() + " still has not started after " + waitMillis + " ms... giving up.");
@@ -951,8 +976,11 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		// dispatch messages
 		if (statics.isTeamRobot() && teamPeer != null) {
 			for (TeamMessage teamMessage : currentCommands.getTeamMessages()) {
-				for (RobotPeer member : teamPeer) {
-					if (checkDispatchToMember(member, teamMessage.recipient)) {
+				for (int index : teamPeer.getRecipients(teamMessage.recipient)) {
+					final RobotPeer member = teamPeer.get(index);
+
+					// A broadcast message is not sent back to the sender
+					if (member.isAlive() && (teamMessage.recipient != null || member != this)) {
 						member.addTeamMessage(teamMessage);
 					}
 				}
@@ -970,31 +998,6 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		queue.add(message);
 	}
 
-	private boolean checkDispatchToMember(RobotPeer member, String recipient) {
-		if (member.isAlive()) {
-			if (recipient == null) {
-				if (member != this) {
-					return true;
-				}
-			} else {
-				final int nl = recipient.length();
-				final String currentName = member.statics.getName();
-
-				if ((currentName.length() >= nl && currentName.substring(0, nl).equals(recipient))) {
-					return true;
-				}
-
-				final String currentClassName = member.statics.getFullClassName();
-
-				if ((currentClassName.length() >= nl && currentClassName.substring(0, nl).equals(recipient))) {
-					return true;
-				}
-
-			}
-		}
-		return false;
-	}
-
 	public String getNameForEvent(RobotPeer otherRobot) {
 		if (battleRules.getHideEnemyNames() && !isTeamMate(otherRobot)) {
 			return otherRobot.getAnnonymousName();
@@ -1005,7 +1008,9 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private void checkRobotCollision(List<RobotPeer> robots) {
 		inCollision = false;
 
-		for (RobotPeer otherRobot : robots) {
+		final SpatialIndex spatialIndex = battle.getSpatialIndex();
+
+		for (RobotPeer otherRobot : spatialIndex.queryRobots(boundingBox, robots)) {
 			if (!(otherRobot == null || otherRobot == this || otherRobot.isDead())
 					&& boundingBox.intersects(otherRobot.boundingBox)) {
 				// Bounce back
@@ -1537,7 +1542,9 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		scanArc.setArc(x - Rules.RADAR_SCAN_RADIUS, y - Rules.RADAR_SCAN_RADIUS, 2 * Rules.RADAR_SCAN_RADIUS,
 				2 * Rules.RADAR_SCAN_RADIUS, 180.0 * startAngle / PI, 180.0 * scanRadians / PI, Arc2D.PIE);
 
-		for (RobotPeer otherRobot : robots) {
+		final SpatialIndex spatialIndex = battle.getSpatialIndex();
+
+		for (RobotPeer otherRobot : spatialIndex.queryRobots(scanArc.getBounds2D(), robots)) {
 			if (!(otherRobot == null || otherRobot == this || otherRobot.isDead())
 					&& intersects(scanArc, otherRobot.boundingBox)) {
 				double dx = otherRobot.x - x;
@@ -0,0 +1,450 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import robocode.BattleRules;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Uniform grid over the battlefield, which is used by the robot and bullet peers for finding the robots and
+ * bullets that might collide with a robot, a bullet or a radar scan.
+ * <p>
+ * The peers only visit the candidates returned by a query, and run the exact same intersection tests on them as
+ * without the index. The candidates are returned in the same order as they have in the randomly ordered list of the
+ * peer, which must have been ranked with {@link #rankRobots(List)} or {@link #rankBullets(List)}. Hence the collision
+ * results are identical whether or not the index is enabled.
+ * <p>
+ * The index is rebuilt at the beginning of each turn, and the battle must call {@link #updateRobot(RobotPeer)}
+ * or {@link #updateBullet(BulletPeer)} after a robot or bullet has been moved within the turn. Bullets added or
+ * removed within the turn must be added with {@link #addBullet(BulletPeer)} or removed with
+ * {@link #removeBullet(BulletPeer)}.
+ */
+public final class SpatialIndex {
+
+	private static final double CELL_SIZE = 100;
+
+	// Added around every box, so floating point rounding in the exact intersection tests can never miss a candidate
+	private static final double MARGIN = 1;
+
+	private final boolean enabled;
+	private final int columns;
+	private final int rows;
+
+	private final Grid robotGrid;
+	private final Grid bulletGrid;
+
+	private RobotPeer[] indexedRobots = new RobotPeer[0];
+	private BulletPeer[] indexedBullets = new BulletPeer[0];
+	private int bulletCount;
+
+	private int[] robotMarks = new int[0];
+	private int[] bulletMarks = new int[0];
+	private int[] found = new int[0];
+
+	private final List<RobotPeer> robotCandidates = new ArrayList<RobotPeer>();
+	private final List<BulletPeer> bulletCandidates = new ArrayList<BulletPeer>();
+
+	private int generation;
+	private int robotQuery;
+	private int bulletQuery;
+
+	/**
+	 * Creates a new spatial index for a battle.
+	 *
+	 * @param battleRules the rules of the battle containing the size of the battlefield.
+	 * @param enabled {@code true} if the index must be used; {@code false} if every robot and bullet must be
+	 *                treated as a candidate, i.e. the peers will test all of them.
+	 */
+	public SpatialIndex(BattleRules battleRules, boolean enabled) {
+		this.enabled = enabled;
+		columns = Math.max(1, (int) Math.ceil(battleRules.getBattlefieldWidth() / CELL_SIZE));
+		rows = Math.max(1, (int) Math.ceil(battleRules.getBattlefieldHeight() / CELL_SIZE));
+		robotGrid = new Grid(columns * rows);
+		bulletGrid = new Grid(columns * rows);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Rebuilds the index from the current bounding boxes of the robots and bounding lines of the bullets.
+	 *
+	 * @param robots all robots of the battle.
+	 * @param bullets all bullets of the battle.
+	 */
+	public void rebuild(List<RobotPeer> robots, List<BulletPeer> bullets) {
+		if (!enabled) {
+			return;
+		}
+		generation++;
+
+		final int robotCount = robots.size();
+
+		if (indexedRobots.length < robotCount) {
+			indexedRobots = new RobotPeer[robotCount];
+			robotMarks = new int[robotCount];
+		}
+		robotGrid.clear(robotCount);
+		for (int id = 0; id < robotCount; id++) {
+			RobotPeer robot = robots.get(id);
+
+			robot.spatialGeneration = generation;
+			robot.spatialId = id;
+			indexedRobots[id] = robot;
+			insert(robotGrid, id, robot.getBoundingBox());
+		}
+
+		bulletCount = 0;
+		bulletGrid.clear(bullets.size());
+		for (BulletPeer bullet : bullets) {
+			addBullet(bullet);
+		}
+	}
+
+	/**
+	 * Adds a bullet that has been fired or created within the turn.
+	 *
+	 * @param bullet the new bullet.
+	 */
+	public void addBullet(BulletPeer bullet) {
+		if (!enabled) {
+			return;
+		}
+		final int id = bulletCount++;
+
+		if (indexedBullets.length <= id) {
+			final int capacity = Math.max(id + 1, 2 * indexedBullets.length);
+			final BulletPeer[] grown = new BulletPeer[capacity];
+
+			System.arraycopy(indexedBullets, 0, grown, 0, id);
+			indexedBullets = grown;
+			bulletMarks = new int[capacity];
+			bulletQuery = 0;
+		}
+		bulletGrid.ensureCapacity(id + 1);
+
+		bullet.spatialGeneration = generation;
+		bullet.spatialId = id;
+		indexedBullets[id] = bullet;
+		insert(bulletGrid, id, bullet.getBoundingLine());
+	}
+
+	/**
+	 * Removes a bullet that has been removed from the battle within the turn.
+	 *
+	 * @param bullet the removed bullet.
+	 */
+	public void removeBullet(BulletPeer bullet) {
+		if (enabled && bullet.spatialGeneration == generation) {
+			bulletGrid.remove(bullet.spatialId);
+			indexedBullets[bullet.spatialId] = null;
+			bullet.spatialGeneration = 0;
+		}
+	}
+
+	/**
+	 * Moves a robot to the cells covered by its current bounding box.
+	 *
+	 * @param robot the robot that has been moved.
+	 */
+	public void updateRobot(RobotPeer robot) {
+		if (enabled && robot.spatialGeneration == generation) {
+			robotGrid.remove(robot.spatialId);
+			insert(robotGrid, robot.spatialId, robot.getBoundingBox());
+		}
+	}
+
+	/**
+	 * Moves a bullet to the cells covered by its current bounding line.
+	 *
+	 * @param bullet the bullet that has been moved.
+	 */
+	public void updateBullet(BulletPeer bullet) {
+		if (enabled && bullet.spatialGeneration == generation) {
+			bulletGrid.remove(bullet.spatialId);
+			insert(bulletGrid, bullet.spatialId, bullet.getBoundingLine());
+		}
+	}
+
+	/**
+	 * Stores the position of every robot in a randomly ordered list, which is the order the candidates of the next
+	 * robot queries are returned in.
+	 *
+	 * @param robots all robots of the battle in random order.
+	 * @return the specified list.
+	 */
+	public List<RobotPeer> rankRobots(List<RobotPeer> robots) {
+		if (enabled) {
+			for (int i = robots.size() - 1; i >= 0; i--) {
+				robots.get(i).spatialRank = i;
+			}
+		}
+		return robots;
+	}
+
+	/**
+	 * Stores the position of every bullet in a randomly ordered list, which is the order the candidates of the next
+	 * bullet queries are returned in.
+	 *
+	 * @param bullets all bullets of the battle in random order.
+	 * @return the specified list.
+	 */
+	public List<BulletPeer> rankBullets(List<BulletPeer> bullets) {
+		if (enabled) {
+			for (int i = bullets.size() - 1; i >= 0; i--) {
+				bullets.get(i).spatialRank = i;
+			}
+		}
+		return bullets;
+	}
+
+	/**
+	 * Returns the robots that might intersect the specified rectangle.
+	 *
+	 * @param rect the rectangle to query.
+	 * @param robots all robots of the battle ranked with {@link #rankRobots(List)}, which are returned as they are
+	 *               when the index is disabled.
+	 * @return the candidates in the order of the ranked list. The returned list is reused by the next query.
+	 */
+	List<RobotPeer> queryRobots(Rectangle2D rect, List<RobotPeer> robots) {
+		return queryRobots(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY(), robots);
+	}
+
+	/**
+	 * Returns the robots that might intersect the specified line.
+	 *
+	 * @param line the line to query.
+	 * @param robots all robots of the battle ranked with {@link #rankRobots(List)}, which are returned as they are
+	 *               when the index is disabled.
+	 * @return the candidates in the order of the ranked list. The returned list is reused by the next query.
+	 */
+	List<RobotPeer> queryRobots(Line2D line, List<RobotPeer> robots) {
+		return queryRobots(Math.min(line.getX1(), line.getX2()), Math.min(line.getY1(), line.getY2()),
+				Math.max(line.getX1(), line.getX2()), Math.max(line.getY1(), line.getY2()), robots);
+	}
+
+	/**
+	 * Returns the bullets that might intersect the specified line.
+	 *
+	 * @param line the line to query.
+	 * @param bullets all bullets of the battle ranked with {@link #rankBullets(List)}, which are returned as they
+	 *                are when the index is disabled.
+	 * @return the candidates in the order of the ranked list. The returned list is reused by the next query.
+	 */
+	List<BulletPeer> queryBullets(Line2D line, List<BulletPeer> bullets) {
+		if (!enabled) {
+			return bullets;
+		}
+		bulletQuery++;
+
+		final int count = bulletGrid.collect(
+				cellRange(Math.min(line.getX1(), line.getX2()), Math.min(line.getY1(), line.getY2()),
+				Math.max(line.getX1(), line.getX2()), Math.max(line.getY1(), line.getY2())),
+				bulletMarks, bulletQuery);
+
+		bulletCandidates.clear();
+		for (int i = 0; i < count; i++) {
+			bulletCandidates.add(indexedBullets[found[i]]);
+		}
+		sortBullets(bulletCandidates);
+		return bulletCandidates;
+	}
+
+	private List<RobotPeer> queryRobots(double minX, double minY, double maxX, double maxY, List<RobotPeer> robots) {
+		if (!enabled) {
+			return robots;
+		}
+		robotQuery++;
+
+		final int count = robotGrid.collect(cellRange(minX, minY, maxX, maxY), robotMarks, robotQuery);
+
+		robotCandidates.clear();
+		for (int i = 0; i < count; i++) {
+			robotCandidates.add(indexedRobots[found[i]]);
+		}
+		sortRobots(robotCandidates);
+		return robotCandidates;
+	}
+
+	// Insertion sort by rank, as there are only a few candidates
+	private static void sortRobots(List<RobotPeer> candidates) {
+		for (int i = 1; i < candidates.size(); i++) {
+			final RobotPeer candidate = candidates.get(i);
+			int j = i - 1;
+
+			for (; j >= 0 && candidates.get(j).spatialRank > candidate.spatialRank; j--) {
+				candidates.set(j + 1, candidates.get(j));
+			}
+			candidates.set(j + 1, candidate);
+		}
+	}
+
+	private static void sortBullets(List<BulletPeer> candidates) {
+		for (int i = 1; i < candidates.size(); i++) {
+			final BulletPeer candidate = candidates.get(i);
+			int j = i - 1;
+
+			for (; j >= 0 && candidates.get(j).spatialRank > candidate.spatialRank; j--) {
+				candidates.set(j + 1, candidates.get(j));
+			}
+			candidates.set(j + 1, candidate);
+		}
+	}
+
+	private void insert(Grid grid, int id, Rectangle2D rect) {
+		grid.insert(id, cellRange(rect.getMinX(), rect.getMinY(), rect.getMaxX(), rect.getMaxY()));
+	}
+
+	private void insert(Grid grid, int id, Line2D line) {
+		grid.insert(id,
+				cellRange(Math.min(line.getX1(), line.getX2()), Math.min(line.getY1(), line.getY2()),
+				Math.max(line.getX1(), line.getX2()), Math.max(line.getY1(), line.getY2())));
+	}
+
+	/**
+	 * Packs the range of cells covered by a box into an int with 8 bits for each of the minimum column,
+	 * minimum row, maximum column and maximum row, which is plenty for the max. battlefield size of 5000.
+	 * Coordinates outside the battlefield are clamped to the border cells, so a box and a query that overlap
+	 * will always share at least one cell.
+	 */
+	private int cellRange(double minX, double minY, double maxX, double maxY) {
+		return (column(minX - MARGIN) << 24) | (row(minY - MARGIN) << 16) | (column(maxX + MARGIN) << 8)
+				| row(maxY + MARGIN);
+	}
+
+	private int column(double x) {
+		return clamp(x, columns);
+	}
+
+	private int row(double y) {
+		return clamp(y, rows);
+	}
+
+	private static int clamp(double coordinate, int cellCount) {
+		if (!(coordinate > 0)) { // also handles NaN
+			return 0;
+		}
+		int cell = (int) (coordinate / CELL_SIZE);
+
+		return cell < cellCount ? cell : cellCount - 1;
+	}
+
+	/**
+	 * Cells of ids, where each id is stored in every cell covered by its range.
+	 */
+	private final class Grid {
+		private final int[][] cells;
+		private final int[] counts;
+		private int[] ranges = new int[0];
+
+		Grid(int cellCount) {
+			cells = new int[cellCount][4];
+			counts = new int[cellCount];
+		}
+
+		void clear(int idCount) {
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = 0;
+			}
+			ensureCapacity(idCount);
+		}
+
+		void ensureCapacity(int idCount) {
+			if (ranges.length < idCount) {
+				final int[] grown = new int[Math.max(idCount, 2 * ranges.length)];
+
+				System.arraycopy(ranges, 0, grown, 0, ranges.length);
+				ranges = grown;
+			}
+			if (found.length < idCount) {
+				found = new int[Math.max(idCount, 2 * found.length)];
+			}
+		}
+
+		void insert(int id, int range) {
+			ranges[id] = range;
+
+			final int minCol = range >>> 24, minRow = (range >>> 16) & 0xff;
+			final int maxCol = (range >>> 8) & 0xff, maxRow = range & 0xff;
+
+			for (int row = minRow; row <= maxRow; row++) {
+				for (int col = minCol; col <= maxCol; col++) {
+					final int cell = row * columns + col;
+					int count = counts[cell];
+
+					if (count == cells[cell].length) {
+						int[] grown = new int[2 * count];
+
+						System.arraycopy(cells[cell], 0, grown, 0, count);
+						cells[cell] = grown;
+					}
+					cells[cell][count] = id;
+					counts[cell] = count + 1;
+				}
+			}
+		}
+
+		void remove(int id) {
+			final int range = ranges[id];
+
+			final int minCol = range >>> 24, minRow = (range >>> 16) & 0xff;
+			final int maxCol = (range >>> 8) & 0xff, maxRow = range & 0xff;
+
+			for (int row = minRow; row <= maxRow; row++) {
+				for (int col = minCol; col <= maxCol; col++) {
+					final int cell = row * columns + col;
+					final int[] ids = cells[cell];
+					final int count = counts[cell];
+
+					for (int i = 0; i < count; i++) {
+						if (ids[i] == id) {
+							ids[i] = ids[count - 1];
+							counts[cell] = count - 1;
+							break;
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Stores the ids found in the cells of the range in the found array, where every id is only stored once.
+		 *
+		 * @return the number of ids found.
+		 */
+		int collect(int range, int[] marks, int query) {
+			final int minCol = range >>> 24, minRow = (range >>> 16) & 0xff;
+			final int maxCol = (range >>> 8) & 0xff, maxRow = range & 0xff;
+			int count = 0;
+
+			for (int row = minRow; row <= maxRow; row++) {
+				for (int col = minCol; col <= maxCol; col++) {
+					final int cell = row * columns + col;
+					final int[] ids = cells[cell];
+
+					for (int i = counts[cell] - 1; i >= 0; i--) {
+						final int id = ids[i];
+
+						if (marks[id] != query) {
+							marks[id] = query;
+							found[count++] = id;
+						}
+					}
+				}
+			}
+			return count;
+		}
+	}
+}
@@ -26,6 +26,7 @@ public class TeamPeer extends ArrayList<RobotPeer> implements ContestantPeer {
 	private final int teamIndex;
 	private RobotPeer teamLeader;
 	private final TeamStatistics teamStatistics;
+	private TeamRoutingTable routingTable;
 
 	public TeamPeer(String name, List<String> memberNames, int teamIndex) {
 		this.name = name;
@@ -84,9 +85,31 @@ public class TeamPeer extends ArrayList<RobotPeer> implements ContestantPeer {
 		if (teamLeader == null) {
 			teamLeader = r;
 		}
+		routingTable = null;
 		return super.add(r);
 	}
 
+	/**
+	 * Returns the indices of the members receiving team messages for the specified recipient.
+	 *
+	 * @param recipient the recipient of the message, or null if the message is broadcast.
+	 * @return the indices of the receiving members, which must not be modified.
+	 * @see TeamRoutingTable
+	 */
+	int[] getRecipients(String recipient) {
+		if (routingTable == null) {
+			final String[] names = new String[size()];
+			final String[] fullClassNames = new String[size()];
+
+			for (int i = 0; i < names.length; i++) {
+				names[i] = get(i).getName();
+				fullClassNames[i] = get(i).getFullClassName();
+			}
+			routingTable = new TeamRoutingTable(names, fullClassNames);
+		}
+		return routingTable.getRecipients(recipient);
+	}
+
 	@Override
 	public String toString() {
 		return " [" + size() + "] " + getName();
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Routing table of the team messages within a team, which maps the recipient of a message to the indices of the team
+ * members receiving it. A member receives a message when its name or full class name starts with the recipient, or
+ * when the message is broadcast, i.e. the recipient is null.
+ * <p>
+ * The members of a team do not change during a battle, so the members receiving messages sent to the name or full
+ * class name of a member are looked up when the table is created. Hence, the table only holds an entry per name of
+ * the members, whatever recipients the robots use. The members of other recipients are looked up for every message.
+ */
+public final class TeamRoutingTable {
+
+	private final String[] names;
+	private final String[] fullClassNames;
+	private final int[] allMembers;
+	private final Map<String, int[]> recipients = new HashMap<String, int[]>();
+
+	/**
+	 * Creates a routing table for the team members with the specified names.
+	 *
+	 * @param names the names of the team members, e.g. "sample.MyFirstDroid (2)".
+	 * @param fullClassNames the full class names of the team members, e.g. "sample.MyFirstDroid".
+	 */
+	public TeamRoutingTable(String[] names, String[] fullClassNames) {
+		this.names = names;
+		this.fullClassNames = fullClassNames;
+
+		allMembers = new int[names.length];
+		for (int i = 0; i < allMembers.length; i++) {
+			allMembers[i] = i;
+		}
+		for (int i = 0; i < names.length; i++) {
+			if (!recipients.containsKey(names[i])) {
+				recipients.put(names[i], findRecipients(names[i]));
+			}
+			if (!recipients.containsKey(fullClassNames[i])) {
+				recipients.put(fullClassNames[i], findRecipients(fullClassNames[i]));
+			}
+		}
+	}
+
+	/**
+	 * Returns the indices of the team members receiving messages for the specified recipient.
+	 *
+	 * @param recipient the recipient of the message, or null if the message is broadcast to all members.
+	 * @return the indices of the receiving members in team order. The returned array must not be modified.
+	 */
+	public int[] getRecipients(String recipient) {
+		if (recipient == null) {
+			return allMembers;
+		}
+		final int[] members = recipients.get(recipient);
+
+		return members != null ? members : findRecipients(recipient);
+	}
+
+	private int[] findRecipients(String recipient) {
+		final List<Integer> matches = new ArrayList<Integer>();
+
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].startsWith(recipient) || fullClassNames[i].startsWith(recipient)) {
+				matches.add(i);
+			}
+		}
+		final int[] members = new int[matches.size()];
+
+		for (int i = 0; i < members.length; i++) {
+			members[i] = matches.get(i);
+		}
+		return members;
+	}
+}
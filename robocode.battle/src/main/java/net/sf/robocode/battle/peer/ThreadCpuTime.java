@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+
+/**
+ * Measures the CPU time used by robot threads with the ThreadMXBean of the JVM.
+ */
+public final class ThreadCpuTime {
+
+	private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	private ThreadCpuTime() {}
+
+	/**
+	 * Checks if the CPU time of other threads can be measured by this JVM, and enables the measurement if needed.
+	 *
+	 * @return {@code true} if thread CPU time is supported and enabled; {@code false} otherwise.
+	 */
+	public static boolean isSupported() {
+		if (!threadMXBean.isThreadCpuTimeSupported()) {
+			return false;
+		}
+		try {
+			if (!threadMXBean.isThreadCpuTimeEnabled()) {
+				threadMXBean.setThreadCpuTimeEnabled(true);
+			}
+			return true;
+		} catch (UnsupportedOperationException e) {
+			return false;
+		} catch (SecurityException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the CPU time used by a thread.
+	 *
+	 * @param thread the thread to measure, can be {@code null}.
+	 * @return the CPU time in nanoseconds, or -1 if the thread is {@code null} or not alive.
+	 */
+	static long of(Thread thread) {
+		return thread == null ? -1 : threadMXBean.getThreadCpuTime(thread.getId());
+	}
+}
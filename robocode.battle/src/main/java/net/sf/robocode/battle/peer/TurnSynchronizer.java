@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Handshake between the battle thread and a robot thread for each turn.
+ * The robot thread goes to sleep when it has taken its action for the turn, and the battle thread wakes
+ * it up when the next turn begins and waits for it to go to sleep again.
+ * <p>
+ * The implementation is selected with the TURNSYNC system property:
+ * <ul>
+ * <li>{@code monitor} (default) - uses wait() and notifyAll() on a monitor.</li>
+ * <li>{@code park} - spins shortly and then parks the waiting thread with LockSupport, which has a lower
+ * latency per handshake.</li>
+ * </ul>
+ */
+public abstract class TurnSynchronizer {
+
+	/**
+	 * Max. time the battle thread waits for a robot to wake up after it has been notified.
+	 */
+	static final long WAKEUP_TIMEOUT_MILLIS = 10000;
+
+	/**
+	 * The running flag of the robot, which is cleared when the robot thread stops.
+	 */
+	protected final AtomicBoolean isRunning;
+
+	protected TurnSynchronizer(AtomicBoolean isRunning) {
+		this.isRunning = isRunning;
+	}
+
+	/**
+	 * Creates the turn synchronizer selected with the TURNSYNC system property.
+	 *
+	 * @param isRunning the running flag of the robot.
+	 * @return a new turn synchronizer.
+	 */
+	public static TurnSynchronizer create(AtomicBoolean isRunning) {
+		if (System.getProperty("TURNSYNC", "monitor").equals("park")) {
+			return new ParkingTurnSynchronizer(isRunning);
+		}
+		return new MonitorTurnSynchronizer(isRunning);
+	}
+
+	/**
+	 * Checks if the robot is sleeping, i.e. waiting for the next turn.
+	 *
+	 * @return {@code true} if the robot is sleeping; {@code false} otherwise.
+	 */
+	public abstract boolean isSleeping();
+
+	/**
+	 * Called on the robot thread. Puts the robot to sleep until the battle wakes it up for the next turn.
+	 * If the robot thread is interrupted, this method returns with the interrupted status of the thread set.
+	 */
+	public abstract void sleep();
+
+	/**
+	 * Called on the battle thread. Wakes up the robot if it is sleeping, and waits for it to wake up.
+	 * If the battle thread is interrupted, this method returns with the interrupted status of the thread set.
+	 */
+	public abstract void wakeup();
+
+	/**
+	 * Wakes up the robot if it is sleeping without waiting for it.
+	 */
+	public abstract void wakeupNoWait();
+
+	/**
+	 * Called on the battle thread. Waits for the robot to go to sleep, or until the robot is not running anymore.
+	 *
+	 * @param millisWait the max. number of milliseconds to wait.
+	 * @param nanosWait the additional number of nanoseconds to wait.
+	 * @throws InterruptedException if the battle thread was interrupted.
+	 */
+	public abstract void awaitSleeping(long millisWait, int nanosWait) throws InterruptedException;
+
+	/**
+	 * Called on the battle thread when a round is started. Waits for the robot to go to sleep for the first time.
+	 *
+	 * @param millisWait the max. number of milliseconds to wait.
+	 * @param nanosWait the additional number of nanoseconds to wait.
+	 * @throws InterruptedException if the battle thread was interrupted.
+	 */
+	public abstract void awaitStarted(long millisWait, int nanosWait) throws InterruptedException;
+}
@@ -121,6 +121,56 @@ final class BulletSnapshot implements java.io.Serializable, IXmlSerializable, IB
 		heading = bullet.getHeading();
 	}
 
+	/**
+	 * Writes the fields of this snapshot that differ from a previous snapshot of the same bullet.
+	 *
+	 * @param out the output for the fields of the bullet.
+	 * @param previous the previous snapshot of the bullet.
+	 * @see TurnSnapshotCodec
+	 */
+	void writeDelta(TurnSnapshotCodec.DeltaOutput out, BulletSnapshot previous) throws IOException {
+		out.begin();
+
+		out.writeInt(state.ordinal(), previous.state.ordinal());
+		out.writeDouble(power, previous.power);
+		out.writeDouble(x, previous.x);
+		out.writeDouble(y, previous.y);
+		out.writeDouble(paintX, previous.paintX);
+		out.writeDouble(paintY, previous.paintY);
+		out.writeInt(color, previous.color);
+		out.writeInt(frame, previous.frame);
+		out.writeBoolean(isExplosion, previous.isExplosion);
+		out.writeInt(explosionImageIndex, previous.explosionImageIndex);
+		out.writeInt(bulletId, previous.bulletId);
+		out.writeInt(victimIndex, previous.victimIndex);
+		out.writeInt(ownerIndex, previous.ownerIndex);
+		out.writeDouble(heading, previous.heading);
+	}
+
+	/**
+	 * Reads the fields written by {@link #writeDelta}, where the fields that have not changed are taken from the
+	 * previous snapshot.
+	 *
+	 * @param in the input for the fields of the bullet.
+	 * @param previous the previous snapshot of the bullet.
+	 */
+	void readDelta(TurnSnapshotCodec.DeltaInput in, BulletSnapshot previous) throws IOException {
+		state = BulletState.values()[in.readInt(previous.state.ordinal())];
+		power = in.readDouble(previous.power);
+		x = in.readDouble(previous.x);
+		y = in.readDouble(previous.y);
+		paintX = in.readDouble(previous.paintX);
+		paintY = in.readDouble(previous.paintY);
+		color = in.readInt(previous.color);
+		frame = in.readInt(previous.frame);
+		isExplosion = in.readBoolean(previous.isExplosion);
+		explosionImageIndex = in.readInt(previous.explosionImageIndex);
+		bulletId = in.readInt(previous.bulletId);
+		victimIndex = in.readInt(previous.victimIndex);
+		ownerIndex = in.readInt(previous.ownerIndex);
+		heading = in.readDouble(previous.heading);
+	}
+
 	@Override
 	public String toString() {
 		return ownerIndex + "-" + bulletId + " (" + (int) power + ") X" + (int) x + " Y" + (int) y + " "
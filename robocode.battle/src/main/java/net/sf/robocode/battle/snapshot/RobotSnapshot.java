@@ -20,8 +20,8 @@ import robocode.control.snapshot.IScoreSnapshot;
 import robocode.control.snapshot.RobotState;
 
 import java.awt.geom.Arc2D;
-import java.io.IOException;
-import java.io.Serializable;
+import java.io.*;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -419,6 +419,225 @@ public final class RobotSnapshot implements Serializable, IXmlSerializable, IRob
 		}
 	}
     
+	/**
+	 * Writes the fields of this snapshot that differ from a previous snapshot of the same robot.
+	 *
+	 * @param out the output for the fields of the robot.
+	 * @param scoreOut the output for the fields of the score of the robot.
+	 * @param previous the previous snapshot of the robot.
+	 * @see TurnSnapshotCodec
+	 */
+	void writeDelta(TurnSnapshotCodec.DeltaOutput out, TurnSnapshotCodec.DeltaOutput scoreOut,
+			RobotSnapshot previous) throws IOException {
+		out.begin();
+
+		out.writeString(name, previous.name);
+		out.writeString(shortName, previous.shortName);
+		out.writeString(veryShortName, previous.veryShortName);
+		out.writeString(teamName, previous.teamName);
+		out.writeInt(robotIndex, previous.robotIndex);
+		out.writeInt(teamIndex, previous.teamIndex);
+		out.writeInt(state.ordinal(), previous.state.ordinal());
+		out.writeDouble(energy, previous.energy);
+		out.writeDouble(velocity, previous.velocity);
+		out.writeDouble(gunHeat, previous.gunHeat);
+		out.writeDouble(bodyHeading, previous.bodyHeading);
+		out.writeDouble(gunHeading, previous.gunHeading);
+		out.writeDouble(radarHeading, previous.radarHeading);
+		out.writeDouble(x, previous.x);
+		out.writeDouble(y, previous.y);
+		out.writeInt(bodyColor, previous.bodyColor);
+		out.writeInt(gunColor, previous.gunColor);
+		out.writeInt(radarColor, previous.radarColor);
+		out.writeInt(scanColor, previous.scanColor);
+		out.writeBoolean(isDroid, previous.isDroid);
+		out.writeBoolean(isSentryRobot, previous.isSentryRobot);
+		out.writeBoolean(isPaintRobot, previous.isPaintRobot);
+		out.writeBoolean(isPaintEnabled, previous.isPaintEnabled);
+		out.writeBoolean(isSGPaintEnabled, previous.isSGPaintEnabled);
+		out.writeString(outputStreamSnapshot, previous.outputStreamSnapshot);
+
+		final SerializableArc arc = scanArc != null ? scanArc : SerializableArc.EMPTY;
+		final SerializableArc previousArc = previous.scanArc != null ? previous.scanArc : SerializableArc.EMPTY;
+
+		out.writeBoolean(scanArc != null, previous.scanArc != null);
+		out.writeDouble(arc.x, previousArc.x);
+		out.writeDouble(arc.y, previousArc.y);
+		out.writeDouble(arc.w, previousArc.w);
+		out.writeDouble(arc.h, previousArc.h);
+		out.writeDouble(arc.start, previousArc.start);
+		out.writeDouble(arc.extent, previousArc.extent);
+		out.writeInt(arc.type, previousArc.type);
+
+		// Graphics calls and debug properties are written after the other fields, when they have changed
+		final boolean isGraphicsChanged = out.isChanged(!isSameGraphicsCalls(graphicsCalls, previous.graphicsCalls));
+		final boolean isDebugChanged = out.isChanged(!isSameDebugProperties(debugProperties, previous.debugProperties));
+		final boolean hasScore = out.isChanged(robotScoreSnapshot != null);
+
+		if (isGraphicsChanged) {
+			writeGraphicsCalls(out.values(), graphicsCalls);
+		}
+		if (isDebugChanged) {
+			TurnSnapshotCodec.writeVarInt(out.values(), debugProperties == null ? 0 : debugProperties.length + 1);
+			if (debugProperties != null) {
+				for (DebugProperty property : debugProperties) {
+					out.writeStringValue(property.getKey());
+					out.writeStringValue(property.getValue());
+				}
+			}
+		}
+		if (hasScore) {
+			final IScoreSnapshot previousScore = previous.robotScoreSnapshot;
+
+			((ScoreSnapshot) robotScoreSnapshot).writeDelta(scoreOut,
+					previousScore != null ? (ScoreSnapshot) previousScore : ScoreSnapshot.BLANK);
+			scoreOut.writeTo(out.values());
+		}
+	}
+
+	/**
+	 * Reads the fields written by {@link #writeDelta}, where the fields that have not changed are taken from the
+	 * previous snapshot.
+	 *
+	 * @param in the input for the fields of the robot.
+	 * @param scoreIn the input for the fields of the score of the robot.
+	 * @param previous the previous snapshot of the robot.
+	 */
+	void readDelta(TurnSnapshotCodec.DeltaInput in, TurnSnapshotCodec.DeltaInput scoreIn,
+			RobotSnapshot previous) throws IOException {
+		name = in.readString(previous.name);
+		shortName = in.readString(previous.shortName);
+		veryShortName = in.readString(previous.veryShortName);
+		teamName = in.readString(previous.teamName);
+		robotIndex = in.readInt(previous.robotIndex);
+		teamIndex = in.readInt(previous.teamIndex);
+		state = RobotState.values()[in.readInt(previous.state.ordinal())];
+		energy = in.readDouble(previous.energy);
+		velocity = in.readDouble(previous.velocity);
+		gunHeat = in.readDouble(previous.gunHeat);
+		bodyHeading = in.readDouble(previous.bodyHeading);
+		gunHeading = in.readDouble(previous.gunHeading);
+		radarHeading = in.readDouble(previous.radarHeading);
+		x = in.readDouble(previous.x);
+		y = in.readDouble(previous.y);
+		bodyColor = in.readInt(previous.bodyColor);
+		gunColor = in.readInt(previous.gunColor);
+		radarColor = in.readInt(previous.radarColor);
+		scanColor = in.readInt(previous.scanColor);
+		isDroid = in.readBoolean(previous.isDroid);
+		isSentryRobot = in.readBoolean(previous.isSentryRobot);
+		isPaintRobot = in.readBoolean(previous.isPaintRobot);
+		isPaintEnabled = in.readBoolean(previous.isPaintEnabled);
+		isSGPaintEnabled = in.readBoolean(previous.isSGPaintEnabled);
+		outputStreamSnapshot = in.readString(previous.outputStreamSnapshot);
+
+		final SerializableArc previousArc = previous.scanArc != null ? previous.scanArc : SerializableArc.EMPTY;
+		final boolean hasScanArc = in.readBoolean(previous.scanArc != null);
+		final SerializableArc arc = new SerializableArc(in.readDouble(previousArc.x), in.readDouble(previousArc.y),
+				in.readDouble(previousArc.w), in.readDouble(previousArc.h), in.readDouble(previousArc.start),
+				in.readDouble(previousArc.extent), in.readInt(previousArc.type));
+
+		scanArc = hasScanArc ? arc : null;
+
+		final boolean isGraphicsChanged = in.isChanged();
+		final boolean isDebugChanged = in.isChanged();
+		final boolean hasScore = in.isChanged();
+
+		graphicsCalls = isGraphicsChanged ? readGraphicsCalls(in.values()) : previous.graphicsCalls;
+
+		if (isDebugChanged) {
+			final int count = TurnSnapshotCodec.readVarInt(in.values()) - 1;
+
+			debugProperties = count >= 0 ? new DebugProperty[count] : null;
+			for (int i = 0; i < count; i++) {
+				debugProperties[i] = new DebugProperty(in.readStringValue(), in.readStringValue());
+			}
+		} else {
+			debugProperties = previous.debugProperties;
+		}
+		if (hasScore) {
+			final IScoreSnapshot previousScore = previous.robotScoreSnapshot;
+			final ScoreSnapshot score = new ScoreSnapshot();
+
+			scoreIn.begin(in.values());
+			score.readDelta(scoreIn, previousScore != null ? (ScoreSnapshot) previousScore : ScoreSnapshot.BLANK);
+			robotScoreSnapshot = score;
+		} else {
+			robotScoreSnapshot = null;
+		}
+	}
+
+	private static boolean isSameGraphicsCalls(Object calls, Object previousCalls) {
+		if (calls instanceof byte[] && previousCalls instanceof byte[]) {
+			return Arrays.equals((byte[]) calls, (byte[]) previousCalls);
+		}
+		return calls == previousCalls;
+	}
+
+	private static boolean isSameDebugProperties(DebugProperty[] properties, DebugProperty[] previousProperties) {
+		if (properties == previousProperties) {
+			return true;
+		}
+		if (properties == null || previousProperties == null || properties.length != previousProperties.length) {
+			return false;
+		}
+		for (int i = 0; i < properties.length; i++) {
+			if (!isEqual(properties[i].getKey(), previousProperties[i].getKey())
+					|| !isEqual(properties[i].getValue(), previousProperties[i].getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isEqual(String s1, String s2) {
+		return s1 == null ? s2 == null : s1.equals(s2);
+	}
+
+	private static void writeGraphicsCalls(DataOutputStream out, Object calls) throws IOException {
+		byte[] bytes;
+
+		if (calls == null) {
+			out.writeByte(0);
+			return;
+		}
+		if (calls instanceof byte[]) {
+			out.writeByte(1);
+			bytes = (byte[]) calls;
+		} else {
+			// Graphics calls of other types are only expected from other robot hosts
+			final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			final ObjectOutputStream objectOut = new ObjectOutputStream(buffer);
+
+			objectOut.writeObject(calls);
+			objectOut.close();
+
+			out.writeByte(2);
+			bytes = buffer.toByteArray();
+		}
+		TurnSnapshotCodec.writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private static Object readGraphicsCalls(DataInput in) throws IOException {
+		final int type = in.readUnsignedByte();
+
+		if (type == 0) {
+			return null;
+		}
+		final byte[] bytes = new byte[TurnSnapshotCodec.readVarInt(in)];
+
+		in.readFully(bytes);
+		if (type == 1) {
+			return bytes;
+		}
+		try {
+			return new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Unknown type of graphics calls: " + e.getMessage());
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -704,6 +923,8 @@ public final class RobotSnapshot implements Serializable, IXmlSerializable, IRob
 	private static class SerializableArc implements Serializable {
 		private static final long serialVersionUID = 1L;
 
+		static final SerializableArc EMPTY = new SerializableArc(0, 0, 0, 0, 0, 0, 0);
+
 		public final double x;
 		public final double y;
 		public final double w;
@@ -722,6 +943,16 @@ public final class RobotSnapshot implements Serializable, IXmlSerializable, IRob
 			type = arc.getArcType();
 		}
 
+		SerializableArc(double x, double y, double w, double h, double start, double extent, int type) {
+			this.x = x;
+			this.y = y;
+			this.w = w;
+			this.h = h;
+			this.start = start;
+			this.extent = extent;
+			this.type = type;
+		}
+
 		public Arc2D create() {
 			return new Arc2D.Double(x, y, w, h, start, extent, type);
 		}
@@ -91,6 +91,11 @@ final class ScoreSnapshot implements Serializable, IXmlSerializable, IScoreSnaps
 	 */
 	public ScoreSnapshot() {}
 
+	/**
+	 * Score that all fields of a score are compared with when there is no previous score.
+	 */
+	static final ScoreSnapshot BLANK = new ScoreSnapshot();
+
 	/**
 	 * Creates a snapshot of a score.
 	 *
@@ -341,6 +346,64 @@ final class ScoreSnapshot implements Serializable, IXmlSerializable, IScoreSnaps
 		writer.endElement();
 	}
 
+	/**
+	 * Writes the fields of this snapshot that differ from a previous snapshot of the same score.
+	 *
+	 * @param out the output for the fields of the score.
+	 * @param previous the previous snapshot of the score.
+	 * @see TurnSnapshotCodec
+	 */
+	void writeDelta(TurnSnapshotCodec.DeltaOutput out, ScoreSnapshot previous) throws IOException {
+		out.begin();
+
+		out.writeString(name, previous.name);
+		out.writeDouble(totalScore, previous.totalScore);
+		out.writeDouble(totalSurvivalScore, previous.totalSurvivalScore);
+		out.writeDouble(totalLastSurvivorBonus, previous.totalLastSurvivorBonus);
+		out.writeDouble(totalBulletDamageScore, previous.totalBulletDamageScore);
+		out.writeDouble(totalBulletKillBonus, previous.totalBulletKillBonus);
+		out.writeDouble(totalRammingDamageScore, previous.totalRammingDamageScore);
+		out.writeDouble(totalRammingKillBonus, previous.totalRammingKillBonus);
+		out.writeInt(totalFirsts, previous.totalFirsts);
+		out.writeInt(totalSeconds, previous.totalSeconds);
+		out.writeInt(totalThirds, previous.totalThirds);
+		out.writeDouble(currentScore, previous.currentScore);
+		out.writeDouble(currentSurvivalScore, previous.currentSurvivalScore);
+		out.writeDouble(currentSurvivalBonus, previous.currentSurvivalBonus);
+		out.writeDouble(currentBulletDamageScore, previous.currentBulletDamageScore);
+		out.writeDouble(currentBulletKillBonus, previous.currentBulletKillBonus);
+		out.writeDouble(currentRammingDamageScore, previous.currentRammingDamageScore);
+		out.writeDouble(currentRammingKillBonus, previous.currentRammingKillBonus);
+	}
+
+	/**
+	 * Reads the fields written by {@link #writeDelta}, where the fields that have not changed are taken from the
+	 * previous snapshot.
+	 *
+	 * @param in the input for the fields of the score.
+	 * @param previous the previous snapshot of the score.
+	 */
+	void readDelta(TurnSnapshotCodec.DeltaInput in, ScoreSnapshot previous) throws IOException {
+		name = in.readString(previous.name);
+		totalScore = in.readDouble(previous.totalScore);
+		totalSurvivalScore = in.readDouble(previous.totalSurvivalScore);
+		totalLastSurvivorBonus = in.readDouble(previous.totalLastSurvivorBonus);
+		totalBulletDamageScore = in.readDouble(previous.totalBulletDamageScore);
+		totalBulletKillBonus = in.readDouble(previous.totalBulletKillBonus);
+		totalRammingDamageScore = in.readDouble(previous.totalRammingDamageScore);
+		totalRammingKillBonus = in.readDouble(previous.totalRammingKillBonus);
+		totalFirsts = in.readInt(previous.totalFirsts);
+		totalSeconds = in.readInt(previous.totalSeconds);
+		totalThirds = in.readInt(previous.totalThirds);
+		currentScore = in.readDouble(previous.currentScore);
+		currentSurvivalScore = in.readDouble(previous.currentSurvivalScore);
+		currentSurvivalBonus = in.readDouble(previous.currentSurvivalBonus);
+		currentBulletDamageScore = in.readDouble(previous.currentBulletDamageScore);
+		currentBulletKillBonus = in.readDouble(previous.currentBulletKillBonus);
+		currentRammingDamageScore = in.readDouble(previous.currentRammingDamageScore);
+		currentRammingKillBonus = in.readDouble(previous.currentRammingKillBonus);
+	}
+
 	// allows loading of minimalistic XML
 	ScoreSnapshot(String contestantName) {
 		this.name = contestantName;
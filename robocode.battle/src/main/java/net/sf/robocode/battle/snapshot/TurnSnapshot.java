@@ -80,6 +80,23 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 		round = battle.getRoundNum();
 	}
 
+	/**
+	 * Creates a snapshot of a battle turn from snapshots of its robots and bullets.
+	 *
+	 * @param robots the snapshots of the robots.
+	 * @param bullets the snapshots of the bullets.
+	 * @param tps the TPS of the turn.
+	 * @param round the round number.
+	 * @param turn the turn number.
+	 */
+	TurnSnapshot(List<IRobotSnapshot> robots, List<IBulletSnapshot> bullets, int tps, int round, int turn) {
+		this.robots = robots;
+		this.bullets = bullets;
+		this.tps = tps;
+		this.round = round;
+		this.turn = turn;
+	}
+
 	@Override
 	public String toString() {
 		return this.round + "/" + turn + " (" + this.robots.size() + ")";
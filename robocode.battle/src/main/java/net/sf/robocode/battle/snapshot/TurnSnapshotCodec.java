@@ -0,0 +1,422 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.snapshot;
+
+
+import robocode.control.snapshot.IBulletSnapshot;
+import robocode.control.snapshot.IRobotSnapshot;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.util.*;
+
+
+/**
+ * Compact binary encoding of turn snapshots, where every turn is encoded as the difference to the previous turn.
+ * <p>
+ * Robots are compared with the robot at the same index in the previous turn, and bullets with the bullet with the
+ * same id. Only the fields that have changed are written, where a changed double is written as the bytes that differ
+ * from the previous value. Strings like the robot names are only written the first time, and referred to by an id
+ * afterwards. The encoding is lossless, i.e. the decoded turns are equal to the encoded turns.
+ * <p>
+ * Turns must be decoded in the same order as they were encoded, starting from the last {@link #reset()}, which is
+ * done at every keyframe, i.e. a turn that does not depend on the turns before it.
+ */
+public final class TurnSnapshotCodec {
+
+	private static final RobotSnapshot BLANK_ROBOT = new RobotSnapshot();
+	private static final BulletSnapshot BLANK_BULLET = new BulletSnapshot();
+
+	// Used when encoding
+	private final Map<String, Integer> stringIds = new HashMap<String, Integer>();
+	private final Buffer turnBuffer = new Buffer();
+	private final DataOutputStream turnOut = new DataOutputStream(turnBuffer);
+	private final DeltaOutput[] deltaOutputs = { new DeltaOutput(this), new DeltaOutput(this) };
+
+	// Used when decoding
+	private final List<String> strings = new ArrayList<String>();
+	private final DeltaInput[] deltaInputs = { new DeltaInput(this), new DeltaInput(this) };
+
+	private ITurnSnapshot previousTurn;
+	private final Map<Integer, BulletSnapshot> previousBullets = new HashMap<Integer, BulletSnapshot>();
+
+	/**
+	 * Forgets the previous turn and all strings, so the next turn is encoded or decoded on its own.
+	 */
+	public void reset() {
+		stringIds.clear();
+		strings.clear();
+		previousTurn = null;
+		previousBullets.clear();
+	}
+
+	/**
+	 * Encodes a turn as the difference to the turn encoded before it.
+	 *
+	 * @param turn the turn to encode.
+	 * @param stream the stream to write the encoded turn to.
+	 * @throws IOException if the turn could not be written.
+	 */
+	public void encode(ITurnSnapshot turn, OutputStream stream) throws IOException {
+		// The turn is encoded into a buffer, so the stream is written to once per turn
+		final DataOutputStream out = turnOut;
+
+		turnBuffer.reset();
+		writeVarInt(out, turn.getRound());
+		writeVarInt(out, turn.getTurn());
+		writeVarInt(out, turn.getTPS());
+
+		final IRobotSnapshot[] robots = turn.getRobots();
+		final IRobotSnapshot[] previousRobots = previousTurn != null ? previousTurn.getRobots() : null;
+
+		writeVarInt(out, robots.length);
+		for (int i = 0; i < robots.length; i++) {
+			final RobotSnapshot previous = (previousRobots != null && i < previousRobots.length)
+					? (RobotSnapshot) previousRobots[i]
+					: BLANK_ROBOT;
+
+			((RobotSnapshot) robots[i]).writeDelta(deltaOutputs[0], deltaOutputs[1], previous);
+			deltaOutputs[0].writeTo(out);
+		}
+
+		final IBulletSnapshot[] bullets = turn.getBullets();
+
+		writeVarInt(out, bullets.length);
+		for (IBulletSnapshot bullet : bullets) {
+			BulletSnapshot previous = previousBullets.get(bullet.getBulletId());
+
+			writeVarInt(out, zigZag(bullet.getBulletId()));
+			((BulletSnapshot) bullet).writeDelta(deltaOutputs[0], previous != null ? previous : BLANK_BULLET);
+			deltaOutputs[0].writeTo(out);
+		}
+		setPreviousTurn(turn);
+		turnBuffer.writeTo(stream);
+	}
+
+	/**
+	 * Decodes a turn encoded by {@link #encode(ITurnSnapshot, OutputStream)}.
+	 *
+	 * @param in the input to read the encoded turn from.
+	 * @return the decoded turn.
+	 * @throws IOException if the turn could not be read.
+	 */
+	public ITurnSnapshot decode(DataInput in) throws IOException {
+		final int round = readVarInt(in);
+		final int time = readVarInt(in);
+		final int tps = readVarInt(in);
+
+		final IRobotSnapshot[] previousRobots = previousTurn != null ? previousTurn.getRobots() : null;
+		final List<IRobotSnapshot> robots = new ArrayList<IRobotSnapshot>();
+		final int robotCount = readVarInt(in);
+
+		for (int i = 0; i < robotCount; i++) {
+			final RobotSnapshot previous = (previousRobots != null && i < previousRobots.length)
+					? (RobotSnapshot) previousRobots[i]
+					: BLANK_ROBOT;
+			final RobotSnapshot robot = new RobotSnapshot();
+
+			deltaInputs[0].begin(in);
+			robot.readDelta(deltaInputs[0], deltaInputs[1], previous);
+			robots.add(robot);
+		}
+
+		final List<IBulletSnapshot> bullets = new ArrayList<IBulletSnapshot>();
+		final int bulletCount = readVarInt(in);
+
+		for (int i = 0; i < bulletCount; i++) {
+			final BulletSnapshot previous = previousBullets.get(unZigZag(readVarInt(in)));
+			final BulletSnapshot bullet = new BulletSnapshot();
+
+			deltaInputs[0].begin(in);
+			bullet.readDelta(deltaInputs[0], previous != null ? previous : BLANK_BULLET);
+			bullets.add(bullet);
+		}
+
+		final TurnSnapshot turn = new TurnSnapshot(robots, bullets, tps, round, time);
+
+		setPreviousTurn(turn);
+		return turn;
+	}
+
+	private void setPreviousTurn(ITurnSnapshot turn) {
+		previousTurn = turn;
+		previousBullets.clear();
+		for (IBulletSnapshot bullet : turn.getBullets()) {
+			previousBullets.put(bullet.getBulletId(), (BulletSnapshot) bullet);
+		}
+	}
+
+	private void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			writeVarInt(out, 0);
+			return;
+		}
+		final Integer id = stringIds.get(value);
+
+		if (id != null) {
+			writeVarInt(out, id + 2);
+			return;
+		}
+		stringIds.put(value, stringIds.size());
+
+		final byte[] bytes = value.getBytes("UTF-8");
+
+		writeVarInt(out, 1);
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private String readString(DataInput in) throws IOException {
+		final int id = readVarInt(in);
+
+		if (id == 0) {
+			return null;
+		}
+		if (id > 1) {
+			return strings.get(id - 2);
+		}
+		final byte[] bytes = new byte[readVarInt(in)];
+
+		in.readFully(bytes);
+
+		final String value = new String(bytes, "UTF-8");
+
+		strings.add(value);
+		return value;
+	}
+
+	static void writeVarInt(DataOutput out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	static int readVarInt(DataInput in) throws IOException {
+		int value = 0;
+
+		for (int shift = 0; shift < 35; shift += 7) {
+			final int b = in.readByte();
+
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+
+		for (int shift = 0; shift < 70; shift += 7) {
+			final int b = in.readByte();
+
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Writes the fields of a snapshot that differ from a previous snapshot. A bit mask with a bit for every field
+	 * tells which fields have changed, and is written before the values of the changed fields.
+	 */
+	static final class DeltaOutput {
+		private final TurnSnapshotCodec codec;
+		private final Buffer bytes = new Buffer();
+		private final DataOutputStream values = new DataOutputStream(bytes);
+
+		private long mask;
+		private int bit;
+
+		DeltaOutput(TurnSnapshotCodec codec) {
+			this.codec = codec;
+		}
+
+		void begin() {
+			bytes.reset();
+			mask = 0;
+			bit = 0;
+		}
+
+		void writeTo(DataOutputStream out) throws IOException {
+			writeVarLong(out, mask);
+			bytes.writeTo(out);
+		}
+
+		/**
+		 * Returns the output for values following the changed fields, e.g. a nested snapshot.
+		 */
+		DataOutputStream values() {
+			return values;
+		}
+
+		boolean isChanged(boolean isChanged) {
+			if (bit == 64) {
+				throw new IllegalStateException("Too many fields");
+			}
+			if (isChanged) {
+				mask |= 1L << bit;
+			}
+			bit++;
+			return isChanged;
+		}
+
+		void writeBoolean(boolean value, boolean previous) {
+			// A changed boolean is the opposite of the previous value
+			isChanged(value != previous);
+		}
+
+		void writeInt(int value, int previous) throws IOException {
+			if (isChanged(value != previous)) {
+				writeVarInt(values, zigZag(value - previous));
+			}
+		}
+
+		void writeDouble(double value, double previous) throws IOException {
+			final long bits = Double.doubleToRawLongBits(value);
+			final long diff = bits ^ Double.doubleToRawLongBits(previous);
+
+			if (isChanged(diff != 0)) {
+				// Only the bytes between the leading and trailing bytes that are equal are written
+				final int leading = Long.numberOfLeadingZeros(diff) / 8;
+				final int trailing = Long.numberOfTrailingZeros(diff) / 8;
+
+				values.writeByte((leading << 4) | trailing);
+				for (int i = 7 - leading; i >= trailing; i--) {
+					values.writeByte((int) (diff >>> (i * 8)));
+				}
+			}
+		}
+
+		void writeString(String value, String previous) throws IOException {
+			if (isChanged(value == null ? previous != null : !value.equals(previous))) {
+				codec.writeString(values, value);
+			}
+		}
+
+		void writeStringValue(String value) throws IOException {
+			codec.writeString(values, value);
+		}
+	}
+
+	/**
+	 * Reads the fields written by {@link DeltaOutput}, where fields that have not changed are taken from the
+	 * previous snapshot.
+	 */
+	static final class DeltaInput {
+		private final TurnSnapshotCodec codec;
+
+		private DataInput values;
+		private long mask;
+		private int bit;
+
+		DeltaInput(TurnSnapshotCodec codec) {
+			this.codec = codec;
+		}
+
+		void begin(DataInput in) throws IOException {
+			values = in;
+			mask = readVarLong(in);
+			bit = 0;
+		}
+
+		DataInput values() {
+			return values;
+		}
+
+		boolean isChanged() {
+			return (mask & (1L << bit++)) != 0;
+		}
+
+		boolean readBoolean(boolean previous) {
+			return isChanged() != previous;
+		}
+
+		int readInt(int previous) throws IOException {
+			return isChanged() ? previous + unZigZag(readVarInt(values)) : previous;
+		}
+
+		double readDouble(double previous) throws IOException {
+			if (!isChanged()) {
+				return previous;
+			}
+			final int header = values.readUnsignedByte();
+			final int leading = header >>> 4;
+			final int trailing = header & 0x0F;
+			long diff = 0;
+
+			for (int i = 7 - leading; i >= trailing; i--) {
+				diff |= (long) values.readUnsignedByte() << (i * 8);
+			}
+			return Double.longBitsToDouble(Double.doubleToRawLongBits(previous) ^ diff);
+		}
+
+		String readString(String previous) throws IOException {
+			return isChanged() ? codec.readString(values) : previous;
+		}
+
+		String readStringValue() throws IOException {
+			return codec.readString(values);
+		}
+	}
+
+	/**
+	 * Byte array output stream without the synchronization of {@link ByteArrayOutputStream}, as every value is
+	 * written to it one byte at a time.
+	 */
+	private static final class Buffer extends OutputStream {
+		private byte[] bytes = new byte[1024];
+		private int size;
+
+		@Override
+		public void write(int b) {
+			if (size == bytes.length) {
+				bytes = Arrays.copyOf(bytes, size * 2);
+			}
+			bytes[size++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			if (size + len > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(size + len, size * 2));
+			}
+			System.arraycopy(b, off, bytes, size, len);
+			size += len;
+		}
+
+		void reset() {
+			size = 0;
+		}
+
+		void writeTo(OutputStream out) throws IOException {
+			out.write(bytes, 0, size);
+		}
+	}
+}
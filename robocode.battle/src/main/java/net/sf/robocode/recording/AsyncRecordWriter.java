@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+/**
+ * Writes the turns of a record on a background thread, so the battle thread does not have to wait for the turns to be
+ * serialized and written to the file.
+ * <p>
+ * The turns are handed over through a bounded queue. If the writer thread falls behind and the queue is full, the
+ * battle thread waits until there is room in the queue, so the queue cannot grow without limits.
+ */
+final class AsyncRecordWriter implements RecordWriter {
+
+	static final int QUEUE_CAPACITY = 256;
+
+	private static final Entry END = new Entry(null, -1);
+
+	private final RecordWriter writer;
+	private final BlockingQueue<Entry> queue;
+	private final Thread thread;
+
+	private volatile IOException failure;
+	private boolean isFailureReported;
+	private boolean isEnded;
+
+	AsyncRecordWriter(RecordWriter writer, int capacity) {
+		this.writer = writer;
+		queue = new ArrayBlockingQueue<Entry>(capacity);
+
+		thread = new Thread(new Runnable() {
+			public void run() {
+				writeTurns();
+			}
+		}, "Robocode record writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Queues a turn to be written. A failure of the writer thread is reported by the first call after the failure,
+	 * and the turns queued after that are discarded.
+	 */
+	public void writeTurn(ITurnSnapshot turn, int round) throws IOException {
+		if (failure != null) {
+			if (!isFailureReported) {
+				isFailureReported = true;
+				throw failure;
+			}
+			return;
+		}
+		put(new Entry(turn, round));
+	}
+
+	/**
+	 * Waits for the writer thread to write all turns in the queue, and finishes the record.
+	 */
+	public void finish(BattleRecordInfo recordInfo) throws IOException {
+		end();
+		checkFailure();
+		writer.finish(recordInfo);
+	}
+
+	public void close() throws IOException {
+		try {
+			end();
+		} finally {
+			writer.close();
+		}
+	}
+
+	private void end() throws IOException {
+		if (isEnded) {
+			return;
+		}
+		isEnded = true;
+		put(END);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the record to be written");
+		}
+	}
+
+	private void put(Entry entry) throws IOException {
+		try {
+			queue.put(entry);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the record writer");
+		}
+	}
+
+	private void checkFailure() throws IOException {
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void writeTurns() {
+		try {
+			for (;;) {
+				final Entry entry = queue.take();
+
+				if (entry == END) {
+					return;
+				}
+				// The queue is still emptied after a failure, so the battle thread never waits for a full queue
+				if (failure == null) {
+					try {
+						writer.writeTurn(entry.turn, entry.round);
+					} catch (IOException e) {
+						failure = e;
+					} catch (RuntimeException e) {
+						failure = new IOException(e);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			failure = new InterruptedIOException("The record writer was interrupted");
+		}
+	}
+
+	private static final class Entry {
+		final ITurnSnapshot turn;
+		final int round;
+
+		Entry(ITurnSnapshot turn, int round) {
+			this.turn = turn;
+			this.round = round;
+		}
+	}
+}
@@ -72,7 +72,7 @@ public final class BattlePlayer extends BaseBattle {
 	protected void initializeRound() {
 		super.initializeRound();
 
-		final ITurnSnapshot snapshot = recordManager.readSnapshot(currentTime);
+		final ITurnSnapshot snapshot = recordManager.readSnapshot(getRoundNum(), currentTime);
 
 		if (snapshot != null) {
 			eventDispatcher.onRoundStarted(new RoundStartedEvent(snapshot, getRoundNum()));
@@ -95,7 +95,7 @@ public final class BattlePlayer extends BaseBattle {
 
 	@Override
 	protected void finalizeTurn() {
-		final ITurnSnapshot snapshot = recordManager.readSnapshot(currentTime);
+		final ITurnSnapshot snapshot = recordManager.readSnapshot(getRoundNum(), currentTime);
 
 		if (snapshot != null) {
 			final IRobotSnapshot[] robots = snapshot.getRobots();
@@ -128,10 +128,11 @@ class BattleRecorder {
 				name.setLength(name.length() - 1);
 				if (properties.getOptionsCommonAutoRecordingXML()) {
 					name.append(".xml.zip");
-					recordmanager.saveRecord(name.toString(), BattleRecordFormat.XML_ZIP, new SerializableOptions(true));
+					recordmanager.saveRecordInBackground(name.toString(), BattleRecordFormat.XML_ZIP,
+							new SerializableOptions(true));
 				} else {
 					name.append(".zip.br");
-					recordmanager.saveRecord(name.toString(), BattleRecordFormat.BINARY_ZIP,
+					recordmanager.saveRecordInBackground(name.toString(), BattleRecordFormat.BINARY_ZIP,
 							new SerializableOptions(true));
 				}
 			} catch (IOException e) {
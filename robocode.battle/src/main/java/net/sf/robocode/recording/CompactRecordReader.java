@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshotCodec;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+
+/**
+ * Reads a battle record in the {@link BattleRecordFormat#BINARY_COMPACT} format written by
+ * {@link CompactRecordWriter}. Only the index and the record info are read when the record is opened.
+ * A turn is read by decoding the block containing it, where the turns of the last decoded block are kept,
+ * so reading the turns in order decodes every block once.
+ */
+final class CompactRecordReader implements RecordReader {
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+
+	private final int keyframeInterval;
+	private final long infoOffset;
+	private final long indexOffset;
+	private final int[] turnsInRounds;
+	private final int[] roundBlocks;
+	private final long[] blockOffsets;
+
+	private final TurnSnapshotCodec codec = new TurnSnapshotCodec();
+	private final Inflater inflater = new Inflater();
+
+	private ByteBuffer readBuffer = ByteBuffer.allocate(64 * 1024);
+	private byte[] blockBuffer = new byte[256 * 1024];
+
+	private int decodedBlock = -1;
+	private ITurnSnapshot[] decodedTurns;
+
+	CompactRecordReader(File file) throws IOException {
+		this.file = new RandomAccessFile(file, "r");
+		channel = this.file.getChannel();
+
+		try {
+			final long length = channel.size();
+
+			if (length < CompactRecordWriter.HEADER_SIZE + CompactRecordWriter.TRAILER_SIZE) {
+				throw new IOException("Not a complete compact battle record: " + file);
+			}
+			DataInputStream in = read(0, CompactRecordWriter.HEADER_SIZE);
+
+			if (in.readInt() != CompactRecordWriter.MAGIC) {
+				throw new IOException("Not a compact battle record: " + file);
+			}
+			if (in.readInt() > CompactRecordWriter.VERSION) {
+				throw new IOException("Unsupported version of compact battle record: " + file);
+			}
+			keyframeInterval = in.readInt();
+
+			in = read(length - CompactRecordWriter.TRAILER_SIZE, CompactRecordWriter.TRAILER_SIZE);
+
+			infoOffset = in.readLong();
+			indexOffset = in.readLong();
+
+			if (in.readInt() != CompactRecordWriter.MAGIC || infoOffset < CompactRecordWriter.HEADER_SIZE
+					|| infoOffset > indexOffset || indexOffset > length - CompactRecordWriter.TRAILER_SIZE
+					|| keyframeInterval <= 0) {
+				throw new IOException("Not a complete compact battle record: " + file);
+			}
+			final long indexLength = length - CompactRecordWriter.TRAILER_SIZE - indexOffset;
+
+			in = read(indexOffset, (int) indexLength);
+
+			final int roundCount = in.readInt();
+
+			if (roundCount < 0 || 4 + 4L * roundCount > indexLength) {
+				throw new IOException("Corrupt index in compact battle record: " + file);
+			}
+			turnsInRounds = new int[roundCount];
+			roundBlocks = new int[roundCount + 1];
+			for (int i = 0; i < roundCount; i++) {
+				turnsInRounds[i] = in.readInt();
+				if (turnsInRounds[i] < 0) {
+					throw new IOException("Corrupt index in compact battle record: " + file);
+				}
+				roundBlocks[i + 1] = roundBlocks[i]
+						+ (int) ((turnsInRounds[i] + (long) keyframeInterval - 1) / keyframeInterval);
+			}
+			if (4 + 4L * roundCount + 8L * roundBlocks[roundCount] != indexLength) {
+				throw new IOException("Corrupt index in compact battle record: " + file);
+			}
+			blockOffsets = new long[roundBlocks[roundCount]];
+			for (int i = 0; i < blockOffsets.length; i++) {
+				blockOffsets[i] = in.readLong();
+				if (blockOffsets[i] < (i == 0 ? CompactRecordWriter.HEADER_SIZE : blockOffsets[i - 1] + 4)
+						|| blockOffsets[i] > infoOffset - 4) {
+					throw new IOException("Corrupt index in compact battle record: " + file);
+				}
+			}
+			int maxTurns = 0;
+
+			for (int turns : turnsInRounds) {
+				maxTurns = Math.max(maxTurns, turns);
+			}
+			decodedTurns = new ITurnSnapshot[Math.min(keyframeInterval, maxTurns)];
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	public int getRoundCount() {
+		return turnsInRounds.length;
+	}
+
+	public int getTurnCount(int round) {
+		return turnsInRounds[round];
+	}
+
+	public synchronized BattleRecordInfo readRecordInfo() throws IOException, ClassNotFoundException {
+		final InputStream in = read(infoOffset, (int) (indexOffset - infoOffset));
+
+		return (BattleRecordInfo) new ObjectInputStream(in).readObject();
+	}
+
+	public synchronized ITurnSnapshot readTurn(int round, int turn) throws IOException {
+		if (round < 0 || round >= turnsInRounds.length || turn < 0 || turn >= turnsInRounds[round]) {
+			return null;
+		}
+		final int block = roundBlocks[round] + turn / keyframeInterval;
+
+		if (block != decodedBlock) {
+			final int firstTurn = (turn / keyframeInterval) * keyframeInterval;
+
+			decodeBlock(block, Math.min(keyframeInterval, turnsInRounds[round] - firstTurn));
+		}
+		return decodedTurns[turn % keyframeInterval];
+	}
+
+	public void close() {
+		inflater.end();
+		try {
+			file.close();
+		} catch (IOException ignore) {}
+	}
+
+	private void decodeBlock(int block, int turnCount) throws IOException {
+		decodedBlock = -1;
+
+		final long offset = blockOffsets[block];
+		final long end = (block + 1 < blockOffsets.length) ? blockOffsets[block + 1] : infoOffset;
+		final int length = (int) (end - offset);
+
+		final DataInputStream in = read(offset, length);
+		final int deflatedLength = in.readInt();
+
+		inflater.reset();
+		inflater.setInput(readBuffer.array(), 4, deflatedLength);
+
+		int inflatedLength = 0;
+
+		try {
+			while (!inflater.finished()) {
+				if (inflatedLength == blockBuffer.length) {
+					final byte[] buffer = new byte[blockBuffer.length * 2];
+
+					System.arraycopy(blockBuffer, 0, buffer, 0, inflatedLength);
+					blockBuffer = buffer;
+				}
+				final int inflated = inflater.inflate(blockBuffer, inflatedLength, blockBuffer.length - inflatedLength);
+
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new EOFException("Truncated block in compact battle record");
+				}
+				inflatedLength += inflated;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt block in compact battle record: " + e.getMessage());
+		}
+
+		final DataInputStream turns = new DataInputStream(new BlockInputStream(blockBuffer, inflatedLength));
+
+		codec.reset();
+		for (int i = 0; i < turnCount; i++) {
+			decodedTurns[i] = codec.decode(turns);
+		}
+		decodedBlock = block;
+	}
+
+	private DataInputStream read(long position, int length) throws IOException {
+		if (readBuffer.capacity() < length) {
+			readBuffer = ByteBuffer.allocate(Math.max(length, readBuffer.capacity() * 2));
+		}
+		readBuffer.clear();
+		readBuffer.limit(length);
+
+		while (readBuffer.hasRemaining()) {
+			if (channel.read(readBuffer, position + readBuffer.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+		return new DataInputStream(new ByteArrayInputStream(readBuffer.array(), 0, length));
+	}
+
+	/**
+	 * Byte array input stream without the synchronization of {@link ByteArrayInputStream}, as the turns are read from
+	 * it one byte at a time.
+	 */
+	private static final class BlockInputStream extends InputStream {
+		private final byte[] bytes;
+		private final int length;
+		private int position;
+
+		BlockInputStream(byte[] bytes, int length) {
+			this.bytes = bytes;
+			this.length = length;
+		}
+
+		@Override
+		public int read() {
+			return position < length ? bytes[position++] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (position >= length) {
+				return -1;
+			}
+			final int count = Math.min(len, length - position);
+
+			System.arraycopy(bytes, position, b, off, count);
+			position += count;
+			return count;
+		}
+	}
+}
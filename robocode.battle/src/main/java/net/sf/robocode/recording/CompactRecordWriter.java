@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshotCodec;
+import net.sf.robocode.io.FileUtil;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+
+/**
+ * Writes a battle record in the {@link BattleRecordFormat#BINARY_COMPACT} format.
+ * <p>
+ * The turns are encoded with a {@link TurnSnapshotCodec}, where every turn is stored as the difference to the turn
+ * before it. The turns are grouped into blocks starting with a keyframe, i.e. a turn that is encoded on its own.
+ * A block is started with the first turn of every round and after every {@link #KEYFRAME_INTERVAL} turns, and is
+ * compressed on its own, so any turn can be read by decoding the turns of its block only.
+ * The record info and an index with the offset of every block is written at the end of the file:
+ * <pre>
+ * header:  int MAGIC, int VERSION, int KEYFRAME_INTERVAL
+ * blocks:  int length, deflated turns of the block
+ * info:    serialized BattleRecordInfo
+ * index:   int roundCount, int[roundCount] turnCounts, long[blockCount] blockOffsets
+ * trailer: long infoOffset, long indexOffset, int MAGIC
+ * </pre>
+ */
+final class CompactRecordWriter implements RecordWriter {
+
+	static final int MAGIC = 0x52424358; // "RBCX"
+	static final int VERSION = 1;
+	static final int KEYFRAME_INTERVAL = 50;
+	static final int HEADER_SIZE = 12;
+	static final int TRAILER_SIZE = 20;
+
+	private final DataOutputStream dataStream;
+
+	private final TurnSnapshotCodec codec = new TurnSnapshotCodec();
+	private final ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream(256 * 1024);
+	private final Deflater deflater = new Deflater();
+	private final byte[] deflateBuffer = new byte[64 * 1024];
+
+	private long position;
+	private long[] blockOffsets = new long[256];
+	private int blockCount;
+	private int[] turnsInRounds = new int[10];
+	private int roundCount;
+
+	CompactRecordWriter(File file) throws IOException {
+		dataStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1024 * 1024));
+
+		dataStream.writeInt(MAGIC);
+		dataStream.writeInt(VERSION);
+		dataStream.writeInt(KEYFRAME_INTERVAL);
+		position = HEADER_SIZE;
+	}
+
+	public void writeTurn(ITurnSnapshot turn, int round) throws IOException {
+		if (round < roundCount - 1) {
+			throw new IllegalStateException("Turns must be written in order of their rounds");
+		}
+		if (round >= turnsInRounds.length) {
+			turnsInRounds = Arrays.copyOf(turnsInRounds, Math.max(round + 1, turnsInRounds.length * 2));
+		}
+		if (round != roundCount - 1 || turnsInRounds[round] % KEYFRAME_INTERVAL == 0) {
+			writeBlock();
+			codec.reset();
+		}
+		roundCount = round + 1;
+		turnsInRounds[round]++;
+
+		codec.encode(turn, blockBuffer);
+	}
+
+	public void finish(BattleRecordInfo recordInfo) throws IOException {
+		writeBlock();
+
+		final long infoOffset = position;
+		final ByteArrayOutputStream infoBuffer = new ByteArrayOutputStream();
+		final ObjectOutputStream objectStream = new ObjectOutputStream(infoBuffer);
+
+		objectStream.writeObject(recordInfo);
+		objectStream.flush();
+		infoBuffer.writeTo(dataStream);
+
+		final long indexOffset = infoOffset + infoBuffer.size();
+
+		dataStream.writeInt(roundCount);
+		for (int i = 0; i < roundCount; i++) {
+			dataStream.writeInt(turnsInRounds[i]);
+		}
+		for (int i = 0; i < blockCount; i++) {
+			dataStream.writeLong(blockOffsets[i]);
+		}
+		dataStream.writeLong(infoOffset);
+		dataStream.writeLong(indexOffset);
+		dataStream.writeInt(MAGIC);
+		dataStream.flush();
+	}
+
+	public void close() throws IOException {
+		deflater.end();
+		dataStream.close();
+	}
+
+	private void writeBlock() throws IOException {
+		if (blockBuffer.size() == 0) {
+			return;
+		}
+		if (blockCount == blockOffsets.length) {
+			blockOffsets = Arrays.copyOf(blockOffsets, blockOffsets.length * 2);
+		}
+		blockOffsets[blockCount++] = position;
+
+		// The length of the block is only known when the whole block has been deflated
+		final ByteArrayOutputStream deflated = new ByteArrayOutputStream(blockBuffer.size() / 4);
+
+		deflater.reset();
+		deflater.setInput(blockBuffer.toByteArray());
+		deflater.finish();
+		while (!deflater.finished()) {
+			deflated.write(deflateBuffer, 0, deflater.deflate(deflateBuffer));
+		}
+		blockBuffer.reset();
+
+		dataStream.writeInt(deflated.size());
+		deflated.writeTo(dataStream);
+		position += 4 + deflated.size();
+	}
+
+	/**
+	 * Checks if a file contains a record in the {@link BattleRecordFormat#BINARY_COMPACT} format.
+	 *
+	 * @param file the file to check.
+	 * @return {@code true} if the file starts with the magic number of the format; {@code false} otherwise.
+	 */
+	static boolean isCompactRecord(File file) {
+		DataInputStream in = null;
+
+		try {
+			in = new DataInputStream(new FileInputStream(file));
+			return in.readInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			FileUtil.cleanupStream(in);
+		}
+	}
+}
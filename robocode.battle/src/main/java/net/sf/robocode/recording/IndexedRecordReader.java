@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * Reads a battle record in the {@link BattleRecordFormat#BINARY_INDEXED} format written by
+ * {@link IndexedRecordWriter}. Only the index and the record info are read when the record is opened,
+ * and any turn can be read directly using the index.
+ */
+final class IndexedRecordReader implements RecordReader {
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+
+	private final long infoOffset;
+	private final long indexOffset;
+	private final int[] turnsInRounds;
+	private final int[] roundStarts;
+	private final long[] turnOffsets;
+
+	private ByteBuffer turnBuffer = ByteBuffer.allocate(64 * 1024);
+
+	IndexedRecordReader(File file) throws IOException {
+		this.file = new RandomAccessFile(file, "r");
+		channel = this.file.getChannel();
+
+		try {
+			final long length = channel.size();
+
+			if (length < IndexedRecordWriter.HEADER_SIZE + IndexedRecordWriter.TRAILER_SIZE) {
+				throw new IOException("Not a complete indexed battle record: " + file);
+			}
+			DataInputStream in = read(length - IndexedRecordWriter.TRAILER_SIZE, IndexedRecordWriter.TRAILER_SIZE);
+
+			infoOffset = in.readLong();
+			indexOffset = in.readLong();
+
+			if (in.readInt() != IndexedRecordWriter.MAGIC || infoOffset < IndexedRecordWriter.HEADER_SIZE
+					|| infoOffset > indexOffset || indexOffset > length - IndexedRecordWriter.TRAILER_SIZE) {
+				throw new IOException("Not a complete indexed battle record: " + file);
+			}
+			in = read(0, IndexedRecordWriter.HEADER_SIZE);
+			if (in.readInt() != IndexedRecordWriter.MAGIC) {
+				throw new IOException("Not an indexed battle record: " + file);
+			}
+			final int version = in.readInt();
+
+			if (version != IndexedRecordWriter.VERSION) {
+				throw new IOException("Unsupported indexed battle record version " + version + ": " + file);
+			}
+			final long indexLength = length - IndexedRecordWriter.TRAILER_SIZE - indexOffset;
+
+			in = read(indexOffset, (int) indexLength);
+
+			final int roundCount = in.readInt();
+
+			if (roundCount < 0 || 4 + 4L * roundCount > indexLength) {
+				throw new IOException("Corrupt index in battle record: " + file);
+			}
+			turnsInRounds = new int[roundCount];
+			roundStarts = new int[roundCount + 1];
+			for (int i = 0; i < roundCount; i++) {
+				turnsInRounds[i] = in.readInt();
+				if (turnsInRounds[i] < 0) {
+					throw new IOException("Corrupt index in battle record: " + file);
+				}
+				roundStarts[i + 1] = roundStarts[i] + turnsInRounds[i];
+			}
+			if (4 + 4L * roundCount + 8L * roundStarts[roundCount] != indexLength) {
+				throw new IOException("Corrupt index in battle record: " + file);
+			}
+			turnOffsets = new long[roundStarts[roundCount]];
+			for (int i = 0; i < turnOffsets.length; i++) {
+				turnOffsets[i] = in.readLong();
+				if (turnOffsets[i] < (i == 0 ? IndexedRecordWriter.HEADER_SIZE : turnOffsets[i - 1])
+						|| turnOffsets[i] > infoOffset) {
+					throw new IOException("Corrupt index in battle record: " + file);
+				}
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	public int getRoundCount() {
+		return turnsInRounds.length;
+	}
+
+	public int getTurnCount(int round) {
+		return turnsInRounds[round];
+	}
+
+	/**
+	 * Reads the record info, which is stored after the turns.
+	 */
+	public synchronized BattleRecordInfo readRecordInfo() throws IOException, ClassNotFoundException {
+		final InputStream in = read(infoOffset, (int) (indexOffset - infoOffset));
+
+		return (BattleRecordInfo) new ClassNameInputStream(in).readObject();
+	}
+
+	/**
+	 * Reads a turn of a round directly from its position in the record.
+	 *
+	 * @param round the round of the turn.
+	 * @param turn the turn number within the round.
+	 * @return the turn snapshot, or {@code null} if the record does not contain the turn.
+	 */
+	public synchronized ITurnSnapshot readTurn(int round, int turn) throws IOException, ClassNotFoundException {
+		if (round < 0 || round >= turnsInRounds.length || turn < 0 || turn >= turnsInRounds[round]) {
+			return null;
+		}
+		final int index = roundStarts[round] + turn;
+		final InputStream in = read(turnOffsets[index], getTurnLength(index));
+
+		return (ITurnSnapshot) new ClassNameInputStream(in).readObject();
+	}
+
+	int getTurnLength(int round, int turn) {
+		return getTurnLength(roundStarts[round] + turn);
+	}
+
+	/**
+	 * Copies the bytes of all turns to the current position of another channel.
+	 */
+	synchronized void transferTurnsTo(FileChannel target) throws IOException {
+		long position = turnOffsets.length > 0 ? turnOffsets[0] : infoOffset;
+
+		while (position < infoOffset) {
+			position += channel.transferTo(position, infoOffset - position, target);
+		}
+	}
+
+	public void close() {
+		try {
+			file.close();
+		} catch (IOException ignore) {}
+	}
+
+	private int getTurnLength(int index) {
+		final long end = (index + 1 < turnOffsets.length) ? turnOffsets[index + 1] : infoOffset;
+
+		return (int) (end - turnOffsets[index]);
+	}
+
+	private DataInputStream read(long position, int length) throws IOException {
+		if (turnBuffer.capacity() < length) {
+			turnBuffer = ByteBuffer.allocate(Math.max(length, turnBuffer.capacity() * 2));
+		}
+		turnBuffer.clear();
+		turnBuffer.limit(length);
+
+		while (turnBuffer.hasRemaining()) {
+			if (channel.read(turnBuffer, position + turnBuffer.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+		return new DataInputStream(new ByteArrayInputStream(turnBuffer.array(), 0, length));
+	}
+
+	/**
+	 * Object input stream reading the class names and serialVersionUIDs written by {@link IndexedRecordWriter}
+	 * instead of full class descriptors. The class descriptors are looked up from the local classes, which must
+	 * have the same serialVersionUID as the recorded classes.
+	 */
+	private static final class ClassNameInputStream extends ObjectInputStream {
+
+		ClassNameInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+			final String name = readUTF();
+			final long serialVersionUID = readLong();
+			final ObjectStreamClass desc = ObjectStreamClass.lookup(
+					Class.forName(name, false, ClassNameInputStream.class.getClassLoader()));
+
+			if (desc == null) {
+				throw new InvalidClassException(name, "Class is not serializable");
+			}
+			if (desc.getSerialVersionUID() != serialVersionUID) {
+				throw new InvalidClassException(name,
+						"local class incompatible: stream classdesc serialVersionUID = " + serialVersionUID
+						+ ", local class serialVersionUID = " + desc.getSerialVersionUID());
+			}
+			return desc;
+		}
+	}
+}
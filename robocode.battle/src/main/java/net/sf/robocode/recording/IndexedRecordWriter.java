@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.io.FileUtil;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.util.Arrays;
+
+
+/**
+ * Writes a battle record in the {@link BattleRecordFormat#BINARY_INDEXED} format.
+ * <p>
+ * Each turn is serialized on its own, so it can be read without reading the turns before it. Class descriptors
+ * are written as class names and serialVersionUIDs only, as they would otherwise be repeated for every turn.
+ * The record info and an index with the offset of every turn is written at the end of the file,
+ * when the record is finished, followed by a trailer pointing to the record info and the index:
+ * <pre>
+ * header:  int MAGIC, int VERSION
+ * turns:   serialized turn snapshots of all rounds in order
+ * info:    serialized BattleRecordInfo
+ * index:   int roundCount, int[roundCount] turnCounts, long[turnCount] turnOffsets
+ * trailer: long infoOffset, long indexOffset, int MAGIC
+ * </pre>
+ */
+final class IndexedRecordWriter implements RecordWriter {
+
+	static final int MAGIC = 0x52424958; // "RBIX"
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 8;
+	static final int TRAILER_SIZE = 20;
+
+	private final FileOutputStream fileStream;
+	private final DataOutputStream dataStream;
+	private final ByteArrayOutputStream turnBuffer = new ByteArrayOutputStream(64 * 1024);
+
+	private long position;
+	private long[] turnOffsets = new long[1024];
+	private int turnCount;
+	private int[] turnsInRounds = new int[10];
+	private int roundCount;
+
+	IndexedRecordWriter(File file) throws IOException {
+		fileStream = new FileOutputStream(file);
+		dataStream = new DataOutputStream(new BufferedOutputStream(fileStream, 1024 * 1024));
+
+		dataStream.writeInt(MAGIC);
+		dataStream.writeInt(VERSION);
+		position = HEADER_SIZE;
+	}
+
+	/**
+	 * Appends a turn to the record.
+	 *
+	 * @param turn the turn snapshot.
+	 * @param round the round of the turn. Turns must be written in order of their rounds.
+	 */
+	public void writeTurn(ITurnSnapshot turn, int round) throws IOException {
+		turnBuffer.reset();
+
+		ObjectOutputStream objectStream = new ClassNameOutputStream(turnBuffer);
+
+		objectStream.writeObject(turn);
+		objectStream.flush();
+
+		addTurn(round, turnBuffer.size());
+		turnBuffer.writeTo(dataStream);
+	}
+
+	/**
+	 * Appends all turns of another indexed record to this record, by copying the bytes of the turns.
+	 *
+	 * @param source the record to copy the turns from.
+	 */
+	void copyTurns(IndexedRecordReader source) throws IOException {
+		for (int round = 0; round < source.getRoundCount(); round++) {
+			for (int turn = 0; turn < source.getTurnCount(round); turn++) {
+				addTurn(round, source.getTurnLength(round, turn));
+			}
+		}
+		dataStream.flush();
+		source.transferTurnsTo(fileStream.getChannel());
+	}
+
+	/**
+	 * Finishes the record by writing the record info, the index, and the trailer.
+	 *
+	 * @param recordInfo the record info.
+	 */
+	public void finish(BattleRecordInfo recordInfo) throws IOException {
+		final long infoOffset = position;
+
+		turnBuffer.reset();
+
+		ObjectOutputStream objectStream = new ClassNameOutputStream(turnBuffer);
+
+		objectStream.writeObject(recordInfo);
+		objectStream.flush();
+		turnBuffer.writeTo(dataStream);
+
+		final long indexOffset = infoOffset + turnBuffer.size();
+
+		dataStream.writeInt(roundCount);
+		for (int i = 0; i < roundCount; i++) {
+			dataStream.writeInt(turnsInRounds[i]);
+		}
+		for (int i = 0; i < turnCount; i++) {
+			dataStream.writeLong(turnOffsets[i]);
+		}
+		dataStream.writeLong(infoOffset);
+		dataStream.writeLong(indexOffset);
+		dataStream.writeInt(MAGIC);
+		dataStream.flush();
+	}
+
+	public void close() throws IOException {
+		dataStream.close();
+	}
+
+	private void addTurn(int round, int length) {
+		if (round < roundCount - 1) {
+			throw new IllegalStateException("Turns must be written in order of their rounds");
+		}
+		if (round >= turnsInRounds.length) {
+			turnsInRounds = Arrays.copyOf(turnsInRounds, Math.max(round + 1, turnsInRounds.length * 2));
+		}
+		roundCount = round + 1;
+		turnsInRounds[round]++;
+
+		if (turnCount == turnOffsets.length) {
+			turnOffsets = Arrays.copyOf(turnOffsets, turnOffsets.length * 2);
+		}
+		turnOffsets[turnCount++] = position;
+		position += length;
+	}
+
+	/**
+	 * Checks if a file contains a record in the {@link BattleRecordFormat#BINARY_INDEXED} format.
+	 *
+	 * @param file the file to check.
+	 * @return {@code true} if the file starts with the magic number of the format; {@code false} otherwise.
+	 */
+	static boolean isIndexedRecord(File file) {
+		DataInputStream in = null;
+
+		try {
+			in = new DataInputStream(new FileInputStream(file));
+			return in.readInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			FileUtil.cleanupStream(in);
+		}
+	}
+
+	/**
+	 * Object output stream writing only the names and serialVersionUIDs of classes instead of full class
+	 * descriptors.
+	 */
+	private static final class ClassNameOutputStream extends ObjectOutputStream {
+
+		ClassNameOutputStream(OutputStream out) throws IOException {
+			super(out);
+		}
+
+		@Override
+		protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+			writeUTF(desc.getName());
+			writeLong(desc.getSerialVersionUID());
+		}
+	}
+}
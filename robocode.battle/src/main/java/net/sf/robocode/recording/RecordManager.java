@@ -23,7 +23,6 @@ import robocode.BattleRules;
 import robocode.control.snapshot.ITurnSnapshot;
 
 import java.io.*;
-import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.List;
@@ -44,13 +43,16 @@ public class RecordManager implements IRecordManager {
 	private BattleRecorder recorder;
 
 	BattleRecordInfo recordInfo;
-	private FileOutputStream fileWriteStream;
-	private BufferedOutputStream bufferedWriteStream;
-	private ObjectOutputStream objectWriteStream;
 
-	private FileInputStream fileReadStream;
-	private BufferedInputStream bufferedReadStream;
-	private ObjectInputStream objectReadStream;
+	// The record being replayed, which is either the temp file or a loaded record in the indexed or compact format
+	private File recordFile;
+	private RecordWriter recordWriter;
+
+	// Saves a record in the background, while the record must not be changed
+	private volatile Thread saveThread;
+	// The failure of the background save, which is handled by the thread waiting for the save
+	private IOException saveFailure;
+	private RecordReader recordReader;
 
 	public RecordManager(ISettingsManager properties) { // NO_UCD (unused code)
 		this.properties = properties;
@@ -66,6 +68,7 @@ public class RecordManager implements IRecordManager {
 	}
 
 	private void cleanup() {
+		awaitSave();
 		cleanupStreams();
 		if (tempFile != null && tempFile.exists()) {
 			if (tempFile.delete() == false) {
@@ -73,23 +76,41 @@ public class RecordManager implements IRecordManager {
 			}
 			tempFile = null;
 		}
+		recordFile = null;
 		recordInfo = null;
 	}
 
 	void cleanupStreams() {
-		FileUtil.cleanupStream(objectWriteStream);
-		objectWriteStream = null;
-		FileUtil.cleanupStream(bufferedWriteStream);
-		bufferedWriteStream = null;
-		FileUtil.cleanupStream(fileWriteStream);
-		fileWriteStream = null;
-
-		FileUtil.cleanupStream(objectReadStream);
-		objectReadStream = null;
-		FileUtil.cleanupStream(bufferedReadStream);
-		bufferedReadStream = null;
-		FileUtil.cleanupStream(fileReadStream);
-		fileReadStream = null;
+		finishRecording();
+
+		if (recordReader != null) {
+			recordReader.close();
+			recordReader = null;
+		}
+	}
+
+	/**
+	 * Finishes the temp file with the index of the recorded turns, so it can be replayed and saved.
+	 */
+	private void finishRecording() {
+		if (recordWriter != null) {
+			try {
+				recordWriter.finish(recordInfo);
+			} catch (IOException e) {
+				logError(e);
+			} finally {
+				closeWriter(recordWriter);
+				recordWriter = null;
+			}
+		}
+	}
+
+	private static void closeWriter(RecordWriter writer) {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			logError(e);
+		}
 	}
 
 	public void attachRecorder(BattleEventDispatcher battleEventDispatcher) {
@@ -101,6 +122,8 @@ public class RecordManager implements IRecordManager {
 	}
 
 	private void createTempFile() {
+		awaitSave();
+		recordFile = null;
 		try {
 			if (tempFile == null) {
 				tempFile = File.createTempFile("robocode-battle-records", ".tmp");
@@ -117,36 +140,40 @@ public class RecordManager implements IRecordManager {
 			logError(e);
 			throw new Error("Temp file creation failed", e);
 		}
+		recordFile = tempFile;
 	}
 
 	void prepareInputStream() {
+		finishRecording();
 		try {
-			fileReadStream = new FileInputStream(tempFile);
-			bufferedReadStream = new BufferedInputStream(fileReadStream);
-			objectReadStream = new ObjectInputStream(bufferedReadStream);
-		} catch (FileNotFoundException e) {
-			logError(e);
-			fileReadStream = null;
-			bufferedReadStream = null;
-			objectReadStream = null;
+			recordReader = openRecord(recordFile);
 		} catch (IOException e) {
 			logError(e);
-			fileReadStream = null;
-			bufferedReadStream = null;
-			objectReadStream = null;
+			recordReader = null;
+		}
+	}
+
+	/**
+	 * Opens a record in the indexed or compact format, depending on the magic number of the file.
+	 */
+	private static RecordReader openRecord(File file) throws IOException {
+		if (CompactRecordWriter.isCompactRecord(file)) {
+			return new CompactRecordReader(file);
 		}
+		return new IndexedRecordReader(file);
 	}
 
-	ITurnSnapshot readSnapshot(int currentTime) {
-		if (objectReadStream == null) {
+	private static boolean isSeekableFormat(BattleRecordFormat format) {
+		return format == BattleRecordFormat.BINARY_INDEXED || format == BattleRecordFormat.BINARY_COMPACT;
+	}
+
+	ITurnSnapshot readSnapshot(int round, int time) {
+		if (recordReader == null) {
 			return null;
 		}
 		try {
-			// TODO implement seek to currentTime, warn you. turns don't have same size in bytes
-			return (ITurnSnapshot) objectReadStream.readObject();
-		} catch (EOFException e) {
-			logError(e);
-			return null;
+			// The turn is looked up in the index of the record, so turns can be read in any order
+			return recordReader.readTurn(round, time);
 		} catch (Exception e) {
 			logError(e);
 			return null;
@@ -154,15 +181,25 @@ public class RecordManager implements IRecordManager {
 	}
 
 	public void loadRecord(String recordFilename, BattleRecordFormat format) {
+		awaitSave();
+		cleanupStreams();
+
+		final File file = new File(recordFilename);
+
+		// An indexed or compact record is replayed directly from its file, whatever format has been requested
+		if (isSeekableFormat(format) || IndexedRecordWriter.isIndexedRecord(file)
+				|| CompactRecordWriter.isCompactRecord(file)) {
+			loadSeekableRecord(file);
+			return;
+		}
+
 		FileInputStream fis = null;
 		BufferedInputStream bis = null;
 		ZipInputStream zis = null;
 		ObjectInputStream ois = null;
 		InputStream xis = null;
 
-		FileOutputStream fos = null;
-		BufferedOutputStream bos = null;
-		ObjectOutputStream oos = null;
+		RecordWriter writer = null;
 
 		try {
 			createTempFile();
@@ -185,33 +222,32 @@ public class RecordManager implements IRecordManager {
 			if (format == BattleRecordFormat.BINARY || format == BattleRecordFormat.BINARY_ZIP) {
 				recordInfo = (BattleRecordInfo) ois.readObject();
 				if (recordInfo.turnsInRounds != null) {
-					fos = new FileOutputStream(tempFile);
-					bos = new BufferedOutputStream(fos, 1024 * 1024);
-					oos = new ObjectOutputStream(bos);
+					writer = new CompactRecordWriter(tempFile);
 
 					for (int i = 0; i < recordInfo.turnsInRounds.length; i++) {
 						for (int j = recordInfo.turnsInRounds[i] - 1; j >= 0; j--) {
 							try {
 								ITurnSnapshot turn = (ITurnSnapshot) ois.readObject();
 
-								oos.writeObject(turn);
+								writer.writeTurn(turn, i);
 							} catch (ClassNotFoundException e) {
 								logError(e);
 							}
 						}
 					}
+					writer.finish(recordInfo);
 				}
 			} else {
 				final RecordRoot root = new RecordRoot();
 
-				fos = new FileOutputStream(tempFile);
-				bos = new BufferedOutputStream(fos, 1024 * 1024);
-				root.oos = new ObjectOutputStream(bos);
+				writer = new CompactRecordWriter(tempFile);
+				root.writer = writer;
 				XmlReader.deserialize(xis, root);
 				if (root.lastException != null) {
 					logError(root.lastException);
 				}
 				recordInfo = root.recordInfo;
+				writer.finish(recordInfo);
 			}
 		} catch (IOException e) {
 			logError(e);
@@ -226,9 +262,9 @@ public class RecordManager implements IRecordManager {
 			createTempFile();
 			recordInfo = null;
 		} finally {
-			FileUtil.cleanupStream(oos);
-			FileUtil.cleanupStream(bos);
-			FileUtil.cleanupStream(fos);
+			if (writer != null) {
+				closeWriter(writer);
+			}
 			FileUtil.cleanupStream(ois);
 			FileUtil.cleanupStream(zis);
 			FileUtil.cleanupStream(bis);
@@ -236,13 +272,35 @@ public class RecordManager implements IRecordManager {
 		}
 	}
 
+	private void loadSeekableRecord(File file) {
+		RecordReader reader = null;
+
+		try {
+			reader = openRecord(file);
+			recordInfo = reader.readRecordInfo();
+			recordFile = file;
+		} catch (IOException e) {
+			logError(e);
+			createTempFile();
+			recordInfo = null;
+		} catch (ClassNotFoundException e) {
+			logError(e);
+			createTempFile();
+			recordInfo = null;
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
+		}
+	}
+
 	private static class RecordRoot implements IXmlSerializable {
 
 		public RecordRoot() {
 			me = this;
 		}
 
-		public ObjectOutputStream oos;
+		public RecordWriter writer;
 		public IOException lastException;
 		public final RecordRoot me;
 		public BattleRecordInfo recordInfo;
@@ -274,7 +332,7 @@ public class RecordManager implements IRecordManager {
 
 						public void add(IXmlSerializable child) {
 							try {
-								me.oos.writeObject(child);
+								me.writer.writeTurn((TurnSnapshot) child, ((TurnSnapshot) child).getRound());
 							} catch (IOException e) {
 								me.lastException = e;
 							}
@@ -289,24 +347,97 @@ public class RecordManager implements IRecordManager {
 		}
 	}
 
+	/**
+	 * Saves the record on a background thread, so the battle thread does not have to wait for the record to be saved.
+	 * A new battle or record waits for the record to be saved before it replaces the record.
+	 */
+	void saveRecordInBackground(final String recordFilename, final BattleRecordFormat format,
+			final SerializableOptions options) {
+		awaitSave();
+		finishRecording();
+
+		final Thread thread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					writeRecord(recordFilename, format, options);
+				} catch (IOException e) {
+					saveFailure = e;
+				}
+			}
+		}, "Robocode record saver");
+
+		saveThread = thread;
+		thread.start();
+	}
+
+	private void awaitSave() {
+		final Thread thread = saveThread;
+
+		if (thread == null || thread == Thread.currentThread()) {
+			return;
+		}
+		try {
+			thread.join();
+			saveThread = null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		final IOException failure = saveFailure;
+
+		if (failure != null) {
+			saveFailure = null;
+			handleSaveFailure(failure);
+		}
+	}
+
+	/**
+	 * Starts a new temp record after a record could not be saved.
+	 */
+	private void handleSaveFailure(IOException e) {
+		logError(e);
+		recorder = new BattleRecorder(this, properties);
+		createTempFile();
+	}
+
 	public void saveRecord(String recordFilename, BattleRecordFormat format, SerializableOptions options) {
+		awaitSave();
+		finishRecording();
+
+		try {
+			writeRecord(recordFilename, format, options);
+		} catch (IOException e) {
+			handleSaveFailure(e);
+		}
+	}
+
+	private void writeRecord(String recordFilename, BattleRecordFormat format, SerializableOptions options)
+			throws IOException {
+		final File file = new File(recordFilename);
+
+		if (isRecordFile(file)) {
+			Logger.logError("The record cannot be saved to the file it is being replayed from: " + recordFilename);
+			return;
+		}
+		if (isSeekableFormat(format)) {
+			saveSeekableRecord(file, format, options);
+			return;
+		}
+
 		FileOutputStream fos = null;
 		BufferedOutputStream bos = null;
 		ZipOutputStream zos = null;
 		ObjectOutputStream oos = null;
-		OutputStreamWriter osw = null;
 		XmlWriter xwr = null;
 
-		FileInputStream fis = null;
-		BufferedInputStream bis = null;
-		ObjectInputStream ois = null;
+		RecordReader reader = null;
 
 		final boolean isbin = format == BattleRecordFormat.BINARY || format == BattleRecordFormat.BINARY_ZIP;
 		final boolean isxml = format == BattleRecordFormat.XML || format == BattleRecordFormat.XML_ZIP;
 		Calendar calendar = Calendar.getInstance();
 
 		try {
-			fos = new FileOutputStream(recordFilename);
+			fos = new FileOutputStream(file);
 			bos = new BufferedOutputStream(fos, 1024 * 1024);
 
 			if (format == BattleRecordFormat.BINARY) {
@@ -316,18 +447,12 @@ public class RecordManager implements IRecordManager {
 				zos.putNextEntry(new ZipEntry(dateFormat.format(calendar.getTime()) + "-robocode.br"));
 				oos = new ObjectOutputStream(zos);
 			} else if (format == BattleRecordFormat.XML) {
-				final Charset utf8 = Charset.forName("UTF-8");
-
-				osw = new OutputStreamWriter(bos, utf8);
-				xwr = new XmlWriter(osw, true);
+				xwr = new XmlWriter(bos, true);
 			} else if (format == BattleRecordFormat.XML_ZIP) {
-				final Charset utf8 = Charset.forName("UTF-8");
-
 				zos = new ZipOutputStream(bos);
 				zos.putNextEntry(new ZipEntry(dateFormat.format(calendar.getTime()) + "-robocode.xml"));
 
-				osw = new OutputStreamWriter(zos, utf8);
-				xwr = new XmlWriter(osw, false);
+				xwr = new XmlWriter(zos, false);
 			}
 
 			if (isbin) {
@@ -346,17 +471,15 @@ public class RecordManager implements IRecordManager {
 			}
 
 			if (recordInfo.turnsInRounds != null) {
-				fis = new FileInputStream(tempFile);
-				bis = new BufferedInputStream(fis, 1024 * 1024);
-				ois = new ObjectInputStream(bis);
+				reader = openRecord(recordFile);
 
 				for (int i = 0; i < recordInfo.turnsInRounds.length; i++) {
 					if (recordInfo.turnsInRounds[i] > 0) {
 						for (int j = 0; j <= recordInfo.turnsInRounds[i] - 1; j++) {
 							try {
-								TurnSnapshot turn = (TurnSnapshot) ois.readObject();
+								TurnSnapshot turn = (TurnSnapshot) reader.readTurn(i, j);
 
-								if (j != turn.getTurn()) {
+								if (turn == null || j != turn.getTurn()) {
 									throw new Error("Something rotten");
 								}
 
@@ -373,7 +496,7 @@ public class RecordManager implements IRecordManager {
 						if (isbin) {
 							oos.flush();
 						} else if (isxml) {
-							osw.flush();
+							xwr.flush();
 						}
 						bos.flush();
 						fos.flush();
@@ -382,23 +505,74 @@ public class RecordManager implements IRecordManager {
 				if (isxml) {
 					xwr.endElement(); // turns
 					xwr.endElement(); // record
-					osw.flush();
+					xwr.flush();
 				}
 			}
 
-		} catch (IOException e) {
-			logError(e);
-			recorder = new BattleRecorder(this, properties);
-			createTempFile();
 		} finally {
-			FileUtil.cleanupStream(ois);
-			FileUtil.cleanupStream(bis);
-			FileUtil.cleanupStream(fis);
+			if (reader != null) {
+				reader.close();
+			}
 			FileUtil.cleanupStream(oos);
 			FileUtil.cleanupStream(zos);
 			FileUtil.cleanupStream(bos);
 			FileUtil.cleanupStream(fos);
-			FileUtil.cleanupStream(osw);
+		}
+	}
+
+	/**
+	 * Saves the record in one of the seekable formats. The file is deleted if the record could not be saved, so no
+	 * half-written record is left behind.
+	 */
+	private void saveSeekableRecord(File file, BattleRecordFormat format, SerializableOptions options)
+			throws IOException {
+		RecordReader reader = null;
+		RecordWriter writer = null;
+		boolean saved = false;
+
+		try {
+			reader = openRecord(recordFile);
+			writer = format == BattleRecordFormat.BINARY_COMPACT
+					? new CompactRecordWriter(file)
+					: new IndexedRecordWriter(file);
+
+			if (writer instanceof IndexedRecordWriter && reader instanceof IndexedRecordReader && !options.skipDebug
+					&& !options.skipNames) {
+				// Nothing is stripped from the turns, so the bytes of the turns are copied as they are
+				((IndexedRecordWriter) writer).copyTurns((IndexedRecordReader) reader);
+			} else {
+				for (int i = 0; i < reader.getRoundCount(); i++) {
+					for (int j = 0; j < reader.getTurnCount(i); j++) {
+						TurnSnapshot turn = (TurnSnapshot) reader.readTurn(i, j);
+
+						turn.stripDetails(options);
+						writer.writeTurn(turn, i);
+					}
+				}
+			}
+			writer.finish(recordInfo);
+			writer.close();
+			saved = true;
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Could not read the turns of the record: " + e, e);
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
+			if (writer != null && !saved) {
+				closeWriter(writer);
+				if (file.exists() && !file.delete()) {
+					logError("Could not delete the partially saved record: " + file);
+				}
+			}
+		}
+	}
+
+	private boolean isRecordFile(File file) {
+		try {
+			return recordFile != null && file.getCanonicalFile().equals(recordFile.getCanonicalFile());
+		} catch (IOException e) {
+			return false;
 		}
 	}
 
@@ -410,9 +584,7 @@ public class RecordManager implements IRecordManager {
 		try {
 			createTempFile();
 
-			fileWriteStream = new FileOutputStream(tempFile);
-			bufferedWriteStream = new BufferedOutputStream(fileWriteStream, 1024 * 1024);
-			objectWriteStream = new ObjectOutputStream(bufferedWriteStream);
+			recordWriter = new AsyncRecordWriter(new CompactRecordWriter(tempFile), AsyncRecordWriter.QUEUE_CAPACITY);
 		} catch (IOException e) {
 			logError(e);
 		}
@@ -435,12 +607,9 @@ public class RecordManager implements IRecordManager {
 			if (time != recordInfo.turnsInRounds[round]) {
 				throw new Error("Something rotten");
 			}
-			if (time == 0) {
-				objectWriteStream.reset();
-			}
 			recordInfo.turnsInRounds[round]++;
 			recordInfo.roundsCount = round + 1;
-			objectWriteStream.writeObject(turn);
+			recordWriter.writeTurn(turn, round);
 		} catch (IOException e) {
 			logError(e);
 		}
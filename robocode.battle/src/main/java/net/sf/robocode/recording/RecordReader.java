@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.IOException;
+
+
+/**
+ * Reads the turns of a battle record in any order.
+ *
+ * @see IndexedRecordReader
+ * @see CompactRecordReader
+ */
+interface RecordReader {
+
+	int getRoundCount();
+
+	int getTurnCount(int round);
+
+	/**
+	 * Reads the record info.
+	 */
+	BattleRecordInfo readRecordInfo() throws IOException, ClassNotFoundException;
+
+	/**
+	 * Reads a turn of a round.
+	 *
+	 * @param round the round of the turn.
+	 * @param turn the turn number within the round.
+	 * @return the turn snapshot, or {@code null} if the record does not contain the turn.
+	 */
+	ITurnSnapshot readTurn(int round, int turn) throws IOException, ClassNotFoundException;
+
+	void close();
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.IOException;
+
+
+/**
+ * Writes a battle record, where the record info is written after the turns.
+ *
+ * @see IndexedRecordWriter
+ * @see CompactRecordWriter
+ */
+interface RecordWriter {
+
+	/**
+	 * Appends a turn to the record.
+	 *
+	 * @param turn the turn snapshot.
+	 * @param round the round of the turn. Turns must be written in order of their rounds.
+	 */
+	void writeTurn(ITurnSnapshot turn, int round) throws IOException;
+
+	/**
+	 * Finishes the record by writing the record info.
+	 *
+	 * @param recordInfo the record info.
+	 */
+	void finish(BattleRecordInfo recordInfo) throws IOException;
+
+	void close() throws IOException;
+}
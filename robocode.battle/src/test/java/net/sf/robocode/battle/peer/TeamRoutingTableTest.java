@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Tests looking up the recipients of team messages in a {@link TeamRoutingTable}.
+ */
+public class TeamRoutingTableTest {
+
+	private final TeamRoutingTable table = new TeamRoutingTable(
+			new String[] { "sampleteam.MyFirstLeader", "sampleteam.MyFirstDroid (1)", "sampleteam.MyFirstDroid (2)" },
+			new String[] { "sampleteam.MyFirstLeader", "sampleteam.MyFirstDroid", "sampleteam.MyFirstDroid" });
+
+	@Test
+	public void broadcast() {
+		Assert.assertArrayEquals(new int[] { 0, 1, 2 }, table.getRecipients(null));
+	}
+
+	@Test
+	public void memberNames() {
+		Assert.assertArrayEquals(new int[] { 0 }, table.getRecipients("sampleteam.MyFirstLeader"));
+		Assert.assertArrayEquals(new int[] { 2 }, table.getRecipients("sampleteam.MyFirstDroid (2)"));
+		Assert.assertArrayEquals(new int[] { 1, 2 }, table.getRecipients("sampleteam.MyFirstDroid"));
+
+		// The members of a member name are looked up once
+		Assert.assertSame(table.getRecipients("sampleteam.MyFirstLeader"), table.getRecipients("sampleteam.MyFirstLeader"));
+	}
+
+	@Test
+	public void otherRecipients() {
+		Assert.assertArrayEquals(new int[] { 0, 1, 2 }, table.getRecipients("sampleteam.MyFirst"));
+		Assert.assertArrayEquals(new int[0], table.getRecipients("sample.Fire"));
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.snapshot;
+
+
+import robocode.control.snapshot.IBulletSnapshot;
+import robocode.control.snapshot.IRobotSnapshot;
+import robocode.control.snapshot.ITurnSnapshot;
+import robocode.control.snapshot.RobotState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Creates minimal turn snapshots for tests outside of this package.
+ */
+public final class TestSnapshots {
+
+	private TestSnapshots() {}
+
+	/**
+	 * Creates a turn snapshot of active robots without bullets.
+	 *
+	 * @param round the round number.
+	 * @param turn the turn number.
+	 * @param robotNames the names of the robots.
+	 * @return the turn snapshot.
+	 */
+	public static ITurnSnapshot createTurn(int round, int turn, String... robotNames) {
+		final List<IRobotSnapshot> robots = new ArrayList<IRobotSnapshot>();
+
+		for (int i = 0; i < robotNames.length; i++) {
+			robots.add(new RobotSnapshot(robotNames[i], i, RobotState.ACTIVE));
+		}
+		return new TurnSnapshot(robots, new ArrayList<IBulletSnapshot>(), 30, round, turn);
+	}
+}
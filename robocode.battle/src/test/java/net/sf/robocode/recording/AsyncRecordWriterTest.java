@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TestSnapshots;
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Tests the {@link AsyncRecordWriter}, which writes the turns of a record on a background thread.
+ */
+public class AsyncRecordWriterTest {
+
+	@Test
+	public void writesTurnsInBackground() throws IOException {
+		final TurnListWriter target = new TurnListWriter();
+		final AsyncRecordWriter writer = new AsyncRecordWriter(target, 4);
+
+		// Many more turns than the capacity of the queue, so the battle thread waits for the writer thread
+		for (int turn = 0; turn < 1000; turn++) {
+			writer.writeTurn(TestSnapshots.createTurn(turn / 100, turn % 100, "a.A"), turn / 100);
+		}
+		writer.finish(new BattleRecordInfo());
+		writer.close();
+
+		Assert.assertEquals(1000, target.turnsAtFinish);
+		Assert.assertTrue(target.isClosed);
+		for (int turn = 0; turn < 1000; turn++) {
+			Assert.assertEquals(turn / 100, target.turns.get(turn).getRound());
+			Assert.assertEquals(turn % 100, target.turns.get(turn).getTurn());
+		}
+		Assert.assertNotSame(Thread.currentThread(), target.writerThread);
+		Assert.assertEquals("Robocode record writer", target.writerThread.getName());
+	}
+
+	@Test
+	public void closeWritesQueuedTurns() throws IOException {
+		final TurnListWriter target = new TurnListWriter();
+
+		target.delayMillis = 5;
+
+		final AsyncRecordWriter writer = new AsyncRecordWriter(target, 100);
+
+		for (int turn = 0; turn < 20; turn++) {
+			writer.writeTurn(TestSnapshots.createTurn(0, turn, "a.A"), 0);
+		}
+		writer.close();
+
+		Assert.assertEquals(20, target.turns.size());
+		Assert.assertTrue(target.isClosed);
+	}
+
+	@Test
+	public void failureIsReportedOnce() throws IOException {
+		final TurnListWriter target = new TurnListWriter();
+
+		target.failingTurn = 3;
+
+		final AsyncRecordWriter writer = new AsyncRecordWriter(target, 4);
+		IOException reported = null;
+		int turn = 0;
+
+		// The failure is reported by the first turn written after the writer thread has failed
+		while (reported == null && turn < 10000) {
+			try {
+				writer.writeTurn(TestSnapshots.createTurn(0, turn++, "a.A"), 0);
+			} catch (IOException e) {
+				reported = e;
+			}
+		}
+		Assert.assertNotNull("The failure was not reported", reported);
+		Assert.assertEquals("Turn 3", reported.getMessage());
+
+		// Following turns are discarded without reporting the failure again
+		writer.writeTurn(TestSnapshots.createTurn(0, turn, "a.A"), 0);
+
+		try {
+			writer.finish(new BattleRecordInfo());
+			Assert.fail("The record was finished after a failure");
+		} catch (IOException e) {
+			Assert.assertSame(reported, e);
+		}
+		writer.close();
+
+		Assert.assertEquals(3, target.turns.size());
+		Assert.assertEquals(-1, target.turnsAtFinish);
+		Assert.assertTrue(target.isClosed);
+	}
+
+	/**
+	 * Record writer keeping the written turns in a list.
+	 */
+	private static final class TurnListWriter implements RecordWriter {
+		final List<ITurnSnapshot> turns = new ArrayList<ITurnSnapshot>();
+		volatile Thread writerThread;
+		int delayMillis;
+		int failingTurn = -1;
+		int turnsAtFinish = -1;
+		boolean isClosed;
+
+		public void writeTurn(ITurnSnapshot turn, int round) throws IOException {
+			writerThread = Thread.currentThread();
+			if (turn.getTurn() == failingTurn) {
+				throw new IOException("Turn " + failingTurn);
+			}
+			if (delayMillis > 0) {
+				try {
+					Thread.sleep(delayMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			turns.add(turn);
+		}
+
+		public void finish(BattleRecordInfo recordInfo) {
+			turnsAtFinish = turns.size();
+		}
+
+		public void close() {
+			isClosed = true;
+		}
+	}
+}
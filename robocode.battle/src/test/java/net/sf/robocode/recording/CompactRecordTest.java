@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TestSnapshots;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Tests the {@link BattleRecordFormat#BINARY_COMPACT} record format written by {@link CompactRecordWriter}
+ * and read by {@link CompactRecordReader}. The turns of a real battle are tested by TestCompactRecord in
+ * robocode.tests.
+ */
+public class CompactRecordTest {
+
+	// More turns than the keyframe interval, so the rounds have several blocks
+	private static final int[] TURNS_IN_ROUNDS = { CompactRecordWriter.KEYFRAME_INTERVAL * 2 + 7, 1, 12 };
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("record", ".br");
+		writeRecord();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		final CompactRecordReader reader = new CompactRecordReader(file);
+
+		try {
+			Assert.assertEquals(TURNS_IN_ROUNDS.length, reader.getRoundCount());
+
+			// The last round first, and backwards, so no block is decoded from a previous block
+			for (int round = TURNS_IN_ROUNDS.length - 1; round >= 0; round--) {
+				Assert.assertEquals(TURNS_IN_ROUNDS[round], reader.getTurnCount(round));
+				for (int turn = TURNS_IN_ROUNDS[round] - 1; turn >= 0; turn--) {
+					final ITurnSnapshot snapshot = reader.readTurn(round, turn);
+
+					Assert.assertEquals(round, snapshot.getRound());
+					Assert.assertEquals(turn, snapshot.getTurn());
+					Assert.assertEquals("b.B", snapshot.getRobots()[1].getName());
+				}
+			}
+			Assert.assertNull(reader.readTurn(1, 1));
+			Assert.assertNull(reader.readTurn(3, 0));
+			Assert.assertEquals(TURNS_IN_ROUNDS.length, reader.readRecordInfo().roundsCount);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void wrongMagic() throws IOException {
+		patch(0, ByteBuffer.allocate(4).putInt(IndexedRecordWriter.MAGIC).array());
+		Assert.assertFalse(CompactRecordWriter.isCompactRecord(file));
+		assertNotReadable();
+	}
+
+	@Test
+	public void newerVersion() throws IOException {
+		patch(4, ByteBuffer.allocate(4).putInt(CompactRecordWriter.VERSION + 1).array());
+		assertNotReadable();
+	}
+
+	@Test
+	public void wrongTrailerMagic() throws IOException {
+		patch(file.length() - 4, ByteBuffer.allocate(4).putInt(0).array());
+		assertNotReadable();
+	}
+
+	@Test
+	public void truncatedRecord() throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+		try {
+			raf.setLength(raf.length() - 1);
+		} finally {
+			raf.close();
+		}
+		assertNotReadable();
+	}
+
+	private void writeRecord() throws IOException {
+		final CompactRecordWriter writer = new CompactRecordWriter(file);
+
+		try {
+			for (int round = 0; round < TURNS_IN_ROUNDS.length; round++) {
+				for (int turn = 0; turn < TURNS_IN_ROUNDS[round]; turn++) {
+					writer.writeTurn(TestSnapshots.createTurn(round, turn, "a.A", "b.B"), round);
+				}
+			}
+			final BattleRecordInfo info = new BattleRecordInfo();
+
+			info.robotCount = 2;
+			info.roundsCount = TURNS_IN_ROUNDS.length;
+			writer.finish(info);
+		} finally {
+			writer.close();
+		}
+	}
+
+	private void assertNotReadable() {
+		try {
+			new CompactRecordReader(file).close();
+			Assert.fail("Record was opened");
+		} catch (IOException expected) {}
+	}
+
+	private void patch(long position, byte[] bytes) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+		try {
+			raf.seek(position);
+			raf.write(bytes);
+		} finally {
+			raf.close();
+		}
+	}
+}
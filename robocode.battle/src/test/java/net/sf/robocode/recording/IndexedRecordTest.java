@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TestSnapshots;
+import net.sf.robocode.battle.snapshot.TurnSnapshot;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Tests the {@link BattleRecordFormat#BINARY_INDEXED} record format written by {@link IndexedRecordWriter}
+ * and read by {@link IndexedRecordReader}.
+ */
+public class IndexedRecordTest {
+
+	private static final int[] TURNS_IN_ROUNDS = { 5, 3, 7 };
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("record", ".br");
+		writeRecord(true);
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		final IndexedRecordReader reader = new IndexedRecordReader(file);
+
+		try {
+			Assert.assertEquals(TURNS_IN_ROUNDS.length, reader.getRoundCount());
+			for (int round = 0; round < TURNS_IN_ROUNDS.length; round++) {
+				Assert.assertEquals(TURNS_IN_ROUNDS[round], reader.getTurnCount(round));
+				for (int turn = 0; turn < TURNS_IN_ROUNDS[round]; turn++) {
+					assertTurn(reader.readTurn(round, turn), round, turn);
+				}
+			}
+			final BattleRecordInfo info = reader.readRecordInfo();
+
+			Assert.assertEquals(2, info.robotCount);
+			Assert.assertEquals(TURNS_IN_ROUNDS.length, info.roundsCount);
+			Assert.assertEquals(TURNS_IN_ROUNDS[2], info.turnsInRounds[2].intValue());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void seekToRound() throws Exception {
+		final IndexedRecordReader reader = new IndexedRecordReader(file);
+
+		try {
+			// Turns are read directly, in any order
+			assertTurn(reader.readTurn(2, 4), 2, 4);
+			assertTurn(reader.readTurn(1, 2), 1, 2);
+			assertTurn(reader.readTurn(0, 0), 0, 0);
+			assertTurn(reader.readTurn(2, 6), 2, 6);
+
+			Assert.assertNull(reader.readTurn(1, 3));
+			Assert.assertNull(reader.readTurn(3, 0));
+			Assert.assertNull(reader.readTurn(-1, 0));
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void unfinishedRecord() throws IOException {
+		writeRecord(false);
+		assertNotReadable();
+	}
+
+	@Test
+	public void truncatedTrailer() throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+		try {
+			raf.setLength(raf.length() - 1);
+		} finally {
+			raf.close();
+		}
+		assertNotReadable();
+	}
+
+	@Test
+	public void corruptTrailer() throws IOException {
+		final long length = file.length();
+
+		// index offset pointing past the end of the file
+		patch(length - IndexedRecordWriter.TRAILER_SIZE + 8, ByteBuffer.allocate(8).putLong(length * 2).array());
+		assertNotReadable();
+	}
+
+	@Test
+	public void corruptIndex() throws IOException {
+		final long length = file.length();
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		final long indexOffset;
+
+		try {
+			raf.seek(length - IndexedRecordWriter.TRAILER_SIZE + 8);
+			indexOffset = raf.readLong();
+		} finally {
+			raf.close();
+		}
+
+		// round count not matching the size of the index
+		patch(indexOffset, ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE).array());
+		assertNotReadable();
+	}
+
+	@Test
+	public void unsupportedVersion() throws IOException {
+		patch(4, ByteBuffer.allocate(4).putInt(IndexedRecordWriter.VERSION + 1).array());
+		assertNotReadable();
+	}
+
+	@Test
+	public void serialVersionUIDMismatch() throws Exception {
+		final byte[] name = TurnSnapshot.class.getName().getBytes("UTF-8");
+		final long uid = ObjectStreamClass.lookup(TurnSnapshot.class).getSerialVersionUID();
+		final byte[] content = readFile();
+
+		// Change the serialVersionUID following every class name of TurnSnapshot
+		int patched = 0;
+
+		for (int i = 0; i + name.length + 8 <= content.length; i++) {
+			if (matches(content, i, name) && ByteBuffer.wrap(content, i + name.length, 8).getLong() == uid) {
+				patch(i + name.length, ByteBuffer.allocate(8).putLong(uid + 1).array());
+				patched++;
+			}
+		}
+		Assert.assertEquals(TURNS_IN_ROUNDS[0] + TURNS_IN_ROUNDS[1] + TURNS_IN_ROUNDS[2], patched);
+
+		final IndexedRecordReader reader = new IndexedRecordReader(file);
+
+		try {
+			reader.readTurn(0, 0);
+			Assert.fail("Turn with another serialVersionUID was read");
+		} catch (InvalidClassException expected) {
+			Assert.assertEquals(TurnSnapshot.class.getName(), expected.classname);
+		} finally {
+			reader.close();
+		}
+	}
+
+	private void writeRecord(boolean finish) throws IOException {
+		final IndexedRecordWriter writer = new IndexedRecordWriter(file);
+
+		try {
+			for (int round = 0; round < TURNS_IN_ROUNDS.length; round++) {
+				for (int turn = 0; turn < TURNS_IN_ROUNDS[round]; turn++) {
+					writer.writeTurn(TestSnapshots.createTurn(round, turn, "a.A", "b.B"), round);
+				}
+			}
+			if (finish) {
+				final BattleRecordInfo info = new BattleRecordInfo();
+
+				info.robotCount = 2;
+				info.roundsCount = TURNS_IN_ROUNDS.length;
+				info.turnsInRounds = new Integer[TURNS_IN_ROUNDS.length];
+				for (int i = 0; i < TURNS_IN_ROUNDS.length; i++) {
+					info.turnsInRounds[i] = TURNS_IN_ROUNDS[i];
+				}
+				writer.finish(info);
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	private void assertNotReadable() {
+		try {
+			new IndexedRecordReader(file).close();
+			Assert.fail("Record was opened");
+		} catch (IOException expected) {}
+	}
+
+	private static void assertTurn(ITurnSnapshot snapshot, int round, int turn) {
+		Assert.assertNotNull(snapshot);
+		Assert.assertEquals(round, snapshot.getRound());
+		Assert.assertEquals(turn, snapshot.getTurn());
+		Assert.assertEquals(2, snapshot.getRobots().length);
+		Assert.assertEquals("b.B", snapshot.getRobots()[1].getName());
+	}
+
+	private void patch(long position, byte[] bytes) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+		try {
+			raf.seek(position);
+			raf.write(bytes);
+		} finally {
+			raf.close();
+		}
+	}
+
+	private byte[] readFile() throws IOException {
+		final byte[] content = new byte[(int) file.length()];
+		final DataInputStream in = new DataInputStream(new FileInputStream(file));
+
+		try {
+			in.readFully(content);
+		} finally {
+			in.close();
+		}
+		return content;
+	}
+
+	private static boolean matches(byte[] content, int offset, byte[] name) {
+		for (int i = 0; i < name.length; i++) {
+			if (content[offset + i] != name[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TestSnapshots;
+import net.sf.robocode.io.Logger;
+import net.sf.robocode.security.HiddenAccess;
+import net.sf.robocode.serialization.SerializableOptions;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import robocode.BattleResults;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleErrorEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Tests saving the record of a battle with {@link RecordManager#saveRecordInBackground}.
+ */
+public class RecordManagerTest {
+
+	private static final int[] TURNS_IN_ROUNDS = { 40, 25 };
+
+	private final List<String> errors = new ArrayList<String>();
+	private final List<Thread> errorThreads = new ArrayList<Thread>();
+
+	private RecordManager recordManager;
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		HiddenAccess.init();
+		Logger.setLogListener(new BattleAdaptor() {
+			@Override
+			public void onBattleError(BattleErrorEvent event) {
+				synchronized (errors) {
+					errors.add(event.getError());
+					errorThreads.add(Thread.currentThread());
+				}
+			}
+		});
+		file = File.createTempFile("record", ".br");
+		recordManager = new RecordManager(null);
+		recordBattle();
+	}
+
+	@After
+	public void tearDown() {
+		Logger.setLogListener(null);
+		file.delete();
+	}
+
+	@Test
+	public void saveInBackground() throws Exception {
+		recordManager.saveRecordInBackground(file.getPath(), BattleRecordFormat.BINARY_INDEXED,
+				new SerializableOptions(false));
+
+		// Loading a record waits for the record to be saved
+		recordManager.loadRecord(file.getPath(), BattleRecordFormat.BINARY_INDEXED);
+		recordManager.prepareInputStream();
+
+		Assert.assertTrue(errors.isEmpty());
+		Assert.assertEquals(TURNS_IN_ROUNDS.length, recordManager.recordInfo.roundsCount);
+		Assert.assertEquals(1, recordManager.readSnapshot(1, 24).getRound());
+		Assert.assertEquals(24, recordManager.readSnapshot(1, 24).getTurn());
+		Assert.assertNull(recordManager.readSnapshot(1, 25));
+		recordManager.cleanupStreams();
+	}
+
+	@Test
+	public void failureIsReportedToWaitingThread() throws Exception {
+		final File directory = new File(file.getPath() + ".dir");
+
+		Assert.assertTrue(directory.mkdir());
+		try {
+			// A directory cannot be written as a file
+			recordManager.saveRecordInBackground(directory.getPath(), BattleRecordFormat.BINARY,
+					new SerializableOptions(false));
+
+			// The next battle waits for the save, and handles the failure on its own thread
+			recordBattle();
+
+			Assert.assertEquals(1, errors.size());
+			Assert.assertTrue(errors.get(0), errors.get(0).contains(directory.getName()));
+			Assert.assertSame(Thread.currentThread(), errorThreads.get(0));
+		} finally {
+			directory.delete();
+		}
+
+		// The record of the next battle is still saved
+		recordManager.saveRecordInBackground(file.getPath(), BattleRecordFormat.BINARY_INDEXED,
+				new SerializableOptions(false));
+		recordManager.loadRecord(file.getPath(), BattleRecordFormat.BINARY_INDEXED);
+
+		Assert.assertEquals(1, errors.size());
+		Assert.assertEquals(TURNS_IN_ROUNDS.length, recordManager.recordInfo.roundsCount);
+	}
+
+	@Test
+	public void seekableFailureIsReportedToWaitingThread() throws Exception {
+		final File directory = new File(file.getPath() + ".dir");
+
+		Assert.assertTrue(directory.mkdir());
+		try {
+			recordManager.saveRecordInBackground(directory.getPath(), BattleRecordFormat.BINARY_COMPACT,
+					new SerializableOptions(false));
+			recordBattle();
+
+			Assert.assertEquals(1, errors.size());
+			Assert.assertTrue(errors.get(0), errors.get(0).contains(directory.getName()));
+			Assert.assertSame(Thread.currentThread(), errorThreads.get(0));
+
+			// The directory that was in the way is not deleted
+			Assert.assertTrue(directory.isDirectory());
+		} finally {
+			directory.delete();
+		}
+
+		recordManager.saveRecordInBackground(file.getPath(), BattleRecordFormat.BINARY_COMPACT,
+				new SerializableOptions(false));
+		recordManager.loadRecord(file.getPath(), BattleRecordFormat.BINARY_COMPACT);
+
+		Assert.assertEquals(1, errors.size());
+		Assert.assertEquals(TURNS_IN_ROUNDS.length, recordManager.recordInfo.roundsCount);
+	}
+
+	private void recordBattle() {
+		recordManager.createRecordInfo(HiddenAccess.createRules(800, 600, TURNS_IN_ROUNDS.length, 0.1, 450, false, 100),
+				2);
+		for (int round = 0; round < TURNS_IN_ROUNDS.length; round++) {
+			for (int turn = 0; turn < TURNS_IN_ROUNDS[round]; turn++) {
+				recordManager.writeTurn(TestSnapshots.createTurn(round, turn, "a.A", "b.B"), round, turn);
+			}
+		}
+		recordManager.updateRecordInfoResults(new ArrayList<BattleResults>());
+	}
+}
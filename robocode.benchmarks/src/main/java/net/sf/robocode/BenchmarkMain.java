@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode;
+
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+
+/**
+ * Main class of the benchmarks jar, which runs the benchmarks like the JMH main class, but writes the results to a
+ * JSON file and measures the allocations with the GC profiler by default. Hence, the results of different releases
+ * can be compared by tools, e.g. turns per second and bytes allocated per turn.
+ * <p>
+ * The results are written to {@code robocode-benchmarks-<version>.json}, unless another file or format is given with
+ * the {@code -rff} and {@code -rf} options. The GC profiler is only added when no profiler is given with {@code -prof}.
+ * All other options are passed on to JMH, e.g. {@code -l} lists the benchmarks and {@code -h} shows all options.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar [benchmarks] [options]}
+ */
+public final class BenchmarkMain {
+
+	private BenchmarkMain() {}
+
+	public static void main(String[] args) throws IOException {
+		final CommandLineOptions commandLineOptions;
+
+		try {
+			commandLineOptions = new CommandLineOptions(args);
+		} catch (CommandLineOptionException e) {
+			System.err.println("Error parsing command line: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()
+				|| commandLineOptions.shouldListWithParams() || commandLineOptions.shouldListProfilers()
+				|| commandLineOptions.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+
+		final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+
+		if (!commandLineOptions.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!commandLineOptions.getResult().hasValue()) {
+			final ResultFormatType format = commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON);
+
+			options.result("robocode-benchmarks-" + getVersion() + '.' + format.toString().toLowerCase());
+		}
+		if (commandLineOptions.getProfilers().isEmpty()) {
+			options.addProfiler(GCProfiler.class);
+		}
+		try {
+			new Runner(options.build()).run();
+		} catch (RunnerException e) {
+			System.err.println("Error running the benchmarks: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static String getVersion() {
+		final String version = BenchmarkMain.class.getPackage().getImplementationVersion();
+
+		return version != null ? version : "SNAPSHOT";
+	}
+}
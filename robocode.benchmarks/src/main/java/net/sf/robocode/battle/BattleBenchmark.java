@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle;
+
+
+import org.openjdk.jmh.annotations.*;
+import robocode.control.BattleSpecification;
+import robocode.control.BattlefieldSpecification;
+import robocode.control.RobocodeEngine;
+import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleErrorEvent;
+import robocode.control.events.RoundEndedEvent;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures complete battles of sample robots in headless mode, i.e. without any listener for the turns like when
+ * RoboRumble runs a battle: a 1v1 battle of sample.Walls against sample.SpinBot, and a melee battle of 10 sample
+ * robots. One operation is a battle of one round on an 800x600 battlefield, where the random seed is fixed.
+ * <p>
+ * The secondary {@code turns} result is the number of turns per second. The allocation per turn is the
+ * {@code gc.alloc.rate} result of the GC profiler divided by the turns per second.
+ * <p>
+ * The battles are run by a RobocodeEngine, which loads the modules of the game from
+ * {@code robocode.benchmarks/target/lib} like from the libs directory of a Robocode installation, and the sample
+ * robots from {@code robocode.benchmarks/target/robots}.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar BattleBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-DRANDOMSEED=42" })
+@State(Scope.Benchmark)
+public class BattleBenchmark {
+
+	private static final String MELEE_ROBOTS = "sample.Corners,sample.Crazy,sample.Fire,sample.MyFirstRobot,"
+			+ "sample.RamFire,sample.SpinBot,sample.Tracker,sample.TrackFire,sample.VelociRobot,sample.Walls";
+
+	@Param({"1v1", "melee"})
+	public String battle;
+
+	private RobocodeEngine engine;
+	private BattleSpecification battleSpecification;
+	private volatile int roundTurns;
+	private volatile String error;
+
+	/**
+	 * The turns of the battles run by an iteration.
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Turns {
+		public long turns;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			turns = 0;
+		}
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		final File targetDir = new File(BattleBenchmark.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+				.getParentFile();
+
+		if (!new File(targetDir, "robots").isDirectory()) {
+			throw new IllegalStateException("No sample robots in " + targetDir + ", run mvn package first");
+		}
+		RobocodeEngine.setLogMessagesEnabled(false);
+
+		engine = new RobocodeEngine(targetDir);
+		engine.addBattleListener(new BattleAdaptor() {
+			@Override
+			public void onRoundEnded(RoundEndedEvent event) {
+				roundTurns = event.getTurns();
+			}
+
+			@Override
+			public void onBattleError(BattleErrorEvent event) {
+				error = event.getError();
+			}
+		});
+
+		final RobotSpecification[] robots = engine.getLocalRepository(
+				"1v1".equals(battle) ? "sample.Walls,sample.SpinBot" : MELEE_ROBOTS);
+
+		if (robots.length != ("1v1".equals(battle) ? 2 : 10)) {
+			throw new IllegalStateException("The sample robots could not be loaded from " + targetDir);
+		}
+		battleSpecification = new BattleSpecification(1, new BattlefieldSpecification(800, 600), robots);
+	}
+
+	@TearDown
+	public void tearDown() {
+		engine.close();
+	}
+
+	@Benchmark
+	public int runBattle(Turns turns) {
+		roundTurns = 0;
+		engine.runBattle(battleSpecification, true);
+		if (error != null) {
+			throw new IllegalStateException(error);
+		}
+		turns.turns += roundTurns;
+		return roundTurns;
+	}
+}
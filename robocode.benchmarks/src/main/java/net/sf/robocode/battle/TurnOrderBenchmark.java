@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle;
+
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the random ordering work done by {@link Battle} for a single turn, i.e. the shuffles made by
+ * updateBullets(), updateRobots(), handleDeadRobots() and wakeupRobots(). One operation is one turn, so the
+ * throughput is turns per second, and {@code -prof gc} reports the bytes allocated per turn.
+ * <p>
+ * The {@code legacy} benchmark copies and shuffles a new list for every call like Battle did before
+ * {@link RandomOrder} was introduced. The {@code reusable} benchmark does the same draws with reusable buffers.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar TurnOrderBenchmark -prof gc}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TurnOrderBenchmark {
+
+	@Param({"2", "10", "50"})
+	public int robotCount;
+
+	@Param({"40"})
+	public int bulletCount;
+
+	private List<Object> robots;
+	private List<Object> bullets;
+	private List<Object> deathRobots;
+	private Random random;
+
+	private final RandomOrder<Object> robotOrder = new RandomOrder<Object>();
+	private final RandomOrder<Object> otherRobotOrder = new RandomOrder<Object>();
+	private final RandomOrder<Object> deathRobotOrder = new RandomOrder<Object>();
+	private final RandomOrder<Object> bulletOrder = new RandomOrder<Object>();
+	private final RandomOrder<Object> otherBulletOrder = new RandomOrder<Object>();
+
+	@Setup
+	public void setup() {
+		robots = new ArrayList<Object>();
+		for (int i = 0; i < robotCount; i++) {
+			robots.add(new Object());
+		}
+		bullets = new ArrayList<Object>();
+		for (int i = 0; i < bulletCount; i++) {
+			bullets.add(new Object());
+		}
+		deathRobots = new ArrayList<Object>();
+		random = new Random(42);
+	}
+
+	@Benchmark
+	public void legacy(Blackhole bh) {
+		for (Object bullet : copyAndShuffle(bullets)) {
+			bh.consume(bullet);
+			consumeAll(copyAndShuffle(robots), bh);
+			consumeAll(copyAndShuffle(bullets), bh);
+		}
+		for (Object robot : copyAndShuffle(robots)) {
+			bh.consume(robot);
+			consumeAll(copyAndShuffle(robots), bh);
+		}
+		for (Object robot : copyAndShuffle(robots)) {
+			bh.consume(robot);
+			consumeAll(copyAndShuffle(robots), bh);
+		}
+		consumeAll(copyAndShuffle(deathRobots), bh);
+		consumeAll(copyAndShuffle(robots), bh);
+	}
+
+	@Benchmark
+	public void reusable(Blackhole bh) {
+		for (Object bullet : bulletOrder.shuffle(bullets, random)) {
+			bh.consume(bullet);
+			consumeAll(robotOrder.shuffle(robots, random), bh);
+			consumeAll(otherBulletOrder.shuffle(bullets, random), bh);
+		}
+		for (Object robot : robotOrder.shuffle(robots, random)) {
+			bh.consume(robot);
+			consumeAll(otherRobotOrder.shuffle(robots, random), bh);
+		}
+		for (Object robot : robotOrder.shuffle(robots, random)) {
+			bh.consume(robot);
+			consumeAll(otherRobotOrder.shuffle(robots, random), bh);
+		}
+		consumeAll(deathRobotOrder.shuffle(deathRobots, random), bh);
+		consumeAll(robotOrder.shuffle(robots, random), bh);
+	}
+
+	private List<Object> copyAndShuffle(List<Object> list) {
+		List<Object> shuffledList = new ArrayList<Object>(list);
+
+		Collections.shuffle(shuffledList, random);
+		return shuffledList;
+	}
+
+	private static void consumeAll(List<Object> list, Blackhole bh) {
+		for (int i = 0; i < list.size(); i++) {
+			bh.consume(list.get(i));
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the bullets of a {@link SyntheticBattle}, where every robot fires a bullet every 10 turns while standing
+ * still. Every turn, the new bullets are fired, the spatial index is rebuilt, and every bullet is moved and checked for
+ * hits with {@link BulletPeer#update(java.util.List, java.util.List)}.
+ * <p>
+ * A round of 100 turns is started for every invocation, but one operation is one turn, so {@code -prof gc} reports
+ * the bytes allocated per turn. The {@code spatialIndex} parameter compares the peers finding their candidates with
+ * the spatial index against the peers testing every robot and bullet.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar BulletPeerBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulletPeerBenchmark {
+
+	private static final int TURN_COUNT = 100;
+
+	@Param({"2", "10", "50"})
+	public int robotCount;
+
+	@Param({"true", "false"})
+	public boolean spatialIndex;
+
+	private SyntheticBattle battle;
+
+	@Setup
+	public void setup() throws Exception {
+		battle = new SyntheticBattle(robotCount, spatialIndex);
+	}
+
+	@Setup(Level.Invocation)
+	public void startRound() throws IllegalAccessException {
+		battle.startRound();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TURN_COUNT)
+	public void update() {
+		for (int turn = 0; turn < TURN_COUNT; turn++) {
+			battle.fireBullets(turn);
+			battle.loadCommands();
+			battle.updateBullets();
+		}
+	}
+}
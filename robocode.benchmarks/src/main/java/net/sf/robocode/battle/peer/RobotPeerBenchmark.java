@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the turns of the robots in a {@link SyntheticBattle}, where the robots drive in circles like
+ * sample.SpinBot. Every turn, the commands of the robots are loaded and the spatial index is rebuilt, after which the
+ * {@code performMove} benchmark moves every robot with {@link RobotPeer#performMove(java.util.List, double)}, and the
+ * {@code performMoveAndScan} benchmark also lets every robot scan with {@link RobotPeer#performScan(java.util.List)}.
+ * <p>
+ * A round of 100 turns is started for every invocation, but one operation is one turn, so {@code -prof gc} reports
+ * the bytes allocated per turn. The {@code spatialIndex} parameter compares the peers finding their candidates with
+ * the spatial index against the peers testing every robot and bullet.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar RobotPeerBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RobotPeerBenchmark {
+
+	private static final int TURN_COUNT = 100;
+
+	@Param({"2", "10", "50"})
+	public int robotCount;
+
+	@Param({"true", "false"})
+	public boolean spatialIndex;
+
+	private SyntheticBattle battle;
+
+	@Setup
+	public void setup() throws Exception {
+		battle = new SyntheticBattle(robotCount, spatialIndex);
+	}
+
+	@Setup(Level.Invocation)
+	public void startRound() throws IllegalAccessException {
+		battle.startRound();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TURN_COUNT)
+	public void performMove() {
+		for (int turn = 0; turn < TURN_COUNT; turn++) {
+			battle.loadCommands();
+			battle.moveRobots();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TURN_COUNT)
+	public void performMoveAndScan() {
+		for (int turn = 0; turn < TURN_COUNT; turn++) {
+			battle.loadCommands();
+			battle.moveRobots();
+			battle.scanRobots();
+		}
+	}
+}
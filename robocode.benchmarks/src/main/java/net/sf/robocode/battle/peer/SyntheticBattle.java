@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import net.sf.robocode.battle.Battle;
+import net.sf.robocode.battle.BattleProperties;
+import net.sf.robocode.battle.IBattleManager;
+import net.sf.robocode.battle.events.BattleEventDispatcher;
+import net.sf.robocode.core.ContainerBase;
+import net.sf.robocode.host.ICpuManager;
+import net.sf.robocode.host.IHostManager;
+import net.sf.robocode.host.proxies.IHostingRobotProxy;
+import net.sf.robocode.manager.IVersionManagerBase;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.repository.IRobotItem;
+import net.sf.robocode.security.HiddenAccess;
+import net.sf.robocode.settings.ISettingsManager;
+import robocode.control.RobotSpecification;
+import robocode.control.snapshot.BulletState;
+
+import java.lang.reflect.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * A battle for the benchmarks of the peers, where the peers are created by a {@link Battle} like in a real battle, but
+ * without the game engine: the managers of the battle and the files of the robots are stubs returning default values,
+ * and the robots are not running, so no events are queued for them.
+ * <p>
+ * Every robot is given the commands of sample.SpinBot, i.e. it drives in circles while turning its gun and radar, and
+ * fires a bullet every 10 turns. The turns are executed in the same steps as {@code Battle.runTurn()}, but the robots
+ * and bullets are visited in a fixed order.
+ */
+public final class SyntheticBattle {
+
+	private static final double BULLET_POWER = 1;
+
+	private final Battle battle;
+	private final List<RobotPeer> robots;
+	private final List<BulletPeer> bullets;
+	private final Field commandsField;
+	private int nextBulletId;
+
+	/**
+	 * Creates a battle on an 800x600 battlefield, which uses the spatial index.
+	 *
+	 * @param robotCount the number of robots.
+	 */
+	public SyntheticBattle(int robotCount) throws Exception {
+		this(robotCount, true);
+	}
+
+	/**
+	 * Creates a battle on an 800x600 battlefield.
+	 *
+	 * @param robotCount the number of robots.
+	 * @param spatialIndex {@code true} if the battle must use the spatial index for finding collisions and scanned
+	 *                     robots; {@code false} if every robot and bullet must be tested.
+	 */
+	@SuppressWarnings("unchecked")
+	public SyntheticBattle(int robotCount, boolean spatialIndex) throws Exception {
+		HiddenAccess.init();
+		System.setProperty("SPATIALINDEX", String.valueOf(spatialIndex));
+
+		// Only the version manager is needed by the peers, instead of loading all modules of Robocode into the container
+		final Map<String, Object> versionManager = new HashMap<String, Object>();
+
+		versionManager.put("getVersion", "1.9.3.5");
+		versionManager.put("getVersionAsInt", 0x01090305);
+		ContainerBase.instance = new ContainerBase() {
+			@Override
+			protected <T> T getBaseComponent(Class<T> tClass) {
+				return tClass == IVersionManagerBase.class ? stub(tClass, versionManager) : null;
+			}
+		};
+
+		final Map<String, Object> hostManager = new HashMap<String, Object>();
+
+		hostManager.put("createRobotProxy", stub(IHostingRobotProxy.class, null));
+
+		battle = new Battle(stub(ISettingsManager.class, null), stub(IBattleManager.class, null),
+				stub(IHostManager.class, hostManager), stub(ICpuManager.class, null), new BattleEventDispatcher());
+
+		final Map<String, Object> robotItem = new HashMap<String, Object>();
+
+		robotItem.put("getFullClassName", "sample.SpinBot");
+		robotItem.put("getShortClassName", "SpinBot");
+		robotItem.put("getUniqueFullClassNameWithVersion", "sample.SpinBot");
+		robotItem.put("getUniqueShortClassNameWithVersion", "SpinBot");
+		robotItem.put("getUniqueVeryShortClassNameWithVersion", "SpinBot");
+		robotItem.put("getRobocodeVersion", "1.9.3.5");
+		robotItem.put("isStandardRobot", true);
+		robotItem.put("isAdvancedRobot", true);
+
+		final RobotSpecification specification = HiddenAccess.createSpecification(
+				stub(IRobotItem.class, robotItem), "sample.SpinBot", null, null, null, "1.9.3.5", null,
+				"sample.SpinBot", null);
+		final RobotSpecification[] specifications = new RobotSpecification[robotCount];
+
+		for (int i = 0; i < robotCount; i++) {
+			specifications[i] = specification;
+		}
+
+		// The peers are created by the battle itself, which only gives them to the game engine
+		final Method setup = Battle.class.getDeclaredMethod("setup", RobotSpecification[].class,
+				BattleProperties.class, boolean.class, Random.class);
+
+		setup.setAccessible(true);
+		setup.invoke(battle, specifications, new BattleProperties(), false, new Random(42));
+
+		robots = (List<RobotPeer>) get(battle, "robots");
+		bullets = (List<BulletPeer>) get(battle, "bullets");
+
+		commandsField = RobotPeer.class.getDeclaredField("commands");
+		commandsField.setAccessible(true);
+	}
+
+	public Battle getBattle() {
+		return battle;
+	}
+
+	public List<RobotPeer> getRobots() {
+		return robots;
+	}
+
+	public List<BulletPeer> getBullets() {
+		return bullets;
+	}
+
+	/**
+	 * Places the robots at random positions with full energy, and removes all bullets, like when a round starts.
+	 */
+	@SuppressWarnings("unchecked")
+	public void startRound() throws IllegalAccessException {
+		bullets.clear();
+		for (RobotPeer robot : robots) {
+			robot.initializeRound(robots, null);
+
+			final ExecCommands commands = new ExecCommands();
+
+			commands.setDistanceRemaining(Double.MAX_VALUE);
+			commands.setBodyTurnRemaining(Double.MAX_VALUE);
+			commands.setGunTurnRemaining(Double.MAX_VALUE);
+			commands.setRadarTurnRemaining(Double.MAX_VALUE);
+			commands.setMaxVelocity(5);
+
+			((AtomicReference<ExecCommands>) commandsField.get(robot)).set(commands);
+		}
+		battle.getSpatialIndex().rebuild(robots, bullets);
+	}
+
+	/**
+	 * Executes a whole turn.
+	 *
+	 * @param turn the turn number, which decides which robots are firing.
+	 */
+	public void runTurn(int turn) {
+		fireBullets(turn);
+		loadCommands();
+		updateBullets();
+		moveRobots();
+		scanRobots();
+	}
+
+	/**
+	 * Fires a bullet from every 10th robot that is alive, where the robots take turns.
+	 *
+	 * @param turn the turn number, which decides which robots are firing.
+	 */
+	public void fireBullets(int turn) {
+		for (int i = turn % 10; i < robots.size(); i += 10) {
+			final RobotPeer robot = robots.get(i);
+
+			if (robot.isAlive()) {
+				final BulletPeer bullet = new BulletPeer(robot, battle.getBattleRules(), nextBulletId++);
+
+				bullet.setPower(BULLET_POWER);
+				bullet.setHeading(robot.getGunHeading());
+				bullet.setX(robot.getX());
+				bullet.setY(robot.getY());
+				battle.addBullet(bullet);
+			}
+		}
+	}
+
+	/**
+	 * Loads the commands of the robots, and rebuilds the spatial index.
+	 */
+	public void loadCommands() {
+		for (RobotPeer robot : robots) {
+			robot.performLoadCommands();
+		}
+		battle.getSpatialIndex().rebuild(robots, bullets);
+	}
+
+	public void updateBullets() {
+		final SpatialIndex spatialIndex = battle.getSpatialIndex();
+
+		for (int i = 0; i < bullets.size(); i++) {
+			final BulletPeer bullet = bullets.get(i);
+
+			bullet.update(spatialIndex.rankRobots(robots), spatialIndex.rankBullets(bullets));
+			spatialIndex.updateBullet(bullet);
+			if (bullet.getState() == BulletState.INACTIVE) {
+				bullets.remove(i--);
+				spatialIndex.removeBullet(bullet);
+			}
+		}
+	}
+
+	public void moveRobots() {
+		final SpatialIndex spatialIndex = battle.getSpatialIndex();
+
+		spatialIndex.rankRobots(robots);
+		for (RobotPeer robot : robots) {
+			robot.performMove(robots, 0);
+			spatialIndex.updateRobot(robot);
+		}
+	}
+
+	public void scanRobots() {
+		battle.getSpatialIndex().rankRobots(robots);
+		for (RobotPeer robot : robots) {
+			robot.performScan(robots);
+		}
+	}
+
+	private static Object get(Object object, String fieldName) throws Exception {
+		final Field field = object.getClass().getDeclaredField(fieldName);
+
+		field.setAccessible(true);
+		return field.get(object);
+	}
+
+	// Returns the given values for the methods of the interface, and the default value of the return type otherwise
+	private static <T> T stub(Class<T> type, final Map<String, Object> values) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				final String name = method.getName();
+
+				if (values != null && values.containsKey(name)) {
+					return values.get(name);
+				}
+				if (name.equals("equals")) {
+					return proxy == args[0];
+				}
+				if (name.equals("hashCode")) {
+					return System.identityHashCode(proxy);
+				}
+				final Class<?> returnType = method.getReturnType();
+
+				return returnType.isPrimitive() && returnType != void.class
+						? Array.get(Array.newInstance(returnType, 1), 0)
+						: null;
+			}
+		}));
+	}
+}
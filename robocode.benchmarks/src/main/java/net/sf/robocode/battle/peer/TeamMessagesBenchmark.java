@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the team messages of a 5-bot team for a single turn, where every bot sends the data of its last scan to
+ * its teammates. A message is sent, routed to its recipients by the battle, and received by every recipient, like
+ * {@code TeamRobotProxy} and {@code RobotPeer} do every turn. One operation is one turn, so {@code -prof gc} reports
+ * the bytes allocated per turn.
+ * <p>
+ * The {@code serializable} benchmark sends the scan data as a Serializable object in a new ObjectOutputStream, and
+ * matches the recipient against the names of all members for every message like RobotPeer did before the
+ * {@link TeamRoutingTable} was introduced. The {@code binary} benchmark sends the scan data as a binary message, and
+ * looks up the recipients in a {@link TeamRoutingTable}.
+ * <p>
+ * With {@code recipient=broadcast} every bot broadcasts its message; with {@code recipient=leader} every bot sends
+ * its message to the team leader by name.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar TeamMessagesBenchmark -prof gc}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TeamMessagesBenchmark {
+
+	private static final int TEAM_SIZE = 5;
+
+	@Param({"broadcast", "leader"})
+	public String recipient;
+
+	private String[] names;
+	private String[] fullClassNames;
+	private String recipientName;
+	private TeamRoutingTable routingTable;
+
+	private final ByteArrayOutputStream byteStreamWriter = new ByteArrayOutputStream(32768);
+	private final ByteBuffer messageBuffer = ByteBuffer.allocate(64);
+
+	private long time;
+
+	@Setup
+	public void setup() {
+		names = new String[TEAM_SIZE];
+		fullClassNames = new String[TEAM_SIZE];
+		for (int i = 0; i < TEAM_SIZE; i++) {
+			fullClassNames[i] = i == 0 ? "sampleteam.MyFirstLeader" : "sampleteam.MyFirstDroid";
+			names[i] = i == 0 ? fullClassNames[i] : fullClassNames[i] + " (" + i + ")";
+		}
+		recipientName = "broadcast".equals(recipient) ? null : names[0];
+		routingTable = new TeamRoutingTable(names, fullClassNames);
+	}
+
+	@Benchmark
+	public void serializable(Blackhole bh) throws IOException, ClassNotFoundException {
+		time++;
+		for (int sender = 0; sender < TEAM_SIZE; sender++) {
+			// TeamRobotProxy.sendMessage()
+			byteStreamWriter.reset();
+			final ObjectOutputStream objectStreamWriter = new ObjectOutputStream(byteStreamWriter);
+
+			objectStreamWriter.writeObject(scan(sender));
+			objectStreamWriter.flush();
+			final byte[] message = byteStreamWriter.toByteArray();
+
+			// RobotPeer.checkDispatchToMember() and TeamRobotProxy.loadTeamMessages()
+			for (int member = 0; member < TEAM_SIZE; member++) {
+				if (isLegacyRecipient(sender, member)) {
+					final ObjectInputStream objectStreamReader = new ObjectInputStream(
+							new ByteArrayInputStream(message));
+
+					bh.consume(objectStreamReader.readObject());
+					objectStreamReader.close();
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void binary(Blackhole bh) {
+		time++;
+		for (int sender = 0; sender < TEAM_SIZE; sender++) {
+			final ScanData scan = scan(sender);
+
+			// The robot writes its message
+			messageBuffer.clear();
+			messageBuffer.putLong(scan.time).putDouble(scan.x).putDouble(scan.y).putDouble(scan.heading).putDouble(
+					scan.velocity).putDouble(scan.energy);
+			messageBuffer.flip();
+
+			// TeamRobotProxy.sendBinaryMessage()
+			final byte[] message = new byte[messageBuffer.remaining()];
+
+			messageBuffer.duplicate().get(message);
+
+			// RobotPeer dispatching and TeamRobotProxy.loadTeamMessages()
+			for (int member : routingTable.getRecipients(recipientName)) {
+				if (recipientName != null || member != sender) {
+					final ByteBuffer received = ByteBuffer.wrap(message).slice().asReadOnlyBuffer();
+
+					bh.consume(new ScanData(received.getLong(), received.getDouble(), received.getDouble(),
+							received.getDouble(), received.getDouble(), received.getDouble()));
+				}
+			}
+		}
+	}
+
+	private ScanData scan(int sender) {
+		return new ScanData(time, 100 + sender, 200 + sender, 0.5 * sender, 8, 100 - sender);
+	}
+
+	private boolean isLegacyRecipient(int sender, int member) {
+		if (recipientName == null) {
+			return member != sender;
+		}
+		final int nl = recipientName.length();
+
+		return (names[member].length() >= nl && names[member].substring(0, nl).equals(recipientName))
+				|| (fullClassNames[member].length() >= nl
+				&& fullClassNames[member].substring(0, nl).equals(recipientName));
+	}
+
+	private static final class ScanData implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		final long time;
+		final double x;
+		final double y;
+		final double heading;
+		final double velocity;
+		final double energy;
+
+		ScanData(long time, double x, double y, double heading, double velocity, double energy) {
+			this.time = time;
+			this.x = x;
+			this.y = y;
+			this.heading = heading;
+			this.velocity = velocity;
+			this.energy = energy;
+		}
+	}
+}
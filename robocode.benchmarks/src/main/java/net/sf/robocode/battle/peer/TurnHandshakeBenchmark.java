@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.peer;
+
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Measures the handshake latency per turn between the battle thread and the robot threads, i.e. waking up
+ * every robot one by one and waiting for it to go back to sleep like Battle.wakeupSerial() does.
+ * The robots do no work at all, so only the cost of the turn synchronizer is measured.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar TurnHandshakeBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TurnHandshakeBenchmark {
+
+	@Param({"2", "10", "50"})
+	public int robotCount;
+
+	@Param({"monitor", "park"})
+	public String synchronizer;
+
+	private TurnSynchronizer[] synchronizers;
+	private AtomicBoolean[] runningFlags;
+	private Thread[] robotThreads;
+
+	@Setup
+	public void setup() throws InterruptedException {
+		System.setProperty("TURNSYNC", synchronizer);
+
+		synchronizers = new TurnSynchronizer[robotCount];
+		runningFlags = new AtomicBoolean[robotCount];
+		robotThreads = new Thread[robotCount];
+
+		for (int i = 0; i < robotCount; i++) {
+			final AtomicBoolean isRunning = new AtomicBoolean(true);
+			final TurnSynchronizer turnSynchronizer = TurnSynchronizer.create(isRunning);
+
+			runningFlags[i] = isRunning;
+			synchronizers[i] = turnSynchronizer;
+			robotThreads[i] = new Thread(new Runnable() {
+				public void run() {
+					while (isRunning.get() && !Thread.currentThread().isInterrupted()) {
+						turnSynchronizer.sleep();
+					}
+				}
+			}, "Robot " + i);
+			robotThreads[i].setDaemon(true);
+			robotThreads[i].start();
+
+			turnSynchronizer.awaitStarted(1000, 0);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		for (int i = 0; i < robotCount; i++) {
+			runningFlags[i].set(false);
+			robotThreads[i].interrupt();
+			robotThreads[i].join(1000);
+		}
+		System.clearProperty("TURNSYNC");
+	}
+
+	@Benchmark
+	public void turn() throws InterruptedException {
+		for (TurnSynchronizer turnSynchronizer : synchronizers) {
+			turnSynchronizer.wakeup();
+			turnSynchronizer.awaitSleeping(100, 0);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.snapshot;
+
+
+import net.sf.robocode.battle.peer.SyntheticBattle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the construction of a {@link TurnSnapshot} at the end of a turn, which the battle does for every turn when
+ * somebody is listening for the turns, e.g. the battle view or the battle recorder. The snapshot is taken of a
+ * {@link SyntheticBattle} after 50 turns, where the robots drive in circles and bullets are flying.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar TurnSnapshotBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TurnSnapshotBenchmark {
+
+	@Param({"2", "10"})
+	public int robotCount;
+
+	private SyntheticBattle battle;
+
+	@Setup
+	public void setup() throws Exception {
+		battle = new SyntheticBattle(robotCount);
+		battle.startRound();
+		for (int turn = 0; turn < 50; turn++) {
+			battle.runTurn(turn);
+		}
+	}
+
+	@Benchmark
+	public TurnSnapshot create() {
+		return new TurnSnapshot(battle.getBattle(), battle.getRobots(), battle.getBullets(), true);
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import org.openjdk.jmh.annotations.*;
+import robocode.control.RobocodeEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the time a battle waits for the robot processes of its robots, when the robots are hosted by robot
+ * processes, i.e. with <code>-DPROCESSHOST=true</code>. One operation takes the robot processes of a melee battle of
+ * 10 robots from a {@link RobotProcessPool}, like the {@link ProcessRobotProxy} of every robot does when the battle is
+ * set up, where each process has connected to the battle after loading the modules of the game.
+ * <p>
+ * The {@code processPool} parameter is the <code>PROCESSPOOL</code> system property: with {@code 0}, every robot waits
+ * for a new JVM to start; with {@code 16}, the pool is given time to start its processes before every operation, like
+ * between two battles, so the robots take pre-started processes.
+ * <p>
+ * The robot processes are started like by a RobocodeEngine, which loads the modules of the game from
+ * {@code robocode.benchmarks/target/lib}.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar ProcessHostBenchmark}
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class ProcessHostBenchmark {
+
+	private static final int ROBOTS = 10;
+
+	@Param({"0", "16"})
+	public String processPool;
+
+	private RobocodeEngine engine;
+	private RobotProcessPool pool;
+	private final RobotProcess[] processes = new RobotProcess[ROBOTS];
+
+	@Setup
+	public void setup() throws Exception {
+		final File targetDir = new File(
+				ProcessHostBenchmark.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getParentFile();
+
+		System.setProperty("PROCESSPOOL", processPool);
+		RobocodeEngine.setLogMessagesEnabled(false);
+
+		// The engine sets up the class path and working directory of the robot processes
+		engine = new RobocodeEngine(targetDir);
+		pool = new RobotProcessPool();
+
+		// The pool starts a process for every process taken from it
+		acquireProcesses();
+		closeProcesses();
+	}
+
+	@TearDown
+	public void tearDown() {
+		engine.close();
+	}
+
+	@Setup(Level.Invocation)
+	public void waitForPool() throws InterruptedException {
+		final int expected = Math.min(ROBOTS, Integer.parseInt(processPool));
+
+		for (int i = 0; i < 1200 && pool.getIdleCount() < expected; i++) {
+			Thread.sleep(100);
+		}
+	}
+
+	@TearDown(Level.Invocation)
+	public void closeProcesses() {
+		for (RobotProcess process : processes) {
+			process.destroy();
+		}
+	}
+
+	@Benchmark
+	public void acquireProcesses() throws IOException {
+		for (int i = 0; i < ROBOTS; i++) {
+			processes[i] = pool.acquire();
+		}
+	}
+}
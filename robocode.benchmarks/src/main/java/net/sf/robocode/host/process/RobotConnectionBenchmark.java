@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.core.ContainerBase;
+import net.sf.robocode.manager.IVersionManagerBase;
+import net.sf.robocode.peer.BulletCommand;
+import net.sf.robocode.peer.DebugProperty;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.TeamMessage;
+import net.sf.robocode.security.HiddenAccess;
+import net.sf.robocode.serialization.RbSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the latency per turn of a robot hosted by a robot process, i.e. the round trip of the commands of the robot
+ * through a {@link RobotConnection} between the robot process and the battle, like {@link ProcessRobotProxy} does for
+ * every turn. The robot process is a stand-in that sends the commands straight back as the results of the turn, so the
+ * round trip includes serializing the commands, sending them to the other process and back, and deserializing them,
+ * but not the work of the battle or the robot.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar RobotConnectionBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RobotConnectionBenchmark {
+
+	private ExecCommands commands;
+	private Process echo;
+	private RobotConnection connection;
+
+	@Setup
+	public void setup() throws IOException {
+		registerSerializers();
+
+		commands = new ExecCommands();
+		commands.setBodyTurnRemaining(0.35);
+		commands.setDistanceRemaining(100);
+		commands.setGunTurnRemaining(-0.1);
+		commands.setOutputText("Turn 42: aiming at sample.Crazy");
+		for (int i = 0; i < 5; i++) {
+			commands.getBullets().add(new BulletCommand(1.5, true, 0.25 * i, i));
+			commands.getDebugProperties().add(new DebugProperty("property" + i, Double.toString(i * 0.1)));
+		}
+
+		final ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+
+		try {
+			final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+			echo = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Echo.class.getName(),
+					Integer.toString(serverSocket.getLocalPort())).start();
+			connection = new RobotConnection(serverSocket.accept());
+		} finally {
+			serverSocket.close();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		connection.close();
+		echo.waitFor();
+	}
+
+	@Benchmark
+	public Object turnRoundTrip() throws IOException {
+		connection.send(RobotConnection.RESULTS, RbSerializer.ExecCommands_TYPE, commands);
+
+		final int kind = connection.readKind();
+
+		if (kind != RobotConnection.EXECUTE) {
+			throw new IOException("Unexpected message: " + kind);
+		}
+		return connection.readObject();
+	}
+
+	private static void registerSerializers() {
+		// Only the serializers are registered, instead of loading all modules of Robocode into the container
+		HiddenAccess.init();
+		ContainerBase.instance = new ContainerBase() {
+			@Override
+			protected <T> T getBaseComponent(Class<T> tClass) {
+				return tClass.cast(new VersionManager());
+			}
+		};
+		new net.sf.robocode.api.Module().afterLoaded(null);
+		RbSerializer.register(ExecCommands.class, RbSerializer.ExecCommands_TYPE);
+		RbSerializer.register(BulletCommand.class, RbSerializer.BulletCommand_TYPE);
+		RbSerializer.register(TeamMessage.class, RbSerializer.TeamMessage_TYPE);
+		RbSerializer.register(DebugProperty.class, RbSerializer.DebugProperty_TYPE);
+	}
+
+	/**
+	 * Stand-in for the robot process, which sends every message from the battle back as the commands of the next turn.
+	 */
+	public static final class Echo {
+
+		public static void main(String[] args) throws IOException {
+			registerSerializers();
+
+			final RobotConnection connection = new RobotConnection(
+					new Socket(InetAddress.getByName("127.0.0.1"), Integer.parseInt(args[0])));
+
+			try {
+				for (;;) {
+					connection.readKind();
+					connection.send(RobotConnection.EXECUTE, RbSerializer.ExecCommands_TYPE, connection.readObject());
+				}
+			} catch (EOFException e) {// closed by the benchmark
+			} finally {
+				connection.close();
+			}
+		}
+	}
+
+	private static final class VersionManager implements IVersionManagerBase {
+		public String getVersion() {
+			return "1.9.3.5";
+		}
+
+		public String getVersionN() {
+			return getVersion();
+		}
+
+		public int getVersionAsInt() {
+			return 0x01090305;
+		}
+
+		public boolean isLastRunVersionChanged() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the latency of starting and ending a round on a robot thread, when a new thread is started for
+ * every round compared to reusing the thread of the last round. The robot does no work at all, so only the
+ * cost of handing over the round to the robot thread is measured.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar RobotThreadSlotBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RobotThreadSlotBenchmark {
+
+	@Param({"true", "false"})
+	public boolean reuseThreads;
+
+	private ThreadGroup threadGroup;
+	private RobotThreadSlot slot;
+
+	private final Runnable robot = new Runnable() {
+		public void run() {}
+	};
+
+	@Setup
+	public void setup() {
+		threadGroup = new ThreadGroup("Robots");
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		if (slot != null) {
+			slot.retire(1000);
+		}
+	}
+
+	@Benchmark
+	public void round() throws InterruptedException {
+		if (slot == null || !slot.startRound()) {
+			slot = new RobotThreadSlot(threadGroup, "Robot", getClass().getClassLoader(), robot, reuseThreads, false);
+			slot.startRound();
+		}
+		slot.awaitRoundEnd(1000);
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+import net.sf.robocode.battle.peer.TurnSynchronizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Compares robots running on platform threads with robots running on virtual threads in a battle with 100 robots.
+ * The turn latency is measured by waking up every robot one by one and waiting for it to go back to sleep like
+ * Battle.wakeupSerial() does. The robots do no work at all.
+ * <p>
+ * The memory footprint of the robot threads is printed when the robots have been started, which is the growth of the
+ * used heap and of the resident set size of the process (on Linux only). Platform threads have their stacks outside
+ * the heap, whereas the stacks of virtual threads are stored on the heap.
+ * <p>
+ * Virtual threads require Java 21 or newer. Run with:
+ * {@code java -jar robocode.benchmarks/target/benchmarks.jar VirtualThreadsBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VirtualThreadsBenchmark {
+
+	@Param({"100"})
+	public int robotCount;
+
+	@Param({"platform", "virtual"})
+	public String threads;
+
+	@Param({"monitor", "park"})
+	public String synchronizer;
+
+	private TurnSynchronizer[] synchronizers;
+	private AtomicBoolean[] runningFlags;
+	private RobotThreadSlot[] slots;
+
+	@Setup
+	public void setup() throws InterruptedException {
+		final boolean isVirtual = threads.equals("virtual");
+
+		if (isVirtual && !VirtualThreads.isSupported()) {
+			throw new IllegalStateException("Virtual threads require Java 21 or newer");
+		}
+		System.setProperty("TURNSYNC", synchronizer);
+
+		final ThreadGroup threadGroup = new ThreadGroup("Robots");
+
+		synchronizers = new TurnSynchronizer[robotCount];
+		runningFlags = new AtomicBoolean[robotCount];
+		slots = new RobotThreadSlot[robotCount];
+
+		final long heapBefore = usedHeap();
+		final long rssBefore = residentSetSize();
+
+		for (int i = 0; i < robotCount; i++) {
+			final AtomicBoolean isRunning = new AtomicBoolean(true);
+			final TurnSynchronizer turnSynchronizer = TurnSynchronizer.create(isRunning);
+
+			runningFlags[i] = isRunning;
+			synchronizers[i] = turnSynchronizer;
+			slots[i] = new RobotThreadSlot(threadGroup, "Robot " + i, getClass().getClassLoader(), new Runnable() {
+				public void run() {
+					while (isRunning.get() && !Thread.currentThread().isInterrupted()) {
+						turnSynchronizer.sleep();
+					}
+				}
+			}, false, isVirtual);
+			slots[i].startRound();
+
+			turnSynchronizer.awaitStarted(1000, 0);
+		}
+
+		final long heapAfter = usedHeap();
+		final long rssAfter = residentSetSize();
+
+		System.out.println();
+		System.out.println("Used heap per robot thread: " + (heapAfter - heapBefore) / robotCount + " bytes");
+		if (rssBefore >= 0 && rssAfter >= 0) {
+			System.out.println("Resident set size per robot thread: " + (rssAfter - rssBefore) / robotCount + " bytes");
+		}
+		System.out.println("Live platform threads: " + ManagementFactory.getThreadMXBean().getThreadCount());
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		for (int i = 0; i < robotCount; i++) {
+			runningFlags[i].set(false);
+			slots[i].getThread().interrupt();
+			slots[i].awaitRoundEnd(1000);
+		}
+		System.clearProperty("TURNSYNC");
+	}
+
+	@Benchmark
+	public void turn() throws InterruptedException {
+		for (TurnSynchronizer turnSynchronizer : synchronizers) {
+			turnSynchronizer.wakeup();
+			turnSynchronizer.awaitSleeping(100, 0);
+		}
+	}
+
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private static long residentSetSize() {
+		BufferedReader reader = null;
+
+		try {
+			reader = new BufferedReader(new FileReader("/proc/self/status"));
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("VmRSS:")) {
+					// The size is given in kB
+					return Long.parseLong(line.substring(6).replace("kB", "").trim()) * 1024;
+				}
+			}
+		} catch (IOException ignore) {// Not running on Linux
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException ignore) {}
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+
+/**
+ * Compares records in the {@link BattleRecordFormat#BINARY_COMPACT} format with records in the
+ * {@link BattleRecordFormat#BINARY_ZIP} format, for a round of synthetic turns where the robots drive around and fire
+ * bullets. One operation writes or reads the whole round, and the size of both records is printed in the setup.
+ * <p>
+ * BINARY_COMPACT records are written and read with {@link CompactRecordWriter} and {@link CompactRecordReader}.
+ * BINARY_ZIP records are written and read with Java serialization of the turns like RecordManager does.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar CompactRecordBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompactRecordBenchmark {
+
+	@Param({"10"})
+	public int robotCount;
+
+	@Param({"1000"})
+	public int turnCount;
+
+	private List<ITurnSnapshot> turns;
+	private BattleRecordInfo recordInfo;
+	private File compactFile;
+	private File zipFile;
+
+	@Setup
+	public void setup() throws Exception {
+		turns = MeleeTurns.create(robotCount, turnCount);
+		recordInfo = new BattleRecordInfo();
+		recordInfo.robotCount = robotCount;
+		recordInfo.roundsCount = 1;
+		recordInfo.turnsInRounds = new Integer[] { turnCount };
+
+		compactFile = File.createTempFile("robocode-benchmark", ".br");
+		zipFile = File.createTempFile("robocode-benchmark", ".br");
+
+		writeCompact();
+		writeZip();
+
+		System.out.println();
+		System.out.println("BINARY_COMPACT: " + compactFile.length() + " bytes, BINARY_ZIP: " + zipFile.length()
+				+ " bytes");
+	}
+
+	@TearDown
+	public void tearDown() {
+		compactFile.delete();
+		zipFile.delete();
+	}
+
+	@Benchmark
+	public void writeCompact() throws IOException {
+		final CompactRecordWriter writer = new CompactRecordWriter(compactFile);
+
+		try {
+			for (ITurnSnapshot turn : turns) {
+				writer.writeTurn(turn, 0);
+			}
+			writer.finish(recordInfo);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Benchmark
+	public void writeZip() throws IOException {
+		final ZipOutputStream zip = new ZipOutputStream(
+				new BufferedOutputStream(new FileOutputStream(zipFile), 1024 * 1024));
+
+		try {
+			zip.putNextEntry(new ZipEntry("robocode.br"));
+
+			final ObjectOutputStream out = new ObjectOutputStream(zip);
+
+			out.writeObject(recordInfo);
+			for (ITurnSnapshot turn : turns) {
+				out.writeObject(turn);
+			}
+			out.flush();
+		} finally {
+			zip.close();
+		}
+	}
+
+	@Benchmark
+	public void readCompact(Blackhole bh) throws IOException, ClassNotFoundException {
+		final CompactRecordReader reader = new CompactRecordReader(compactFile);
+
+		try {
+			bh.consume(reader.readRecordInfo());
+			for (int i = 0; i < turnCount; i++) {
+				bh.consume(reader.readTurn(0, i));
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Benchmark
+	public void readZip(Blackhole bh) throws IOException, ClassNotFoundException {
+		final ZipInputStream zip = new ZipInputStream(new BufferedInputStream(new FileInputStream(zipFile), 1024 * 1024));
+
+		try {
+			zip.getNextEntry();
+
+			final ObjectInputStream in = new ObjectInputStream(zip);
+
+			bh.consume(in.readObject());
+			for (int i = 0; i < turnCount; i++) {
+				bh.consume(in.readObject());
+			}
+		} finally {
+			zip.close();
+		}
+	}
+}
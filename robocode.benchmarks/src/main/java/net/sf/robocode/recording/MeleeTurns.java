@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.RobotSnapshot;
+import net.sf.robocode.battle.snapshot.TurnSnapshot;
+import robocode.control.snapshot.BulletState;
+import robocode.control.snapshot.IBulletSnapshot;
+import robocode.control.snapshot.IRobotSnapshot;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Synthetic turns of a melee round for the record benchmarks, where the robots drive around and fire bullets.
+ */
+final class MeleeTurns {
+
+	private MeleeTurns() {}
+
+	/**
+	 * Creates the turns of a round.
+	 *
+	 * @param robotCount the number of robots.
+	 * @param turnCount the number of turns.
+	 * @return the turn snapshots.
+	 */
+	static List<ITurnSnapshot> create(int robotCount, int turnCount) throws Exception {
+		final Random random = new Random(42);
+		final List<ITurnSnapshot> result = new ArrayList<ITurnSnapshot>();
+		final double[] headings = new double[robotCount];
+		final double[] xs = new double[robotCount];
+		final double[] ys = new double[robotCount];
+		final List<double[]> flyingBullets = new ArrayList<double[]>();
+		int nextBulletId = 0;
+
+		for (int i = 0; i < robotCount; i++) {
+			headings[i] = random.nextDouble() * 2 * Math.PI;
+			xs[i] = 100 + random.nextDouble() * 600;
+			ys[i] = 100 + random.nextDouble() * 400;
+		}
+		for (int turn = 0; turn < turnCount; turn++) {
+			final List<IRobotSnapshot> robots = new ArrayList<IRobotSnapshot>();
+
+			for (int i = 0; i < robotCount; i++) {
+				headings[i] += Math.toRadians(random.nextInt(21) - 10);
+				xs[i] = Math.max(18, Math.min(782, xs[i] + 8 * Math.sin(headings[i])));
+				ys[i] = Math.max(18, Math.min(582, ys[i] + 8 * Math.cos(headings[i])));
+
+				final RobotSnapshot robot = new RobotSnapshot();
+
+				set(robot, "name", "sample.Robot" + i + " 1.0");
+				set(robot, "shortName", "sample.Robot" + i);
+				set(robot, "veryShortName", "Robot" + i);
+				set(robot, "robotIndex", i);
+				set(robot, "teamIndex", -1);
+				set(robot, "energy", 100 - turn * 0.05);
+				set(robot, "velocity", 8.0);
+				set(robot, "gunHeat", (turn % 16) * 0.1);
+				set(robot, "bodyHeading", headings[i]);
+				set(robot, "gunHeading", headings[i] + 0.5);
+				set(robot, "radarHeading", (turn * 0.7853981633974483) % (2 * Math.PI));
+				set(robot, "x", xs[i]);
+				set(robot, "y", ys[i]);
+
+				final Object score = create("ScoreSnapshot");
+
+				set(score, "name", "sample.Robot" + i);
+				set(score, "currentSurvivalScore", turn * 0.5);
+				set(score, "currentBulletDamageScore", (double) (turn / 20));
+				set(score, "currentScore", turn * 0.5 + turn / 20);
+				set(robot, "robotScoreSnapshot", score);
+
+				robots.add(robot);
+
+				if (turn % 16 == i % 16) {
+					flyingBullets.add(new double[] { nextBulletId++, i, xs[i], ys[i], headings[i] + 0.5 });
+				}
+			}
+
+			final List<IBulletSnapshot> bullets = new ArrayList<IBulletSnapshot>();
+
+			for (int i = flyingBullets.size() - 1; i >= 0; i--) {
+				final double[] b = flyingBullets.get(i);
+
+				b[2] += 17 * Math.sin(b[4]);
+				b[3] += 17 * Math.cos(b[4]);
+				if (b[2] < 0 || b[2] > 800 || b[3] < 0 || b[3] > 600) {
+					flyingBullets.remove(i);
+					continue;
+				}
+				final IBulletSnapshot bullet = (IBulletSnapshot) create("BulletSnapshot");
+
+				set(bullet, "state", BulletState.MOVING);
+				set(bullet, "power", 1.0);
+				set(bullet, "x", b[2]);
+				set(bullet, "y", b[3]);
+				set(bullet, "paintX", b[2]);
+				set(bullet, "paintY", b[3]);
+				set(bullet, "bulletId", (int) b[0]);
+				set(bullet, "ownerIndex", (int) b[1]);
+				set(bullet, "heading", b[4]);
+				bullets.add(bullet);
+			}
+			final TurnSnapshot snapshot = new TurnSnapshot();
+
+			set(snapshot, "robots", robots);
+			set(snapshot, "bullets", bullets);
+			set(snapshot, "tps", 30);
+			set(snapshot, "turn", turn);
+			result.add(snapshot);
+		}
+		return result;
+	}
+
+	// The snapshots are filled out like when they are read from an XML record, where only some of them are public
+	private static Object create(String snapshotClassName) throws Exception {
+		final Constructor<?> constructor = Class.forName("net.sf.robocode.battle.snapshot." + snapshotClassName)
+				.getConstructor();
+
+		constructor.setAccessible(true);
+		return constructor.newInstance();
+	}
+
+	private static void set(Object snapshot, String fieldName, Object value) throws Exception {
+		final Field field = snapshot.getClass().getDeclaredField(fieldName);
+
+		field.setAccessible(true);
+		field.set(snapshot, value);
+	}
+}
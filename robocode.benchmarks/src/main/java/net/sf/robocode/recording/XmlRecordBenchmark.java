@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshot;
+import net.sf.robocode.serialization.SerializableOptions;
+import net.sf.robocode.serialization.XmlWriter;
+import org.openjdk.jmh.annotations.*;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+
+/**
+ * Measures the export of a recorded melee round to the {@link BattleRecordFormat#XML} and
+ * {@link BattleRecordFormat#XML_ZIP} formats the way RecordManager saves a record, where the turns are read from the
+ * recorded battle in the {@link BattleRecordFormat#BINARY_INDEXED} or {@link BattleRecordFormat#BINARY_COMPACT}
+ * format, and written with {@link XmlWriter}. One operation exports the whole round.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar XmlRecordBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class XmlRecordBenchmark {
+
+	@Param({"10"})
+	public int robotCount;
+
+	@Param({"10000"})
+	public int turnCount;
+
+	@Param({"BINARY_INDEXED", "BINARY_COMPACT"})
+	public BattleRecordFormat recordFormat;
+
+	private BattleRecordInfo recordInfo;
+	private File recordFile;
+	private File xmlFile;
+
+	@Setup
+	public void setup() throws Exception {
+		final List<ITurnSnapshot> turns = MeleeTurns.create(robotCount, turnCount);
+
+		recordInfo = new BattleRecordInfo();
+		recordInfo.robotCount = robotCount;
+		recordInfo.roundsCount = 1;
+		recordInfo.turnsInRounds = new Integer[] { turnCount };
+
+		recordFile = File.createTempFile("robocode-benchmark", ".br");
+		xmlFile = File.createTempFile("robocode-benchmark", ".xml");
+
+		final RecordWriter writer = recordFormat == BattleRecordFormat.BINARY_COMPACT
+				? new CompactRecordWriter(recordFile)
+				: new IndexedRecordWriter(recordFile);
+
+		try {
+			for (ITurnSnapshot turn : turns) {
+				writer.writeTurn(turn, 0);
+			}
+			writer.finish(recordInfo);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		recordFile.delete();
+		xmlFile.delete();
+	}
+
+	@Benchmark
+	public void exportXml() throws IOException, ClassNotFoundException {
+		final OutputStream out = new BufferedOutputStream(new FileOutputStream(xmlFile), 1024 * 1024);
+
+		try {
+			export(new XmlWriter(out, true), new SerializableOptions(false));
+		} finally {
+			out.close();
+		}
+	}
+
+	@Benchmark
+	public void exportXmlZip() throws IOException, ClassNotFoundException {
+		final ZipOutputStream zip = new ZipOutputStream(
+				new BufferedOutputStream(new FileOutputStream(xmlFile), 1024 * 1024));
+
+		try {
+			zip.putNextEntry(new ZipEntry("robocode.xml"));
+			export(new XmlWriter(zip, false), new SerializableOptions(true));
+		} finally {
+			zip.close();
+		}
+	}
+
+	private void export(XmlWriter writer, SerializableOptions options) throws IOException, ClassNotFoundException {
+		final RecordReader reader = recordFormat == BattleRecordFormat.BINARY_COMPACT
+				? new CompactRecordReader(recordFile)
+				: new IndexedRecordReader(recordFile);
+
+		try {
+			writer.startDocument();
+			writer.startElement("record");
+			writer.startElement("turns");
+			for (int i = 0; i < turnCount; i++) {
+				((TurnSnapshot) reader.readTurn(0, i)).writeXml(writer, options);
+			}
+			writer.endElement();
+			writer.endElement();
+			writer.flush();
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.robotpaint;
+
+
+import net.sf.robocode.core.ContainerBase;
+import net.sf.robocode.manager.IVersionManagerBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the painting of a robot in one turn: the record benchmark queues the calls of a robot painting shapes on
+ * its graphics and reads them out, like the robot peer does every turn, and the replay benchmark paints the recorded
+ * calls on an 800x600 image, like the battle view does for every robot with painting enabled.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar Graphics2DSerializedBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class Graphics2DSerializedBenchmark {
+
+	private static final Color[] COLORS = { Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW };
+
+	// The number of shapes painted by the robot in every turn
+	@Param({"10", "100"})
+	public int shapeCount;
+
+	private Graphics2DSerialized recorder;
+	private Graphics2DSerialized player;
+	private byte[] calls;
+	private BufferedImage image;
+	private Graphics2D graphics;
+
+	@Setup
+	public void setup() {
+		// The serializer used for the strings only needs the version manager of the container
+		ContainerBase.instance = new ContainerBase() {
+			@Override
+			protected <T> T getBaseComponent(Class<T> tClass) {
+				return tClass.cast(new VersionManager());
+			}
+		};
+
+		recorder = new Graphics2DSerialized();
+		recorder.setPaintingEnabled(true);
+
+		player = new Graphics2DSerialized();
+		player.setPaintingEnabled(true);
+
+		calls = record();
+
+		image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+		graphics = image.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown() {
+		graphics.dispose();
+	}
+
+	@Benchmark
+	public byte[] record() {
+		for (int i = 0; i < shapeCount; i++) {
+			final int x = (i * 37) % 760;
+			final int y = (i * 53) % 560;
+
+			recorder.setColor(COLORS[i % COLORS.length]);
+			recorder.drawLine(x, y, x + 40, y + 40);
+			recorder.fillOval(x, y, 20, 20);
+			recorder.drawRect(x, y, 40, 40);
+		}
+		recorder.drawString("Shapes: " + shapeCount, 10, 10);
+		return recorder.readoutQueuedCalls();
+	}
+
+	@Benchmark
+	public BufferedImage replay() {
+		player.processTo(graphics, calls);
+		return image;
+	}
+
+	private static final class VersionManager implements IVersionManagerBase {
+		public String getVersion() {
+			return "1.9.3.5";
+		}
+
+		public String getVersionN() {
+			return getVersion();
+		}
+
+		public int getVersionAsInt() {
+			return 0x01090305;
+		}
+
+		public boolean isLastRunVersionChanged() {
+			return false;
+		}
+	}
+}
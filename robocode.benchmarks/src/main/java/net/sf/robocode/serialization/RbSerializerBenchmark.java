@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.serialization;
+
+
+import net.sf.robocode.core.ContainerBase;
+import net.sf.robocode.manager.IVersionManagerBase;
+import net.sf.robocode.peer.*;
+import net.sf.robocode.security.HiddenAccess;
+import org.openjdk.jmh.annotations.*;
+import robocode.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures round trips of the commands and results exchanged with a robot every turn, like a .NET robot exchanges
+ * them through its buffer with {@code RobotPeer.executeImplSerial()}: the commands are serialized into the buffer
+ * and deserialized, and the results are serialized into the buffer and deserialized.
+ * The stream round trip serializes and deserializes the commands through streams, like {@code RbSerializer.deepCopy()}.
+ * <p>
+ * Run with: {@code java -jar robocode.benchmarks/target/benchmarks.jar RbSerializerBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RbSerializerBenchmark {
+
+	// The number of events, bullets and debug properties in every turn
+	@Param({"1", "10"})
+	public int itemCount;
+
+	private RbSerializer serializer;
+	private ByteBuffer buffer;
+	private ExecCommands commands;
+	private ExecResults results;
+	private ByteArrayOutputStream out;
+
+	@Setup
+	public void setup() {
+		// Only the serializers are registered, instead of loading all modules of Robocode into the container
+		HiddenAccess.init();
+		ContainerBase.instance = new ContainerBase() {
+			@Override
+			protected <T> T getBaseComponent(Class<T> tClass) {
+				return tClass.cast(new VersionManager());
+			}
+		};
+		new net.sf.robocode.api.Module().afterLoaded(null);
+		RbSerializer.register(ExecCommands.class, RbSerializer.ExecCommands_TYPE);
+		RbSerializer.register(BulletCommand.class, RbSerializer.BulletCommand_TYPE);
+		RbSerializer.register(TeamMessage.class, RbSerializer.TeamMessage_TYPE);
+		RbSerializer.register(DebugProperty.class, RbSerializer.DebugProperty_TYPE);
+		RbSerializer.register(ExecResults.class, RbSerializer.ExecResults_TYPE);
+		RbSerializer.register(BulletStatus.class, RbSerializer.BulletStatus_TYPE);
+
+		serializer = new RbSerializer();
+		buffer = ByteBuffer.allocateDirect(1024 * 1024);
+		out = new ByteArrayOutputStream(64 * 1024);
+
+		commands = new ExecCommands();
+		commands.setBodyTurnRemaining(0.35);
+		commands.setDistanceRemaining(100);
+		commands.setGunTurnRemaining(-0.1);
+		commands.setOutputText("Turn 42: aiming at sample.Crazy");
+
+		final List<Event> events = new ArrayList<Event>();
+		final List<BulletStatus> bulletUpdates = new ArrayList<BulletStatus>();
+
+		for (int i = 0; i < itemCount; i++) {
+			commands.getBullets().add(new BulletCommand(1.5, true, 0.25 * i, i));
+			commands.getDebugProperties().add(new DebugProperty("property" + i, Double.toString(i * 0.1)));
+
+			events.add(new ScannedRobotEvent("sample.Crazy (" + i + ")", 97.5, 0.3, 250.5, 1.2, 8, false));
+			bulletUpdates.add(new BulletStatus(i, 100 + i, 200 + i, null, true));
+		}
+		events.add(new HitWallEvent(0.5));
+
+		final RobotStatus status = HiddenAccess.createStatus(98.5, 350.2, 120.7, 1.1, 2.2, 3.3, 8, 0.35, 0.1, -0.1, 100,
+				0.6, 9, 0, 3, 10, 1234);
+
+		results = new ExecResults(commands, status, events, new ArrayList<TeamMessage>(), bulletUpdates, false, false,
+				false);
+	}
+
+	@Benchmark
+	public Object commandsAndResults() throws IOException {
+		buffer.clear();
+		serializer.serializeToBuffer(buffer, RbSerializer.ExecCommands_TYPE, commands);
+		buffer.flip();
+		serializer.deserialize(buffer);
+
+		buffer.clear();
+		serializer.serializeToBuffer(buffer, RbSerializer.ExecResults_TYPE, results);
+		buffer.flip();
+		return serializer.deserialize(buffer);
+	}
+
+	@Benchmark
+	public Object commandsThroughStreams() throws IOException {
+		out.reset();
+		serializer.serialize(out, RbSerializer.ExecCommands_TYPE, commands);
+		return serializer.deserialize(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	private static final class VersionManager implements IVersionManagerBase {
+		public String getVersion() {
+			return "1.9.3.5";
+		}
+
+		public String getVersionN() {
+			return getVersion();
+		}
+
+		public int getVersionAsInt() {
+			return 0x01090305;
+		}
+
+		public boolean isLastRunVersionChanged() {
+			return false;
+		}
+	}
+}
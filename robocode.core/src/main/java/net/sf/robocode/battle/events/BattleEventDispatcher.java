@@ -13,7 +13,12 @@ import static net.sf.robocode.io.Logger.logError;
 import net.sf.robocode.io.Logger;
 import robocode.control.events.*;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 
@@ -29,17 +34,68 @@ public class BattleEventDispatcher implements IBattleListener {
 	// then ConcurentModificationExceptions will occur from time to time.
 	private final List<IBattleListener> listeners = new CopyOnWriteArrayList<IBattleListener>();
 
+	// The event types handled by at least one of the listeners. Replaced whenever a listener is added or removed.
+	private volatile Set<Class<?>> handledEvents = Collections.emptySet();
+
 	public BattleEventDispatcher() {}
 
 	public void addListener(IBattleListener listener) {
 		assert (listener != null);
 
 		listeners.add(listener);
+		updateHandledEvents();
 	}
 
 	public void removeListener(IBattleListener listener) {
 		assert (listener != null);
 		listeners.remove(listener);
+		updateHandledEvents();
+	}
+
+	/**
+	 * Checks if any of the listeners handles a specific type of battle event, so the battle can skip creating
+	 * events (and turn snapshots) that nobody is going to use.
+	 * A listener extending {@link BattleAdaptor} handles an event type only if it overrides the corresponding
+	 * event handler. Any other listener is considered to handle all event types of the {@link IBattleListener}.
+	 * The {@link TimingStatisticsEvent} is only sent to battle adaptors, so only battle adaptors can handle it.
+	 *
+	 * @param eventClass the type of battle event, e.g. {@code TurnEndedEvent.class}.
+	 * @return {@code true} if at least one listener handles the event type; {@code false} otherwise.
+	 */
+	public boolean hasListenersFor(Class<? extends BattleEvent> eventClass) {
+		return handledEvents.contains(eventClass);
+	}
+
+	private synchronized void updateHandledEvents() {
+		Set<Class<?>> events = new HashSet<Class<?>>();
+
+		for (IBattleListener listener : listeners) {
+			for (Method handler : IBattleListener.class.getMethods()) {
+				if (isHandling(listener, handler)) {
+					events.addAll(Arrays.asList(handler.getParameterTypes()));
+				}
+			}
+			if (listener instanceof BattleAdaptor
+					&& isOverriding((BattleAdaptor) listener, "onTimingStatistics", TimingStatisticsEvent.class)) {
+				events.add(TimingStatisticsEvent.class);
+			}
+		}
+		handledEvents = events;
+	}
+
+	private static boolean isHandling(IBattleListener listener, Method handler) {
+		if (!(listener instanceof BattleAdaptor)) {
+			return true;
+		}
+		return isOverriding((BattleAdaptor) listener, handler.getName(), handler.getParameterTypes());
+	}
+
+	private static boolean isOverriding(BattleAdaptor listener, String handlerName, Class<?>... parameterTypes) {
+		try {
+			return listener.getClass().getMethod(handlerName, parameterTypes).getDeclaringClass() != BattleAdaptor.class;
+		} catch (NoSuchMethodException e) {
+			return true;
+		}
 	}
 
 	public void onBattleStarted(BattleStartedEvent event) {
@@ -132,6 +188,19 @@ public class BattleEventDispatcher implements IBattleListener {
 		}
 	}
 
+	public void onTimingStatistics(TimingStatisticsEvent event) {
+		for (IBattleListener listener : listeners) {
+			if (!(listener instanceof BattleAdaptor)) {
+				continue;
+			}
+			try {
+				((BattleAdaptor) listener).onTimingStatistics(event);
+			} catch (Throwable ex) {
+				logError("onTimingStatistics " + listener.getClass(), ex);
+			}
+		}
+	}
+
 	public void onBattleMessage(BattleMessageEvent event) {
 		for (IBattleListener listener : listeners) {
 			try {
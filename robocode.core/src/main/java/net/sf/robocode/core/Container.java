@@ -200,6 +200,10 @@ public final class Container extends ContainerBase {
 		for (String path : classPath.split(File.pathSeparator)) {
 			String test = path.toLowerCase();
 
+			// a .jar file is only a module, when it is named like one, and not just placed in a robocode.* directory
+			if (test.endsWith(".jar") && !(File.separator + new File(test).getName()).startsWith(allowed)) {
+				continue;
+			}
 			if (test.contains(allowed)) {
 				if (!test.contains("robocode.jar") && !test.contains("robocode.api")
 						) {
@@ -15,5 +15,7 @@ public enum BattleRecordFormat {
 	BINARY,
 	BINARY_ZIP,
 	XML,
-	XML_ZIP
+	XML_ZIP,
+	BINARY_INDEXED,
+	BINARY_COMPACT
 }
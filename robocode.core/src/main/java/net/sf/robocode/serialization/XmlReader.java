@@ -8,13 +8,10 @@
 package net.sf.robocode.serialization;
 
 
-import org.xml.sax.Attributes;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
-
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
@@ -23,13 +20,14 @@ import java.util.Stack;
 
 
 /**
+ * Streaming XML reader, which pulls the elements from a StAX stream reader one by one, so only the elements currently
+ * being read are kept in memory.
+ *
  * @author Pavel Savara (original)
  */
 public class XmlReader {
 
-	private SAXParser parser;
-
-	private final InputStream input;
+	private final XMLStreamReader parser;
 	private final Stack<Element> elements = new Stack<Element>();
 	private final Stack<IXmlSerializable> items = new Stack<IXmlSerializable>();
 	private final Stack<Map<String, Element>> elementNames = new Stack<Map<String, Element>>();
@@ -37,14 +35,14 @@ public class XmlReader {
 	private IXmlSerializable result;
 	private Map<String, Object> context = new HashMap<String, Object>();
 
-	private XmlReader(InputStream input) throws SAXException, ParserConfigurationException {
-		this.input = input;
-		SAXParserFactory factory = SAXParserFactory.newInstance();
+	private XmlReader(InputStream input) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
 
-		parser = factory.newSAXParser();
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		parser = factory.createXMLStreamReader(input);
 	}
 
-	private Object deserialize(IXmlSerializable prototype) throws IOException, SAXException {
+	private Object deserialize(IXmlSerializable prototype) throws IOException, XMLStreamException {
 		elementNames.push(new HashMap<String, Element>());
 		attributeNames.push(new HashMap<String, Attribute>());
 		items.push(null);
@@ -60,7 +58,19 @@ public class XmlReader {
 			public void close() {}
 		});
 		prototype.readXml(this);
-		parser.parse(input, new Handler(this));
+		try {
+			while (parser.hasNext()) {
+				final int event = parser.next();
+
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					startElement(getQName());
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					endElement(getQName());
+				}
+			}
+		} finally {
+			parser.close();
+		}
 		items.pop();
 		elements.pop();
 		elementNames.pop();
@@ -69,65 +79,65 @@ public class XmlReader {
 		return result;
 	}
 
-	private class Handler extends DefaultHandler {
-		final XmlReader parent;
-
-		public Handler(XmlReader parent) {
-			this.parent = parent;
-		}
-
-		public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
-			final Map<String, Element> names = XmlReader.this.elementNames.peek();
-			final Element element = names == null ? null : names.get(qName);
-
-			if (element != null) {
-				elements.push(element);
-				XmlReader.this.elementNames.push(new HashMap<String, Element>());
-				attributeNames.push(new HashMap<String, Attribute>());
-				final IXmlSerializable item = element.read(parent);
+	private String getQName() {
+		final String prefix = parser.getPrefix();
 
-				item.readXml(parent);
-				for (int i = 0; i < attributes.getLength(); i++) {
-					Attribute attribute = attributeNames.peek().get(attributes.getQName(i));
+		return (prefix == null || prefix.length() == 0) ? parser.getLocalName() : prefix + ':' + parser.getLocalName();
+	}
 
-					if (attribute != null) {
-						attribute.read(attributes.getValue(i));
-					}
+	private void startElement(String qName) {
+		final Map<String, Element> names = elementNames.peek();
+		final Element element = names == null ? null : names.get(qName);
+
+		if (element != null) {
+			elements.push(element);
+			elementNames.push(new HashMap<String, Element>());
+			attributeNames.push(new HashMap<String, Attribute>());
+			final IXmlSerializable item = element.read(this);
+
+			item.readXml(this);
+			for (int i = 0; i < parser.getAttributeCount(); i++) {
+				final String prefix = parser.getAttributePrefix(i);
+				final String localName = parser.getAttributeLocalName(i);
+				Attribute attribute = attributeNames.peek().get(
+						(prefix == null || prefix.length() == 0) ? localName : prefix + ':' + localName);
+
+				if (attribute != null) {
+					attribute.read(parser.getAttributeValue(i));
 				}
-				items.push(item);
-			} else {
-				items.push(null);
-				elements.push(null);
-				XmlReader.this.elementNames.push(null);
-				attributeNames.push(null);
 			}
+			items.push(item);
+		} else {
+			items.push(null);
+			elements.push(null);
+			elementNames.push(null);
+			attributeNames.push(null);
 		}
+	}
 
-		public void endElement(String uri, String localName, String qName) throws SAXException {
-			elements.pop();
-			final IXmlSerializable item = items.peek();
-			final Element parentElement = elements.peek();
+	private void endElement(String qName) {
+		elements.pop();
+		final IXmlSerializable item = items.peek();
+		final Element parentElement = elements.peek();
 
-			if (parentElement instanceof ListElement) {
-				ListElement le = (ListElement) parentElement;
+		if (parentElement instanceof ListElement) {
+			ListElement le = (ListElement) parentElement;
 
-				le.add(item);
-			}
-			items.pop();
-			elementNames.pop();
-			attributeNames.pop();
-			final Map<String, Element> names = XmlReader.this.elementNames.peek();
-			final Element element = names == null ? null : names.get(qName);
+			le.add(item);
+		}
+		items.pop();
+		elementNames.pop();
+		attributeNames.pop();
+		final Map<String, Element> names = elementNames.peek();
+		final Element element = names == null ? null : names.get(qName);
 
-			if (element != null) {
-				if (element instanceof ElementClose) {
-					ElementClose ec = (ElementClose) element;
+		if (element != null) {
+			if (element instanceof ElementClose) {
+				ElementClose ec = (ElementClose) element;
 
-					ec.close();
-				}
+				ec.close();
 			}
 		}
-
 	}
 
 	public Map<String, Object> getContext() {
@@ -180,10 +190,8 @@ public class XmlReader {
 			XmlReader xr = new XmlReader(input);
 
 			return xr.deserialize(prototype);
-		} catch (SAXException e) {
-			throw new IOException();
-		} catch (ParserConfigurationException e) {
-			throw new IOException();
+		} catch (XMLStreamException e) {
+			throw new IOException(e.getMessage());
 		}
 	}
 }
@@ -9,97 +9,161 @@ package net.sf.robocode.serialization;
 
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
-import java.text.CharacterIterator;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
-import java.text.StringCharacterIterator;
+import java.util.Arrays;
 import java.util.Locale;
-import java.util.Stack;
 
 
 /**
+ * Streaming XML writer, where the XML is written to a reusable buffer which is written out when it is full.
+ * Numbers are formatted directly into the buffer, and text is only escaped when it contains special characters.
+ * <p>
+ * When writing to an {@link OutputStream}, the XML is encoded as UTF-8 by the writer itself. The buffer is written
+ * out when the outermost element has been ended, or when {@link #flush()} is called.
+ *
  * @author Pavel Savara (original)
  */
 public class XmlWriter {
 	private static final DecimalFormat decimalFormat = new DecimalFormat("#.####", new DecimalFormatSymbols(Locale.US));
+
+	// Trimmed numbers smaller than this are formatted without DecimalFormat, see appendTrimmed()
+	private static final double MAX_FAST_TRIMMED = 1e6;
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+
 	private final Writer writer;
-	private final Stack<String> elements = new Stack<String>();
+	private final OutputStream output;
+
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int size;
+	private byte[] bytes;
+
+	private String[] elements = new String[16];
+	private int depth;
+
 	private boolean headClosed = true;
 	private boolean innerElement = false;
 	private boolean indent = true;
 
 	public XmlWriter(Writer writer, boolean indent) {
 		this.writer = writer;
+		this.output = null;
 		this.indent = indent;
 	}
 
+	/**
+	 * Creates a writer writing XML encoded as UTF-8 to an output stream.
+	 *
+	 * @param output the output stream.
+	 * @param indent {@code true} if elements must be written on separate, indented lines; {@code false} otherwise.
+	 */
+	public XmlWriter(OutputStream output, boolean indent) {
+		this.writer = null;
+		this.output = output;
+		this.indent = indent;
+		bytes = new byte[BUFFER_SIZE * 3];
+	}
+
 	public void startDocument() throws IOException {
-		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
 	}
 
 	public void startElement(String name) throws IOException {
 		closeHead();
-		indent(elements.size());
-		elements.push(name);
-		writer.write('<');
-		writer.write(encode(name));
+		indent(depth);
+		if (depth == elements.length) {
+			elements = Arrays.copyOf(elements, depth * 2);
+		}
+		elements[depth++] = name;
+		append('<');
+		appendEscaped(name);
 		headClosed = false;
 		innerElement = false;
 	}
 
 	public void writeAttribute(String name, String value) throws IOException {
 		if (value != null) {
-			writer.write(' ');
-			writer.write(encode(name));
-			writer.write("=\"");
-			writer.write(encode(value));
-			writer.write('"');
+			startAttribute(name);
+			appendEscaped(value);
+			append('"');
 		}
 	}
 
 	public void writeAttribute(String name, boolean value) throws IOException {
-		writeAttribute(name, Boolean.toString(value));
+		startAttribute(name);
+		append(value ? "true" : "false");
+		append('"');
 	}
 
 	public void writeAttribute(String name, long value) throws IOException {
-		writeAttribute(name, Long.toString(value));
+		startAttribute(name);
+		append(value);
+		append('"');
 	}
 
 	public void writeAttribute(String name, double value, boolean trim) throws IOException {
+		startAttribute(name);
 		if (trim) {
-			writeAttribute(name, decimalFormat.format(value));
+			appendTrimmed(value);
 		} else {
-			writeAttribute(name, Double.toString(value));
+			appendDouble(value);
 		}
+		append('"');
 	}
 
 	public void endElement() throws IOException {
-		String name = elements.pop();
+		final String name = elements[--depth];
+
+		elements[depth] = null;
 
 		if (innerElement || headClosed) {
 			closeHead();
-			indent(elements.size());
-			writer.write("</");
-			writer.write(encode(name));
-			writer.write(">");
+			indent(depth);
+			append("</");
+			appendEscaped(name);
+			append('>');
 		} else {
-			writer.write("/>");
+			append("/>");
 			headClosed = true;
 		}
 		newline();
 		innerElement = true;
+
+		if (depth == 0) {
+			flush();
+		}
+	}
+
+	/**
+	 * Writes out the buffered XML, and flushes the underlying writer or output stream.
+	 */
+	public void flush() throws IOException {
+		writeBuffer(true);
+		if (writer != null) {
+			writer.flush();
+		} else {
+			output.flush();
+		}
+	}
+
+	private void startAttribute(String name) throws IOException {
+		append(' ');
+		appendEscaped(name);
+		append("=\"");
 	}
 
 	private void newline() throws IOException {
 		if (indent) {
-			writer.write("\n");
+			append('\n');
 		}
 	}
 
 	private void closeHead() throws IOException {
 		if (!headClosed) {
-			writer.write('>');
+			append('>');
 			newline();
 			headClosed = true;
 		}
@@ -108,35 +172,230 @@ public class XmlWriter {
 	private void indent(int level) throws IOException {
 		if (indent) {
 			for (int i = 0; i < level; i++) {
-				writer.write("\t");
+				append('\t');
 			}
 		}
 	}
 
-	private static String encode(String text) {
-		final StringBuilder result = new StringBuilder();
-		final StringCharacterIterator iterator = new StringCharacterIterator(text);
-		char character = iterator.current();
+	private void append(char c) throws IOException {
+		if (size == buffer.length) {
+			writeBuffer(false);
+		}
+		buffer[size++] = c;
+	}
 
-		while (character != CharacterIterator.DONE) {
-			if (character == '<') {
-				result.append("&lt;");
-			} else if (character == '>') {
-				result.append("&gt;");
-			} else if (character == '&') {
-				result.append("&amp;");
-			} else if (character == '\"') {
-				result.append("&quot;");
-			} else if (character == '\n') {
-				result.append("&#xA;");
-			} else {
-				// the char is not a special one
-				// add it to the result as is
-				result.append(character);
+	private void append(String text) throws IOException {
+		final int length = text.length();
+
+		if (size + length > buffer.length) {
+			writeBuffer(false);
+			if (length > buffer.length) {
+				for (int i = 0; i < length; i++) {
+					append(text.charAt(i));
+				}
+				return;
+			}
+		}
+		text.getChars(0, length, buffer, size);
+		size += length;
+	}
+
+	private void appendEscaped(String text) throws IOException {
+		final int length = text.length();
+
+		for (int i = 0; i < length; i++) {
+			final char c = text.charAt(i);
+
+			if (c == '<' || c == '>' || c == '&' || c == '"' || c == '\n') {
+				for (int j = 0; j < length; j++) {
+					appendEscaped(text.charAt(j));
+				}
+				return;
+			}
+		}
+		append(text);
+	}
+
+	private void appendEscaped(char c) throws IOException {
+		switch (c) {
+		case '<':
+			append("&lt;");
+			break;
+
+		case '>':
+			append("&gt;");
+			break;
+
+		case '&':
+			append("&amp;");
+			break;
+
+		case '"':
+			append("&quot;");
+			break;
+
+		case '\n':
+			append("&#xA;");
+			break;
+
+		default:
+			append(c);
+		}
+	}
+
+	private void append(long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			append(Long.toString(value));
+			return;
+		}
+		reserve(20);
+		if (value < 0) {
+			buffer[size++] = '-';
+			value = -value;
+		}
+		putDigits(value);
+	}
+
+	// Puts the digits of a non-negative number into the buffer, which must have room for them
+	private void putDigits(long value) {
+		int digits = 1;
+
+		for (long v = value; v >= 10; v /= 10) {
+			digits++;
+		}
+		for (int i = size + digits - 1; i >= size; i--) {
+			buffer[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		size += digits;
+	}
+
+	// Makes sure that the buffer has room for a number of chars
+	private void reserve(int length) throws IOException {
+		if (size + length > buffer.length) {
+			writeBuffer(false);
+		}
+	}
+
+	/**
+	 * Appends a number the same way as Double.toString(), where numbers without decimals are appended directly.
+	 */
+	private void appendDouble(double value) throws IOException {
+		final long integral = (long) value;
+
+		if (integral == value && Math.abs(value) < 1e7 && Double.doubleToRawLongBits(value) != Long.MIN_VALUE) {
+			append(integral);
+			append(".0");
+		} else {
+			append(Double.toString(value));
+		}
+	}
+
+	/**
+	 * Appends a number rounded to at most 4 decimals the same way as DecimalFormat("#.####") does, i.e. rounded half
+	 * even using the exact value of the double, without trailing zeros.
+	 */
+	private void appendTrimmed(double value) throws IOException {
+		final double magnitude = Math.abs(value);
+
+		if (!(magnitude < MAX_FAST_TRIMMED)) { // also true for NaN
+			appendFormatted(value);
+			return;
+		}
+		final double scaled = magnitude * 10000;
+		long units = (long) scaled;
+		final double fraction = scaled - units;
+
+		// The error of the scaled value is far below 1e-4, so only values close to a tie must be rounded exactly
+		if (Math.abs(fraction - 0.5) < 1e-4) {
+			appendFormatted(value);
+			return;
+		}
+		if (fraction > 0.5) {
+			units++;
+		}
+		reserve(20);
+		if (Double.doubleToRawLongBits(value) < 0) {
+			buffer[size++] = '-';
+		}
+		putDigits(units / 10000);
+
+		int decimals = (int) (units % 10000);
+
+		if (decimals != 0) {
+			int digits = 4;
+
+			while (decimals % 10 == 0) {
+				decimals /= 10;
+				digits--;
+			}
+			buffer[size++] = '.';
+			for (int i = size + digits - 1; i >= size; i--) {
+				buffer[i] = (char) ('0' + decimals % 10);
+				decimals /= 10;
 			}
-			character = iterator.next();
+			size += digits;
 		}
-		return result.toString();
 	}
 
+	private void appendFormatted(double value) throws IOException {
+		final String text;
+
+		synchronized (decimalFormat) {
+			text = decimalFormat.format(value);
+		}
+		append(text);
+	}
+
+	private void writeBuffer(boolean isFlush) throws IOException {
+		if (size == 0) {
+			return;
+		}
+		if (writer != null) {
+			writer.write(buffer, 0, size);
+			size = 0;
+			return;
+		}
+
+		// A high surrogate at the end of the buffer is kept until the low surrogate following it has been appended
+		int length = size;
+
+		if (!isFlush && Character.isHighSurrogate(buffer[length - 1])) {
+			length--;
+		}
+		int count = 0;
+
+		for (int i = 0; i < length; i++) {
+			final char c = buffer[i];
+
+			if (c < 0x80) {
+				bytes[count++] = (byte) c;
+			} else if (c < 0x800) {
+				bytes[count++] = (byte) (0xC0 | (c >> 6));
+				bytes[count++] = (byte) (0x80 | (c & 0x3F));
+			} else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(buffer[i + 1])) {
+					final int codePoint = Character.toCodePoint(c, buffer[++i]);
+
+					bytes[count++] = (byte) (0xF0 | (codePoint >> 18));
+					bytes[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+					bytes[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+					bytes[count++] = (byte) (0x80 | (codePoint & 0x3F));
+				} else {
+					// Malformed surrogates are replaced like the UTF-8 encoder of Java does
+					bytes[count++] = (byte) '?';
+				}
+			} else {
+				bytes[count++] = (byte) (0xE0 | (c >> 12));
+				bytes[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				bytes[count++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		output.write(bytes, 0, count);
+
+		size -= length;
+		if (size > 0) {
+			buffer[0] = buffer[length];
+		}
+	}
 }
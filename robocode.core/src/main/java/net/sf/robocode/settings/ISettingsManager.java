@@ -166,6 +166,10 @@ public interface ISettingsManager {
 
 	void setCpuConstant(long cpuConstant);
 
+	String getCpuConstantMachine();
+
+	void setCpuConstantMachine(String cpuConstantMachine);
+
 	Collection<String> getOptionsDevelopmentPaths();
 
 	void setOptionsDevelopmentPaths(Collection<String> paths);
@@ -305,6 +309,7 @@ public interface ISettingsManager {
 			ROBOT_FILESYSTEM_QUOTA = "robocode.robot.filesystem.quota",
 			CONSOLE_QUOTA = "robocode.console.quota",
 			CPU_CONSTANT = "robocode.cpu.constant",
+			CPU_CONSTANT_MACHINE = "robocode.cpu.constant.machine",
 			LAST_RUN_VERSION = "robocode.version.lastrun",
 
 			BATTLE_DEFAULT_BATTLEFIELD_WIDTH = "robocode.battle.default.battlefieldWidth",
@@ -124,6 +124,7 @@ public class SettingsManager implements ISettingsManager {
 	private long robotFilesystemQuota = 200000;
 	private long consoleQuota = 8192;
 	private long cpuConstant = -1;
+	private String cpuConstantMachine = "";
 
 	// Battle default settings
 	private int battleDefaultBattlefieldWidth = 800;
@@ -548,6 +549,15 @@ public class SettingsManager implements ISettingsManager {
 		props.setProperty(CPU_CONSTANT, "" + cpuConstant);
 	}
 
+	public String getCpuConstantMachine() {
+		return cpuConstantMachine;
+	}
+
+	public void setCpuConstantMachine(String cpuConstantMachine) {
+		this.cpuConstantMachine = cpuConstantMachine;
+		props.setProperty(CPU_CONSTANT_MACHINE, cpuConstantMachine);
+	}
+
 	public Collection<String> getOptionsDevelopmentPaths() {
 		return new HashSet<String>(optionsDevelopmentPaths);
 	}
@@ -793,6 +803,7 @@ public class SettingsManager implements ISettingsManager {
 		robotFilesystemQuota = Long.parseLong(props.getProperty(ROBOT_FILESYSTEM_QUOTA, "" + 200000));
 		consoleQuota = Long.parseLong(props.getProperty(CONSOLE_QUOTA, "8192"));
 		cpuConstant = Long.parseLong(props.getProperty(CPU_CONSTANT, "-1"));
+		cpuConstantMachine = props.getProperty(CPU_CONSTANT_MACHINE, "");
 	}
 
 	public String getLastRunVersion() {
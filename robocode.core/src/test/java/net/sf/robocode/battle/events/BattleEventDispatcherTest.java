@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.battle.events;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.events.*;
+
+
+public class BattleEventDispatcherTest {
+
+	@Test
+	public void noListeners() {
+		BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+
+		Assert.assertFalse(dispatcher.hasListenersFor(TurnEndedEvent.class));
+		Assert.assertFalse(dispatcher.hasListenersFor(BattleCompletedEvent.class));
+	}
+
+	@Test
+	public void adaptorHandlesOverriddenEventsOnly() {
+		BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+
+		dispatcher.addListener(new BattleAdaptor() {
+			@Override
+			public void onBattleCompleted(BattleCompletedEvent event) {}
+		});
+
+		Assert.assertTrue(dispatcher.hasListenersFor(BattleCompletedEvent.class));
+		Assert.assertFalse(dispatcher.hasListenersFor(TurnEndedEvent.class));
+		Assert.assertFalse(dispatcher.hasListenersFor(RoundStartedEvent.class));
+	}
+
+	@Test
+	public void listenerHandlesAllEvents() {
+		BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+		BattleEventDispatcher listener = new BattleEventDispatcher();
+
+		dispatcher.addListener(listener);
+		Assert.assertTrue(dispatcher.hasListenersFor(TurnEndedEvent.class));
+		Assert.assertTrue(dispatcher.hasListenersFor(RoundStartedEvent.class));
+
+		dispatcher.removeListener(listener);
+		Assert.assertFalse(dispatcher.hasListenersFor(TurnEndedEvent.class));
+	}
+
+	@Test
+	public void timingStatisticsAreHandledByAdaptorsOnly() {
+		BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+
+		dispatcher.addListener(new BattleEventDispatcher());
+		dispatcher.addListener(new BattleAdaptor() {
+			@Override
+			public void onTurnEnded(TurnEndedEvent event) {}
+		});
+		Assert.assertFalse(dispatcher.hasListenersFor(TimingStatisticsEvent.class));
+
+		dispatcher.addListener(new BattleAdaptor() {
+			@Override
+			public void onTimingStatistics(TimingStatisticsEvent event) {}
+		});
+		Assert.assertTrue(dispatcher.hasListenersFor(TimingStatisticsEvent.class));
+	}
+}
@@ -29,6 +29,7 @@ import java.awt.geom.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -105,6 +106,7 @@ public class RbSerializerTest {
 		data[10] = 10;
 		ec.getTeamMessages().add(new TeamMessage("Foo", "Bar", data));
 		ec.getTeamMessages().add(new TeamMessage("Foo", "Bar", null));
+		ec.getTeamMessages().add(new TeamMessage("Foo", null, data, true));
 
 		ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
 		RbSerializer rbs = new RbSerializer();
@@ -118,6 +120,38 @@ public class RbSerializerTest {
 		Assert.assertEquals(ec2.getTeamMessages().get(0).sender, "Foo");
 		Assert.assertEquals(ec2.getTeamMessages().get(0).recipient, "Bar");
 		Assert.assertEquals(ec2.getTeamMessages().get(1).message, null);
+		Assert.assertFalse(ec2.getTeamMessages().get(0).isBinary);
+		Assert.assertTrue(ec2.getTeamMessages().get(2).isBinary);
+		Assert.assertEquals(ec2.getTeamMessages().get(2).recipient, null);
+		Assert.assertEquals(ec2.getTeamMessages().get(2).message[10], 10);
+	}
+
+	@Test
+	public void teamMessageLayout() {
+		RbSerializer rbs = new RbSerializer();
+		TeamMessage message = new TeamMessage("A", "B", new byte[] { 7 }, true);
+		ByteBuffer buffer = ByteBuffer.allocate(100);
+
+		rbs.serialize(buffer, RbSerializer.TeamMessage_TYPE, message);
+
+		// The layout must be the same as the one of TeamMessage.cs in the .NET robot host
+		byte[] expected = {
+			RbSerializer.TeamMessage_TYPE, 0, 0, 0, 1, 'A', 0, 0, 0, 1, 'B', 0, 0, 0, 1, 7, 1 };
+
+		Assert.assertEquals(expected.length, rbs.sizeOf(RbSerializer.TeamMessage_TYPE, message));
+		Assert.assertEquals(expected.length, buffer.position());
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals("byte " + i, expected[i], buffer.get(i));
+		}
+
+		buffer.flip();
+		TeamMessage message2 = (TeamMessage) rbs.deserializeAny(buffer);
+
+		Assert.assertEquals("A", message2.sender);
+		Assert.assertEquals("B", message2.recipient);
+		Assert.assertEquals(7, message2.message[0]);
+		Assert.assertTrue(message2.isBinary);
+		Assert.assertEquals(0, buffer.remaining());
 	}
 
 	@Test
@@ -141,6 +175,39 @@ public class RbSerializerTest {
 		Assert.assertEquals(ec2.getDebugProperties().get(0).getValue(), "Pli lu?ouk k pl belsk dy");
 	}
 
+	@Test
+	public void reusedBuffers() throws IOException {
+		RbSerializer rbs = new RbSerializer();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+
+		// The second message does not fit into the initial buffers, and the third must fit again
+		for (int size : new int[] { 10, 100000, 10 }) {
+			ExecCommands ec = new ExecCommands();
+
+			ec.getTeamMessages().add(new TeamMessage("Foo", "Bar", new byte[size]));
+			ec.getDebugProperties().add(new DebugProperty("\u00e9\u4e2d\ud83d\ude00", "value"));
+
+			out.reset();
+			rbs.serialize(out, RbSerializer.ExecCommands_TYPE, ec);
+			ExecCommands ec2 = (ExecCommands) rbs.deserialize(new ByteArrayInputStream(out.toByteArray()));
+
+			Assert.assertEquals(size, ec2.getTeamMessages().get(0).message.length);
+			Assert.assertEquals("\u00e9\u4e2d\ud83d\ude00", ec2.getDebugProperties().get(0).getKey());
+			Assert.assertEquals(out.size(), 12 + rbs.sizeOf(RbSerializer.ExecCommands_TYPE, ec));
+
+			ByteBuffer buffer = ByteBuffer.allocateDirect(200000);
+
+			rbs.serializeToBuffer(buffer, RbSerializer.ExecCommands_TYPE, ec);
+			Assert.assertEquals(out.size(), buffer.limit());
+			Assert.assertEquals(0, buffer.remaining());
+
+			buffer.flip();
+			ec2 = (ExecCommands) rbs.deserialize(buffer);
+			Assert.assertEquals(size, ec2.getTeamMessages().get(0).message.length);
+			Assert.assertEquals("value", ec2.getDebugProperties().get(0).getValue());
+		}
+	}
+
 	// @Test
 	// 14 seconds for 1000 000,
 	// 15x faster
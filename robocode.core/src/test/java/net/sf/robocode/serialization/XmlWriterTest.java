@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.serialization;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+
+public class XmlWriterTest {
+
+	@Test
+	public void numbers() throws IOException {
+		final DecimalFormat decimalFormat = new DecimalFormat("#.####", new DecimalFormatSymbols(Locale.US));
+		final Random random = new Random(42);
+		final double[] values = new double[10000];
+
+		for (int i = 0; i < values.length; i++) {
+			switch (i % 5) {
+			case 0:
+				values[i] = random.nextDouble() * 1000 - 500;
+				break;
+
+			case 1:
+				values[i] = (random.nextInt(2000000) - 1000000) / 10000.0; // 4 decimals exactly
+				break;
+
+			case 2:
+				values[i] = (random.nextInt(200000) - 100000 + 0.5) / 10000.0; // ties when rounded to 4 decimals
+				break;
+
+			case 3:
+				values[i] = random.nextInt(2000) - 1000;
+				break;
+
+			default:
+				values[i] = random.nextGaussian() * Math.pow(10, random.nextInt(20) - 10);
+			}
+		}
+		final double[] specials = { 0.0, -0.0, -0.00001, 0.00005, 0.00015, 1e6, 1e7, -1e7, 1e20, Double.NaN,
+			Double.POSITIVE_INFINITY, Double.MIN_VALUE, Math.PI };
+
+		for (double value : concat(values, specials)) {
+			Assert.assertEquals(decimalFormat.format(value), writeAttribute(value, true));
+			Assert.assertEquals(Double.toString(value), writeAttribute(value, false));
+		}
+	}
+
+	@Test
+	public void escapedText() throws IOException {
+		final StringWriter text = new StringWriter();
+		final XmlWriter writer = new XmlWriter(text, false);
+
+		writer.startElement("e");
+		writer.writeAttribute("a", "x<\"a&b\">\nc");
+		writer.writeAttribute("b", 42);
+		writer.startElement("f");
+		writer.endElement();
+		writer.endElement();
+
+		Assert.assertEquals("<e a=\"x&lt;&quot;a&amp;b&quot;&gt;&#xA;c\" b=\"42\"><f/></e>", text.toString());
+	}
+
+	@Test
+	public void utf8() throws IOException {
+		final StringBuilder value = new StringBuilder();
+
+		// Long enough to fill the buffer several times, so surrogate pairs are split at the end of the buffer
+		for (int i = 0; i < 20000; i++) {
+			value.append("aæ€😀");
+		}
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final XmlWriter writer = new XmlWriter(bytes, true);
+
+		writer.startDocument();
+		writer.startElement("e");
+		writer.writeAttribute("value", value.toString());
+		writer.endElement();
+
+		final String expected = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<e value=\"" + value + "\"/>\n";
+
+		Assert.assertArrayEquals(expected.getBytes("UTF-8"), bytes.toByteArray());
+	}
+
+	private static String writeAttribute(double value, boolean trim) throws IOException {
+		final StringWriter text = new StringWriter();
+		final XmlWriter writer = new XmlWriter(text, false);
+
+		writer.startElement("e");
+		writer.writeAttribute("v", value, trim);
+		writer.endElement();
+
+		final String xml = text.toString();
+
+		return xml.substring("<e v=\"".length(), xml.length() - "\"/>".length());
+	}
+
+	private static double[] concat(double[] a, double[] b) {
+		final double[] result = new double[a.length + b.length];
+
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package robocode;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Tests the serializable and binary messages of a {@link MessageEvent}.
+ */
+public class MessageEventTest {
+
+	@Test
+	public void binaryMessageIsCopied() {
+		final ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 9, 1, 2, 3, 9 });
+
+		buffer.position(1).limit(4);
+
+		final MessageEvent event = MessageEvent.createBinaryMessageEvent("a.A (1)", buffer);
+
+		buffer.put(1, (byte) 0);
+
+		Assert.assertEquals("a.A (1)", event.getSender());
+		Assert.assertNull(event.getMessage());
+		assertBytes(event.getBinaryMessage(), 1, 2, 3);
+		Assert.assertEquals(1, buffer.position());
+	}
+
+	@Test
+	public void binaryMessageIsReadOnly() {
+		final MessageEvent event = MessageEvent.createBinaryMessageEvent("a.A", ByteBuffer.wrap(new byte[] { 1, 2 }));
+		final ByteBuffer message = event.getBinaryMessage();
+
+		Assert.assertTrue(message.isReadOnly());
+		message.get();
+
+		// Every call returns a new buffer
+		Assert.assertEquals(0, event.getBinaryMessage().position());
+	}
+
+	@Test
+	public void serializableMessage() {
+		final MessageEvent event = new MessageEvent("a.A", "Hello");
+
+		Assert.assertEquals("Hello", event.getMessage());
+		Assert.assertNull(event.getBinaryMessage());
+	}
+
+	@Test
+	public void binaryMessageIsSerialized() throws Exception {
+		final MessageEvent event = MessageEvent.createBinaryMessageEvent("a.A", ByteBuffer.wrap(new byte[] { 4, 5, 6 }));
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+
+		out.writeObject(event);
+		out.close();
+
+		final MessageEvent copy = (MessageEvent) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+				.readObject();
+
+		Assert.assertEquals("a.A", copy.getSender());
+		Assert.assertNull(copy.getMessage());
+		assertBytes(copy.getBinaryMessage(), 4, 5, 6);
+	}
+
+	private static void assertBytes(ByteBuffer buffer, int... expected) {
+		Assert.assertEquals(0, buffer.position());
+		Assert.assertEquals(expected.length, buffer.remaining());
+		for (int value : expected) {
+			Assert.assertEquals(value, buffer.get());
+		}
+	}
+}
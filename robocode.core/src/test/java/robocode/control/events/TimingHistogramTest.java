@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package robocode.control.events;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class TimingHistogramTest {
+
+	@Test
+	public void empty() {
+		TimingHistogram histogram = new TimingHistogram();
+
+		Assert.assertEquals(0, histogram.getCount());
+		Assert.assertEquals(0, histogram.getMinNanos());
+		Assert.assertEquals(0, histogram.getMaxNanos());
+		Assert.assertEquals(0, histogram.getNanosAtPercentile(99));
+		Assert.assertEquals(0, histogram.getMeanNanos(), 0);
+	}
+
+	@Test
+	public void smallValuesAreExact() {
+		TimingHistogram histogram = new TimingHistogram();
+
+		for (int i = 1; i <= 50; i++) {
+			histogram.recordValue(i);
+		}
+		Assert.assertEquals(50, histogram.getCount());
+		Assert.assertEquals(1, histogram.getMinNanos());
+		Assert.assertEquals(50, histogram.getMaxNanos());
+		Assert.assertEquals(25, histogram.getNanosAtPercentile(50));
+		Assert.assertEquals(50, histogram.getNanosAtPercentile(100));
+		Assert.assertEquals(25.5, histogram.getMeanNanos(), 1e-9);
+	}
+
+	@Test
+	public void percentilesAreWithinPrecision() {
+		TimingHistogram histogram = new TimingHistogram();
+
+		for (long i = 1; i <= 100000; i++) {
+			histogram.recordValue(i * 1000);
+		}
+		assertNear(50000000, histogram.getNanosAtPercentile(50));
+		assertNear(99000000, histogram.getNanosAtPercentile(99));
+		Assert.assertEquals(100000000, histogram.getNanosAtPercentile(100));
+		assertNear(1000, histogram.getNanosAtPercentile(0));
+	}
+
+	@Test
+	public void largeValues() {
+		TimingHistogram histogram = new TimingHistogram();
+
+		histogram.recordValue(Long.MAX_VALUE);
+		histogram.recordValue(-5);
+
+		Assert.assertEquals(0, histogram.getMinNanos());
+		Assert.assertEquals(Long.MAX_VALUE, histogram.getMaxNanos());
+		Assert.assertEquals(Long.MAX_VALUE, histogram.getNanosAtPercentile(100));
+		Assert.assertEquals(0, histogram.getNanosAtPercentile(50));
+	}
+
+	@Test
+	public void add() {
+		TimingHistogram first = new TimingHistogram();
+		TimingHistogram second = new TimingHistogram();
+
+		first.recordValue(100);
+		second.recordValue(300);
+		second.recordValue(200);
+		first.add(second);
+
+		Assert.assertEquals(3, first.getCount());
+		Assert.assertEquals(600, first.getTotalNanos());
+		Assert.assertEquals(100, first.getMinNanos());
+		Assert.assertEquals(300, first.getMaxNanos());
+	}
+
+	private static void assertNear(long expected, long actual) {
+		Assert.assertEquals(expected, actual, expected * 0.035);
+	}
+}
@@ -14,6 +14,11 @@ import net.sf.robocode.settings.ISettingsManager;
 import net.sf.robocode.ui.IWindowManager;
 import net.sf.robocode.util.JavaVersion;
 
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
 
 /**
  * @author Mathew A. Nelson (original)
@@ -24,7 +29,11 @@ import net.sf.robocode.util.JavaVersion;
 public class CpuManager implements ICpuManager { // NO_UCD (use default)
 
 	private static final int APPROXIMATE_CYCLES_ALLOWED = 6250;
-	private static final int TEST_PERIOD_MILLIS = 5000;
+
+	// The test is warmed up first, so the JIT compiler is done, and then measured a few times, where the median is used
+	private static final int WARMUP_MILLIS = 100;
+	private static final int SAMPLE_MILLIS = 50;
+	private static final int SAMPLE_COUNT = 7;
 
 	private static final boolean JAVA_9_OR_NEWER = JavaVersion.getJavaMajorVersion() >= 9;
 
@@ -38,7 +47,12 @@ public class CpuManager implements ICpuManager { // NO_UCD (use default)
 	public long getCpuConstant() {
 		if (cpuConstant == -1) {
 			cpuConstant = properties.getCpuConstant();
-			if (cpuConstant == -1) {
+
+			// The CPU constant is estimated again, if it was estimated on another machine or Java version.
+			// Older versions did not store the machine, so their CPU constant is kept.
+			String machine = properties.getCpuConstantMachine();
+
+			if (cpuConstant == -1 || (machine.length() > 0 && !machine.equals(getMachine()))) {
 				calculateCpuConstant();
 			}
 		}
@@ -53,28 +67,87 @@ public class CpuManager implements ICpuManager { // NO_UCD (use default)
 				"Each robot will be allowed a maximum of " + cpuConstant + " nanoseconds per turn on this system.");
 
 		properties.setCpuConstant(cpuConstant);
+		properties.setCpuConstantMachine(getMachine());
 		properties.saveProperties();
 
 		setStatus("");
 	}
 
 	private void setCpuConstant() {
+		runTest(WARMUP_MILLIS);
+
+		double[] nanosPerTest = new double[SAMPLE_COUNT];
+
+		for (int i = 0; i < SAMPLE_COUNT; i++) {
+			nanosPerTest[i] = runTest(SAMPLE_MILLIS);
+		}
+		Arrays.sort(nanosPerTest);
+
+		cpuConstant = Math.max(1, (long) (APPROXIMATE_CYCLES_ALLOWED * nanosPerTest[SAMPLE_COUNT / 2]));
+	}
+
+	/**
+	 * Runs the test for a period of time.
+	 *
+	 * @param periodMillis the period in milliseconds.
+	 * @return the average time in nanoseconds per test.
+	 */
+	private static double runTest(long periodMillis) {
 		long count = 0;
 		double d = 0;
 
+		long startNanos = System.nanoTime();
 		long start = System.currentTimeMillis();
 
-		while (System.currentTimeMillis() - start < TEST_PERIOD_MILLIS) {
+		while (System.currentTimeMillis() - start < periodMillis) {
 			d += Math.hypot(Math.sqrt(Math.abs(log(Math.atan(Math.random())))), Math.cbrt(Math.abs(Math.random() * 10))) / exp(Math.random());
 			count++;
 		}
+		long elapsedNanos = System.nanoTime() - startNanos;
 
 		// to cheat optimizer, almost never happen
 		if (d == 0.0) {
 			Logger.logMessage("bingo!");
 		}
+		return (double) elapsedNanos / Math.max(1, count);
+	}
+
+	/**
+	 * Returns a description of the CPU and Java version, which the CPU constant depends on.
+	 */
+	private static String getMachine() {
+		String cpu = null;
+
+		// On Linux, the CPU model is read from /proc/cpuinfo
+		BufferedReader reader = null;
 
-		cpuConstant = Math.max(1, (long) (1000000.0 * APPROXIMATE_CYCLES_ALLOWED * TEST_PERIOD_MILLIS / count));
+		try {
+			reader = new BufferedReader(new FileReader("/proc/cpuinfo"));
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("model name")) {
+					cpu = line.substring(line.indexOf(':') + 1).trim();
+					break;
+				}
+			}
+		} catch (IOException ignore) {// Not Linux
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException ignore) {}
+			}
+		}
+		if (cpu == null) {
+			// Set on Windows
+			cpu = System.getenv("PROCESSOR_IDENTIFIER");
+		}
+		if (cpu == null) {
+			cpu = System.getProperty("os.arch");
+		}
+		return cpu + " x" + Runtime.getRuntime().availableProcessors() + ", " + System.getProperty("java.vm.name") + " "
+				+ System.getProperty("java.version");
 	}
 
 	private void setStatus(String message) {
@@ -90,7 +90,13 @@ public class HostManager implements IHostManager {
 
 	public IHostingRobotProxy createRobotProxy(RobotSpecification robotSpecification, RobotStatics statics, IRobotPeer peer) {
 		IRobotItem specification = (IRobotItem) HiddenAccess.getFileSpecification(robotSpecification);
-		return getHost(specification).createRobotProxy(this, robotSpecification, statics, peer);
+		IHost host = getHost(specification);
+
+		// Java robots can be hosted by robot processes instead of this process
+		if (host instanceof JavaHost && System.getProperty("PROCESSHOST", "false").equals("true")) {
+			host = (IHost) Container.cache.getComponent("robocode.host.process");
+		}
+		return host.createRobotProxy(this, robotSpecification, statics, peer);
 	}
 
 	private IHost getHost(IRobotItem robotItem) {
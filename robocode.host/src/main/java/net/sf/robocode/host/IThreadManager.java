@@ -19,6 +19,12 @@ import java.io.PrintStream;
 public interface IThreadManager extends IThreadManagerBase {
 	void addThreadGroup(ThreadGroup g, IHostedThread robotProxy);
 
+	void removeThreadGroup(ThreadGroup g);
+
+	void addThread(Thread t, IHostedThread robotProxy);
+
+	void removeThread(Thread t);
+
 	IHostedThread getLoadingRobotProxy(Thread t);
 
 	IHostedThread getLoadedOrLoadingRobotProxy(Thread t);
@@ -127,164 +127,89 @@ public final class EventManager implements IEventManager {
 	 * Returns a list containing all events currently in the robot's queue.
 	 */
 	public List<Event> getAllEvents() {
-		List<Event> events = new ArrayList<Event>();
 		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				events.add(e);
-			}
+			return new ArrayList<Event>(eventQueue);
 		}
-		return events;
 	}
 
 	/**
-	 * Returns a list containing all BulletHitBulletEvents currently in the robot's queue.
+	 * Returns a list containing all events of a specific type currently in the robot's queue.
+	 * The events are looked up by type in the queue instead of checking every event in the queue.
 	 */
-	public List<BulletHitBulletEvent> getBulletHitBulletEvents() {
-		List<BulletHitBulletEvent> events = new ArrayList<BulletHitBulletEvent>();
+	private <T extends Event> List<T> getEvents(Class<T> type) {
 		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof BulletHitBulletEvent) {
-					events.add((BulletHitBulletEvent) e);
-				}
-			}
+			return eventQueue.getEvents(type, new ArrayList<T>());
 		}
-		return events;
+	}
+
+	/**
+	 * Returns a list containing all BulletHitBulletEvents currently in the robot's queue.
+	 */
+	public List<BulletHitBulletEvent> getBulletHitBulletEvents() {
+		return getEvents(BulletHitBulletEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all BulletHitEvents currently in the robot's queue.
 	 */
 	public List<BulletHitEvent> getBulletHitEvents() {
-		List<BulletHitEvent> events = new ArrayList<BulletHitEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof BulletHitEvent) {
-					events.add((BulletHitEvent) e);
-				}
-			}
-		}
-		return events;
+		return getEvents(BulletHitEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all BulletMissedEvents currently in the robot's queue.
 	 */
 	public List<BulletMissedEvent> getBulletMissedEvents() {
-		List<BulletMissedEvent> events = new ArrayList<BulletMissedEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof BulletMissedEvent) {
-					events.add((BulletMissedEvent) e);
-				}
-			}
-		}
-		return events;
+		return getEvents(BulletMissedEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all HitByBulletEvents currently in the robot's queue.
 	 */
 	public List<HitByBulletEvent> getHitByBulletEvents() {
-		List<HitByBulletEvent> events = new ArrayList<HitByBulletEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof HitByBulletEvent) {
-					events.add((HitByBulletEvent) e);
-				}
-			}
-		}
-		return events;
+		return getEvents(HitByBulletEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all HitRobotEvents currently in the robot's queue.
 	 */
 	public List<HitRobotEvent> getHitRobotEvents() {
-		List<HitRobotEvent> events = new ArrayList<HitRobotEvent>();
-
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof HitRobotEvent) {
-					events.add((HitRobotEvent) e);
-				}
-			}
-		}
-		return events;
+		return getEvents(HitRobotEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all HitWallEvents currently in the robot's queue.
 	 */
 	public List<HitWallEvent> getHitWallEvents() {
-		List<HitWallEvent> events = new ArrayList<HitWallEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof HitWallEvent) {
-					events.add((HitWallEvent) e);
-				}
-			}
-		}
-		return events;
+		return getEvents(HitWallEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all RobotDeathEvents currently in the robot's queue.
 	 */
 	public List<RobotDeathEvent> getRobotDeathEvents() {
-		List<RobotDeathEvent> events = new ArrayList<RobotDeathEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof RobotDeathEvent) {
-					events.add((RobotDeathEvent) e);
-				}
-			}
-		}
-		return events;
+		return getEvents(RobotDeathEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all ScannedRobotEvents currently in the robot's queue.
 	 */
 	public List<ScannedRobotEvent> getScannedRobotEvents() {
-		List<ScannedRobotEvent> events = new ArrayList<ScannedRobotEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof ScannedRobotEvent) {
-					events.add((ScannedRobotEvent) e);
-				}
-			}
-		}
-		return events;
+		return getEvents(ScannedRobotEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all MessageEvents currently in the robot's queue.
 	 */
 	public List<MessageEvent> getMessageEvents() {
-		List<MessageEvent> events = new ArrayList<MessageEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof MessageEvent) {
-					events.add((MessageEvent) e);
-				}
-			}
-		}
-		return events;
+		return getEvents(MessageEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all StatusEvents currently in the robot's queue.
 	 */
 	public List<StatusEvent> getStatusEvents() {
-		List<StatusEvent> events = new ArrayList<StatusEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof StatusEvent) {
-					events.add((StatusEvent) e);
-				}
-			}
-		}
-		return events;
+		return getEvents(StatusEvent.class);
 	}
 
 	/**
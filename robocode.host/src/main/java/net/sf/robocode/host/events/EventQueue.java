@@ -13,6 +13,9 @@ import robocode.Event;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -22,32 +25,173 @@ import java.util.Collections;
 @SuppressWarnings("serial")
 public class EventQueue extends ArrayList<Event> {
 
+	// Events of the queue grouped by their class, which is updated by the methods modifying the queue below.
+	// It is only rebuilt after the queue has been modified otherwise, i.e. when the modCount does not match.
+	private transient Map<Class<?>, List<Event>> eventsByType;
+	private transient int indexedModCount = -1;
+
+	@Override
+	public boolean add(Event e) {
+		final boolean indexed = isIndexed();
+
+		super.add(e);
+		if (indexed) {
+			getTypeEvents(e.getClass()).add(e);
+			indexedModCount = modCount;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		final boolean indexed = isIndexed();
+
+		if (!super.remove(o)) {
+			return false;
+		}
+		if (indexed) {
+			// The event is usually the first one of its type, as the events are handled in queue order
+			eventsByType.get(o.getClass()).remove(o);
+			indexedModCount = modCount;
+		}
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		if (eventsByType != null) {
+			for (List<Event> events : eventsByType.values()) {
+				events.clear();
+			}
+			indexedModCount = modCount;
+		}
+	}
+
 	public void clear(boolean includingSystemEvents) {
 		if (includingSystemEvents) {
-			super.clear();
+			clear();
 			return;
 		}
+		removeEvents(Long.MAX_VALUE);
+	}
 
-		for (int i = 0; i < size(); i++) {
-			Event e = get(i);
+	public void clear(long clearTime) {
+		removeEvents(clearTime);
+	}
 
-			if (!HiddenAccess.isCriticalEvent(e)) {
-				remove(i--);
+	/**
+	 * Returns the events of a specific type in queue order, which includes events of subclasses of the type.
+	 *
+	 * @param type the type of events to return.
+	 * @param events the list to add the events to.
+	 * @return the specified list of events.
+	 */
+	@SuppressWarnings("unchecked")
+	<T extends Event> List<T> getEvents(Class<T> type, List<T> events) {
+		if (!isIndexed()) {
+			rebuildTypeIndex();
+		}
+
+		List<Event> typeEvents = null;
+
+		for (Map.Entry<Class<?>, List<Event>> entry : eventsByType.entrySet()) {
+			if (!entry.getValue().isEmpty() && type.isAssignableFrom(entry.getKey())) {
+				if (typeEvents != null) {
+					// Events of more than one class must be merged in queue order
+					for (Event e : this) {
+						if (type.isInstance(e)) {
+							events.add((T) e);
+						}
+					}
+					return events;
+				}
+				typeEvents = entry.getValue();
 			}
 		}
+		if (typeEvents != null) {
+			events.addAll((List<T>) typeEvents);
+		}
+		return events;
 	}
 
-	public void clear(long clearTime) {
-		for (int i = 0; i < size(); i++) {
+	void sort() {
+		final boolean indexed = isIndexed();
+
+		Collections.sort(this);
+		if (indexed) {
+			// The sort is stable, so the events of each class end up in the same order as in the sorted queue
+			for (List<Event> events : eventsByType.values()) {
+				if (events.size() > 1) {
+					Collections.sort(events);
+				}
+			}
+			// Sorting does not count as a modification on older Java versions
+			indexedModCount = modCount;
+		} else {
+			indexedModCount = -1;
+		}
+	}
+
+	private void removeEvents(long clearTime) {
+		final boolean indexed = isIndexed();
+
+		if (indexed) {
+			for (List<Event> events : eventsByType.values()) {
+				events.clear();
+			}
+		}
+
+		// Keep the remaining events in place in one pass instead of shifting the queue for every removed event
+		int size = size();
+		int kept = 0;
+
+		for (int i = 0; i < size; i++) {
 			Event e = get(i);
 
-			if ((e.getTime() <= clearTime) && !HiddenAccess.isCriticalEvent(e)) {
-				remove(i--);
+			if ((e.getTime() > clearTime) || HiddenAccess.isCriticalEvent(e)) {
+				if (kept != i) {
+					set(kept, e);
+				}
+				kept++;
+				if (indexed) {
+					getTypeEvents(e.getClass()).add(e);
+				}
 			}
 		}
+		if (kept < size) {
+			removeRange(kept, size);
+		}
+		if (indexed) {
+			indexedModCount = modCount;
+		}
 	}
 
-	void sort() {
-		Collections.sort(this);
+	private boolean isIndexed() {
+		return eventsByType != null && indexedModCount == modCount;
+	}
+
+	private List<Event> getTypeEvents(Class<?> type) {
+		List<Event> events = eventsByType.get(type);
+
+		if (events == null) {
+			events = new ArrayList<Event>();
+			eventsByType.put(type, events);
+		}
+		return events;
+	}
+
+	private void rebuildTypeIndex() {
+		if (eventsByType == null) {
+			eventsByType = new IdentityHashMap<Class<?>, List<Event>>();
+		} else {
+			for (List<Event> events : eventsByType.values()) {
+				events.clear();
+			}
+		}
+		for (Event e : this) {
+			getTypeEvents(e.getClass()).add(e);
+		}
+		indexedModCount = modCount;
 	}
 }
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.core.Container;
+import net.sf.robocode.host.IHost;
+import net.sf.robocode.host.IHostManager;
+import net.sf.robocode.host.RobotStatics;
+import net.sf.robocode.host.proxies.IHostingRobotProxy;
+import net.sf.robocode.peer.IRobotPeer;
+import net.sf.robocode.peer.IRobotStatics;
+import net.sf.robocode.repository.IRobotItem;
+import net.sf.robocode.repository.RobotType;
+import robocode.control.RobotSpecification;
+
+
+/**
+ * Host of Java robots, where every robot runs in its own child JVM instead of the JVM of the battle. Hence, the robots
+ * are isolated from the battle and from each other by the processes, besides the security manager of each process,
+ * if the JVM still supports a security manager.
+ * <p>
+ * This host is used instead of the Java host, when the <code>PROCESSHOST</code> system property is set to
+ * <code>true</code>. The robot classes are still inspected by the Java host, when the repository is refreshed.
+ */
+public class ProcessHost implements IHost {
+
+	private final RobotProcessPool pool = new RobotProcessPool();
+
+	public IHostingRobotProxy createRobotProxy(IHostManager hostManager, RobotSpecification robotSpecification, IRobotStatics statics, IRobotPeer peer) {
+		return new ProcessRobotProxy(pool, robotSpecification, (RobotStatics) statics, peer);
+	}
+
+	public String[] getReferencedClasses(IRobotItem robotItem) {
+		return getJavaHost().getReferencedClasses(robotItem);
+	}
+
+	public RobotType getRobotType(IRobotItem robotItem, boolean resolve, boolean message) {
+		return getJavaHost().getRobotType(robotItem, resolve, message);
+	}
+
+	private static IHost getJavaHost() {
+		return (IHost) Container.cache.getComponent("robocode.host.java");
+	}
+}
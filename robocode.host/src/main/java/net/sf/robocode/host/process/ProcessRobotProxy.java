@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import static net.sf.robocode.io.Logger.logError;
+import static net.sf.robocode.io.Logger.logMessage;
+import net.sf.robocode.host.RobotStatics;
+import net.sf.robocode.host.proxies.IHostingRobotProxy;
+import net.sf.robocode.peer.BadBehavior;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.ExecResults;
+import net.sf.robocode.peer.IRobotPeer;
+import net.sf.robocode.repository.IRobotItem;
+import net.sf.robocode.security.HiddenAccess;
+import net.sf.robocode.serialization.RbSerializer;
+import robocode.RobotStatus;
+import robocode.control.RobotSpecification;
+import robocode.exception.AbortedException;
+import robocode.exception.DeathException;
+import robocode.exception.WinException;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Proxy of a robot hosted by a robot process, which is used by the battle like the proxy of a robot hosted by the
+ * battle itself.
+ * <p>
+ * The turns of the robot are executed on a turn thread, which takes the place of the robot thread: it calls the peer
+ * with the commands received from the robot process, and sleeps in the peer until the next turn, where it can be
+ * interrupted like a robot thread. The other messages of the robot process are handled by a reader thread, e.g. the
+ * bad behavior of the robot detected by the robot process is passed on to the peer.
+ * <p>
+ * The robot process is taken from the pool of pre-started processes for the battle, and ends when the battle is
+ * cleaned up. A robot that does not stop, or that ends its process, is stopped by killing its process, where the robot
+ * is punished like it would be when hosted by the battle. Another process is then taken for the next round.
+ */
+class ProcessRobotProxy implements IHostingRobotProxy {
+
+	private static final long REPLY_TIMEOUT = 10000; // ms
+
+	private final RobotProcessPool pool;
+	private final String robotName;
+	private final RobotStatics statics;
+	private final IRobotPeer peer;
+
+	private volatile RobotProcess process;
+	private final BlockingQueue<Integer> replies = new LinkedBlockingQueue<Integer>();
+	private final BlockingQueue<Turn> turns = new LinkedBlockingQueue<Turn>();
+	private Thread turnThread;
+	private volatile boolean isInRound; // the peer can only be punished while the robot is in a round
+
+	ProcessRobotProxy(RobotProcessPool pool, RobotSpecification robotSpecification, RobotStatics statics, IRobotPeer peer) {
+		this.pool = pool;
+		this.statics = statics;
+		this.peer = peer;
+
+		final IRobotItem robotItem = (IRobotItem) HiddenAccess.getFileSpecification(robotSpecification);
+		final String name = robotItem.getUniqueFullClassNameWithVersion();
+
+		// The robot is looked up in the repository of the robot process by this name
+		robotName = name.endsWith("*") ? name.substring(0, name.length() - 1) : name;
+
+		open();
+	}
+
+	private boolean open() {
+		final RobotProcess newProcess;
+
+		try {
+			newProcess = pool.acquire();
+		} catch (IOException e) {
+			logError("Could not start robot process for " + statics.getName() + ": " + e);
+			return false;
+		}
+		replies.clear();
+		process = newProcess;
+
+		final Thread reader = new Thread(new Runnable() {
+			public void run() {
+				read(newProcess);
+			}
+		}, statics.getName() + " reader");
+
+		reader.setDaemon(true);
+		reader.start();
+
+		if (turnThread == null) {
+			turnThread = new Thread(new Runnable() {
+				public void run() {
+					executeTurns();
+				}
+			}, statics.getName());
+			turnThread.setDaemon(true);
+			turnThread.start();
+		}
+
+		final Integer loaded = request(newProcess, RobotConnection.LOAD);
+
+		if (loaded == null || loaded == 0) {
+			logError("Could not load " + statics.getName() + " in robot process");
+			kill(newProcess);
+			return false;
+		}
+		return true;
+	}
+
+	public void startRound(ExecCommands commands, RobotStatus status) {
+		isInRound = true;
+
+		RobotProcess current = process;
+
+		if (current == null && open()) {
+			current = process;
+		}
+		if (current == null) {
+			peer.drainEnergy();
+			peer.punishBadBehavior(BadBehavior.CANNOT_START);
+			return;
+		}
+		try {
+			current.getConnection().send(RobotConnection.START_ROUND, RbSerializer.ExecCommands_TYPE, commands,
+					RbSerializer.RobotStatus_TYPE, status);
+		} catch (IOException e) {
+			died(current);
+		}
+	}
+
+	public void forceStopThread() {
+		final RobotProcess current = process;
+
+		if (current != null && peer.isRunning()) {
+			kill(current);
+			logMessage(statics.getName() + " has been stopped.");
+			peer.punishBadBehavior(BadBehavior.UNSTOPPABLE);
+			peer.setRunning(false);
+		}
+	}
+
+	public void waitForStopThread() {
+		final RobotProcess current = process;
+
+		if (current == null) {
+			return;
+		}
+		// The turn thread is interrupted like a robot thread, so it stops sleeping
+		turnThread.interrupt();
+
+		final Integer stopped = request(current, RobotConnection.WAIT_FOR_STOP);
+
+		if (stopped == null) {
+			if (process != current) {
+				return; // the robot process has ended, so the robot has stopped
+			}
+			logError("Robot " + statics.getName() + " is not stopping.  Forcing a stop.");
+			kill(current);
+			peer.punishBadBehavior(BadBehavior.UNSTOPPABLE);
+			peer.setRunning(false);
+		} else if (stopped == 0) {
+			// The threads of the robot could not be stopped peacefully, where the robot has already been punished by the
+			// robot process, so the process cannot be used by the robot anymore
+			kill(current);
+		}
+	}
+
+	public void cleanup() {
+		isInRound = false;
+
+		final RobotProcess current = process;
+
+		if (current != null) {
+			final Integer cleanedUp = request(current, RobotConnection.CLEANUP);
+
+			process = null;
+			if (cleanedUp != null) {
+				current.close();
+			} else {
+				current.destroy();
+			}
+		}
+		if (turnThread != null) {
+			turns.add(Turn.CLOSE);
+			turnThread = null;
+		}
+	}
+
+	/**
+	 * Sends a request to the robot process, and waits for its reply.
+	 *
+	 * @return the reply, or null if no reply was received in time.
+	 */
+	private Integer request(RobotProcess current, int kind) {
+		try {
+			if (kind == RobotConnection.LOAD) {
+				current.getConnection().send(kind, robotName, RbSerializer.RobotStatics_TYPE, statics);
+			} else {
+				current.getConnection().send(kind);
+			}
+			final Integer reply = replies.poll(REPLY_TIMEOUT, TimeUnit.MILLISECONDS);
+
+			return (reply == null || reply < 0) ? null : reply;
+		} catch (IOException e) {
+			return null;
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private void kill(RobotProcess current) {
+		if (process == current) {
+			process = null;
+		}
+		current.destroy();
+	}
+
+	/**
+	 * Called when the robot process has ended by itself, or the connection to it has been lost.
+	 */
+	private void died(RobotProcess current) {
+		if (process == current) {
+			replies.add(-1); // wakes up a request
+			process = null;
+			current.destroy();
+			logMessage(statics.getName() + ": robot process has ended");
+			if (isInRound) {
+				peer.drainEnergy();
+				peer.setRunning(false);
+			}
+		}
+	}
+
+	private void read(RobotProcess current) {
+		final RobotConnection connection = current.getConnection();
+
+		try {
+			for (;;) {
+				final int kind = connection.readKind();
+
+				switch (kind) {
+				case RobotConnection.EXECUTE:
+				case RobotConnection.WAIT_FOR_BATTLE_END:
+					turns.add(new Turn(current, kind == RobotConnection.WAIT_FOR_BATTLE_END,
+							(ExecCommands) connection.readObject()));
+					break;
+
+				case RobotConnection.DRAIN_ENERGY:
+					peer.drainEnergy();
+					break;
+
+				case RobotConnection.PUNISH:
+					peer.punishBadBehavior(BadBehavior.values()[connection.readInt()]);
+					break;
+
+				case RobotConnection.SET_RUNNING:
+					peer.setRunning(connection.readInt() != 0);
+					break;
+
+				case RobotConnection.LOADED:
+				case RobotConnection.STOPPED:
+					replies.add(connection.readInt());
+					break;
+
+				case RobotConnection.CLEANED_UP:
+					replies.add(1);
+					return; // the process ends, when the connection is closed
+
+				default:
+					throw new IOException("Unknown message from robot process: " + kind);
+				}
+			}
+		} catch (IOException e) {
+			died(current);
+		}
+	}
+
+	private void executeTurns() {
+		for (;;) {
+			final Turn turn;
+
+			try {
+				turn = turns.take();
+			} catch (InterruptedException e) {
+				continue; // an interrupt is only meant for a sleeping robot
+			}
+			if (turn == Turn.CLOSE) {
+				return;
+			}
+			int kind = RobotConnection.RESULTS;
+			ExecResults results = null;
+
+			try {
+				results = turn.waitForBattleEnd
+						? peer.waitForBattleEndImpl(turn.commands)
+						: peer.executeImpl(turn.commands);
+			} catch (DeathException e) {
+				kind = RobotConnection.DEATH;
+			} catch (WinException e) {
+				kind = RobotConnection.WIN;
+			} catch (AbortedException e) {
+				kind = RobotConnection.ABORTED;
+			} catch (RuntimeException e) {
+				logError(statics.getName() + ": " + e);
+				kind = RobotConnection.ABORTED;
+			}
+			Thread.interrupted(); // the robot is interrupted in its own process
+			try {
+				if (results != null) {
+					turn.process.getConnection().send(kind, RbSerializer.ExecResults_TYPE, results);
+				} else {
+					turn.process.getConnection().send(kind);
+				}
+			} catch (IOException e) {
+				died(turn.process);
+			}
+		}
+	}
+
+	/**
+	 * Commands received from the robot process, which must be executed by the peer.
+	 */
+	private static final class Turn {
+		static final Turn CLOSE = new Turn(null, false, null);
+
+		final RobotProcess process;
+		final boolean waitForBattleEnd;
+		final ExecCommands commands;
+
+		Turn(RobotProcess process, boolean waitForBattleEnd, ExecCommands commands) {
+			this.process = process;
+			this.waitForBattleEnd = waitForBattleEnd;
+			this.commands = commands;
+		}
+	}
+}
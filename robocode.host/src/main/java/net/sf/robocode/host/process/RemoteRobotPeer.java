@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.peer.BadBehavior;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.ExecResults;
+import net.sf.robocode.peer.IRobotPeer;
+import net.sf.robocode.serialization.RbSerializer;
+import robocode.exception.AbortedException;
+import robocode.exception.DeathException;
+import robocode.exception.WinException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+
+/**
+ * Peer of a robot in a robot process, which passes all calls on to the peer of the robot in the battle.
+ */
+final class RemoteRobotPeer implements IRobotPeer {
+
+	private final RobotConnection connection;
+	private final BlockingQueue<Object> results = new LinkedBlockingQueue<Object>();
+	private volatile boolean isRunning;
+	private volatile boolean isUnstoppable;
+
+	RemoteRobotPeer(RobotConnection connection) {
+		this.connection = connection;
+	}
+
+	public void drainEnergy() {
+		send(RobotConnection.DRAIN_ENERGY, -1);
+	}
+
+	public void punishBadBehavior(BadBehavior badBehavior) {
+		if (badBehavior == BadBehavior.UNSTOPPABLE) {
+			isUnstoppable = true;
+		}
+		send(RobotConnection.PUNISH, badBehavior.ordinal());
+	}
+
+	public void setRunning(boolean value) {
+		isRunning = value;
+		send(RobotConnection.SET_RUNNING, value ? 1 : 0);
+	}
+
+	public boolean isRunning() {
+		return isRunning;
+	}
+
+	/**
+	 * Checks if the robot has been punished for not stopping.
+	 */
+	boolean isUnstoppable() {
+		return isUnstoppable;
+	}
+
+	public ExecResults waitForBattleEndImpl(ExecCommands newCommands) {
+		return execute(RobotConnection.WAIT_FOR_BATTLE_END, newCommands);
+	}
+
+	public ExecResults executeImpl(ExecCommands newCommands) {
+		return execute(RobotConnection.EXECUTE, newCommands);
+	}
+
+	/**
+	 * Called by the robot process, when the battle has executed the commands of the robot.
+	 *
+	 * @param kind the kind of message received from the battle.
+	 * @param execResults the results for the robot, or null if the robot must stop.
+	 */
+	void setResults(int kind, ExecResults execResults) {
+		results.add(execResults != null ? execResults : Integer.valueOf(kind));
+	}
+
+	private ExecResults execute(int kind, ExecCommands newCommands) {
+		try {
+			connection.send(kind, RbSerializer.ExecCommands_TYPE, newCommands);
+		} catch (IOException e) {
+			throw new AbortedException(); // the battle is gone
+		}
+
+		// Like a robot sleeping in the battle, the robot only wakes up when the battle has executed the turn, where an
+		// interrupt is given to the sleeping turn thread of the battle instead
+		boolean interrupted = false;
+		Object result;
+
+		for (;;) {
+			try {
+				result = results.take();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (result instanceof ExecResults) {
+			return (ExecResults) result;
+		}
+		switch ((Integer) result) {
+		case RobotConnection.DEATH:
+			throw new DeathException();
+
+		case RobotConnection.WIN:
+			throw new WinException();
+
+		default:
+			throw new AbortedException();
+		}
+	}
+
+	private void send(int kind, int value) {
+		try {
+			if (value < 0) {
+				connection.send(kind);
+			} else {
+				connection.send(kind, value);
+			}
+		} catch (IOException ignore) {// the battle is gone, so the robot process ends
+		}
+	}
+
+	public void setupBuffer(ByteBuffer bidirectionalBuffer) {
+		throw new UnsupportedOperationException();
+	}
+
+	public void executeImplSerial() throws IOException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void waitForBattleEndImplSerial() throws IOException {
+		throw new UnsupportedOperationException();
+	}
+
+	public void setupThread() {
+		throw new UnsupportedOperationException();
+	}
+}
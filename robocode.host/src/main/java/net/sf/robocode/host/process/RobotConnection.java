@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.serialization.RbSerializer;
+
+import java.io.*;
+import java.net.Socket;
+
+
+/**
+ * Connection between the battle and a robot process over a local socket.
+ * <p>
+ * Every message starts with an int with the kind of message, followed by the arguments of the message, where objects
+ * are serialized with the {@link RbSerializer}, like the commands and results exchanged with a .NET robot.
+ * A message can be sent by any thread, but all messages must be received by the same thread.
+ *
+ * @see RobotProcessMain
+ */
+final class RobotConnection {
+
+	// Sent by the battle
+	static final int LOAD = 1; // String robot, RobotStatics statics
+	static final int START_ROUND = 2; // ExecCommands commands, RobotStatus status
+	static final int RESULTS = 3; // ExecResults results
+	static final int DEATH = 4; // the robot must stop with a DeathException
+	static final int WIN = 5; // the robot must stop with a WinException
+	static final int ABORTED = 6; // the robot must stop with an AbortedException
+	static final int WAIT_FOR_STOP = 7;
+	static final int CLEANUP = 8;
+
+	// Sent by the robot process
+	static final int LOADED = 20; // int 1 if the robot was found; 0 otherwise
+	static final int EXECUTE = 21; // ExecCommands commands
+	static final int WAIT_FOR_BATTLE_END = 22; // ExecCommands commands
+	static final int DRAIN_ENERGY = 23;
+	static final int PUNISH = 24; // int ordinal of BadBehavior
+	static final int SET_RUNNING = 25; // int 1 if running; 0 otherwise
+	static final int STOPPED = 26; // int 1 if all threads of the robot have stopped; 0 otherwise
+	static final int CLEANED_UP = 27;
+
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+	private final RbSerializer inSerializer = new RbSerializer();
+	private final RbSerializer outSerializer = new RbSerializer();
+
+	RobotConnection(Socket socket) throws IOException {
+		this.socket = socket;
+
+		socket.setTcpNoDelay(true);
+		in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	synchronized void send(int kind) throws IOException {
+		out.writeInt(kind);
+		out.flush();
+	}
+
+	synchronized void send(int kind, int value) throws IOException {
+		out.writeInt(kind);
+		out.writeInt(value);
+		out.flush();
+	}
+
+	synchronized void send(int kind, byte type, Object object) throws IOException {
+		out.writeInt(kind);
+		outSerializer.serialize(out, type, object);
+		out.flush();
+	}
+
+	synchronized void send(int kind, byte type1, Object object1, byte type2, Object object2) throws IOException {
+		out.writeInt(kind);
+		outSerializer.serialize(out, type1, object1);
+		outSerializer.serialize(out, type2, object2);
+		out.flush();
+	}
+
+	synchronized void send(int kind, String text, byte type, Object object) throws IOException {
+		out.writeInt(kind);
+		out.writeUTF(text);
+		outSerializer.serialize(out, type, object);
+		out.flush();
+	}
+
+	/**
+	 * Waits for the next message, and returns its kind. The arguments of the message must be read next.
+	 *
+	 * @throws EOFException if the connection has been closed by the other side.
+	 */
+	int readKind() throws IOException {
+		return in.readInt();
+	}
+
+	int readInt() throws IOException {
+		return in.readInt();
+	}
+
+	String readString() throws IOException {
+		return in.readUTF();
+	}
+
+	Object readObject() throws IOException {
+		return inSerializer.deserialize(in);
+	}
+
+	void close() {
+		try {
+			socket.close();
+		} catch (IOException ignore) {// already closed
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.io.FileUtil;
+import net.sf.robocode.io.Logger;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A child JVM hosting a robot, which is started with {@link RobotProcessMain}. Every robot is hosted by its own process
+ * for a battle, so no robot can leave anything behind for another robot or battle.
+ * <p>
+ * The robot process must send a random token as the first message, which is given to it through its standard input,
+ * so no other local process can connect in its place and pretend to be the robot.
+ */
+final class RobotProcess {
+
+	private static final int CONNECT_TIMEOUT = 60000;
+	private static final int TOKEN_LENGTH = 16; // bytes
+
+	private static final SecureRandom random = new SecureRandom();
+
+	// System properties given to the robot process, as they are used for locating the robots, for the security of the
+	// robots, and for logging
+	private static final String[] INHERITED_PROPERTIES = {
+		"robocode.class.path", "WORKINGDIRECTORY", "ROBOTPATH", "TESTING", "EXPERIMENTAL", "NOSECURITY", "debug",
+		"logMessages", "logErrors"
+	};
+
+	private final Process process;
+	private final RobotConnection connection;
+
+	private RobotProcess(Process process, RobotConnection connection) {
+		this.process = process;
+		this.connection = connection;
+	}
+
+	/**
+	 * Starts a new robot process, and waits for it to connect.
+	 *
+	 * @throws IOException if the process could not be started, or did not connect in time.
+	 */
+	static RobotProcess start() throws IOException {
+		final ServerSocket server = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+		final String token = createToken();
+		Process process = null;
+
+		try {
+			process = new ProcessBuilder(createCommand(server.getLocalPort())).directory(FileUtil.getCwd()).start();
+			copy(process.getInputStream(), Logger.realOut);
+			copy(process.getErrorStream(), Logger.realErr);
+
+			// The token is not given on the command line, as the command line can be seen by other processes
+			final OutputStream in = process.getOutputStream();
+
+			in.write((token + '\n').getBytes("US-ASCII"));
+			in.close();
+
+			return new RobotProcess(process, new RobotConnection(accept(server, token)));
+		} catch (IOException e) {
+			if (process != null) {
+				process.destroy();
+			}
+			throw e;
+		} finally {
+			server.close();
+		}
+	}
+
+	/**
+	 * Accepts the connection of the robot process, where connections not sending the token first are closed.
+	 */
+	static Socket accept(ServerSocket server, String token) throws IOException {
+		final byte[] expected = token.getBytes("US-ASCII");
+		final long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+
+		for (;;) {
+			final long timeout = deadline - System.currentTimeMillis();
+
+			if (timeout <= 0) {
+				throw new SocketTimeoutException("Robot process did not connect in time");
+			}
+			server.setSoTimeout((int) timeout);
+
+			final Socket socket = server.accept();
+
+			try {
+				socket.setSoTimeout((int) timeout);
+
+				final String received = new DataInputStream(socket.getInputStream()).readUTF();
+
+				if (MessageDigest.isEqual(expected, received.getBytes("US-ASCII"))) {
+					socket.setSoTimeout(0);
+					return socket;
+				}
+			} catch (IOException ignore) {// not a robot process
+			}
+			socket.close();
+		}
+	}
+
+	private static String createToken() {
+		final byte[] bytes = new byte[TOKEN_LENGTH];
+		final StringBuilder token = new StringBuilder();
+
+		random.nextBytes(bytes);
+		for (byte b : bytes) {
+			token.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+		}
+		return token.toString();
+	}
+
+	private static List<String> createCommand(int port) {
+		final List<String> command = new ArrayList<String>();
+		final String classPath = System.getProperty("robocode.class.path", System.getProperty("java.class.path"));
+
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-cp");
+		command.add(classPath);
+		command.add("-Djava.awt.headless=true");
+		for (String name : INHERITED_PROPERTIES) {
+			final String value = System.getProperty(name);
+
+			if (value != null) {
+				command.add("-D" + name + "=" + value);
+			}
+		}
+		command.add(RobotProcessMain.class.getName());
+		command.add(Integer.toString(port));
+		return command;
+	}
+
+	private static void copy(final InputStream in, final PrintStream out) {
+		final Thread thread = new Thread(new Runnable() {
+			public void run() {
+				final byte[] buffer = new byte[4096];
+
+				try {
+					for (int count; (count = in.read(buffer)) != -1;) {
+						out.write(buffer, 0, count);
+					}
+				} catch (IOException ignore) {// the process has ended
+				}
+			}
+		}, "Robot process output");
+
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	RobotConnection getConnection() {
+		return connection;
+	}
+
+	boolean isAlive() {
+		try {
+			process.exitValue();
+			return false;
+		} catch (IllegalThreadStateException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Kills the process, which also stops all threads of the robot hosted by it.
+	 */
+	void destroy() {
+		connection.close();
+		process.destroy();
+	}
+
+	/**
+	 * Closes the connection, so the process ends itself.
+	 */
+	void close() {
+		connection.close();
+	}
+}
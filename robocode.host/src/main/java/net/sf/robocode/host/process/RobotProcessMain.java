@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import static net.sf.robocode.io.Logger.logError;
+import static net.sf.robocode.io.Logger.logMessage;
+import net.sf.robocode.core.Container;
+import net.sf.robocode.host.IHost;
+import net.sf.robocode.host.IHostManager;
+import net.sf.robocode.host.RobotStatics;
+import net.sf.robocode.host.proxies.IHostingRobotProxy;
+import net.sf.robocode.peer.BadBehavior;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.ExecResults;
+import net.sf.robocode.repository.IRepositoryManager;
+import net.sf.robocode.security.HiddenAccess;
+import robocode.RobotStatus;
+import robocode.control.RobotSpecification;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.Socket;
+
+
+/**
+ * Main class of a robot process, which hosts a robot of a battle running in another process. The robot is hosted by
+ * the Java host like in the battle process, but with a peer that passes all calls on to the battle through a local
+ * socket. The robot is checked by the security manager like in the battle process, so the robot cannot access files
+ * or the network, or stop the process. On a JVM that does not support a security manager anymore, the robot is only
+ * isolated by the process.
+ * <p>
+ * The robot process ends when the battle process closes the connection. If the robot still ends the process itself,
+ * e.g. when security is off, the robot is punished for a security violation.
+ *
+ * @see ProcessHost
+ */
+public final class RobotProcessMain {
+
+	private final RobotConnection connection;
+	private final IRepositoryManager repositoryManager;
+	private final IHostManager hostManager;
+	private final IHost javaHost;
+
+	private RemoteRobotPeer peer;
+	private IHostingRobotProxy robotProxy;
+	private volatile boolean isExiting;
+
+	private RobotProcessMain(RobotConnection connection) {
+		this.connection = connection;
+
+		repositoryManager = Container.getComponent(IRepositoryManager.class);
+		hostManager = Container.getComponent(IHostManager.class);
+		javaHost = (IHost) Container.cache.getComponent("robocode.host.java");
+	}
+
+	public static void main(String[] args) throws Throwable {
+		// The token, which must be sent to the battle first, is given through the standard input
+		final String token = new BufferedReader(new InputStreamReader(System.in, "US-ASCII")).readLine();
+
+		if (!isSecurityManagerSupported()) {
+			logMessage("The security manager is not supported by this JVM, so the robot is only isolated by its process");
+			System.setProperty("NOSECURITY", "true");
+		}
+		HiddenAccess.initContainer();
+
+		// The robot process must run in the class loader of the engine, as the components of the engine are loaded by
+		// it when security is on
+		final Method runProcess = Container.engineLoader.loadClass(RobotProcessMain.class.getName())
+				.getDeclaredMethod("runProcess", int.class, String.class);
+
+		runProcess.setAccessible(true);
+		try {
+			runProcess.invoke(null, Integer.parseInt(args[0]), token);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Checks if a security manager can be installed, which is not the case from Java 18 unless it is allowed by the
+	 * <code>java.security.manager</code> system property, and never from Java 24.
+	 */
+	private static boolean isSecurityManagerSupported() {
+		final String version = System.getProperty("java.specification.version", "1.6");
+		final int major;
+
+		try {
+			major = Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version.split("\\.")[0]);
+		} catch (NumberFormatException e) {
+			return true;
+		}
+		final String setting = System.getProperty("java.security.manager");
+
+		if (major >= 24) {
+			return false;
+		}
+		if (major >= 18) {
+			return setting != null && !setting.equals("disallow");
+		}
+		return !"disallow".equals(setting);
+	}
+
+	private static void runProcess(int port, String token) throws IOException {
+		final Socket socket = new Socket(InetAddress.getByName("127.0.0.1"), port);
+		final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+
+		out.writeUTF(token);
+		out.flush();
+
+		final RobotProcessMain main = new RobotProcessMain(new RobotConnection(socket));
+
+		main.hostManager.initSecurity();
+
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+			public void run() {
+				main.exiting();
+			}
+		}));
+		try {
+			main.run();
+		} finally {
+			main.isExiting = true;
+			System.exit(0);
+		}
+	}
+
+	private void run() {
+		try {
+			for (;;) {
+				final int kind = connection.readKind();
+
+				switch (kind) {
+				case RobotConnection.LOAD:
+					load(connection.readString(), (RobotStatics) connection.readObject());
+					break;
+
+				case RobotConnection.START_ROUND:
+					robotProxy.startRound((ExecCommands) connection.readObject(), (RobotStatus) connection.readObject());
+					break;
+
+				case RobotConnection.RESULTS:
+					peer.setResults(kind, (ExecResults) connection.readObject());
+					break;
+
+				case RobotConnection.DEATH:
+				case RobotConnection.WIN:
+				case RobotConnection.ABORTED:
+					peer.setResults(kind, null);
+					break;
+
+				case RobotConnection.WAIT_FOR_STOP:
+					robotProxy.waitForStopThread();
+					connection.send(RobotConnection.STOPPED, peer.isUnstoppable() ? 0 : 1);
+					break;
+
+				case RobotConnection.CLEANUP:
+					robotProxy.cleanup();
+					robotProxy = null;
+					peer = null;
+					connection.send(RobotConnection.CLEANED_UP);
+					break;
+
+				default:
+					throw new IOException("Unknown message from battle: " + kind);
+				}
+			}
+		} catch (IOException e) {// the battle has closed the connection
+		}
+	}
+
+	private void load(String robotName, RobotStatics statics) throws IOException {
+		RobotSpecification[] specifications = repositoryManager.loadSelectedRobots(robotName);
+
+		if (specifications.length == 0) {
+			// The robot might have been added to the repository after this process was started
+			repositoryManager.refresh();
+			specifications = repositoryManager.loadSelectedRobots(robotName);
+		}
+		if (specifications.length == 0) {
+			logError("Robot process could not find " + robotName);
+			connection.send(RobotConnection.LOADED, 0);
+			return;
+		}
+		peer = new RemoteRobotPeer(connection);
+		robotProxy = javaHost.createRobotProxy(hostManager, specifications[0], statics, peer);
+		connection.send(RobotConnection.LOADED, 1);
+	}
+
+	/**
+	 * Called when the process is ending, where the robot is punished if the robot is ending the process.
+	 */
+	private void exiting() {
+		final RemoteRobotPeer robotPeer = peer;
+
+		if (!isExiting && robotPeer != null) {
+			robotPeer.drainEnergy();
+			robotPeer.punishBadBehavior(BadBehavior.SECURITY_VIOLATION);
+		}
+	}
+}
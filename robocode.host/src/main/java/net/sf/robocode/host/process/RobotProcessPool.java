@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import static net.sf.robocode.io.Logger.logError;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+
+/**
+ * Pool of pre-started robot processes, so a robot does not have to wait for a new JVM to start and load the engine.
+ * A robot process is only handed out once, and is never given back to the pool, so no robot can leave anything behind
+ * for another robot or battle. For every process handed out, a new one is started in the background, so the next
+ * battle with the same number of robots finds as many processes waiting.
+ * <p>
+ * The number of waiting processes is limited by the <code>PROCESSPOOL</code> system property, which is 16 by default.
+ * With <code>-DPROCESSPOOL=0</code> every robot waits for its own process to start.
+ */
+final class RobotProcessPool {
+
+	private static final int DEFAULT_POOL_SIZE = 16;
+
+	private final List<RobotProcess> idle = new ArrayList<RobotProcess>();
+	private int starting; // the number of processes being started for the pool
+
+	// The processes are started one by one, so a running battle is not slowed down much by starting JVMs
+	private final ExecutorService starter = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable runnable) {
+			final Thread thread = new Thread(runnable, "Robot process starter");
+
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/**
+	 * Returns a waiting robot process, or starts a new one if no process is waiting.
+	 *
+	 * @throws IOException if a new process could not be started.
+	 */
+	RobotProcess acquire() throws IOException {
+		RobotProcess process = null;
+
+		synchronized (idle) {
+			while (process == null && !idle.isEmpty()) {
+				process = idle.remove(0);
+				if (!process.isAlive()) {
+					process.destroy();
+					process = null;
+				}
+			}
+		}
+		startForPool();
+		return process != null ? process : RobotProcess.start();
+	}
+
+	/**
+	 * Returns the number of processes waiting in the pool.
+	 */
+	int getIdleCount() {
+		synchronized (idle) {
+			return idle.size();
+		}
+	}
+
+	private void startForPool() {
+		synchronized (idle) {
+			if (idle.size() + starting >= getPoolSize()) {
+				return;
+			}
+			starting++;
+		}
+		starter.execute(new Runnable() {
+			public void run() {
+				RobotProcess process = null;
+
+				try {
+					process = RobotProcess.start();
+				} catch (IOException e) {
+					logError("Could not start robot process: " + e);
+				} finally {
+					synchronized (idle) {
+						starting--;
+						if (process != null) {
+							idle.add(process);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	private static int getPoolSize() {
+		return Integer.getInteger("PROCESSPOOL", DEFAULT_POOL_SIZE);
+	}
+}
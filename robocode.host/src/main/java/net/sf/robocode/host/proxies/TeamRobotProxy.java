@@ -18,6 +18,7 @@ import robocode.MessageEvent;
 import robocode.robotinterfaces.peer.ITeamRobotPeer;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 
@@ -89,12 +90,42 @@ public class TeamRobotProxy extends AdvancedRobotProxy implements ITeamRobotPeer
 
 	}
 
+	public void broadcastBinaryMessage(ByteBuffer message) throws IOException {
+		sendBinaryMessage(null, message);
+	}
+
+	public void sendBinaryMessage(String name, ByteBuffer message) throws IOException {
+		setCall();
+
+		try {
+			if (!statics.isTeamRobot()) {
+				throw new IOException("You are not on a team.");
+			}
+			if (message.remaining() > MAX_MESSAGE_SIZE) {
+				throw new IOException("Message too big. " + message.remaining() + ">" + MAX_MESSAGE_SIZE);
+			}
+			final byte[] bytes = new byte[message.remaining()];
+
+			message.duplicate().get(bytes); // the position of the robot's buffer is left as is
+			commands.getTeamMessages().add(new TeamMessage(getName(), name, bytes, true));
+		} catch (IOException e) {
+			out.printStackTrace(e);
+			throw e;
+		}
+	}
+
 	@Override
 	protected final void loadTeamMessages(List<TeamMessage> teamMessages) {
 		if (teamMessages == null) {
 			return;
 		}
 		for (TeamMessage teamMessage : teamMessages) {
+			if (teamMessage.isBinary) {
+				// Received as is, so the message is not deserialized
+				eventManager.add(MessageEvent.createBinaryMessageEvent(teamMessage.sender,
+						ByteBuffer.wrap(teamMessage.message)));
+				continue;
+			}
 			try {
 				ByteArrayInputStream byteStreamReader = new ByteArrayInputStream(teamMessage.message);
 				byteStreamReader.reset();
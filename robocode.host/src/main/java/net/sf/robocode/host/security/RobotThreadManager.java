@@ -20,7 +20,9 @@ import robocode.exception.RobotException;
 import java.lang.reflect.InvocationTargetException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
@@ -31,9 +33,19 @@ import java.util.Map;
  */
 public class RobotThreadManager {
 
+	// Keep the same robot thread for all rounds of a battle, unless -DREUSETHREADS=false
+	private static final boolean REUSE_THREADS = !System.getProperty("REUSETHREADS", "true").equals("false");
+
+	// Run robots on virtual threads with -DVIRTUALTHREADS=true
+	private static final boolean VIRTUAL_THREADS = isVirtualThreadsEnabled();
+
 	private final IHostedThread robotProxy;
+	private RobotThreadSlot runSlot;
 	private Thread runThread;
+	private Thread registeredThread;
 	private ThreadGroup runThreadGroup;
+	private IThreadManager threadManager;
+	private final List<ThreadGroup> registeredThreadGroups = new ArrayList<ThreadGroup>();
 	private Object awtForThreadGroup;
 	private final Map<Thread, Disposal> disposeAppContextThreadMap = new HashMap<Thread, Disposal>();
 
@@ -43,6 +55,15 @@ public class RobotThreadManager {
 	}
 
 	public void cleanup() {
+		if (runSlot != null) {
+			try {
+				// Let the thread terminate, if it is waiting for the next round
+				runSlot.retire(1000);
+			} catch (InterruptedException e) {
+				// Immediately reasserts the exception by interrupting the caller thread itself
+				Thread.currentThread().interrupt();
+			}
+		}
 		try {
 			if (runThread == null || !runThread.isAlive()) {
 				if (!discardAWT()) {
@@ -53,6 +74,31 @@ public class RobotThreadManager {
 			}
 		} catch (Exception e) {
 			Logger.logError("Could not destroy " + runThreadGroup.getName(), e);
+		} finally {
+			unregisterThreadGroups();
+			unregisterThread();
+		}
+	}
+
+	private void unregisterThreadGroups() {
+		if (threadManager != null) {
+			for (ThreadGroup group : registeredThreadGroups) {
+				threadManager.removeThreadGroup(group);
+			}
+		}
+		registeredThreadGroups.clear();
+	}
+
+	private void registerThread(Thread thread) {
+		unregisterThread();
+		threadManager.addThread(thread, robotProxy);
+		registeredThread = thread;
+	}
+
+	private void unregisterThread() {
+		if (registeredThread != null) {
+			threadManager.removeThread(registeredThread);
+			registeredThread = null;
 		}
 	}
 
@@ -84,13 +130,28 @@ public class RobotThreadManager {
 
 	public void start(IThreadManager threadManager) {
 		try {
+			this.threadManager = threadManager;
 			threadManager.addThreadGroup(runThreadGroup, robotProxy);
+			if (!registeredThreadGroups.contains(runThreadGroup)) {
+				registeredThreadGroups.add(runThreadGroup);
+			}
 
-			runThread = new Thread(runThreadGroup, robotProxy, robotProxy.getStatics().getName());
-			runThread.setDaemon(true);
-			runThread.setPriority(Thread.NORM_PRIORITY - 1);
-			runThread.setContextClassLoader(this.robotProxy.getRobotClassloader());
-			runThread.start();
+			// Reuse the thread from the last round, if it is still available.
+			// The run thread must be set before the round starts, as the robot checks it when taking action.
+			if (runSlot != null) {
+				runThread = runSlot.getThread();
+				if (runSlot.startRound()) {
+					return;
+				}
+			}
+			runSlot = new RobotThreadSlot(runThreadGroup, robotProxy.getStatics().getName(),
+					robotProxy.getRobotClassloader(), robotProxy, REUSE_THREADS, VIRTUAL_THREADS);
+			runThread = runSlot.getThread();
+			if (VIRTUAL_THREADS) {
+				// The thread is not in the thread group of the robot
+				registerThread(runThread);
+			}
+			runSlot.startRound();
 		} catch (Exception e) {
 			logError("Exception starting thread", e);
 		}
@@ -102,10 +163,13 @@ public class RobotThreadManager {
 	public boolean waitForStop() {
 		boolean isAlive = false;
 
-		if (runThread != null && runThread.isAlive()) {
-			runThread.interrupt();
-			waitForStop(runThread);
-			isAlive = runThread.isAlive();
+		// The slot is cleared by forceStop()
+		final RobotThreadSlot slot = runSlot;
+
+		if (slot != null && slot.isRoundRunning()) {
+			slot.getThread().interrupt();
+			waitForRoundEnd(slot);
+			isAlive = slot.isRoundRunning();
 		}
 
 		Thread[] threads = new Thread[100];
@@ -157,6 +221,7 @@ public class RobotThreadManager {
 			// recycle thread group
 			createThreadGroup();
 		}
+		runSlot = null;
 		runThread = null;
 		return res == 0;
 	}
@@ -186,8 +251,13 @@ public class RobotThreadManager {
 	@SuppressWarnings("deprecation")
 	private void stop(Thread t) {
 		if (t != null) {
-			// noinspection deprecation
-			t.stop();
+			try {
+				// noinspection deprecation
+				t.stop();
+			} catch (UnsupportedOperationException e) {
+				// Virtual threads cannot be stopped, and newer Java versions cannot stop any thread
+				return;
+			}
 			try {
 				t.join(1500);
 			} catch (InterruptedException e) {
@@ -230,6 +300,40 @@ public class RobotThreadManager {
 		}
 	}
 
+	private void waitForRoundEnd(RobotThreadSlot slot) {
+		try {
+			slot.awaitRoundEnd(500);
+			if (slot.isRoundRunning()) {
+				logMessage("Waiting for robot " + robotProxy.getStatics().getName() + " to stop thread "
+						+ slot.getThread().getName());
+				slot.awaitRoundEnd(500);
+			}
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Checks if robots should run on virtual threads. Virtual threads require Java 21 or newer, and can only be
+	 * used when security is off, as the security manager tells the robots apart by the thread groups of their threads,
+	 * and stops robots that do not stop by themselves.
+	 */
+	private static boolean isVirtualThreadsEnabled() {
+		if (!System.getProperty("VIRTUALTHREADS", "false").equals("true")) {
+			return false;
+		}
+		if (!VirtualThreads.isSupported()) {
+			logWarning("Virtual threads require Java 21 or newer. Robots are running on platform threads.");
+			return false;
+		}
+		if (RobocodeProperties.isSecurityOn()) {
+			logWarning("Virtual threads can only be used with -DNOSECURITY=true. Robots are running on platform threads.");
+			return false;
+		}
+		return true;
+	}
+
 	private void createThreadGroup() {
 		runThreadGroup = new ThreadGroup(robotProxy.getStatics().getName());
 
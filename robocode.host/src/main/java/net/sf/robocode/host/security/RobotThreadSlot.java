@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+/**
+ * Thread for running a robot one round at a time. When reusable, the same thread is kept for all rounds of
+ * a battle and waits for the next round in between, so no new thread must be created and started for every
+ * robot when a round is started. Otherwise, the thread terminates after the first round like it used to.
+ * <p>
+ * The thread belongs to the thread group of the robot, which is used by the security manager to tell which
+ * robot is running. A slot cannot be used anymore when its thread has been stopped.
+ * <p>
+ * A virtual thread can be used instead of a platform thread on Java 21 or newer. A virtual thread does not belong
+ * to the thread group of the robot, so it must be registered with the thread manager by the caller.
+ */
+public final class RobotThreadSlot implements Runnable {
+
+	private final Runnable body;
+	private final boolean isReusable;
+	private final Thread thread;
+
+	// guarded by this
+	private boolean isStarted;
+	private boolean isRoundPending;
+	private boolean isRoundRunning;
+	private boolean isRetired;
+
+	/**
+	 * Creates a new slot, where the thread is started with the first round.
+	 *
+	 * @param threadGroup the thread group of the robot.
+	 * @param name the name of the thread.
+	 * @param contextClassLoader the context class loader of the thread, i.e. the robot class loader.
+	 * @param body the code to run each round.
+	 * @param isReusable {@code true} if the thread should be kept for the next rounds; {@code false} if the thread
+	 *                   should terminate after the first round.
+	 * @param isVirtual {@code true} if a virtual thread should be used, which is not put into the thread group;
+	 *                  {@code false} if a platform thread should be used.
+	 */
+	public RobotThreadSlot(ThreadGroup threadGroup, String name, ClassLoader contextClassLoader, Runnable body,
+			boolean isReusable, boolean isVirtual) {
+		this.body = body;
+		this.isReusable = isReusable;
+
+		if (isVirtual) {
+			// Virtual threads are always daemon threads with normal priority
+			thread = VirtualThreads.newThread(name, this);
+		} else {
+			thread = new Thread(threadGroup, this, name);
+			thread.setDaemon(true);
+			thread.setPriority(Thread.NORM_PRIORITY - 1);
+		}
+		thread.setContextClassLoader(contextClassLoader);
+	}
+
+	public Thread getThread() {
+		return thread;
+	}
+
+	/**
+	 * Starts running the body for a new round on the thread of this slot.
+	 *
+	 * @return {@code true} if the round was started; {@code false} if the slot cannot be used for a new round,
+	 *         as the thread has terminated or is still running the last round.
+	 */
+	public synchronized boolean startRound() {
+		if (isRetired || isRoundRunning) {
+			return false;
+		}
+		if (!isStarted) {
+			isStarted = true;
+			thread.start();
+		} else if (!thread.isAlive()) {
+			return false;
+		}
+		isRoundRunning = true;
+		isRoundPending = true;
+		notifyAll();
+		return true;
+	}
+
+	/**
+	 * Checks if the thread is still running the body for the current round.
+	 *
+	 * @return {@code true} if the round is running; {@code false} otherwise.
+	 */
+	public synchronized boolean isRoundRunning() {
+		return isRoundRunning && thread.isAlive();
+	}
+
+	/**
+	 * Waits for the thread to complete the current round.
+	 *
+	 * @param millisWait the max. number of milliseconds to wait.
+	 * @throws InterruptedException if the calling thread was interrupted.
+	 */
+	public synchronized void awaitRoundEnd(long millisWait) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + millisWait;
+
+		while (isRoundRunning()) {
+			long remaining = deadline - System.currentTimeMillis();
+
+			if (remaining <= 0) {
+				break;
+			}
+			// The thread might be stopped without ending the round, hence the time slices
+			wait(Math.min(remaining, 10));
+		}
+	}
+
+	/**
+	 * Lets the thread terminate when it is waiting for the next round, and waits for it to terminate.
+	 *
+	 * @param millisWait the max. number of milliseconds to wait.
+	 * @throws InterruptedException if the calling thread was interrupted.
+	 */
+	public void retire(long millisWait) throws InterruptedException {
+		synchronized (this) {
+			isRetired = true;
+			notifyAll();
+
+			if (!isStarted) {
+				return;
+			}
+		}
+		thread.join(millisWait);
+	}
+
+	public void run() {
+		while (awaitRound()) {
+			boolean isTerminating = true;
+
+			try {
+				body.run();
+				isTerminating = false;
+			} finally {
+				// The thread terminates, if the body threw something, e.g. when the thread has been stopped
+				endRound(isTerminating);
+			}
+		}
+	}
+
+	private synchronized boolean awaitRound() {
+		// The interrupt that ended the last round must not end the next one
+		Thread.interrupted();
+
+		while (!isRoundPending && !isRetired) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				// Only the battle decides when the thread is done
+			}
+		}
+		if (isRetired) {
+			return false;
+		}
+		isRoundPending = false;
+		return true;
+	}
+
+	private synchronized void endRound(boolean isTerminating) {
+		isRoundRunning = false;
+		if (!isReusable || isTerminating) {
+			isRetired = true;
+		}
+		notifyAll();
+	}
+}
@@ -19,6 +19,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -35,12 +37,14 @@ public class ThreadManager implements IThreadManager {
 
 	private final List<Thread> safeThreads = new CopyOnWriteArrayList<Thread>();
 	private final List<ThreadGroup> safeThreadGroups = new CopyOnWriteArrayList<ThreadGroup>();
-	private final List<ThreadGroup> groups = new CopyOnWriteArrayList<ThreadGroup>();
 	private final List<Thread> outputStreamThreads = new CopyOnWriteArrayList<Thread>();
-	private final List<IHostedThread> robots = new CopyOnWriteArrayList<IHostedThread>();
 
-	private Thread robotLoaderThread;
-	private IHostedThread loadingRobot;
+	// Several battles might be running at the same time, so robots are looked up by their thread group,
+	// and the robot being loaded is tracked per loader thread.
+	private final Map<ThreadGroup, IHostedThread> robots = new ConcurrentHashMap<ThreadGroup, IHostedThread>();
+	// Virtual robot threads do not belong to the thread group of the robot, so these are looked up by thread
+	private final Map<Thread, IHostedThread> robotThreads = new ConcurrentHashMap<Thread, IHostedThread>();
+	private final Map<Thread, IHostedThread> loadingRobots = new ConcurrentHashMap<Thread, IHostedThread>();
 
 	public ThreadManager() {}
 
@@ -57,26 +61,41 @@ public class ThreadManager implements IThreadManager {
 	}
 
 	public void addThreadGroup(ThreadGroup g, IHostedThread robotProxy) {
-		if (!groups.contains(g)) {
-			groups.add(g);
-			robots.add(robotProxy);
+		if (!robots.containsKey(g)) {
+			robots.put(g, robotProxy);
 		}
 	}
 
-	public synchronized IHostedThread getLoadingRobot() {
-		return loadingRobot;
+	public void removeThreadGroup(ThreadGroup g) {
+		robots.remove(g);
 	}
 
-	public synchronized IHostedThread getLoadingRobotProxy(Thread t) {
-		if (t != null && robotLoaderThread != null
-				&& (t.equals(robotLoaderThread)
-				|| (t.getThreadGroup() != null && t.getThreadGroup().equals(robotLoaderThread.getThreadGroup())))) {
-			return loadingRobot;
+	public void addThread(Thread t, IHostedThread robotProxy) {
+		robotThreads.put(t, robotProxy);
+	}
+
+	public void removeThread(Thread t) {
+		robotThreads.remove(t);
+	}
+
+	public IHostedThread getLoadingRobotProxy(Thread t) {
+		if (t == null || loadingRobots.isEmpty()) {
+			return null;
+		}
+		IHostedThread robotProxy = loadingRobots.get(t);
+
+		// All virtual threads share the same thread group, which does not tell anything about the robot
+		if (robotProxy == null && t.getThreadGroup() != null && !VirtualThreads.isVirtual(t)) {
+			for (Map.Entry<Thread, IHostedThread> entry : loadingRobots.entrySet()) {
+				if (t.getThreadGroup().equals(entry.getKey().getThreadGroup())) {
+					return entry.getValue();
+				}
+			}
 		}
-		return null;
+		return robotProxy;
 	}
 
-	public synchronized IHostedThread getLoadedOrLoadingRobotProxy(Thread t) {
+	public IHostedThread getLoadedOrLoadingRobotProxy(Thread t) {
 		IHostedThread robotProxy = getRobotProxy(t);
 
 		if (robotProxy == null) {
@@ -86,31 +105,31 @@ public class ThreadManager implements IThreadManager {
 	}
 
 	public IHostedThread getRobotProxy(Thread t) {
-		ThreadGroup g = t.getThreadGroup();
+		if (!robotThreads.isEmpty()) {
+			IHostedThread robotProxy = robotThreads.get(t);
 
-		if (g == null) {
-			return null;
+			if (robotProxy != null) {
+				return robotProxy;
+			}
 		}
-		int index = groups.indexOf(g);
+		ThreadGroup g = t.getThreadGroup();
 
-		if (index == -1) {
+		if (g == null) {
 			return null;
 		}
-		return robots.get(index);
+		return robots.get(g);
 	}
 
 	public void reset() {
-		groups.clear();
 		robots.clear();
+		robotThreads.clear();
 	}
 
-	public synchronized void setLoadingRobot(IHostedThread newLoadingRobotProxy) {
+	public void setLoadingRobot(IHostedThread newLoadingRobotProxy) {
 		if (newLoadingRobotProxy == null) {
-			this.robotLoaderThread = null;
-			loadingRobot = null;
+			loadingRobots.remove(Thread.currentThread());
 		} else {
-			this.robotLoaderThread = Thread.currentThread();
-			loadingRobot = newLoadingRobotProxy;
+			loadingRobots.put(Thread.currentThread(), newLoadingRobotProxy);
 		}
 	}
 
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.security;
+
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+
+/**
+ * Creates virtual threads on Java 21 or newer. Robocode is compiled for older Java versions,
+ * so the virtual thread API is accessed using reflection.
+ * <p>
+ * Note that virtual threads do not belong to the thread group of the robot, and cannot be stopped.
+ */
+public final class VirtualThreads {
+
+	private static final Method ofVirtual = getMethod(Thread.class, "ofVirtual");
+	private static final Method isVirtual = getMethod(Thread.class, "isVirtual");
+	private static final Method builderName;
+	private static final Method builderUnstarted;
+
+	static {
+		Method name = null;
+		Method unstarted = null;
+
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+
+			name = getMethod(builderClass, "name", String.class);
+			unstarted = getMethod(builderClass, "unstarted", Runnable.class);
+		} catch (ClassNotFoundException ignore) {// Java 20 or older
+		}
+		builderName = name;
+		builderUnstarted = unstarted;
+	}
+
+	private VirtualThreads() {}
+
+	/**
+	 * Checks if virtual threads are supported by this JVM.
+	 *
+	 * @return {@code true} if virtual threads are supported; {@code false} otherwise.
+	 */
+	public static boolean isSupported() {
+		return ofVirtual != null && isVirtual != null && builderName != null && builderUnstarted != null;
+	}
+
+	/**
+	 * Checks if a thread is a virtual thread.
+	 *
+	 * @param thread the thread to check.
+	 * @return {@code true} if the thread is a virtual thread; {@code false} otherwise.
+	 */
+	public static boolean isVirtual(Thread thread) {
+		if (isVirtual == null) {
+			return false;
+		}
+		return (Boolean) invoke(isVirtual, thread);
+	}
+
+	/**
+	 * Creates a new virtual thread, which must be started by the caller.
+	 *
+	 * @param name the name of the thread.
+	 * @param task the code to run on the thread.
+	 * @return a new unstarted virtual thread.
+	 * @throws UnsupportedOperationException if virtual threads are not supported by this JVM.
+	 */
+	public static Thread newThread(String name, Runnable task) {
+		if (!isSupported()) {
+			throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+		}
+		Object builder = invoke(ofVirtual, null);
+
+		builder = invoke(builderName, builder, name);
+		return (Thread) invoke(builderUnstarted, builder, task);
+	}
+
+	private static Method getMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+		try {
+			return clazz.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static Object invoke(Method method, Object target, Object... args) {
+		try {
+			return method.invoke(target, args);
+		} catch (IllegalAccessException e) {
+			throw new UnsupportedOperationException(e.getMessage());
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getCause();
+
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new UnsupportedOperationException(String.valueOf(cause));
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.events;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import robocode.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class EventQueueTest {
+
+	@BeforeClass
+	public static void init() {
+		HiddenAccess.init();
+	}
+
+	@Test
+	public void eventsByType() {
+		EventQueue queue = new EventQueue();
+		HitWallEvent hitWall = new HitWallEvent(0);
+		StatusEvent status = new StatusEvent(null);
+		CustomEvent custom = new CustomEvent(null);
+		CustomEvent subclassed = new CustomEvent(null) {
+			private static final long serialVersionUID = 1L;
+		};
+
+		queue.add(custom);
+		queue.add(hitWall);
+		queue.add(subclassed);
+		queue.add(status);
+
+		Assert.assertEquals(list(hitWall), queue.getEvents(HitWallEvent.class, new ArrayList<HitWallEvent>()));
+		Assert.assertEquals(list(custom, subclassed), queue.getEvents(CustomEvent.class, new ArrayList<CustomEvent>()));
+		Assert.assertEquals(list(custom, hitWall, subclassed, status),
+				queue.getEvents(Event.class, new ArrayList<Event>()));
+		Assert.assertTrue(queue.getEvents(ScannedRobotEvent.class, new ArrayList<ScannedRobotEvent>()).isEmpty());
+
+		// The index must follow modifications of the queue
+		queue.remove(hitWall);
+		Assert.assertTrue(queue.getEvents(HitWallEvent.class, new ArrayList<HitWallEvent>()).isEmpty());
+		queue.add(hitWall);
+		Assert.assertEquals(list(hitWall), queue.getEvents(HitWallEvent.class, new ArrayList<HitWallEvent>()));
+	}
+
+	@Test
+	public void clearOldEvents() {
+		EventQueue queue = new EventQueue();
+		HitWallEvent old = new HitWallEvent(0);
+		HitWallEvent recent = new HitWallEvent(0);
+		WinEvent critical = new WinEvent();
+
+		HiddenAccess.setEventTime(old, 1);
+		HiddenAccess.setEventTime(recent, 3);
+		HiddenAccess.setEventTime(critical, 1);
+
+		queue.add(old);
+		queue.add(critical);
+		queue.add(recent);
+
+		queue.clear(2);
+		Assert.assertEquals(list(critical, recent), queue);
+		Assert.assertEquals(list(recent), queue.getEvents(HitWallEvent.class, new ArrayList<HitWallEvent>()));
+
+		queue.clear(false);
+		Assert.assertEquals(list(critical), queue);
+	}
+
+	@Test
+	public void indexFollowsModifications() {
+		EventQueue queue = new EventQueue();
+		HitWallEvent late = new HitWallEvent(0);
+		HitWallEvent early = new HitWallEvent(0);
+		StatusEvent status = new StatusEvent(null);
+		BulletMissedEvent missed = new BulletMissedEvent(null);
+
+		HiddenAccess.setEventTime(late, 2);
+		HiddenAccess.setEventTime(early, 1);
+		HiddenAccess.setEventTime(status, 1);
+
+		queue.add(late);
+		queue.add(status);
+
+		// Builds the index, which must then be updated by the modifications below
+		Assert.assertEquals(list(late), queue.getEvents(HitWallEvent.class, new ArrayList<HitWallEvent>()));
+
+		queue.add(early);
+		Assert.assertEquals(list(late, early), queue.getEvents(HitWallEvent.class, new ArrayList<HitWallEvent>()));
+
+		queue.sort();
+		Assert.assertEquals(list(early, late), queue.getEvents(HitWallEvent.class, new ArrayList<HitWallEvent>()));
+
+		queue.remove(queue.get(0));
+		queue.remove(early);
+		Assert.assertEquals(list(late), queue.getEvents(HitWallEvent.class, new ArrayList<HitWallEvent>()));
+		Assert.assertTrue(queue.getEvents(StatusEvent.class, new ArrayList<StatusEvent>()).isEmpty());
+
+		queue.clear(1);
+		Assert.assertEquals(list(late), queue.getEvents(HitWallEvent.class, new ArrayList<HitWallEvent>()));
+
+		// Other modifications of the list are detected by its modCount
+		queue.addAll(list(missed));
+		Assert.assertEquals(list(missed), queue.getEvents(BulletMissedEvent.class, new ArrayList<BulletMissedEvent>()));
+
+		queue.clear();
+		Assert.assertTrue(queue.getEvents(Event.class, new ArrayList<Event>()).isEmpty());
+	}
+
+	private static <T> List<T> list(T... events) {
+		List<T> list = new ArrayList<T>();
+
+		for (T e : events) {
+			list.add(e);
+		}
+		return list;
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.host.process;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+
+/**
+ * Tests that only the robot process sending the right token is accepted as the robot process.
+ */
+public class RobotProcessTest {
+
+	@Test
+	public void acceptsTokenOnly() throws IOException {
+		final ServerSocket server = new ServerSocket(0, 10, InetAddress.getByName("127.0.0.1"));
+
+		try {
+			final Socket impostor = connect(server, "0123456789abcdef0123456789abcdee");
+			final Socket silent = new Socket(server.getInetAddress(), server.getLocalPort());
+			final Socket robot = connect(server, "0123456789abcdef0123456789abcdef");
+
+			// A connection that is closed without sending a token is skipped too
+			silent.close();
+
+			final Socket accepted = RobotProcess.accept(server, "0123456789abcdef0123456789abcdef");
+
+			Assert.assertEquals(robot.getLocalPort(), accepted.getPort());
+			Assert.assertEquals(-1, impostor.getInputStream().read());
+
+			accepted.close();
+			robot.close();
+			impostor.close();
+		} finally {
+			server.close();
+		}
+	}
+
+	private static Socket connect(ServerSocket server, String token) throws IOException {
+		final Socket socket = new Socket(server.getInetAddress(), server.getLocalPort());
+		final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+
+		out.writeUTF(token);
+		out.flush();
+		return socket;
+	}
+}
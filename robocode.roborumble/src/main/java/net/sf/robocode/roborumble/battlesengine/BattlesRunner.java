@@ -17,6 +17,7 @@ import robocode.control.events.BattleErrorEvent;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -35,11 +36,22 @@ public class BattlesRunner {
 	private final int fieldhei;
 	private final String outfile;
 	private final String user;
+	private final int workers;
 	private String game;
-	private static RobotResults[] lastResults;
-	private static IRobocodeEngine engine;
+	private static RobocodeEngine engine;
+	private static BattleObserver observer;
 
 	public BattlesRunner(String propertiesfile) {
+		this(propertiesfile, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a runner running at most one battle per processor at the same time.
+	 *
+	 * @param propertiesfile the properties file of the rumble.
+	 * @param processors the number of processors to run battles on.
+	 */
+	BattlesRunner(String propertiesfile, int processors) {
 		// Read parameters
 		Properties parameters = getProperties(propertiesfile);
 
@@ -50,6 +62,21 @@ public class BattlesRunner {
 		outfile = parameters.getProperty("OUTPUT", "");
 		user = parameters.getProperty("USER", "");
 
+		// Battles sharing a processor would share the time per turn of their robots, so robots would skip turns
+		final int requestedWorkers = Math.max(1, Integer.parseInt(parameters.getProperty("WORKERS", "1")));
+
+		workers = Math.min(requestedWorkers, Math.max(1, processors));
+		if (workers < requestedWorkers) {
+			System.out.println(
+					"WORKERS=" + requestedWorkers + " is more than the " + processors + " available processors, so "
+					+ workers + " battles are run at the same time");
+		}
+		if (workers > 1) {
+			System.out.println(
+					"Running " + workers + " battles at the same time. The battles share the caches and memory of "
+					+ "the machine, so the results may not be comparable with results of battles run one at a time");
+		}
+
 		game = propertiesfile;
 		while (game.indexOf("/") != -1) {
 			game = game.substring(game.indexOf("/") + 1);
@@ -62,7 +89,8 @@ public class BattlesRunner {
 	private void initialize() {
 		if (engine == null) {
 			engine = new RobocodeEngine();
-			engine.addBattleListener(new BattleObserver());
+			observer = new BattleObserver();
+			engine.addBattleListener(observer);
 		}
 	}
 
@@ -87,40 +115,121 @@ public class BattlesRunner {
 			return;
 		}
 
-		// run battle
-		int index = 0;
-
-		while (index < rumbleBattles.size()) {
-			RumbleBattle rumbleBattle = rumbleBattles.get(index);
-
-			String enemies = getEnemies(melee, rumbleBattle.getBots());
+		if (workers > 1) {
+			runBattlesConcurrently(rumbleBattles, battle, melee, outtxt);
+		} else {
+			for (int index = 0; index < rumbleBattles.size(); index++) {
+				RumbleBattle rumbleBattle = rumbleBattles.get(index);
+				BattleSpecification specification = createSpecification(battle, rumbleBattle, melee, index);
 
-			System.out.println("Fighting battle " + (index) + " ... " + enemies);
+				if (specification != null) {
+					observer.results = null;
+					engine.runBattle(specification, true);
+					if (observer.results != null && observer.results.length > 1) {
+						dumpResults(outtxt, observer.results, rumbleBattle, melee);
+					}
+				}
+			}
+		}
 
-			final RobotSpecification[] robotsList = engine.getLocalRepository(enemies);
+		// close
+		outtxt.close();
+	}
 
-			if (robotsList.length > 1) {
-				final String team0 = robotsList[0].getTeamId();
-				final String teamLast = robotsList[robotsList.length - 1].getTeamId();
+	/**
+	 * Runs the battles on a number of worker threads, where each worker runs one battle at a time on the engine
+	 * concurrently with the battles of the other workers. The results are written in the order of the battles,
+	 * no matter in which order the battles are completed.
+	 */
+	private void runBattlesConcurrently(final List<RumbleBattle> rumbleBattles, final BattleSpecification battle,
+			final boolean melee, PrintStream outtxt) {
+		final RobotResults[][] results = new RobotResults[rumbleBattles.size()][];
+		final boolean[] completed = new boolean[rumbleBattles.size()];
+		final AtomicInteger nextIndex = new AtomicInteger();
+		final Thread[] threads = new Thread[Math.min(workers, rumbleBattles.size())];
+
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				public void run() {
+					int index;
+
+					while ((index = nextIndex.getAndIncrement()) < rumbleBattles.size()) {
+						RobotResults[] battleResults = null;
+
+						try {
+							BattleSpecification specification = createSpecification(battle, rumbleBattles.get(index),
+									melee, index);
+
+							if (specification != null) {
+								final BattleObserver battleObserver = new BattleObserver();
+
+								engine.runConcurrentBattle(specification, battleObserver);
+								battleResults = battleObserver.results;
+							}
+						} catch (Throwable t) {
+							// Errors are caught too, e.g. an OutOfMemoryError, as the worker must go on with the next
+							// battle, and no battle must be left behind without being completed
+							Logger.logError(t);
+						} finally {
+							synchronized (completed) {
+								results[index] = battleResults;
+								completed[index] = true;
+								completed.notifyAll();
+							}
+						}
+					}
+				}
+			}, "RoboRumble worker " + (i + 1));
+			threads[i].start();
+		}
 
-				if (team0 == null || !team0.equals(teamLast)) {
-					final BattleSpecification specification = new BattleSpecification(battle.getNumRounds(),
-							battle.getBattlefield(), robotsList);
+		for (int index = 0; index < rumbleBattles.size(); index++) {
+			final RobotResults[] battleResults;
 
-					lastResults = null;
-					engine.runBattle(specification, true);
-					if (lastResults != null && lastResults.length > 1) {
-						dumpResults(outtxt, lastResults, rumbleBattle, melee);
+			synchronized (completed) {
+				while (!completed[index]) {
+					try {
+						completed.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
 					}
 				}
-			} else {
-				System.err.println("Skipping battle because can't load robots: " + enemies);
+				battleResults = results[index];
+				results[index] = null;
+			}
+			if (battleResults != null && battleResults.length > 1) {
+				dumpResults(outtxt, battleResults, rumbleBattles.get(index), melee);
 			}
-			index++;
 		}
+	}
 
-		// close
-		outtxt.close();
+	/**
+	 * Returns the specification of a battle, or null if the battle must be skipped.
+	 */
+	private BattleSpecification createSpecification(BattleSpecification battle, RumbleBattle rumbleBattle,
+			boolean melee, int index) {
+		String enemies = getEnemies(melee, rumbleBattle.getBots());
+
+		System.out.println("Fighting battle " + (index) + " ... " + enemies);
+
+		final RobotSpecification[] robotsList;
+
+		synchronized (engine) {
+			robotsList = engine.getLocalRepository(enemies);
+		}
+
+		if (robotsList.length > 1) {
+			final String team0 = robotsList[0].getTeamId();
+			final String teamLast = robotsList[robotsList.length - 1].getTeamId();
+
+			if (team0 == null || !team0.equals(teamLast)) {
+				return new BattleSpecification(battle.getNumRounds(), battle.getBattlefield(), robotsList);
+			}
+		} else {
+			System.err.println("Skipping battle because can't load robots: " + enemies);
+		}
+		return null;
 	}
 
 	private String getEnemies(boolean melee, String[] bots) {
@@ -200,7 +309,9 @@ public class BattlesRunner {
 		}
 	}
 
-	class BattleObserver extends BattleAdaptor {
+	static class BattleObserver extends BattleAdaptor {
+		RobotResults[] results;
+
 		@Override
 		public void onBattleError(final BattleErrorEvent event) {
 			Logger.realErr.println(event.getError());
@@ -208,7 +319,7 @@ public class BattlesRunner {
 
 		@Override
 		public void onBattleCompleted(final BattleCompletedEvent event) {
-			lastResults = RobotResults.convertResults(event.getSortedResults());
+			results = RobotResults.convertResults(event.getSortedResults());
 		}
 	}
 }
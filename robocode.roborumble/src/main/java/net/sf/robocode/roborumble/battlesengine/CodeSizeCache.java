@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import net.sf.robocode.repository.CodeSizeCalculator;
+
+
+/**
+ * Cache of the code sizes of robot jar files, where the code sizes are keyed by the SHA-1 hash of the content of the
+ * jar files. Hence, a code size is only calculated once for the same jar file, even when it has been renamed, or when
+ * it is shared between rumbles using their own code size files.
+ * <p>
+ * The cache file is replaced in one step when it is stored, and entries of the file that are not a hash with a code
+ * size are ignored when it is loaded. The entries that another rumble has stored into the same cache file in the
+ * meantime are kept when the cache is stored. The cache can be used by several threads at the same time.
+ */
+class CodeSizeCache {
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final int HASH_LENGTH = 40;
+
+	private final String cachefile;
+	private final Properties sizes;
+	private volatile boolean changed;
+
+	/**
+	 * Creates a cache stored in a file.
+	 *
+	 * @param cachefile the file of the cache. If the filename is empty, the cache is only kept in memory.
+	 */
+	CodeSizeCache(String cachefile) {
+		this.cachefile = cachefile;
+
+		sizes = getProperties(cachefile);
+		removeCorruptEntries(sizes);
+	}
+
+	/**
+	 * Returns the code size of a jar file, which is calculated if it is not in the cache.
+	 *
+	 * @param jarFile the jar file.
+	 * @return the code size, or null if the code size could not be calculated.
+	 */
+	Integer getCodeSize(File jarFile) {
+		final String hash = hash(jarFile);
+
+		if (hash != null) {
+			final String codeSize = sizes.getProperty(hash);
+
+			if (codeSize != null) {
+				return Integer.valueOf(codeSize);
+			}
+		}
+		final Integer codeSize = CodeSizeCalculator.getJarFileCodeSize(jarFile);
+
+		if (hash != null && codeSize != null && codeSize > 0) {
+			sizes.setProperty(hash, codeSize.toString());
+			changed = true;
+		}
+		return codeSize;
+	}
+
+	/**
+	 * Stores the cache into its file, if code sizes have been added to the cache. The file is read again first, so the
+	 * code sizes stored by another rumble since the cache was loaded are not lost.
+	 */
+	void store() {
+		if (changed && cachefile != null && cachefile.trim().length() > 0) {
+			changed = false;
+			mergeStoredEntries();
+			if (!storeAtomically()) {
+				System.err.println("Could not store code size cache: " + cachefile);
+				changed = true;
+			}
+		}
+	}
+
+	/**
+	 * Adds the code sizes of the cache file that are not in the cache.
+	 */
+	private void mergeStoredEntries() {
+		if (!new File(cachefile).exists()) {
+			return;
+		}
+		final Properties stored = getProperties(cachefile);
+
+		removeCorruptEntries(stored);
+		for (String hash : stored.stringPropertyNames()) {
+			if (!sizes.containsKey(hash)) {
+				sizes.setProperty(hash, stored.getProperty(hash));
+			}
+		}
+	}
+
+	/**
+	 * Writes the cache into a temporary file next to the cache file, which then replaces the cache file. Hence, the
+	 * cache file is never left half written, and another rumble reading it sees either the old or the new cache.
+	 */
+	private boolean storeAtomically() {
+		final File file = new File(cachefile);
+		File tempFile = null;
+
+		try {
+			tempFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+
+			final OutputStream out = new FileOutputStream(tempFile);
+
+			try {
+				sizes.store(out, "Bots code size by SHA-1 hash of the jar file");
+			} finally {
+				out.close();
+			}
+			// A file cannot be renamed onto an existing file on every platform
+			if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+				return false;
+			}
+			tempFile = null;
+			return true;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	private static void removeCorruptEntries(Properties sizes) {
+		for (String hash : sizes.stringPropertyNames()) {
+			if (!isHash(hash) || !isCodeSize(sizes.getProperty(hash))) {
+				sizes.remove(hash);
+			}
+		}
+	}
+
+	private static boolean isHash(String hash) {
+		if (hash.length() != HASH_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < HASH_LENGTH; i++) {
+			if (Character.digit(hash.charAt(i), 16) == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isCodeSize(String codeSize) {
+		try {
+			return Integer.parseInt(codeSize) > 0;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static String hash(File file) {
+		InputStream in = null;
+
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			final byte[] buffer = new byte[8192];
+
+			in = new FileInputStream(file);
+			for (int count; (count = in.read(buffer)) != -1;) {
+				digest.update(buffer, 0, count);
+			}
+			final byte[] bytes = digest.digest();
+			final char[] hex = new char[bytes.length * 2];
+
+			for (int i = 0; i < bytes.length; i++) {
+				hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+				hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+			}
+			return new String(hex);
+		} catch (IOException e) {
+			return null;
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException ignored) {}
+			}
+		}
+	}
+}
@@ -12,9 +12,8 @@ import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.storeProperties;
 
 import java.io.File;
-import java.util.Properties;
-
-import net.sf.robocode.repository.CodeSizeCalculator;
+import java.util.*;
+import java.util.concurrent.*;
 
 
 /**
@@ -31,44 +30,155 @@ public class CompetitionsSelector {
 	private final String repository;
 	private final String sizesfile;
 	private final Properties sizes;
+	private final CodeSizeCache cache;
 
 	public CompetitionsSelector(String sizesfile, String repository) {
+		this(sizesfile, repository, "");
+	}
+
+	/**
+	 * Creates a CompetitionsSelector, where code sizes that are not in the sizes file are looked up in a cache
+	 * keyed by the content of the jar files before they are calculated.
+	 *
+	 * @param sizesfile the code sizes file.
+	 * @param repository the directory containing the robot jar files.
+	 * @param cachefile the code size cache file, which can be shared between rumbles.
+	 */
+	public CompetitionsSelector(String sizesfile, String repository, String cachefile) {
 		this.repository = repository;
 		// open sizes file
 		this.sizesfile = sizesfile;
 
 		sizes = getProperties(sizesfile);
+		cache = new CodeSizeCache(cachefile);
 	}
 
 	public boolean checkCompetitorForSize(String botName, long maxSize) {
+		final boolean fileNeedsUpdate = !hasCodeSize(botName);
+		final long codeSize = getCodeSize(botName);
+
+		// If the file needs update, then save the file
+		if (fileNeedsUpdate && codeSize > 0) {
+			storeCodeSizes();
+		}
+
+		// Check the code size
+		return (codeSize < maxSize); // Bug-362
+	}
+
+	/**
+	 * Returns the code size of a robot. If the code size is not in the sizes file, it is calculated from the jar
+	 * file of the robot, but the sizes file is not updated before {@link #storeCodeSizes()} is called.
+	 *
+	 * @param botName the name and version of the robot.
+	 * @return the code size, or 0 if the code size is unknown.
+	 */
+	long getCodeSize(String botName) {
 		String name = botName.replace(' ', '_');
 
 		// Read sizes
-		long codeSize = Long.parseLong(sizes.getProperty(name, "0"));
+		long codeSize = getKnownCodeSize(botName);
 
 		// Find out the size if not in the file
-		boolean fileNeedsUpdate = false;
-
 		if (codeSize == 0) {
-			File f = new File(repository + name + ".jar");
+			File f = getJarFile(botName);
 			if (f.exists()) {
-				fileNeedsUpdate = true; // Bug-362
-
-				Integer jarFileCodeSize = CodeSizeCalculator.getJarFileCodeSize(f);
+				Integer jarFileCodeSize = cache.getCodeSize(f);
 				if (jarFileCodeSize != null) {
 					codeSize = jarFileCodeSize;
 					sizes.setProperty(name, Long.toString(codeSize));
 				}
 			}
 		}
+		return codeSize;
+	}
 
-		// If the file needs update, then save the file
-		if (fileNeedsUpdate && codeSize > 0) {
-			storeProperties(sizes, sizesfile, "Bots code size");
+	/**
+	 * Returns the code size of a robot from the sizes file, without calculating it.
+	 *
+	 * @param botName the name and version of the robot.
+	 * @return the code size, or 0 if the code size is unknown.
+	 */
+	long getKnownCodeSize(String botName) {
+		return Long.parseLong(sizes.getProperty(botName.replace(' ', '_'), "0"));
+	}
+
+	boolean hasCodeSize(String botName) {
+		return getKnownCodeSize(botName) != 0;
+	}
+
+	void storeCodeSizes() {
+		storeProperties(sizes, sizesfile, "Bots code size");
+		cache.store();
+	}
+
+	/**
+	 * Calculates the code sizes of the robots that are not in the sizes file, where the jar files are processed in
+	 * parallel by a thread per available processor. The sizes file is stored if new code sizes have been found.
+	 *
+	 * @param botNames the names and versions of the robots.
+	 * @return true if new code sizes have been found; false otherwise.
+	 */
+	public boolean updateCodeSizes(Collection<String> botNames) {
+		final Map<String, File> jarFiles = new LinkedHashMap<String, File>();
+
+		for (String botName : botNames) {
+			final File f = getJarFile(botName);
+
+			if (!hasCodeSize(botName) && f.exists()) {
+				jarFiles.put(botName, f);
+			}
+		}
+		if (jarFiles.isEmpty()) {
+			return false;
 		}
 
-		// Check the code size
-		return (codeSize < maxSize); // Bug-362
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(jarFiles.size(), Runtime.getRuntime().availableProcessors()));
+
+		try {
+			final Map<String, Future<Integer>> codeSizes = new LinkedHashMap<String, Future<Integer>>();
+
+			for (Map.Entry<String, File> entry : jarFiles.entrySet()) {
+				final File f = entry.getValue();
+
+				codeSizes.put(entry.getKey(), executor.submit(new Callable<Integer>() {
+					public Integer call() {
+						return cache.getCodeSize(f);
+					}
+				}));
+			}
+
+			boolean updated = false;
+
+			for (Map.Entry<String, Future<Integer>> entry : codeSizes.entrySet()) {
+				Integer codeSize;
+
+				try {
+					codeSize = entry.getValue().get();
+				} catch (ExecutionException e) {
+					System.out.println("Could not calculate the code size of " + entry.getKey() + ": " + e.getCause());
+					codeSize = null;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				if (codeSize != null && codeSize > 0) {
+					sizes.setProperty(entry.getKey().replace(' ', '_'), codeSize.toString());
+					updated = true;
+				}
+			}
+			if (updated) {
+				storeCodeSizes();
+			}
+			return updated;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private File getJarFile(String botName) {
+		return new File(repository + botName.replace(' ', '_') + ".jar");
 	}
 
 	public boolean checkCompetitorsForSize(String bot1, String bot2, long maxsize) {
@@ -0,0 +1,369 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import static net.sf.robocode.roborumble.util.ExcludesUtil.isExcluded;
+import static net.sf.robocode.roborumble.util.ExcludesUtil.setExcludes;
+import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+
+/**
+ * In-memory index of the participants that can take part in battles, with their code sizes and ratings, which is
+ * used for preparing battles.
+ * <p>
+ * The index is kept between the iterations of the rumble, and is only updated with the files that have changed
+ * since the last time it was refreshed, e.g. when the participants list or the ratings have been downloaded, or the
+ * number of battles in the ratings have been updated after uploading results. Code sizes are only calculated for
+ * new participants, in parallel, and the code sizes file is stored once per refresh.
+ */
+public class ParticipantsIndex {
+
+	static final long MINI_SIZE = 1500;
+	static final long MICRO_SIZE = 750;
+	static final long NANO_SIZE = 250;
+
+	private final String botsrepository;
+	private final String codesizecache;
+	private final int prioritynum;
+
+	private final FileStamp participantsFile;
+	private final FileStamp sizesFile;
+	private final FileStamp[] ratingsFiles;
+	private final Properties[] ratings;
+
+	private CompetitionsSelector size;
+	private List<String> participantNames = Collections.emptyList();
+
+	// Built from the files above when any of them has changed
+	private final Set<String> names = new HashSet<String>();
+	private final List<String> namesAll = new ArrayList<String>();
+	private final List<String> namesMini = new ArrayList<String>();
+	private final List<String> namesMicro = new ArrayList<String>();
+	private final List<String> namesNano = new ArrayList<String>();
+	private final List<String> namesNoRanking = new ArrayList<String>();
+	private final List<String> priorityAll = new ArrayList<String>();
+	private final List<String> priorityMini = new ArrayList<String>();
+	private final List<String> priorityMicro = new ArrayList<String>();
+	private final List<String> priorityNano = new ArrayList<String>();
+	private final Set<String> missingJars = new HashSet<String>();
+
+	public ParticipantsIndex(String propertiesfile) {
+		Properties parameters = getProperties(propertiesfile);
+
+		botsrepository = parameters.getProperty("BOTSREP", "");
+		codesizecache = parameters.getProperty("CODESIZECACHE", "");
+		prioritynum = Integer.parseInt(parameters.getProperty("BATTLESPERBOT", "500"));
+
+		participantsFile = new FileStamp(parameters.getProperty("PARTICIPANTSFILE", ""));
+		sizesFile = new FileStamp(parameters.getProperty("CODESIZEFILE", ""));
+		ratingsFiles = new FileStamp[] {
+			new FileStamp(parameters.getProperty("RATINGS.GENERAL", "")),
+			new FileStamp(parameters.getProperty("RATINGS.MINIBOTS", "")),
+			new FileStamp(parameters.getProperty("RATINGS.MICROBOTS", "")),
+			new FileStamp(parameters.getProperty("RATINGS.NANOBOTS", ""))
+		};
+		ratings = new Properties[ratingsFiles.length];
+
+		// Read and prepare exclude filters
+		setExcludes(parameters);
+	}
+
+	/**
+	 * Updates the index with the files that have changed since the last refresh, and with the jar files of
+	 * participants that have been downloaded since then.
+	 *
+	 * @return false if the participants file could not be read; true otherwise.
+	 */
+	public boolean refresh() {
+		boolean changed = false;
+
+		if (participantsFile.hasChanged()) {
+			List<String> read = readParticipants();
+
+			if (read == null) {
+				participantsFile.reset(); // try again next time
+				return false;
+			}
+			participantNames = read;
+			changed = true;
+		}
+		if (sizesFile.hasChanged() || size == null) {
+			size = new CompetitionsSelector(sizesFile.filename, botsrepository, codesizecache);
+			changed = true;
+		}
+		for (int i = 0; i < ratingsFiles.length; i++) {
+			if (ratingsFiles[i].hasChanged() || ratings[i] == null) {
+				ratings[i] = getProperties(ratingsFiles[i].filename);
+				changed = true;
+			}
+		}
+		if (!changed) {
+			for (String name : missingJars) {
+				if (jarExists(name)) {
+					changed = true;
+					break;
+				}
+			}
+		}
+		if (changed) {
+			rebuild();
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if a robot is a participant that can take part in battles.
+	 */
+	public boolean isParticipant(String name) {
+		return names.contains(name);
+	}
+
+	List<String> getNamesAll() {
+		return namesAll;
+	}
+
+	List<String> getNamesMini() {
+		return namesMini;
+	}
+
+	List<String> getNamesMicro() {
+		return namesMicro;
+	}
+
+	List<String> getNamesNano() {
+		return namesNano;
+	}
+
+	List<String> getNamesNoRanking() {
+		return namesNoRanking;
+	}
+
+	List<String> getPriorityAll() {
+		return priorityAll;
+	}
+
+	List<String> getPriorityMini() {
+		return priorityMini;
+	}
+
+	List<String> getPriorityMicro() {
+		return priorityMicro;
+	}
+
+	List<String> getPriorityNano() {
+		return priorityNano;
+	}
+
+	private List<String> readParticipants() {
+		List<String> result = new ArrayList<String>();
+		BufferedReader br = null;
+
+		try {
+			FileReader fr = new FileReader(participantsFile.filename);
+
+			br = new BufferedReader(fr);
+			String participant;
+
+			while ((participant = br.readLine()) != null) {
+				if (participant.indexOf(",") != -1) {
+					result.add(participant.substring(0, participant.indexOf(",")));
+				}
+			}
+		} catch (IOException e) {
+			System.out.println("Participants file not found ... Aborting");
+			System.out.println(e);
+			return null;
+		} finally {
+			if (br != null) {
+				try {
+					br.close();
+				} catch (IOException ignored) {}
+			}
+		}
+		return result;
+	}
+
+	private void rebuild() {
+		names.clear();
+		namesAll.clear();
+		namesMini.clear();
+		namesMicro.clear();
+		namesNano.clear();
+		namesNoRanking.clear();
+		priorityAll.clear();
+		priorityMini.clear();
+		priorityMicro.clear();
+		priorityNano.clear();
+		missingJars.clear();
+
+		for (String name : participantNames) {
+			if (isExcluded(name)) {
+				continue; // ignore excluded participant
+			}
+			if (!jarExists(name)) {
+				missingJars.add(name);
+				continue;
+			}
+			if (!names.add(name)) {
+				continue; // listed twice
+			}
+			namesAll.add(name);
+		}
+
+		// Calculate the code sizes of new participants at once
+		if (size.updateCodeSizes(namesAll)) {
+			sizesFile.hasChanged(); // the file has been written by us, so it need not be read again
+		}
+
+		for (String name : namesAll) {
+			// Bug-362: robots with an unknown code size (0) are in all code size categories
+			final long codeSize = size.getKnownCodeSize(name);
+
+			if (codeSize < MINI_SIZE) {
+				namesMini.add(name);
+			}
+			if (codeSize < MICRO_SIZE) {
+				namesMicro.add(name);
+			}
+			if (codeSize < NANO_SIZE) {
+				namesNano.add(name);
+			}
+
+			final String bot = name.replaceAll(" ", "_");
+
+			if (hasPriority(bot, ratings[0])) {
+				priorityAll.add(name);
+			}
+			if (codeSize < MINI_SIZE && hasPriority(bot, ratings[1])) {
+				priorityMini.add(name);
+			}
+			if (codeSize < MICRO_SIZE && hasPriority(bot, ratings[2])) {
+				priorityMicro.add(name);
+			}
+			if (codeSize < NANO_SIZE && hasPriority(bot, ratings[3])) {
+				priorityNano.add(name);
+			}
+			if (!isInRatings(bot)) {
+				namesNoRanking.add(name);
+			}
+		}
+	}
+
+	private boolean jarExists(String name) {
+		return new File(botsrepository + name.replace(' ', '_') + ".jar").exists();
+	}
+
+	private boolean hasPriority(String bot, Properties ratings) {
+		String values = ratings.getProperty(bot);
+
+		if (values == null) {
+			return false; // must be false (Bug 3474173)
+		}
+		String[] value = values.split(",");
+		double battles = Double.parseDouble(value[1]);
+
+		return (battles < prioritynum);
+	}
+
+	private boolean isInRatings(String bot) {
+		for (Properties r : ratings) {
+			if (r.getProperty(bot) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Keeps track of the last modification of a file.
+	 * <p>
+	 * The modification time of a file has a granularity of up to a few seconds, so a file that is written again
+	 * within that time can keep both its modification time and its length. Hence the checksum of the content is
+	 * compared too, as long as the file had been modified within that time when it was last checked.
+	 */
+	static final class FileStamp {
+		// The coarsest granularity of modification times, which is the one of FAT file systems
+		private static final long MODIFIED_GRANULARITY = 2000;
+
+		final String filename;
+		private long lastModified = -1;
+		private long length = -1;
+		private long checksum = -1;
+		private boolean isRecentlyModified;
+
+		FileStamp(String filename) {
+			this.filename = filename;
+		}
+
+		/**
+		 * Checks if the file has been modified, created or deleted since the last check.
+		 */
+		boolean hasChanged() {
+			final File file = new File(filename);
+			final long now = System.currentTimeMillis();
+			final long modified = file.lastModified();
+			final long size = file.length();
+
+			if (modified == lastModified && size == length) {
+				if (!isRecentlyModified) {
+					return false;
+				}
+				isRecentlyModified = now - modified < MODIFIED_GRANULARITY;
+
+				final long sum = checksum(file);
+
+				if (sum == checksum) {
+					return false;
+				}
+				checksum = sum;
+				return true;
+			}
+			lastModified = modified;
+			length = size;
+			checksum = checksum(file);
+			isRecentlyModified = now - modified < MODIFIED_GRANULARITY;
+			return true;
+		}
+
+		void reset() {
+			lastModified = -1;
+			length = -1;
+			checksum = -1;
+		}
+
+		private static long checksum(File file) {
+			final CRC32 crc = new CRC32();
+			InputStream in = null;
+
+			try {
+				in = new FileInputStream(file);
+
+				final byte[] buffer = new byte[8192];
+				int count;
+
+				while ((count = in.read(buffer)) != -1) {
+					crc.update(buffer, 0, count);
+				}
+				return crc.getValue();
+			} catch (IOException e) {
+				return -1; // the file does not exist or cannot be read
+			} finally {
+				if (in != null) {
+					try {
+						in.close();
+					} catch (IOException ignored) {}
+				}
+			}
+		}
+	}
+}
@@ -8,14 +8,10 @@
 package net.sf.robocode.roborumble.battlesengine;
 
 
-import static net.sf.robocode.roborumble.util.ExcludesUtil.*;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Properties;
-import java.util.Random;
+import java.util.*;
 
 
 /**
@@ -28,89 +24,53 @@ import java.util.Random;
  */
 public class PrepareBattles {
 
-	private final String botsrepository;
-	private final String participantsfile;
+	private final ParticipantsIndex participants;
 	private final BattlesFile battlesfile;
 	private final int numbattles;
-	private final CompetitionsSelector size;
 	private final String runonly;
-	private final Properties generalratings;
-	private final Properties miniratings;
-	private final Properties microratings;
-	private final Properties nanoratings;
 	private final String priority;
-	private final int prioritynum;
 	private final int meleebots;
 	
 	private final static Random RANDOM = new Random(); 
 
 	public PrepareBattles(String propertiesfile) {
+		this(propertiesfile, new ParticipantsIndex(propertiesfile));
+	}
+
+	/**
+	 * Creates a PrepareBattles that prepares battles between the participants of an index, which is kept between
+	 * the iterations of the rumble.
+	 *
+	 * @param propertiesfile the properties file of the rumble.
+	 * @param participants the index of the participants, which is refreshed before preparing the battles.
+	 */
+	public PrepareBattles(String propertiesfile, ParticipantsIndex participants) {
 		// Read parameters
 		Properties parameters = getProperties(propertiesfile);
 
-		botsrepository = parameters.getProperty("BOTSREP", "");
-		participantsfile = parameters.getProperty("PARTICIPANTSFILE", "");
+		this.participants = participants;
 		battlesfile = new BattlesFile(parameters.getProperty("INPUT", ""));
 		numbattles = Integer.parseInt(parameters.getProperty("NUMBATTLES", "100"));
-		String sizesfile = parameters.getProperty("CODESIZEFILE", "");
-
-		size = new CompetitionsSelector(sizesfile, botsrepository);
 		runonly = parameters.getProperty("RUNONLY", "GENERAL");
-		prioritynum = Integer.parseInt(parameters.getProperty("BATTLESPERBOT", "500"));
 		meleebots = Integer.parseInt(parameters.getProperty("MELEEBOTS", "10"));
-		generalratings = getProperties(parameters.getProperty("RATINGS.GENERAL", ""));
-		miniratings = getProperties(parameters.getProperty("RATINGS.MINIBOTS", ""));
-		microratings = getProperties(parameters.getProperty("RATINGS.MICROBOTS", ""));
-		nanoratings = getProperties(parameters.getProperty("RATINGS.NANOBOTS", ""));
 		priority = parameters.getProperty("PRIORITYBATTLESFILE", "");
-
-		// Read and prepare exclude filters
-		setExcludes(parameters);
 	}
 
 	public boolean createBattlesList() {
-		List<String> names = new ArrayList<String>();
-
 		// Read participants
-
-		BufferedReader br = null;
-
-		try {
-			FileReader fr = new FileReader(participantsfile);
-
-			br = new BufferedReader(fr);
-			String participant;
-
-			while ((participant = br.readLine()) != null) {
-				if (participant.indexOf(",") != -1) {
-					String name = participant.substring(0, participant.indexOf(","));
-
-					if (isExcluded(name)) {
-						continue; // ignore excluded participant
-					}
-					String jar = name.replace(' ', '_') + ".jar";
-					boolean exists = (new File(botsrepository + jar)).exists();
-
-					if (exists) {
-						if ((runonly.equals("MINI") && size.checkCompetitorForSize(name, 1500))
-								|| (runonly.equals("MICRO") && size.checkCompetitorForSize(name, 750))
-								|| (runonly.equals("NANO") && size.checkCompetitorForSize(name, 250))
-								|| (!runonly.equals("MINI") && !runonly.equals("MICRO") && !runonly.equals("NANO"))) {
-							names.add(name);
-						}
-					}
-				}
-			}
-		} catch (IOException e) {
-			System.out.println("Participants file not found ... Aborting");
-			System.out.println(e);
+		if (!participants.refresh()) {
 			return false;
-		} finally {
-			if (br != null) {
-				try {
-					br.close();
-				} catch (IOException ignored) {}
-			}
+		}
+		final List<String> names;
+
+		if (runonly.equals("MINI")) {
+			names = participants.getNamesMini();
+		} else if (runonly.equals("MICRO")) {
+			names = participants.getNamesMicro();
+		} else if (runonly.equals("NANO")) {
+			names = participants.getNamesNano();
+		} else {
+			names = participants.getNamesAll();
 		}
 
 		if (!battlesfile.openWrite()) {
@@ -134,82 +94,25 @@ public class PrepareBattles {
 	}
 
 	public boolean createSmartBattlesList() {
-		List<String> namesAll = new ArrayList<String>();
-		List<String> namesMini = new ArrayList<String>();
-		List<String> namesMicro = new ArrayList<String>();
-		List<String> namesNano = new ArrayList<String>();
-		List<String> namesNoRanking = new ArrayList<String>();
-		List<String> priorityAll = new ArrayList<String>();
-		List<String> priorityMini = new ArrayList<String>();
-		List<String> priorityMicro = new ArrayList<String>();
-		List<String> priorityNano = new ArrayList<String>();
-
-		List<String> priorityBattles = new ArrayList<String>();
-
 		// Read participants
-
-		BufferedReader br = null;
-
-		try {
-			FileReader fr = new FileReader(participantsfile);
-
-			br = new BufferedReader(fr);
-			String participant;
-
-			while ((participant = br.readLine()) != null) {
-				if (participant.indexOf(",") != -1) {
-					String name = participant.substring(0, participant.indexOf(","));
-
-					if (isExcluded(name)) {
-						continue; // ignore excluded participant
-					}
-					String jar = name.replace(' ', '_') + ".jar";
-					boolean exists = (new File(botsrepository + jar)).exists();
-
-					if (exists) {
-						namesAll.add(name);
-						if (size.checkCompetitorForSize(name, 1500)) {
-							namesMini.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 750)) {
-							namesMicro.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 250)) {
-							namesNano.add(name);
-						}
-						if (robotHasPriority(name, generalratings)) {
-							priorityAll.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 1500) && robotHasPriority(name, miniratings)) {
-							priorityMini.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 750) && robotHasPriority(name, microratings)) {
-							priorityMicro.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 250) && robotHasPriority(name, nanoratings)) {
-							priorityNano.add(name);
-						}
-						if (!isRobotInRatings(name)) {
-							namesNoRanking.add(name);
-						}
-					}
-				}
-			}
-		} catch (IOException e) {
-			System.out.println("Participants file not found ... Aborting");
-			System.out.println(e);
+		if (!participants.refresh()) {
 			return false;
-		} finally {
-			if (br != null) {
-				try {
-					br.close();
-				} catch (IOException ignored) {}
-			}
 		}
+		final List<String> namesAll = participants.getNamesAll();
+		final List<String> namesMini = participants.getNamesMini();
+		final List<String> namesMicro = participants.getNamesMicro();
+		final List<String> namesNano = participants.getNamesNano();
+		final List<String> namesNoRanking = participants.getNamesNoRanking();
+		final List<String> priorityAll = participants.getPriorityAll();
+		final List<String> priorityMini = participants.getPriorityMini();
+		final List<String> priorityMicro = participants.getPriorityMicro();
+		final List<String> priorityNano = participants.getPriorityNano();
 
-		// Read priority battles
+		List<String> priorityBattles = new ArrayList<String>();
+		Set<String> priorityRecords = new HashSet<String>();
 
-		br = null;
+		// Read priority battles
+		BufferedReader br = null;
 
 		try {
 			FileReader fr = new FileReader(priority);
@@ -222,13 +125,11 @@ public class PrepareBattles {
 
 				if (items.length == 3) {
 					// Check that competitors exist
-					String jar1 = items[0].replace(' ', '_') + ".jar";
-					boolean exists1 = (new File(botsrepository + jar1)).exists() && namesAll.contains(items[0]);
-					String jar2 = items[1].replace(' ', '_') + ".jar";
-					boolean exists2 = (new File(botsrepository + jar2)).exists() && namesAll.contains(items[1]);
+					boolean exists1 = participants.isParticipant(items[0]);
+					boolean exists2 = participants.isParticipant(items[1]);
 
 					// Add battles to priority battles list
-					if (exists1 && exists2 && !priorityBattles.contains(record)) {
+					if (exists1 && exists2 && priorityRecords.add(record)) {
 						priorityBattles.add(record);
 					} else {
 						System.out.println("Ignoring: " + record);
@@ -269,16 +170,17 @@ public class PrepareBattles {
 			count++;
 		}
 		// Add bots with less than 500 battles, or a random battle if all bots have enough battles
+		int noRankingIndex = 0;
+
 		if (namesAll.size() > 1) {
 			while (count < numbattles) {
 				String[] bots;
-				if (namesNoRanking.size() > 0) {
+				if (noRankingIndex < namesNoRanking.size()) {
 					// Bug [3547611] - New bots not given priority 
 					List<String> listWithSingleItem = new ArrayList<String>();
-					String bot = namesNoRanking.get(0);
+					String bot = namesNoRanking.get(noRankingIndex++);
 					listWithSingleItem.add(bot);
 					bots = getRandomBots(listWithSingleItem, namesAll);
-					namesNoRanking.remove(0);
 				} else if (priorityAll.size() > 0) {
 					bots = getRandomBots(priorityAll, namesAll);
 				} else if (priorityMini.size() > 0 && namesMini.size() > 1) {
@@ -316,115 +218,26 @@ public class PrepareBattles {
 		return bots;
 	}
 
-	private boolean robotHasPriority(String name, Properties ratings) {
-		if (name == null || ratings == null) {
-			return false;
-		}
-		String bot = name.replaceAll(" ", "_");
-		String values = ratings.getProperty(bot);
-
-		if (values == null) {
-			return false; // must be false (Bug 3474173)
-		}
-		String[] value = values.split(",");
-		double battles = Double.parseDouble(value[1]);
-
-		return (battles < prioritynum);
-	}
-
-	private boolean isRobotInRatings(String name) {
-		if (name == null || name.trim().length() == 0) {
-			return false;
-		}
-		String bot = name.replaceAll(" ", "_");
-		
-		Properties[] ratingLists = new Properties[] { generalratings, miniratings, microratings, nanoratings };
-		
-		for (Properties ratings : ratingLists) {
-			if (ratings.getProperty(bot) != null) {
-				return true;
-			}
-		}
-		return false;
-	}
-	
 	public boolean createMeleeBattlesList() {
-		List<String> namesAll = new ArrayList<String>();
-		List<String> namesMini = new ArrayList<String>();
-		List<String> namesMicro = new ArrayList<String>();
-		List<String> namesNano = new ArrayList<String>();
-		List<String> namesNoRanking = new ArrayList<String>();
-		List<String> priorityAll = new ArrayList<String>();
-		List<String> priorityMini = new ArrayList<String>();
-		List<String> priorityMicro = new ArrayList<String>();
-		List<String> priorityNano = new ArrayList<String>();
-
-		List<String[]> priorityPairs = new ArrayList<String[]>();
-
 		// Read participants
-
-		BufferedReader br = null;
-
-		try {
-			FileReader fr = new FileReader(participantsfile);
-
-			br = new BufferedReader(fr);
-			String participant;
-
-			while ((participant = br.readLine()) != null) {
-				if (participant.indexOf(",") != -1) {
-					String name = participant.substring(0, participant.indexOf(","));
-
-					if (isExcluded(name)) {
-						continue; // ignore excluded participant
-					}
-					String jar = name.replace(' ', '_') + ".jar";
-					boolean exists = (new File(botsrepository + jar)).exists();
-
-					if (exists) {
-						namesAll.add(name);
-						if (size.checkCompetitorForSize(name, 1500)) {
-							namesMini.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 750)) {
-							namesMicro.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 250)) {
-							namesNano.add(name);
-						}
-						if (robotHasPriority(name, generalratings)) {
-							priorityAll.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 1500) && robotHasPriority(name, miniratings)) {
-							priorityMini.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 750) && robotHasPriority(name, microratings)) {
-							priorityMicro.add(name);
-						}
-						if (size.checkCompetitorForSize(name, 250) && robotHasPriority(name, nanoratings)) {
-							priorityNano.add(name);
-						}
-						if (!isRobotInRatings(name)) {
-							namesNoRanking.add(name);
-						}
-					}
-				}
-			}
-		} catch (IOException e) {
-			System.out.println("Participants file not found ... Aborting");
-			System.out.println(e);
+		if (!participants.refresh()) {
 			return false;
-		} finally {
-			if (br != null) {
-				try {
-					br.close();
-				} catch (IOException ignored) {}
-			}
 		}
+		final List<String> namesAll = participants.getNamesAll();
+		final List<String> namesMini = participants.getNamesMini();
+		final List<String> namesMicro = participants.getNamesMicro();
+		final List<String> namesNano = participants.getNamesNano();
+		final List<String> namesNoRanking = participants.getNamesNoRanking();
+		final List<String> priorityAll = participants.getPriorityAll();
+		final List<String> priorityMini = participants.getPriorityMini();
+		final List<String> priorityMicro = participants.getPriorityMicro();
+		final List<String> priorityNano = participants.getPriorityNano();
 
-		// Read priority battles
+		List<String[]> priorityPairs = new ArrayList<String[]>();
+		Set<String> priorityRecords = new HashSet<String>();
 
-		br = null;
+		// Read priority battles
+		BufferedReader br = null;
 
 		try {
 			FileReader fr = new FileReader(priority);
@@ -437,13 +250,11 @@ public class PrepareBattles {
 
 				if (items.length == 3) {
 					// Check that competitors exist
-					String jar1 = items[0].replace(' ', '_') + ".jar";
-					boolean exists1 = (new File(botsrepository + jar1)).exists() && namesAll.contains(items[0]);
-					String jar2 = items[1].replace(' ', '_') + ".jar";
-					boolean exists2 = (new File(botsrepository + jar2)).exists() && namesAll.contains(items[1]);
+					boolean exists1 = participants.isParticipant(items[0]);
+					boolean exists2 = participants.isParticipant(items[1]);
 
 					// Add battles to priority battles vector
-					if (exists1 && exists2 && !priorityPairs.contains(items)) {
+					if (exists1 && exists2 && priorityRecords.add(record)) {
 						priorityPairs.add(items);
 					} else {
 						System.out.println("Ignoring: " + record);
@@ -474,17 +285,18 @@ public class PrepareBattles {
 		int count = 0;
 
 		// Add bots with less than 500 battles, or a random battle if all bots have enough battles
+		int noRankingIndex = 0;
+
 		if (namesAll.size() > meleebots) {
 			while (count < numbattles) {
 				String[] bots = null;
 				boolean prioritized = false;
-				if (namesNoRanking.size() > 0) {
+				if (noRankingIndex < namesNoRanking.size()) {
 					// Bug [3547611] - New bots not given priority 
 					List<String> listWithSingleItem = new ArrayList<String>();
-					String bot = namesNoRanking.get(0);
+					String bot = namesNoRanking.get(noRankingIndex++);
 					listWithSingleItem.add(bot);
 					bots = getRandomMeleeBots(listWithSingleItem, namesAll);
-					namesNoRanking.remove(0);
 				} else if (count < priorityPairs.size()) {
 					String[] prioritybots = priorityPairs.get(count);
 					bots = getRandomMeleeBots(prioritybots[0], prioritybots[1], namesAll);
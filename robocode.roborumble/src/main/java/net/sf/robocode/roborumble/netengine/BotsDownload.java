@@ -10,7 +10,6 @@ package net.sf.robocode.roborumble.netengine;
 
 import net.sf.robocode.io.Logger;
 import net.sf.robocode.roborumble.battlesengine.CompetitionsSelector;
-import static net.sf.robocode.roborumble.netengine.FileTransfer.DownloadStatus;
 import static net.sf.robocode.roborumble.util.ExcludesUtil.*;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 
@@ -19,13 +18,20 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Vector;
-import java.util.jar.JarFile;
-import java.util.zip.ZipEntry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipException;
 
 
 /**
@@ -71,7 +77,7 @@ public class BotsDownload {
 
 		// Code size
 		sizesfile = parameters.getProperty("CODESIZEFILE", "");
-		size = new CompetitionsSelector(sizesfile, botsrepository);
+		size = new CompetitionsSelector(sizesfile, botsrepository, parameters.getProperty("CODESIZECACHE", ""));
 
 		// Ratings files
 		ratingsurl = parameters.getProperty("RATINGS.URL", "");
@@ -272,19 +278,60 @@ public class BotsDownload {
 		}
 
 		// check if the file exists in the repository and download if not present
+		List<Integer> missing = new ArrayList<Integer>();
+		boolean needsSession = false;
+
 		for (int i = 0; i < jars.size(); i++) {
-			String botjar = jars.get(i);
-			String botid = ids.get(i);
-			String botname = names.get(i);
-			String botpath = botsrepository + botjar;
+			String botpath = botsrepository + jars.get(i);
 			boolean exists = (new File(botpath)).exists();
 
 			if (!exists) {
-				boolean downloaded = downloadBot(botname, botjar, botid, botsrepository, tempdir);
-				if (!downloaded) {
-					System.out.println("Could not download " + botjar);
+				missing.add(i);
+				needsSession |= (ids.get(i).indexOf("://") == -1);
+			}
+		}
+		if (missing.isEmpty()) {
+			return;
+		}
+
+		// The session id for the Robocode Repository is shared by all downloads
+		final String sessionId = needsSession
+				? FileTransfer.getSessionId(
+						"http://robocoderepository.com/BotSearch.jsp?botName=''&authorName=''&uploadDate=")
+				: null;
+
+		// Download the missing bots in parallel, but with a limited number of connections
+		final int threadCount = Math.min(missing.size(), FileTransfer.getDownloadThreads());
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		final List<Future<?>> downloads = new ArrayList<Future<?>>();
+
+		try {
+			for (int i : missing) {
+				final String botjar = jars.get(i);
+				final String botid = ids.get(i);
+				final String botname = names.get(i);
+
+				downloads.add(executor.submit(new Runnable() {
+					public void run() {
+						boolean downloaded = downloadBot(botname, botjar, botid, botsrepository, tempdir, sessionId);
+						if (!downloaded) {
+							System.out.println("Could not download " + botjar);
+						}
+					}
+				}));
+			}
+			for (Future<?> download : downloads) {
+				try {
+					download.get();
+				} catch (ExecutionException e) {
+					System.out.println(e.getCause());
 				}
 			}
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
 		}
 	}
 
@@ -295,10 +342,14 @@ public class BotsDownload {
 				FileReader fr = new FileReader(participantsfile);
 				br = new BufferedReader(fr);
 
+				List<String> names = new ArrayList<String>();
+
 				for (String record; (record = br.readLine()) != null;) {
 					String name = record.substring(0, record.indexOf(","));
-					size.checkCompetitorForSize(name, 1500);
+					names.add(name);
 				}
+				// Calculate the missing code sizes in parallel
+				size.updateCodeSizes(names);
 			} catch (IOException e) {
 				System.out.println("Battles input file not found ... Aborting");
 				System.out.println(e);
@@ -312,59 +363,87 @@ public class BotsDownload {
 		}
 	}
 
-	private boolean downloadBot(String botname, String file, String id, String destination, String tempdir) {
-		String tempFileName = tempdir + file;
-		String repositoryFileName = destination + file;
+	private boolean downloadBot(String botname, String file, String id, String destination, String tempdir,
+			String sessionId) {
+		File partFile = new File(tempdir + file + ".part");
+		File repositoryFile = new File(destination + file);
 
 		// check if the bot exists in the repository
 
-		boolean exists = (new File(repositoryFileName)).exists();
+		boolean exists = repositoryFile.exists();
 		if (exists) {
 			System.out.println("The bot already exists in the repository.");
 			return false;
 		}
 
-		// Download the bot
+		// Download the bot, where the jar file is checked while it is being downloaded
 
 		String url;
-		String sessionId = null;
 
 		if (id.indexOf("://") == -1) {
 			url = "http://robocoderepository.com/Controller.jsp?submitAction=downloadClass&id=" + id;
-
-			sessionId = FileTransfer.getSessionId(
-					"http://robocoderepository.com/BotSearch.jsp?botName=''&authorName=''&uploadDate=");
 		} else {
 			url = id;
 		}
 
-		DownloadStatus downloadStatus = FileTransfer.download(url, tempFileName, sessionId);
+		final File dir = partFile.getParentFile();
 
-		if (downloadStatus == DownloadStatus.FILE_NOT_FOUND) {
+		if (dir != null && !dir.exists() && !dir.mkdirs()) {
+			Logger.logError("Can't create directory: " + dir);
+		}
+
+		boolean isValid;
+		InputStream in = null;
+
+		try {
+			in = FileTransfer.openResumableDownload(url, partFile, sessionId);
+			isValid = checkJarStream(in, botname);
+		} catch (FileNotFoundException e) {
 			System.out.println("Could not find " + botname + " from " + url);
 			return false;
-		} else if (downloadStatus == DownloadStatus.COULD_NOT_CONNECT) {
-			System.out.println("Could not connect to " + url);
+		} catch (ZipException e) {
+			System.out.println(e);
+			isValid = false;
+		} catch (IOException e) {
+			// The partial file is kept, so the download is continued next time
+			System.out.println("Could not download " + url + ": " + e);
 			return false;
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException ignored) {}
+			}
 		}
 
-		// Check the bot and save it into the repository
+		// Save the bot into the repository
 
-		if (checkJarFile(tempFileName, botname)) {
-			if (!FileTransfer.copy(tempFileName, repositoryFileName)) {
-				System.out.println("Unable to copy " + tempFileName + " into the repository");
-				return false;
-			}
-		} else {
+		if (!isValid) {
 			System.out.println("Downloaded file is wrong or corrupted: " + file);
+			if (!partFile.delete()) {
+				Logger.logError("Can't delete file: " + partFile);
+			}
 			return false;
 		}
+		if (!partFile.renameTo(repositoryFile)) {
+			if (!FileTransfer.copy(partFile.getPath(), repositoryFile.getPath())) {
+				System.out.println("Unable to copy " + partFile + " into the repository");
+				return false;
+			}
+			if (!partFile.delete()) {
+				Logger.logError("Can't delete file: " + partFile);
+			}
+		}
 
-		System.out.println("Downloaded " + botname + " into " + repositoryFileName);
+		System.out.println("Downloaded " + botname + " into " + repositoryFile);
 		return true;
 	}
 
-	private boolean checkJarFile(String file, String botname) {
+	/**
+	 * Checks a jar file while it is being read from an input stream, which is read to the end. The CRC of every entry
+	 * is verified, and the properties of the bot or team must match the name and version of the bot.
+	 */
+	private boolean checkJarStream(InputStream in, String botname) throws IOException {
 		if (botname.indexOf(" ") == -1) {
 			System.out.println("Are you sure " + botname + " is a bot/team? Can't download it.");
 			return false;
@@ -379,31 +458,35 @@ public class BotsDownload {
 			bot += ".properties";
 		}
 
-		try {
-			JarFile jarf = new JarFile(file);
-			ZipEntry zipe = jarf.getJarEntry(bot);
+		Properties parameters = null;
 
-			if (zipe == null) {
-				System.out.println("Not able to read properties");
-				return false;
+		// Not closed, as the input stream is closed by the caller
+		JarInputStream jar = new JarInputStream(in, true);
+
+		for (JarEntry entry; (entry = jar.getNextJarEntry()) != null;) {
+			if (entry.getName().equals(bot)) {
+				parameters = getProperties(jar);
 			}
-			InputStream properties = jarf.getInputStream(zipe);
+		}
 
-			Properties parameters = getProperties(properties);
+		// Read the rest of the jar file, i.e. the central directory
+		final byte[] buf = new byte[4096];
 
-			if (!isteams.equals("YES")) {
-				String classname = parameters.getProperty("robot.classname", "");
-				String version = parameters.getProperty("robot.version", "");
+		while (in.read(buf) != -1) {}
 
-				return (botname.equals(classname + " " + version));
-			}
-			String version = parameters.getProperty("team.version", "");
-
-			return (botname.equals(botname.substring(0, botname.indexOf(" ")) + " " + version));
-		} catch (Exception e) {
-			System.out.println(e);
+		if (parameters == null) {
+			System.out.println("Not able to read properties");
 			return false;
 		}
+		if (!isteams.equals("YES")) {
+			String classname = parameters.getProperty("robot.classname", "");
+			String version = parameters.getProperty("robot.version", "");
+
+			return (botname.equals(classname + " " + version));
+		}
+		String version = parameters.getProperty("team.version", "");
+
+		return (botname.equals(botname.substring(0, botname.indexOf(" ")) + " " + version));
 	}
 
 	// ----------------------------------------------------------------------------------
@@ -29,10 +29,14 @@ public class FileTransfer {
 	private final static int DEFAULT_CONNECTION_TIMEOUT = 10000; // 10 seconds
 	private final static int DEFAULT_READ_TIMEOUT = 10000; // 10 seconds
 	private final static int DEFAULT_SESSION_TIMEOUT = 10000; // 10 seconds
+	private final static int DEFAULT_DOWNLOAD_THREADS = 4;
+	private final static int DEFAULT_UPLOAD_THREADS = 4;
 
 	private static int connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
 	private static int readTimeout = DEFAULT_READ_TIMEOUT;
 	private static int sessionTimeout = DEFAULT_SESSION_TIMEOUT;
+	private static int downloadThreads = DEFAULT_DOWNLOAD_THREADS;
+	private static int uploadThreads = DEFAULT_UPLOAD_THREADS;
 
 	static {
 		readProperties();
@@ -459,6 +463,163 @@ public class FileTransfer {
 		}
 	}
 
+	/**
+	 * Opens a download of a file from a HTTP site, which continues a partial download of the file if the site
+	 * supports byte ranges. The returned input stream reads the complete file, i.e. the bytes of the partial file
+	 * followed by the downloaded bytes, where the downloaded bytes are appended to the partial file while they are
+	 * read. If the connection is lost, the partial file is kept, so the download can be continued later on.
+	 * <p>
+	 * Timeouts are handled by the connection timeout and read timeout of the connection. The connection is not
+	 * disconnected when the stream is closed, so it can be reused for other downloads from the same site, if the
+	 * stream has been read to the end.
+	 *
+	 * @param url is the url of the HTTP site to download the file from.
+	 * @param partFile is the partial file, which is created if it does not exist.
+	 * @param sessionId is an optional session id if the download is session based.
+	 * @return an input stream reading the complete file.
+	 * @throws FileNotFoundException if the file was not found on the HTTP site.
+	 * @throws IOException if an I/O exception occurs, or if the download ends before the whole file has been read.
+	 */
+	public static InputStream openResumableDownload(String url, File partFile, String sessionId) throws IOException {
+		final long offset = partFile.length();
+
+		HttpURLConnection conn = (HttpURLConnection) openURLConnection(new URL(url), false); // not for output
+
+		conn.setRequestMethod("GET");
+		// Byte ranges must be offsets in the file, not in an encoded response
+		conn.setRequestProperty("Accept-Encoding", "identity");
+		if (sessionId != null) {
+			conn.setRequestProperty("Cookie", sessionId);
+		}
+		if (offset > 0) {
+			conn.setRequestProperty("Range", "bytes=" + offset + "-");
+		}
+
+		final int responseCode = conn.getResponseCode();
+
+		if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+			conn.disconnect();
+			throw new FileNotFoundException(url);
+		}
+		boolean resumed = (offset > 0 && responseCode == HttpURLConnection.HTTP_PARTIAL);
+
+		if (resumed) {
+			final String contentRange = conn.getHeaderField("Content-Range");
+
+			resumed = contentRange != null && contentRange.startsWith("bytes " + offset + "-");
+		}
+		if (!resumed && responseCode != HttpURLConnection.HTTP_OK) {
+			conn.disconnect();
+			if (offset > 0) {
+				// The partial file does not match the file on the site, so start all over next time
+				if (!partFile.delete()) {
+					throw new IOException("Can't delete file: " + partFile);
+				}
+			}
+			throw new IOException("Unable to download " + url + ". Response is " + responseCode);
+		}
+
+		final InputStream in = conn.getInputStream();
+		final InputStream partIn = resumed ? new FileInputStream(partFile) : null;
+		final OutputStream out;
+
+		try {
+			out = new BufferedOutputStream(new FileOutputStream(partFile, resumed));
+		} catch (IOException e) {
+			in.close();
+			if (partIn != null) {
+				partIn.close();
+			}
+			throw e;
+		}
+		return new DownloadInputStream(url, partIn, in, out, conn.getContentLength());
+	}
+
+	/**
+	 * Input stream reading a partial file followed by the bytes downloaded from a connection, which are written to
+	 * the partial file.
+	 */
+	private final static class DownloadInputStream extends InputStream {
+
+		final String url;
+		final InputStream in;
+		final OutputStream out;
+
+		InputStream partIn;
+		long remaining; // the number of bytes left to download, or -1 if it is unknown
+
+		DownloadInputStream(String url, InputStream partIn, InputStream in, OutputStream out, long contentLength) {
+			this.url = url;
+			this.partIn = partIn;
+			this.in = in;
+			this.out = out;
+			remaining = contentLength;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] buf = new byte[1];
+
+			return (read(buf, 0, 1) == -1) ? -1 : (buf[0] & 0xFF);
+		}
+
+		@Override
+		public int read(byte[] buf, int off, int len) throws IOException {
+			if (partIn != null) {
+				final int bytesRead = partIn.read(buf, off, len);
+
+				if (bytesRead != -1) {
+					return bytesRead;
+				}
+				partIn.close();
+				partIn = null;
+			}
+			final int bytesRead = in.read(buf, off, len);
+
+			if (bytesRead == -1) {
+				if (remaining > 0) {
+					throw new EOFException("Download of " + url + " ended " + remaining + " bytes too early");
+				}
+				return -1;
+			}
+			out.write(buf, off, bytesRead);
+			if (remaining > 0) {
+				remaining -= bytesRead;
+			}
+			return bytesRead;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				if (partIn != null) {
+					partIn.close();
+				}
+				in.close();
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Returns the maximum number of files that are downloaded at the same time.
+	 *
+	 * @return the number of download threads.
+	 */
+	public static int getDownloadThreads() {
+		return downloadThreads;
+	}
+
+	/**
+	 * Returns the maximum number of results that are uploaded at the same time.
+	 *
+	 * @return the number of upload threads.
+	 */
+	public static int getUploadThreads() {
+		return uploadThreads;
+	}
+
 	/**
 	 * Copies a file into another file.
 	 *
@@ -653,5 +814,21 @@ public class FileTransfer {
 				sessionTimeout = Integer.parseInt(value);
 			} catch (NumberFormatException ignore) {}
 		}
+
+		// Get number of download threads
+		value = props.getProperty("download.threads");
+		if (value != null) {
+			try {
+				downloadThreads = Math.max(1, Integer.parseInt(value));
+			} catch (NumberFormatException ignore) {}
+		}
+
+		// Get number of upload threads
+		value = props.getProperty("upload.threads");
+		if (value != null) {
+			try {
+				uploadThreads = Math.max(1, Integer.parseInt(value));
+			} catch (NumberFormatException ignore) {}
+		}
 	}
 }
@@ -14,8 +14,8 @@ import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 import java.io.*;
 import java.net.URL;
 import java.net.URLConnection;
-import java.util.Properties;
-import java.util.Vector;
+import java.util.*;
+import java.util.concurrent.*;
 
 
 /**
@@ -27,8 +27,12 @@ import java.util.Vector;
  */
 public class ResultsUpload {
 
+	private static final int MAX_UPLOAD_ATTEMPTS = 3;
+	private static final long RETRY_DELAY = 1000; // 1 second, which is multiplied by the number of attempts
+
 	private final String client;
 	private final String resultsfile;
+	private final String journalfile;
 	private final String resultsurl;
 	private final String tempdir;
 	private String game;
@@ -48,6 +52,7 @@ public class ResultsUpload {
 		Properties parameters = getProperties(propertiesfile);
 
 		resultsfile = parameters.getProperty("OUTPUT", "");
+		journalfile = resultsfile + ".uploaded";
 		resultsurl = parameters.getProperty("RESULTSURL", "");
 		tempdir = parameters.getProperty("TEMP", "");
 		user = parameters.getProperty("USER", "");
@@ -78,7 +83,7 @@ public class ResultsUpload {
 
 		// Read the results file
 
-		Vector<String> results = new Vector<String>();
+		List<String> results = new ArrayList<String>();
 		String match = "";
 		String bot1 = "";
 		String bot2;
@@ -116,6 +121,10 @@ public class ResultsUpload {
 			}
 		}
 
+		// Read the journal with the uploads that have been accepted by the server, but where the results file has not
+		// been updated, e.g. as the client was stopped during the upload, or the upload failed for other competitions
+		final Set<String> journaled = readJournal();
+
 		// Open the temp file to put the unuploaded results
 		PrintStream outtxt;
 
@@ -154,9 +163,28 @@ public class ResultsUpload {
 			return;
 		}
 
-		// Post the results
+		// Open the journal, where accepted uploads are appended
+		PrintStream journal;
+
+		try {
+			journal = new PrintStream(new FileOutputStream(journalfile, true), false);
+		} catch (IOException e) {
+			System.out.println("Not able to open upload journal file ... Aborting");
+			System.out.println(e);
+
+			outtxt.close();
+			battlesnum.close();
+			prioritybattles.close();
+			return;
+		}
+
+		// Create the uploads
 
-		for (int i = 0; i < results.size() / 3; i++) {
+		final int battles = results.size() / 3;
+		final List<List<Upload>> uploads = new ArrayList<List<Upload>>(battles);
+		int uploadCount = 0;
+
+		for (int i = 0; i < battles; i++) {
 
 			// Create the parameters String
 			String[] header = results.get(i * 3).split(",");
@@ -178,40 +206,104 @@ public class ResultsUpload {
 					+ first[0] + "&fscore=" + first[1] + "&fbulletd=" + first[2] + "&fsurvival=" + first[3] + "&sname="
 					+ second[0] + "&sscore=" + second[1] + "&sbulletd=" + second[2] + "&ssurvival=" + second[3];
 
-			String data = "game=" + game + commonData;
-
-			boolean errsaved = false;
+			final List<Upload> battleUploads = new ArrayList<Upload>();
 
 			if (matchtype.equals("GENERAL") || matchtype.equals("SERVER")) {
-				errsaved = senddata(game, data, outtxt, true, results, i, battlesnum, prioritybattles);
+				battleUploads.add(new Upload(game, "game=" + game + commonData));
 			}
 
 			if (sizesfile.length() != 0) { // upload also related competitions
 				if (minibots.length() != 0 && !matchtype.equals("NANO") && !matchtype.equals("MICRO")
 						&& size.checkCompetitorsForSize(first[0], second[0], 1500)) {
-					data = "game=" + minibots + commonData;
-					errsaved = errsaved
-							| senddata(minibots, data, outtxt, !errsaved, results, i, battlesnum, prioritybattles);
+					battleUploads.add(new Upload(minibots, "game=" + minibots + commonData));
 				}
 				if (microbots.length() != 0 && !matchtype.equals("NANO")
 						&& size.checkCompetitorsForSize(first[0], second[0], 750)) {
-					data = "game=" + microbots + commonData;
-					errsaved = errsaved
-							| senddata(microbots, data, outtxt, !errsaved, results, i, battlesnum, prioritybattles);
+					battleUploads.add(new Upload(microbots, "game=" + microbots + commonData));
 				}
 				if (nanobots.length() != 0 && size.checkCompetitorsForSize(first[0], second[0], 250)) {
-					data = "game=" + nanobots + commonData;
-					errsaved = errsaved
-							| senddata(nanobots, data, outtxt, !errsaved, results, i, battlesnum, prioritybattles);
+					battleUploads.add(new Upload(nanobots, "game=" + nanobots + commonData));
+				}
+			}
+			uploads.add(battleUploads);
+			uploadCount += battleUploads.size();
+		}
+
+		// Post the results, where several uploads are sent at the same time
+
+		final Set<String> keptKeys = new HashSet<String>();
+		ExecutorService executor = null;
+
+		if (uploadCount > 0) {
+			executor = Executors.newFixedThreadPool(Math.min(uploadCount, FileTransfer.getUploadThreads()));
+		}
+		try {
+			final List<List<Future<List<String>>>> responses = new ArrayList<List<Future<List<String>>>>(battles);
+
+			for (List<Upload> battleUploads : uploads) {
+				final List<Future<List<String>>> battleResponses = new ArrayList<Future<List<String>>>();
+
+				for (Upload upload : battleUploads) {
+					battleResponses.add(journaled.contains(upload.key) ? null : executor.submit(upload));
 				}
+				responses.add(battleResponses);
+			}
+
+			// Handle the responses in the order of the results
+			for (int i = 0; i < battles; i++) {
+				final List<Upload> battleUploads = uploads.get(i);
+				final List<String> okKeys = new ArrayList<String>();
+				boolean failed = false;
+
+				for (int j = 0; j < battleUploads.size(); j++) {
+					final Upload upload = battleUploads.get(j);
+					final Future<List<String>> response = responses.get(i).get(j);
+
+					boolean ok;
+
+					if (response == null) {
+						ok = true; // uploaded before
+					} else {
+						try {
+							ok = handleResponse(upload.game, response.get(), results, i, battlesnum, prioritybattles);
+						} catch (ExecutionException e) {
+							System.out.println(e.getCause());
+							ok = false;
+						} catch (InterruptedException e) {
+							// Immediately reasserts the exception by interrupting the caller thread itself
+							Thread.currentThread().interrupt();
+							ok = false;
+						}
+						if (ok) {
+							journal.println(upload.key);
+							journal.flush();
+						}
+					}
+					if (ok) {
+						okKeys.add(upload.key);
+					} else {
+						failed = true;
+						System.out.println("Unable to upload results " + results.get(i * 3) + " " + results.get(i * 3 + 1)
+								+ " " + results.get(i * 3 + 2) + " to " + upload.game);
+					}
+				}
+				if (failed) {
+					saveError(outtxt, results.get(i * 3), results.get(i * 3 + 1), results.get(i * 3 + 2));
+					keptKeys.addAll(okKeys);
+					errorsfound = true;
+				}
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
 			}
-			errorsfound = errorsfound || errsaved;
 		}
 
 		// close files
 		outtxt.close();
 		battlesnum.close();
 		prioritybattles.close();
+		journal.close();
 
 		// delete results file
 		File r = new File(resultsfile);
@@ -227,95 +319,148 @@ public class ResultsUpload {
 				System.out.println("Error when copying results errors file.");
 			}
 		}
+
+		// Only keep the journal for the results that are still in the results file
+		if (b) {
+			writeJournal(keptKeys);
+		}
+	}
+
+	private void saveError(PrintStream outtxt, String match, String bot1, String bot2) {
+		outtxt.println(match);
+		outtxt.println(bot1);
+		outtxt.println(bot2);
+	}
+
+	private Set<String> readJournal() {
+		Set<String> keys = new HashSet<String>();
+		BufferedReader br = null;
+
+		try {
+			br = new BufferedReader(new FileReader(journalfile));
+
+			for (String key; (key = br.readLine()) != null;) {
+				keys.add(key);
+			}
+		} catch (FileNotFoundException ignored) {// no uploads are journaled
+		} catch (IOException e) {
+			System.out.println(e);
+		} finally {
+			if (br != null) {
+				try {
+					br.close();
+				} catch (IOException ignored) {}
+			}
+		}
+		return keys;
+	}
+
+	private void writeJournal(Set<String> keys) {
+		File file = new File(journalfile);
+
+		if (keys.isEmpty()) {
+			if (file.exists() && !file.delete()) {
+				System.out.println("Unable to delete upload journal file.");
+			}
+			return;
+		}
+		try {
+			PrintStream journal = new PrintStream(new BufferedOutputStream(new FileOutputStream(file)), false);
+
+			for (String key : keys) {
+				journal.println(key);
+			}
+			journal.close();
+		} catch (IOException e) {
+			System.out.println("Unable to write upload journal file.");
+			System.out.println(e);
+		}
 	}
 
-	private void saveError(PrintStream outtxt, String match, String bot1, String bot2, boolean saveonerror) {
-		if (saveonerror) {
-			outtxt.println(match);
-			outtxt.println(bot1);
-			outtxt.println(bot2);
+	/**
+	 * Handles the response from the server for an upload.
+	 *
+	 * @return true if the server accepted the results; false otherwise.
+	 */
+	private boolean handleResponse(String game, List<String> response, List<String> results, int i, PrintStream battlesnum, PrintStream prioritybattles) {
+		boolean ok = false;
+
+		for (String line : response) {
+			if (line.indexOf("OK") != -1) {
+				ok = true;
+				System.out.println(line);
+			} else if (line.indexOf("<") != -1 && line.indexOf(">") != -1) {
+				// System.out.println(line);
+				// Save the number of battles for the bots into battlesnum !!!!!!!!!!!!!
+				String bot1 = results.get(i * 3 + 1);
+
+				bot1 = bot1.substring(0, bot1.indexOf(","));
+				String bot2 = results.get(i * 3 + 2);
+
+				bot2 = bot2.substring(0, bot2.indexOf(","));
+				line = line.replaceAll("<", "");
+				line = line.replaceAll(">", "");
+				String[] b = line.split(" ");
+
+				if (b.length == 2) {
+					battlesnum.println(game + "," + bot1 + "," + b[0]);
+					battlesnum.println(game + "," + bot2 + "," + b[1]);
+				}
+			} else if (line.indexOf("[") != -1 && line.indexOf("]") != -1) {
+				line = line.substring(1);
+				line = line.substring(0, line.length() - 1);
+				String[] items = line.split(",");
+				String bot1 = items[0].substring(0, items[0].lastIndexOf("_")) + " "
+						+ items[0].substring(items[0].lastIndexOf("_") + 1);
+				String bot2 = items[1].substring(0, items[1].lastIndexOf("_")) + " "
+						+ items[1].substring(items[1].lastIndexOf("_") + 1);
+				String battle = bot1 + "," + bot2 + "," + "SERVER";
+
+				if (prioritybattles != null) {
+					prioritybattles.println(battle);
+				}
+			} else {
+				System.out.println(line);
+			}
 		}
-		System.out.println("Unable to upload results " + match + " " + bot1 + " " + bot2);
+		return ok;
 	}
 
-	private boolean senddata(String game, String data, PrintStream outtxt, boolean saveonerror, Vector<String> results, int i, PrintStream battlesnum, PrintStream prioritybattles) {
-		boolean errorsfound = false;
-		OutputStream out = null;
-		OutputStreamWriter outputStreamWriter = null;
+	/**
+	 * Sends data to the server, and returns the lines of the response.
+	 */
+	private List<String> senddata(String data, String key) throws IOException {
+		List<String> response = new ArrayList<String>();
 		PrintWriter wr = null;
-		InputStream in = null;
-		InputStreamReader inputStreamReader = null;
 		BufferedReader bufferedReader = null;
 
 		try {
 			// Send data
 			URLConnection conn = FileTransfer.openOutputURLConnection(new URL(resultsurl));
 
-			out = FileTransfer.getOutputStream(conn);
-			outputStreamWriter = new OutputStreamWriter(out);
-			wr = new PrintWriter(outputStreamWriter);
+			// The same key is sent when an upload is sent again, so the server is able to detect duplicates
+			conn.setRequestProperty("Idempotency-Key", key);
+
+			// Nothing has been sent to the server when the connection cannot be made, so only then it is retried
+			try {
+				conn.connect();
+			} catch (IOException e) {
+				throw new ConnectFailedException(e);
+			}
+
+			OutputStream out = FileTransfer.getOutputStream(conn);
+			wr = new PrintWriter(new OutputStreamWriter(out));
 
 			wr.println(data);
 			wr.flush();
 
 			// Get the response
-			in = FileTransfer.getInputStream(conn);
-			inputStreamReader = new InputStreamReader(in); 
-			bufferedReader = new BufferedReader(inputStreamReader);
-
-			String line;
-			boolean ok = false;
-
-			while ((line = bufferedReader.readLine()) != null) {
-				if (line.indexOf("OK") != -1) {
-					ok = true;
-					System.out.println(line);
-				} else if (line.indexOf("<") != -1 && line.indexOf(">") != -1) {
-					// System.out.println(line);
-					// Save the number of battles for the bots into battlesnum !!!!!!!!!!!!!
-					String bot1 = results.get(i * 3 + 1);
-
-					bot1 = bot1.substring(0, bot1.indexOf(","));
-					String bot2 = results.get(i * 3 + 2);
-
-					bot2 = bot2.substring(0, bot2.indexOf(","));
-					line = line.replaceAll("<", "");
-					line = line.replaceAll(">", "");
-					String[] b = line.split(" ");
-
-					if (b.length == 2) {
-						battlesnum.println(game + "," + bot1 + "," + b[0]);
-						battlesnum.println(game + "," + bot2 + "," + b[1]);
-					}
-				} else if (line.indexOf("[") != -1 && line.indexOf("]") != -1) {
-					line = line.substring(1);
-					line = line.substring(0, line.length() - 1);
-					String[] items = line.split(",");
-					String bot1 = items[0].substring(0, items[0].lastIndexOf("_")) + " "
-							+ items[0].substring(items[0].lastIndexOf("_") + 1);
-					String bot2 = items[1].substring(0, items[1].lastIndexOf("_")) + " "
-							+ items[1].substring(items[1].lastIndexOf("_") + 1);
-					String battle = bot1 + "," + bot2 + "," + "SERVER";
-
-					if (prioritybattles != null) {
-						prioritybattles.println(battle);
-					}
-				} else {
-					System.out.println(line);
-				}
-			}
-			if (!ok) {
-				saveError(outtxt, results.get(i * 3), results.get(i * 3 + 1), results.get(i * 3 + 2), saveonerror);
-				if (saveonerror) {
-					errorsfound = true;
-				}
-			}
-		} catch (IOException e) {
-			System.out.println(e);
-			if (saveonerror) {
-				errorsfound = true;
+			InputStream in = FileTransfer.getInputStream(conn);
+			bufferedReader = new BufferedReader(new InputStreamReader(in));
+
+			for (String line; (line = bufferedReader.readLine()) != null;) {
+				response.add(line);
 			}
-			saveError(outtxt, results.get(i * 3), results.get(i * 3 + 1), results.get(i * 3 + 2), saveonerror);
 		} finally {
 			if (wr != null) {
 				wr.close();
@@ -326,6 +471,52 @@ public class ResultsUpload {
 				} catch (IOException ignored) {}
 			}
 		}
-		return errorsfound;
+		return response;
+	}
+
+	/**
+	 * Upload of the results of a battle to a competition, which is retried if the connection to the server fails.
+	 * An upload failing after the results have been sent is not retried, as the server might have received the
+	 * results. Instead, the battle is kept in the results file and is sent again with the next upload.
+	 */
+	private final class Upload implements Callable<List<String>> {
+
+		final String game;
+		final String data;
+		final String key;
+
+		Upload(String game, String data) {
+			this.game = game;
+			this.data = data;
+			try {
+				key = UUID.nameUUIDFromBytes(data.getBytes("UTF-8")).toString();
+			} catch (UnsupportedEncodingException e) {
+				throw new Error(e); // UTF-8 is always supported
+			}
+		}
+
+		public List<String> call() throws IOException, InterruptedException {
+			for (int attempt = 1;; attempt++) {
+				try {
+					return senddata(data, key);
+				} catch (ConnectFailedException e) {
+					if (attempt == MAX_UPLOAD_ATTEMPTS) {
+						throw e;
+					}
+					Thread.sleep(RETRY_DELAY * attempt);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Signals that the connection to the server could not be made, so no results have been sent.
+	 */
+	private static final class ConnectFailedException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		ConnectFailedException(IOException cause) {
+			super(cause.toString(), cause);
+		}
 	}
 }
@@ -9,12 +9,14 @@ package roborumble;
 
 
 import net.sf.robocode.roborumble.battlesengine.BattlesRunner;
+import net.sf.robocode.roborumble.battlesengine.ParticipantsIndex;
 import net.sf.robocode.roborumble.battlesengine.PrepareBattles;
 import net.sf.robocode.roborumble.netengine.BotsDownload;
 import net.sf.robocode.roborumble.netengine.ResultsUpload;
 import net.sf.robocode.roborumble.netengine.UpdateRatingFiles;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 
+import java.lang.management.ManagementFactory;
 import java.util.Properties;
 
 
@@ -55,6 +57,9 @@ public class RoboRumbleAtHome {
 		boolean participantsdownloaded;
 		String version = null;
 
+		// The participants are indexed once, and the index is only updated with changed files in each iteration
+		final ParticipantsIndex participants = new ParticipantsIndex(parameters);
+
 		do {
 			final BattlesRunner engine = new BattlesRunner(parameters);
 
@@ -95,7 +100,7 @@ public class RoboRumbleAtHome {
 				final boolean isMelee = melee.equals("YES");
 
 				boolean ready;
-				PrepareBattles battles = new PrepareBattles(parameters);
+				PrepareBattles battles = new PrepareBattles(parameters, participants);
 
 				if (isMelee) {
 					System.out.println("Preparing melee battles list ...");
@@ -112,8 +117,11 @@ public class RoboRumbleAtHome {
 					}
 				}
 
-				// Disable the -DPRARALLEL and -DRANDOMSEED options
-				System.setProperty("PARALLEL", "false"); // TODO: Remove when robot thread CPU time can be measured
+				// Robots running in parallel are charged for the CPU time they use, which needs thread CPU time.
+				// Disable the -DPARALLEL option if this is not supported, and the -DRANDOMSEED option.
+				if (!ManagementFactory.getThreadMXBean().isThreadCpuTimeSupported()) {
+					System.setProperty("PARALLEL", "false");
+				}
 				System.setProperty("RANDOMSEED", "none"); // In tournaments, robots should not be deterministic!
 
 				// Execute battles
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+
+/**
+ * Runs rumble battles with the sample robots on a RobocodeEngine.
+ */
+public class BattlesRunnerTest {
+
+	private static final int ROUNDS = 3;
+
+	private File dir;
+	private File outputFile;
+	private String propertiesFile;
+
+	@Before
+	public void setUp() throws IOException {
+		System.setProperty("WORKINGDIRECTORY", "target/test-classes");
+		System.setProperty("ROBOTPATH", new File("../robocode.samples/target/classes").getCanonicalPath());
+
+		dir = File.createTempFile("battles", "");
+		Assert.assertTrue(dir.delete() && dir.mkdir());
+
+		final File inputFile = new File(dir, "battles.txt");
+		final PrintStream input = new PrintStream(new FileOutputStream(inputFile));
+
+		input.println("sample.Fire,sample.SittingDuck,SERVER");
+		input.println("sample.Walls,sample.SittingDuck,SERVER");
+		input.close();
+
+		outputFile = new File(dir, "results.txt");
+
+		final Properties properties = new Properties();
+
+		properties.setProperty("INPUT", inputFile.getPath());
+		properties.setProperty("OUTPUT", outputFile.getPath());
+		properties.setProperty("ROUNDS", Integer.toString(ROUNDS));
+		properties.setProperty("USER", "tester");
+		properties.setProperty("WORKERS", "2");
+
+		propertiesFile = new File(dir, "roborumble.txt").getPath();
+
+		final OutputStream out = new FileOutputStream(propertiesFile);
+
+		try {
+			properties.store(out, null);
+		} finally {
+			out.close();
+		}
+	}
+
+	@After
+	public void tearDown() {
+		for (File file : dir.listFiles()) {
+			file.delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void runBattlesConcurrently() throws IOException {
+		// Two processors are given, so the battles are run at the same time on any machine
+		new BattlesRunner(propertiesFile, 2).runBattlesImpl(false);
+
+		final List<String> lines = readLines(outputFile);
+
+		// Every battle has a line with the battle, and a line with the results of each robot
+		Assert.assertEquals(6, lines.size());
+		assertResults(lines, 0, "sample.Fire");
+		assertResults(lines, 3, "sample.Walls");
+	}
+
+	private static void assertResults(List<String> lines, int line, String robot) {
+		Assert.assertTrue(lines.get(line), lines.get(line).startsWith("roborumble," + ROUNDS + ",800x600,tester,"));
+
+		final String[] result1 = lines.get(line + 1).split(",");
+		final String[] result2 = lines.get(line + 2).split(",");
+
+		Assert.assertTrue(result1[0].startsWith(robot) || result2[0].startsWith(robot));
+		Assert.assertTrue(result1[0].startsWith("sample.SittingDuck") || result2[0].startsWith("sample.SittingDuck"));
+
+		// Every round has been won by one of the robots
+		Assert.assertEquals(ROUNDS, Integer.parseInt(result1[3]) + Integer.parseInt(result2[3]));
+	}
+
+	private static List<String> readLines(File file) throws IOException {
+		final List<String> lines = new ArrayList<String>();
+		final BufferedReader reader = new BufferedReader(new FileReader(file));
+
+		try {
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Properties;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+
+/**
+ * Tests loading and storing the code size cache, which is keyed by the SHA-1 hash of the jar files.
+ */
+public class CodeSizeCacheTest {
+
+	private File dir;
+	private File cacheFile;
+	private File jarFile;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("codesize", "");
+		Assert.assertTrue(dir.delete() && dir.mkdir());
+
+		cacheFile = new File(dir, "codesizecache.txt");
+		jarFile = new File(dir, "sample.SittingDuck_1.0.jar");
+		writeJar(jarFile, "sample/SittingDuck.class");
+	}
+
+	@After
+	public void tearDown() {
+		for (File file : dir.listFiles()) {
+			file.delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void missIsCalculatedAndStored() {
+		final CodeSizeCache cache = new CodeSizeCache(cacheFile.getPath());
+		final Integer codeSize = cache.getCodeSize(jarFile);
+
+		Assert.assertNotNull(codeSize);
+		Assert.assertTrue(codeSize > 0);
+		cache.store();
+
+		// The calculated code size is the only entry of the stored cache, and no temporary file is left
+		final Properties stored = load(cacheFile);
+
+		Assert.assertEquals(1, stored.size());
+		Assert.assertEquals(codeSize.toString(), stored.values().iterator().next());
+		Assert.assertEquals(2, dir.listFiles().length);
+	}
+
+	@Test
+	public void hitIsReadFromFile() throws IOException {
+		final String hash = storedHash();
+
+		// A code size that cannot be calculated from the jar file, so it must come from the cache
+		writeCache(hash + "=12345\n");
+		Assert.assertEquals(Integer.valueOf(12345), new CodeSizeCache(cacheFile.getPath()).getCodeSize(jarFile));
+	}
+
+	@Test
+	public void changedJarIsMiss() throws IOException {
+		final String hash = storedHash();
+
+		writeCache(hash + "=12345\n");
+
+		// Same name, other content
+		writeJar(jarFile, "sample/SittingDuck.class", "sample/Fire.class");
+
+		final Integer codeSize = new CodeSizeCache(cacheFile.getPath()).getCodeSize(jarFile);
+
+		Assert.assertNotNull(codeSize);
+		Assert.assertFalse(codeSize == 12345);
+	}
+
+	@Test
+	public void corruptEntriesAreIgnored() throws IOException {
+		final File otherJarFile = new File(dir, "sample.Fire_1.0.jar");
+
+		writeJar(otherJarFile, "sample/Fire.class");
+
+		final String otherHash = storedHash(otherJarFile, new File(dir, "other.txt"));
+		final String hash = storedHash();
+
+		writeCache(otherHash + "=not a number\n" + "abc=100\n" + "0000000000000000000000000000000000000000=-5\n"
+				+ hash + "=12345\n" + "broken line without value\n");
+
+		final CodeSizeCache cache = new CodeSizeCache(cacheFile.getPath());
+
+		Assert.assertEquals(Integer.valueOf(12345), cache.getCodeSize(jarFile));
+
+		// The code size of the other jar file is calculated, as its corrupt entry is not used
+		final Integer codeSize = cache.getCodeSize(otherJarFile);
+
+		Assert.assertNotNull(codeSize);
+		Assert.assertTrue(codeSize > 0);
+	}
+
+	@Test
+	public void storeReplacesFile() throws IOException {
+		writeCache("garbage\n");
+
+		final CodeSizeCache cache = new CodeSizeCache(cacheFile.getPath());
+
+		cache.getCodeSize(jarFile);
+		cache.store();
+
+		final Properties stored = load(cacheFile);
+
+		Assert.assertEquals(1, stored.size());
+		Assert.assertFalse(stored.containsKey("garbage"));
+		Assert.assertEquals(2, dir.listFiles().length);
+	}
+
+	@Test
+	public void storeKeepsEntriesOfOtherRumbles() throws IOException {
+		final File otherJarFile = new File(dir, "sample.Fire_1.0.jar");
+
+		writeJar(otherJarFile, "sample/Fire.class");
+
+		// Two rumbles sharing the cache file load it before either of them has stored it
+		final CodeSizeCache cache = new CodeSizeCache(cacheFile.getPath());
+		final CodeSizeCache otherCache = new CodeSizeCache(cacheFile.getPath());
+
+		otherCache.getCodeSize(otherJarFile);
+		otherCache.store();
+		cache.getCodeSize(jarFile);
+		cache.store();
+
+		final Properties stored = load(cacheFile);
+
+		Assert.assertEquals(2, stored.size());
+		Assert.assertTrue(stored.containsKey(storedHash(otherJarFile, new File(dir, "other.txt"))));
+	}
+
+	/**
+	 * Returns the hash of a jar file, as stored into the cache file after a miss.
+	 */
+	private String storedHash() {
+		return storedHash(jarFile, cacheFile);
+	}
+
+	private static String storedHash(File jarFile, File cacheFile) {
+		final CodeSizeCache cache = new CodeSizeCache(cacheFile.getPath());
+
+		cache.getCodeSize(jarFile);
+		cache.store();
+
+		final Properties stored = load(cacheFile);
+
+		Assert.assertEquals(1, stored.size());
+		return stored.stringPropertyNames().iterator().next();
+	}
+
+	private void writeCache(String content) throws IOException {
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(cacheFile), "ISO-8859-1");
+
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static void writeJar(File file, String... classFiles) throws IOException {
+		final JarOutputStream out = new JarOutputStream(new FileOutputStream(file));
+
+		try {
+			for (String classFile : classFiles) {
+				out.putNextEntry(new ZipEntry(classFile));
+
+				final InputStream in = new FileInputStream(new File("../robocode.samples/target/classes", classFile));
+
+				try {
+					final byte[] buffer = new byte[8192];
+
+					for (int count; (count = in.read(buffer)) != -1;) {
+						out.write(buffer, 0, count);
+					}
+				} finally {
+					in.close();
+				}
+				out.closeEntry();
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	private static Properties load(File file) {
+		final Properties properties = new Properties();
+
+		try {
+			final InputStream in = new FileInputStream(file);
+
+			try {
+				properties.load(in);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			Assert.fail(e.toString());
+		}
+		return properties;
+	}
+}
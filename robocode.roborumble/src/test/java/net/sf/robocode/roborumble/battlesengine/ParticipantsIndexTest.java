@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.battlesengine;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+
+/**
+ * Tests the participants index, and that it is updated when its files change.
+ */
+public class ParticipantsIndexTest {
+
+	private File dir;
+	private File participantsFile;
+	private File ratingsFile;
+	private ParticipantsIndex index;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("participants", "");
+		Assert.assertTrue(dir.delete() && dir.mkdir());
+
+		final File bots = new File(dir, "bots");
+
+		Assert.assertTrue(bots.mkdir());
+		for (String jar : new String[] { "a.A_1.0.jar", "b.B_1.0.jar", "d.D_1.0.jar" }) {
+			Assert.assertTrue(new File(bots, jar).createNewFile());
+		}
+
+		// The code sizes are known, so no code size is calculated from the (empty) jar files
+		final Properties sizes = new Properties();
+
+		sizes.setProperty("a.A_1.0", "1000");
+		sizes.setProperty("b.B_1.0", "2000");
+		sizes.setProperty("c.C_1.0", "200");
+		sizes.setProperty("d.D_1.0", "500");
+		store(sizes, new File(dir, "codesize.txt"));
+
+		participantsFile = new File(dir, "participants.txt");
+		write(participantsFile, "a.A 1.0,1\nb.B 1.0,2\nc.C 1.0,3\n");
+
+		ratingsFile = new File(dir, "ratings.txt");
+		write(ratingsFile, "a.A_1.0=1700.0,100,10\n");
+
+		final Properties properties = new Properties();
+
+		properties.setProperty("BOTSREP", bots.getPath() + File.separator);
+		properties.setProperty("PARTICIPANTSFILE", participantsFile.getPath());
+		properties.setProperty("CODESIZEFILE", new File(dir, "codesize.txt").getPath());
+		properties.setProperty("RATINGS.GENERAL", ratingsFile.getPath());
+		properties.setProperty("BATTLESPERBOT", "500");
+
+		final File propertiesFile = new File(dir, "roborumble.txt");
+
+		store(properties, propertiesFile);
+
+		index = new ParticipantsIndex(propertiesFile.getPath());
+	}
+
+	@After
+	public void tearDown() {
+		delete(dir);
+	}
+
+	@Test
+	public void index() {
+		Assert.assertTrue(index.refresh());
+
+		// c.C 1.0 has no jar file
+		Assert.assertEquals(Arrays.asList("a.A 1.0", "b.B 1.0"), index.getNamesAll());
+		Assert.assertEquals(Collections.singletonList("a.A 1.0"), index.getNamesMini());
+		Assert.assertTrue(index.getNamesMicro().isEmpty());
+		Assert.assertEquals(Collections.singletonList("a.A 1.0"), index.getPriorityAll());
+		Assert.assertEquals(Collections.singletonList("b.B 1.0"), index.getNamesNoRanking());
+		Assert.assertTrue(index.isParticipant("a.A 1.0"));
+		Assert.assertFalse(index.isParticipant("c.C 1.0"));
+	}
+
+	@Test
+	public void downloadedJarIsAdded() throws IOException {
+		Assert.assertTrue(index.refresh());
+		Assert.assertTrue(new File(dir, "bots/c.C_1.0.jar").createNewFile());
+		Assert.assertTrue(index.refresh());
+
+		Assert.assertEquals(Arrays.asList("a.A 1.0", "b.B 1.0", "c.C 1.0"), index.getNamesAll());
+		Assert.assertEquals(Collections.singletonList("c.C 1.0"), index.getNamesNano());
+	}
+
+	@Test
+	public void changedRatingsAreRead() throws IOException {
+		Assert.assertTrue(index.refresh());
+
+		// a.A 1.0 has fought enough battles
+		write(ratingsFile, "a.A_1.0=1700.0,600,10\nb.B_1.0=1500.0,100,10\n");
+		Assert.assertTrue(index.refresh());
+
+		Assert.assertEquals(Collections.singletonList("b.B 1.0"), index.getPriorityAll());
+		Assert.assertTrue(index.getNamesNoRanking().isEmpty());
+	}
+
+	@Test
+	public void changeWithSameModificationTimeAndLength() throws IOException {
+		Assert.assertTrue(index.refresh());
+
+		final long modified = participantsFile.lastModified();
+
+		// Written again within the granularity of the modification time, with the same length
+		write(participantsFile, "a.A 1.0,1\nd.D 1.0,2\nc.C 1.0,3\n");
+		Assert.assertTrue(participantsFile.setLastModified(modified));
+		Assert.assertTrue(index.refresh());
+
+		Assert.assertEquals(Arrays.asList("a.A 1.0", "d.D 1.0"), index.getNamesAll());
+	}
+
+	@Test
+	public void fileStamp() throws IOException {
+		final ParticipantsIndex.FileStamp stamp = new ParticipantsIndex.FileStamp(participantsFile.getPath());
+
+		Assert.assertTrue(stamp.hasChanged());
+		Assert.assertFalse(stamp.hasChanged());
+
+		final long modified = participantsFile.lastModified();
+
+		write(participantsFile, "x.X 1.0,1\nb.B 1.0,2\nc.C 1.0,3\n");
+		Assert.assertTrue(participantsFile.setLastModified(modified));
+		Assert.assertTrue(stamp.hasChanged());
+		Assert.assertFalse(stamp.hasChanged());
+
+		Assert.assertTrue(participantsFile.delete());
+		Assert.assertTrue(stamp.hasChanged());
+		Assert.assertFalse(stamp.hasChanged());
+
+		stamp.reset();
+		Assert.assertTrue(stamp.hasChanged());
+	}
+
+	private static void write(File file, String content) throws IOException {
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static void store(Properties properties, File file) throws IOException {
+		final OutputStream out = new FileOutputStream(file);
+
+		try {
+			properties.store(out, null);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void delete(File file) {
+		final File[] files = file.listFiles();
+
+		if (files != null) {
+			for (File f : files) {
+				delete(f);
+			}
+		}
+		file.delete();
+	}
+}
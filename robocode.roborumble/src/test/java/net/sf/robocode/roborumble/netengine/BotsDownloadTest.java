@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.netengine;
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+
+/**
+ * Tests the download of missing bots against a local HTTP server.
+ */
+public class BotsDownloadTest {
+
+	private final Map<String, byte[]> files = new ConcurrentHashMap<String, byte[]>();
+	private final List<String> ranges = Collections.synchronizedList(new ArrayList<String>());
+	private volatile boolean supportsRanges = true;
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private File dir;
+	private File botsDir;
+	private File tempDir;
+	private String propertiesFile;
+	private final List<String> participants = new ArrayList<String>();
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("roborumble", "");
+		Assert.assertTrue(dir.delete() && dir.mkdir());
+		botsDir = new File(dir, "bots");
+		tempDir = new File(dir, "temp");
+		Assert.assertTrue(botsDir.mkdir() && tempDir.mkdir());
+
+		final Properties properties = new Properties();
+
+		properties.setProperty("BOTSREP", path(botsDir));
+		properties.setProperty("TEMP", path(tempDir));
+		properties.setProperty("PARTICIPANTSFILE", path(dir) + "participants.txt");
+		propertiesFile = path(dir) + "roborumble.txt";
+
+		final OutputStream out = new FileOutputStream(propertiesFile);
+
+		try {
+			properties.store(out, null);
+		} finally {
+			out.close();
+		}
+
+		executor = Executors.newCachedThreadPool();
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", new JarHandler());
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+		executor.shutdownNow();
+		delete(dir);
+	}
+
+	@Test
+	public void downloadsMissingBots() throws IOException {
+		for (int i = 0; i < 8; i++) {
+			addBot("sample.Bot" + i, "1.0", createJar("sample.Bot" + i, "1.0"));
+		}
+		download();
+
+		for (int i = 0; i < 8; i++) {
+			assertDownloaded("sample.Bot" + i + "_1.0.jar");
+		}
+		Assert.assertEquals(0, tempDir.list().length);
+	}
+
+	@Test
+	public void resumesPartialDownload() throws IOException {
+		final byte[] jar = createJar("sample.Bot", "1.0");
+
+		addBot("sample.Bot", "1.0", jar);
+		writePartFile("sample.Bot_1.0.jar", Arrays.copyOf(jar, jar.length / 2));
+		download();
+
+		assertDownloaded("sample.Bot_1.0.jar");
+		Assert.assertEquals(Collections.singletonList("bytes=" + jar.length / 2 + "-"), ranges);
+	}
+
+	@Test
+	public void restartsDownloadWithoutRanges() throws IOException {
+		final byte[] jar = createJar("sample.Bot", "1.0");
+
+		supportsRanges = false;
+		addBot("sample.Bot", "1.0", jar);
+		writePartFile("sample.Bot_1.0.jar", Arrays.copyOf(jar, jar.length / 2));
+		download();
+
+		assertDownloaded("sample.Bot_1.0.jar");
+	}
+
+	@Test
+	public void rejectsCorruptJar() throws IOException {
+		final byte[] jar = createJar("sample.Bot", "1.0");
+
+		jar[jar.length / 2] ^= 0x55; // in the class file, which is stored
+		addBot("sample.Bot", "1.0", jar);
+		download();
+
+		Assert.assertFalse(new File(botsDir, "sample.Bot_1.0.jar").exists());
+		Assert.assertEquals(0, tempDir.list().length);
+	}
+
+	@Test
+	public void rejectsWrongVersion() throws IOException {
+		addBot("sample.Bot", "1.0", createJar("sample.Bot", "1.1"));
+		download();
+
+		Assert.assertFalse(new File(botsDir, "sample.Bot_1.0.jar").exists());
+	}
+
+	private void download() throws IOException {
+		final PrintStream out = new PrintStream(new FileOutputStream(path(dir) + "participants.txt"));
+
+		try {
+			for (String participant : participants) {
+				out.println(participant);
+			}
+		} finally {
+			out.close();
+		}
+		new BotsDownload(propertiesFile).downloadMissingBots();
+	}
+
+	private void addBot(String classname, String version, byte[] jar) {
+		final String file = classname + "_" + version + ".jar";
+
+		files.put("/" + file, jar);
+		participants.add(classname + " " + version + ",http://127.0.0.1:" + server.getAddress().getPort() + "/" + file);
+	}
+
+	private void assertDownloaded(String file) throws IOException {
+		Assert.assertArrayEquals(files.get("/" + file), readFile(new File(botsDir, file)));
+	}
+
+	private void writePartFile(String file, byte[] bytes) throws IOException {
+		final OutputStream out = new FileOutputStream(new File(tempDir, file + ".part"));
+
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static byte[] createJar(String classname, String version) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final JarOutputStream jar = new JarOutputStream(bytes);
+		final String path = classname.replace('.', '/');
+
+		jar.putNextEntry(new JarEntry(path + ".properties"));
+		jar.write(("robot.classname=" + classname + "\nrobot.version=" + version + "\n").getBytes("ISO-8859-1"));
+		jar.closeEntry();
+
+		final byte[] code = new byte[20000];
+
+		new Random(42).nextBytes(code);
+
+		final CRC32 crc = new CRC32();
+
+		crc.update(code);
+
+		final JarEntry entry = new JarEntry(path + ".class");
+
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(code.length);
+		entry.setCrc(crc.getValue());
+		jar.putNextEntry(entry);
+		jar.write(code);
+		jar.closeEntry();
+		jar.close();
+
+		return bytes.toByteArray();
+	}
+
+	private static byte[] readFile(File file) throws IOException {
+		final DataInputStream in = new DataInputStream(new FileInputStream(file));
+
+		try {
+			final byte[] bytes = new byte[(int) file.length()];
+
+			in.readFully(bytes);
+			return bytes;
+		} finally {
+			in.close();
+		}
+	}
+
+	private static String path(File dir) {
+		return dir.getPath().replace('\\', '/') + '/';
+	}
+
+	private static void delete(File file) {
+		final File[] children = file.listFiles();
+
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Serves the jar files, where a byte range from an offset to the end of a file is supported.
+	 */
+	private final class JarHandler implements HttpHandler {
+
+		public void handle(HttpExchange exchange) throws IOException {
+			final byte[] jar = files.get(exchange.getRequestURI().getPath());
+
+			if (jar == null) {
+				exchange.sendResponseHeaders(404, -1);
+				exchange.close();
+				return;
+			}
+
+			final String range = exchange.getRequestHeaders().getFirst("Range");
+			int offset = 0;
+
+			if (range != null && supportsRanges) {
+				ranges.add(range);
+				offset = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+				exchange.getResponseHeaders().set("Content-Range",
+						"bytes " + offset + "-" + (jar.length - 1) + "/" + jar.length);
+				exchange.sendResponseHeaders(206, jar.length - offset);
+			} else {
+				exchange.sendResponseHeaders(200, jar.length);
+			}
+
+			final OutputStream out = exchange.getResponseBody();
+
+			out.write(jar, offset, jar.length - offset);
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.roborumble.netengine;
+
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * Tests the upload of results against a local HTTP server.
+ */
+public class ResultsUploadTest {
+
+	// The uploads received by the server, i.e. the game and names of the bots, and the idempotency key
+	private final List<String> uploads = Collections.synchronizedList(new ArrayList<String>());
+	private final Set<String> keys = Collections.synchronizedSet(new HashSet<String>());
+	private volatile boolean failFirstAttempt;
+	private volatile String rejectedGame = "";
+
+	private volatile HttpServer server;
+	private ExecutorService executor;
+	private File dir;
+	private String propertiesFile;
+	private File resultsFile;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = File.createTempFile("results", "");
+		Assert.assertTrue(dir.delete() && dir.mkdir());
+
+		executor = Executors.newCachedThreadPool();
+		startServer(0);
+
+		resultsFile = new File(dir, "results.txt");
+		Assert.assertTrue(new File(dir, "temp").mkdir());
+
+		final Properties properties = new Properties();
+
+		properties.setProperty("OUTPUT", path(resultsFile));
+		properties.setProperty("RESULTSURL", "http://127.0.0.1:" + server.getAddress().getPort() + "/results");
+		properties.setProperty("TEMP", path(dir) + "/temp/");
+		properties.setProperty("USER", "tester");
+		properties.setProperty("BATTLESNUMFILE", path(dir) + "/battlesnumber.txt");
+		properties.setProperty("PRIORITYBATTLESFILE", path(dir) + "/priority.txt");
+		properties.setProperty("CODESIZEFILE", path(dir) + "/codesize.txt");
+		properties.setProperty("MINIBOTS", "minirumble");
+
+		propertiesFile = path(dir) + "/roborumble.txt";
+		store(properties, propertiesFile);
+
+		final Properties sizes = new Properties();
+
+		for (int i = 0; i < 10; i++) {
+			sizes.setProperty("sample.Bot" + i + "_1.0", Integer.toString(i < 5 ? 1000 : 2000));
+		}
+		store(sizes, path(dir) + "/codesize.txt");
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+		executor.shutdownNow();
+		delete(dir);
+	}
+
+	@Test
+	public void uploadsAllResults() throws IOException {
+		writeResults(20);
+		upload();
+
+		// The battles between minibots (Bot0-Bot4) are also uploaded to the MiniRumble
+		Assert.assertEquals(20 + 7, uploads.size());
+		Assert.assertEquals(uploads.size(), keys.size());
+		Assert.assertFalse(resultsFile.exists());
+		Assert.assertEquals(2 * uploads.size(), readLines(new File(dir, "battlesnumber.txt")).size());
+		Assert.assertFalse(new File(path(resultsFile) + ".uploaded").exists());
+	}
+
+	@Test
+	public void retriesFailedConnections() throws Exception {
+		writeResults(5);
+
+		// No server is listening until the first attempt has failed
+		final int port = server.getAddress().getPort();
+
+		server.stop(0);
+
+		final Thread restart = new Thread(new Runnable() {
+			public void run() {
+				try {
+					Thread.sleep(200);
+					startServer(port);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		});
+
+		restart.start();
+		upload();
+		restart.join();
+
+		Assert.assertEquals(5 + 4, uploads.size());
+		Assert.assertFalse(resultsFile.exists());
+	}
+
+	@Test
+	public void sendsFailedUploadsWithNextUpload() throws IOException {
+		failFirstAttempt = true;
+		writeResults(5);
+		upload();
+
+		// The results were sent, so the uploads are not retried, but the battles are kept
+		Assert.assertTrue(uploads.isEmpty());
+		Assert.assertEquals(5 + 4, keys.size());
+		Assert.assertEquals(5 * 3, readLines(resultsFile).size());
+
+		upload();
+
+		Assert.assertEquals(5 + 4, uploads.size());
+		Assert.assertFalse(resultsFile.exists());
+	}
+
+	@Test
+	public void keepsResultsOfFailedUploads() throws IOException {
+		rejectedGame = "minirumble";
+		writeResults(20);
+		upload();
+
+		// The battles between minibots are kept, as they were not accepted by the MiniRumble
+		Assert.assertEquals(7 * 3, readLines(resultsFile).size());
+		Assert.assertEquals(7, readLines(new File(path(resultsFile) + ".uploaded")).size());
+
+		// Only the rejected uploads are sent again
+		rejectedGame = "";
+		uploads.clear();
+		upload();
+
+		Assert.assertEquals(7, uploads.size());
+		for (String upload : uploads) {
+			Assert.assertTrue(upload, upload.startsWith("minirumble,"));
+		}
+		Assert.assertFalse(resultsFile.exists());
+		Assert.assertFalse(new File(path(resultsFile) + ".uploaded").exists());
+	}
+
+	private void startServer(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+		server.createContext("/", new ResultsHandler());
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	private void upload() {
+		new ResultsUpload(propertiesFile, "1.9.3.5").uploadResults();
+	}
+
+	private void writeResults(int battles) throws IOException {
+		final PrintStream out = new PrintStream(new FileOutputStream(resultsFile));
+
+		try {
+			for (int i = 0; i < battles; i++) {
+				final int bot1 = i % 10;
+				final int bot2 = (i + 1 + i / 10) % 10;
+
+				out.println("roborumble,35,800x600,tester," + (1500000000000L + i) + ",GENERAL");
+				out.println("sample.Bot" + bot1 + " 1.0,3000," + i + ",20");
+				out.println("sample.Bot" + bot2 + " 1.0,2000," + i + ",15");
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	private static List<String> readLines(File file) throws IOException {
+		final List<String> lines = new ArrayList<String>();
+		final BufferedReader in = new BufferedReader(new FileReader(file));
+
+		try {
+			for (String line; (line = in.readLine()) != null;) {
+				lines.add(line);
+			}
+		} finally {
+			in.close();
+		}
+		return lines;
+	}
+
+	private static void store(Properties properties, String filename) throws IOException {
+		final OutputStream out = new FileOutputStream(filename);
+
+		try {
+			properties.store(out, null);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void delete(File file) {
+		final File[] children = file.listFiles();
+
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private static String path(File file) {
+		return file.getPath().replace('\\', '/');
+	}
+
+	/**
+	 * Accepts the results like the RoboRumble server, where uploads can fail or be rejected.
+	 */
+	private final class ResultsHandler implements HttpHandler {
+
+		public void handle(HttpExchange exchange) throws IOException {
+			final BufferedReader in = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), "UTF-8"));
+			final Map<String, String> data = new HashMap<String, String>();
+
+			for (String item : in.readLine().split("&")) {
+				final int index = item.indexOf('=');
+
+				data.put(item.substring(0, index), URLDecoder.decode(item.substring(index + 1), "UTF-8"));
+			}
+			in.close();
+
+			final String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+
+			if (failFirstAttempt && keys.add(key)) {
+				exchange.sendResponseHeaders(500, -1);
+				exchange.close();
+				return;
+			}
+
+			final String response;
+
+			if (data.get("game").equals(rejectedGame)) {
+				response = "Unable to accept results\n";
+			} else {
+				keys.add(key);
+				uploads.add(data.get("game") + "," + data.get("fname") + "," + data.get("sname"));
+				response = "OK. " + data.get("fname") + " vs " + data.get("sname") + " received\n<10 20>\n";
+			}
+
+			final byte[] bytes = response.getBytes("UTF-8");
+
+			exchange.sendResponseHeaders(200, bytes.length);
+			exchange.getResponseBody().write(bytes);
+			exchange.close();
+		}
+	}
+}
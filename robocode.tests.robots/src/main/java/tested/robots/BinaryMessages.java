@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package tested.robots;
+
+
+import robocode.MessageEvent;
+import robocode.TeamRobot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Sends binary messages to all teammates and to its first teammate every turn.
+ */
+public class BinaryMessages extends TeamRobot {
+	private static final byte BROADCAST = 0;
+	private static final byte DIRECT = 1;
+
+	private final ByteBuffer message = ByteBuffer.allocate(16);
+
+	public void run() {
+		for (;;) {
+			try {
+				send(BROADCAST, null);
+
+				final String[] teammates = getTeammates();
+
+				if (teammates != null) {
+					send(DIRECT, teammates[0]);
+				}
+			} catch (IOException e) {
+				out.println("Send failed: " + e);
+			}
+			turnRight(10);
+		}
+	}
+
+	private void send(byte kind, String name) throws IOException {
+		message.clear();
+		message.put(kind).putLong(getTime());
+		message.flip();
+		if (name == null) {
+			broadcastBinaryMessage(message);
+		} else {
+			sendBinaryMessage(name, message);
+		}
+		if (message.position() != 0 || message.remaining() != 9) {
+			out.println("Position changed");
+		}
+	}
+
+	public void onMessageReceived(MessageEvent e) {
+		final ByteBuffer received = e.getBinaryMessage();
+
+		if (received == null || e.getMessage() != null) {
+			out.println("Not a binary message");
+			return;
+		}
+		final byte kind = received.get();
+		final long time = received.getLong();
+
+		if (kind == BROADCAST && e.getSender().equals(getName())) {
+			out.println("Echoed");
+		}
+		out.println((kind == BROADCAST ? "Broadcast " : "Direct ") + time + " from " + e.getSender());
+	}
+}
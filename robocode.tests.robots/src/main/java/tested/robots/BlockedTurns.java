@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package tested.robots;
+
+
+import robocode.AdvancedRobot;
+import robocode.ScannedRobotEvent;
+import robocode.SkippedTurnEvent;
+
+
+/**
+ * Is blocked for 30 ms in each of its first turns without using any CPU time, and then shoots at the other robot.
+ */
+public class BlockedTurns extends AdvancedRobot {
+	private static final int BLOCKED_TURNS = 20;
+	private static final long BLOCKED_MILLIS = 30;
+
+	private final Object lock = new Object();
+
+	@Override
+	public void run() {
+		for (int i = 0; i < BLOCKED_TURNS; i++) {
+			block();
+			execute();
+		}
+		for (;;) {
+			turnGunRight(10);
+		}
+	}
+
+	@Override
+	public void onScannedRobot(ScannedRobotEvent event) {
+		fire(3);
+	}
+
+	@Override
+	public void onSkippedTurn(SkippedTurnEvent event) {
+		out.println("Skipped!!!");
+	}
+
+	private void block() {
+		synchronized (lock) {
+			try {
+				lock.wait(BLOCKED_MILLIS);
+			} catch (InterruptedException e) {
+				// eat interrupt
+				e.printStackTrace(out);
+			}
+		}
+	}
+}
@@ -0,0 +1,23 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package tested.robots;
+
+
+import robocode.AdvancedRobot;
+
+
+/**
+ * Tries to end the process hosting the robot.
+ */
+public class ExitAttack extends AdvancedRobot {
+	public void run() {
+		out.println("Exiting");
+		execute();
+		System.exit(1);
+	}
+}
@@ -0,0 +1,15 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package tested.robots;
+
+
+/**
+ * Tries to read and write files like {@link FileAttack}, when hosted by a robot process.
+ * This robot is banned after its security violation, so it cannot be the same robot as in the test of the Java host.
+ */
+public class ProcessFileAttack extends FileAttack {}
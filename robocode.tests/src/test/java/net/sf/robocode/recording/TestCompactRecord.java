@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshotCodec;
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.control.events.RoundStartedEvent;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.BulletState;
+import robocode.control.snapshot.IBulletSnapshot;
+import robocode.control.snapshot.IRobotSnapshot;
+import robocode.control.snapshot.ITurnSnapshot;
+import robocode.control.snapshot.RobotState;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Records the turns of a real battle in the {@link BattleRecordFormat#BINARY_COMPACT} format, and checks that
+ * every decoded turn is equal to the recorded turn, field by field. The test is in the package of the record
+ * writer and reader, as these are not public.
+ * <p>
+ * The turns of the battle are copied by serialization, as the snapshots of the engine are instances of classes
+ * loaded by the engine class loader instead of the class loader of this test.
+ */
+public class TestCompactRecord extends RobocodeTestBed {
+
+	private final ByteArrayOutputStream recordedTurns = new ByteArrayOutputStream();
+	private ObjectOutputStream recordStream;
+	private final List<ITurnSnapshot> turns = new ArrayList<ITurnSnapshot>();
+	private final List<Integer> turnsInRounds = new ArrayList<Integer>();
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "sample.Fire,sample.Walls,sample.SittingDuck";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 2;
+	}
+
+	@Override
+	public void onRoundStarted(RoundStartedEvent event) {
+		// The first turn of a round is recorded from the start snapshot, like the BattleRecorder does
+		recordTurn(event.getStartSnapshot());
+		turnsInRounds.add(1);
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		recordTurn(event.getTurnSnapshot());
+		turnsInRounds.set(turnsInRounds.size() - 1, turnsInRounds.get(turnsInRounds.size() - 1) + 1);
+	}
+
+	@Override
+	protected void runSetup() {
+		try {
+			recordStream = new ObjectOutputStream(recordedTurns);
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		try {
+			readRecordedTurns();
+			assertBattleCoverage();
+			assertCodecRoundTrip();
+			assertRecordRoundTrip();
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private void recordTurn(ITurnSnapshot turn) {
+		try {
+			recordStream.writeObject(turn);
+			recordStream.reset();
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private void readRecordedTurns() throws IOException {
+		recordStream.close();
+
+		final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(recordedTurns.toByteArray()));
+
+		try {
+			for (int round = 0; round < turnsInRounds.size(); round++) {
+				for (int turn = 0; turn < turnsInRounds.get(round); turn++) {
+					turns.add((ITurnSnapshot) in.readObject());
+				}
+			}
+		} catch (ClassNotFoundException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private void assertBattleCoverage() {
+		boolean hasNewBullet = false;
+		boolean hasRemovedBullet = false;
+		boolean hasDeadRobot = false;
+
+		for (int i = 1; i < turns.size(); i++) {
+			final ITurnSnapshot turn = turns.get(i);
+
+			for (IBulletSnapshot bullet : turn.getBullets()) {
+				hasNewBullet |= findBullet(turns.get(i - 1), bullet.getBulletId()) == null;
+				hasRemovedBullet |= bullet.getState() != BulletState.FIRED && bullet.getState() != BulletState.MOVING;
+			}
+			for (IRobotSnapshot robot : turn.getRobots()) {
+				hasDeadRobot |= robot.getState() == RobotState.DEAD;
+			}
+		}
+		Assert.assertEquals(getNumRounds(), turnsInRounds.size());
+		Assert.assertTrue("No bullet was fired", hasNewBullet);
+		Assert.assertTrue("No bullet was removed", hasRemovedBullet);
+		Assert.assertTrue("No robot died", hasDeadRobot);
+	}
+
+	private void assertCodecRoundTrip() throws IOException {
+		final TurnSnapshotCodec encoder = new TurnSnapshotCodec();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		for (ITurnSnapshot turn : turns) {
+			encoder.encode(turn, bytes);
+		}
+
+		final TurnSnapshotCodec decoder = new TurnSnapshotCodec();
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+		for (int i = 0; i < turns.size(); i++) {
+			assertEqualFields("turn " + i, turns.get(i), decoder.decode(in));
+		}
+		Assert.assertEquals(0, in.available());
+	}
+
+	private void assertRecordRoundTrip() throws IOException {
+		final File file = File.createTempFile("record", ".br");
+
+		try {
+			final CompactRecordWriter writer = new CompactRecordWriter(file);
+
+			try {
+				int index = 0;
+
+				for (int round = 0; round < turnsInRounds.size(); round++) {
+					for (int turn = 0; turn < turnsInRounds.get(round); turn++) {
+						writer.writeTurn(turns.get(index++), round);
+					}
+				}
+				final BattleRecordInfo info = new BattleRecordInfo();
+
+				info.robotCount = turns.get(0).getRobots().length;
+				info.roundsCount = turnsInRounds.size();
+				info.turnsInRounds = turnsInRounds.toArray(new Integer[turnsInRounds.size()]);
+				writer.finish(info);
+			} finally {
+				writer.close();
+			}
+
+			final CompactRecordReader reader = new CompactRecordReader(file);
+
+			try {
+				Assert.assertEquals(turnsInRounds.size(), reader.getRoundCount());
+
+				// Read the turns backwards, so every turn is decoded from the keyframe of its block
+				int index = turns.size();
+
+				for (int round = turnsInRounds.size() - 1; round >= 0; round--) {
+					Assert.assertEquals(turnsInRounds.get(round).intValue(), reader.getTurnCount(round));
+					for (int turn = turnsInRounds.get(round) - 1; turn >= 0; turn--) {
+						assertEqualFields("round " + round + " turn " + turn, turns.get(--index),
+								reader.readTurn(round, turn));
+					}
+				}
+				Assert.assertEquals(info(reader).roundsCount, turnsInRounds.size());
+			} finally {
+				reader.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static BattleRecordInfo info(CompactRecordReader reader) throws IOException {
+		try {
+			return reader.readRecordInfo();
+		} catch (ClassNotFoundException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private static IBulletSnapshot findBullet(ITurnSnapshot turn, int bulletId) {
+		for (IBulletSnapshot bullet : turn.getBullets()) {
+			if (bullet.getBulletId() == bulletId) {
+				return bullet;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Compares two snapshots field by field, including the fields of nested snapshots, arrays and lists.
+	 */
+	private static void assertEqualFields(String path, Object expected, Object actual) {
+		if (expected == null || actual == null) {
+			Assert.assertTrue(path + " differs: " + expected + " != " + actual, expected == actual);
+			return;
+		}
+		if (expected instanceof List) {
+			final List<?> expectedList = (List<?>) expected;
+			final List<?> actualList = (List<?>) actual;
+
+			Assert.assertEquals(path + " size", expectedList.size(), actualList.size());
+			for (int i = 0; i < expectedList.size(); i++) {
+				assertEqualFields(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+			}
+			return;
+		}
+		Assert.assertEquals(path + " class", expected.getClass(), actual.getClass());
+
+		final Class<?> type = expected.getClass();
+
+		if (type.isArray()) {
+			if (type.getComponentType().isPrimitive()) {
+				Assert.assertTrue(path + " differs", equalPrimitiveArrays(expected, actual));
+				return;
+			}
+			final Object[] expectedArray = (Object[]) expected;
+			final Object[] actualArray = (Object[]) actual;
+
+			Assert.assertEquals(path + " length", expectedArray.length, actualArray.length);
+			for (int i = 0; i < expectedArray.length; i++) {
+				assertEqualFields(path + "[" + i + "]", expectedArray[i], actualArray[i]);
+			}
+			return;
+		}
+		if (type.getName().startsWith("java.") || type.isEnum()) {
+			Assert.assertEquals(path, expected, actual);
+			return;
+		}
+		for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				field.setAccessible(true);
+				try {
+					assertEqualFields(path + "." + field.getName(), field.get(expected), field.get(actual));
+				} catch (IllegalAccessException e) {
+					throw new AssertionError(e);
+				}
+			}
+		}
+	}
+
+	private static boolean equalPrimitiveArrays(Object expected, Object actual) {
+		if (expected instanceof byte[]) {
+			return Arrays.equals((byte[]) expected, (byte[]) actual);
+		}
+		if (expected instanceof int[]) {
+			return Arrays.equals((int[]) expected, (int[]) actual);
+		}
+		if (expected instanceof double[]) {
+			return Arrays.equals((double[]) expected, (double[]) actual);
+		}
+		if (expected instanceof float[]) {
+			return Arrays.equals((float[]) expected, (float[]) actual);
+		}
+		throw new AssertionError("Unexpected array type " + expected.getClass());
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.IRobotSnapshot;
+
+
+/**
+ * Checks that binary team messages are delivered to the teammates they are sent to.
+ */
+public class TestBinaryTeamMessages extends RobocodeTestBed {
+	private boolean broadcastReceived;
+	private boolean directReceived;
+	private boolean wrongMessage;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "tested.robots.BinaryTeam,sample.SittingDuck";
+	}
+
+	@Override
+	public int getExpectedRobotCount(String robotList) {
+		return 4;
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		final IRobotSnapshot[] robots = event.getTurnSnapshot().getRobots();
+
+		for (int i = 0; i < 3; i++) {
+			final String out = robots[i].getOutputStreamSnapshot();
+
+			if (out.contains("Broadcast ")) {
+				broadcastReceived = true;
+			}
+			if (out.contains("Direct ")) {
+				directReceived = true;
+			}
+			if (out.contains("Echoed") || out.contains("Position changed") || out.contains("Not a binary message")
+					|| out.contains("Send failed")) {
+				wrongMessage = true;
+			}
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertTrue("No broadcast message received", broadcastReceived);
+		Assert.assertTrue("No direct message received", directReceived);
+		Assert.assertFalse("Wrong message received", wrongMessage);
+	}
+}
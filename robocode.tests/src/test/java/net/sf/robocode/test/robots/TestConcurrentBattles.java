@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.BattleResults;
+import robocode.control.BattleSpecification;
+import robocode.control.RobocodeEngine;
+import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Runs several battles side by side in the same engine.
+ */
+public class TestConcurrentBattles extends RobocodeTestBed {
+
+	private static final int BATTLE_COUNT = 3;
+
+	private final AtomicInteger completedBattles = new AtomicInteger();
+	private final AtomicInteger invalidResults = new AtomicInteger();
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "sample.Fire,sample.SittingDuck";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 3;
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return false;
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final RobotSpecification[] robotSpecifications = engine.getLocalRepository(robotList);
+
+		Assert.assertEquals("Robot were not loaded", getExpectedRobotCount(robotList), robotSpecifications.length);
+
+		final BattleSpecification battleSpecification = new BattleSpecification(numRounds, battleFieldSpec,
+				robotSpecifications);
+
+		Thread[] threads = new Thread[BATTLE_COUNT];
+
+		for (int i = 0; i < BATTLE_COUNT; i++) {
+			threads[i] = new Thread(new Runnable() {
+				public void run() {
+					((RobocodeEngine) engine).runConcurrentBattle(battleSpecification, new BattleAdaptor() {
+						@Override
+						public void onBattleCompleted(BattleCompletedEvent event) {
+							BattleResults[] results = event.getIndexedResults();
+
+							if (results.length != 2 || results[0].getFirsts() + results[1].getFirsts() != getNumRounds()) {
+								invalidResults.incrementAndGet();
+							}
+							completedBattles.incrementAndGet();
+						}
+					});
+				}
+			}, "Concurrent battle runner " + i);
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertEquals("All concurrent battles must complete", BATTLE_COUNT, completedBattles.get());
+		Assert.assertEquals("Concurrent battles must not mix up their results", 0, invalidResults.get());
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.IRobotSnapshot;
+
+
+/**
+ * Runs a battle with the robots running in parallel, where the robots are charged for the CPU time they use
+ * themselves. The blocked robot waits 30 ms in each of its first turns, which is longer than the wall-clock time a
+ * turn of two robots may take (the CPU constant of 10 ms times the robots per CPU), but it uses almost no CPU time.
+ * Hence, it must not skip a turn, which it did when it was charged for the wall-clock time.
+ */
+public class TestParallelCpuTime extends RobocodeTestBed {
+
+	private boolean skippedTurn;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "tested.robots.BlockedTurns,sample.SittingDuck";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 1;
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final String oldValue = System.getProperty("PARALLEL");
+
+		try {
+			System.setProperty("PARALLEL", "true");
+			super.runBattle(robotList, numRounds, initialPositions);
+		} finally {
+			if (oldValue == null) {
+				System.clearProperty("PARALLEL");
+			} else {
+				System.setProperty("PARALLEL", oldValue);
+			}
+		}
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		for (IRobotSnapshot robot : event.getTurnSnapshot().getRobots()) {
+			final String output = robot.getOutputStreamSnapshot();
+
+			if (output.contains("skipped turn") || output.contains("Skipped!!!")) {
+				skippedTurn = true;
+			}
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertFalse("A robot has skipped a turn", skippedTurn);
+	}
+}
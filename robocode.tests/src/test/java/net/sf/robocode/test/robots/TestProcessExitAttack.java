@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.control.events.BattleMessageEvent;
+import robocode.control.events.TurnEndedEvent;
+
+
+/**
+ * Checks that a robot ending its robot process is punished like a robot causing a security violation.
+ */
+public class TestProcessExitAttack extends RobocodeTestBed {
+
+	private boolean exiting;
+	private boolean punished;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "tested.robots.ExitAttack,sample.SittingDuck";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 1;
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return false;
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final String oldValue = System.getProperty("PROCESSHOST");
+
+		try {
+			System.setProperty("PROCESSHOST", "true");
+			super.runBattle(robotList, numRounds, initialPositions);
+		} finally {
+			if (oldValue == null) {
+				System.clearProperty("PROCESSHOST");
+			} else {
+				System.setProperty("PROCESSHOST", oldValue);
+			}
+		}
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		if (event.getTurnSnapshot().getRobots()[0].getOutputStreamSnapshot().contains("Exiting")) {
+			exiting = true;
+		}
+	}
+
+	@Override
+	public void onBattleMessage(BattleMessageEvent event) {
+		if (event.getMessage().contains("tested.robots.ExitAttack has caused a security violation")) {
+			punished = true;
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertTrue("Robot did not run", exiting);
+		Assert.assertTrue("Robot was not punished", punished);
+	}
+}
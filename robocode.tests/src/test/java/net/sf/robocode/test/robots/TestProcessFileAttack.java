@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.control.events.TurnEndedEvent;
+
+import java.io.File;
+
+
+/**
+ * Checks that a robot hosted by a robot process is prevented from reading and writing files, like a robot hosted by
+ * the battle process.
+ */
+public class TestProcessFileAttack extends RobocodeTestBed {
+	private boolean messagedRead;
+	private boolean messagedWrite;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "sample.Fire,tested.robots.ProcessFileAttack";
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final String oldValue = System.getProperty("PROCESSHOST");
+
+		try {
+			System.setProperty("PROCESSHOST", "true");
+			super.runBattle(robotList, numRounds, initialPositions);
+		} finally {
+			if (oldValue == null) {
+				System.clearProperty("PROCESSHOST");
+			} else {
+				System.setProperty("PROCESSHOST", oldValue);
+			}
+		}
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+		final String out = event.getTurnSnapshot().getRobots()[1].getOutputStreamSnapshot();
+
+		if (out.contains(
+				"Preventing tested.robots.ProcessFileAttack from access: (\"java.io.FilePermission\" \"C:\\MSDOS.SYS\" \"read\")")) {
+			messagedRead = true;
+		}
+		if (out.contains(
+				"Preventing tested.robots.ProcessFileAttack from access: (\"java.io.FilePermission\" \"C:\\Robocode.attack\" \"write\")")) {
+			messagedWrite = true;
+		}
+	}
+
+	@Override
+	protected void runSetup() {
+		File attack = new File("C:\\Robocode.attack");
+
+		if (attack.exists()) {
+			Assert.assertTrue(attack.delete());
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertTrue("Didn't seen preventing read", messagedRead);
+		Assert.assertTrue("Didn't seen preventing write", messagedWrite);
+		Assert.assertFalse("Found attack file", new File("C:\\Robocode.attack").exists());
+	}
+
+	@Override
+	protected int getExpectedErrors() {
+		return 0; // The security errors are logged by the robot process, and only seen in the output of the robot
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.BattleResults;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.TurnEndedEvent;
+
+
+/**
+ * Runs a battle with the robots hosted by robot processes instead of the battle process.
+ */
+public class TestProcessHost extends RobocodeTestBed {
+
+	private BattleResults[] results;
+	private boolean hasOutput;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "sample.Fire,sample.SittingDuck";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 3;
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return false;
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final String oldValue = System.getProperty("PROCESSHOST");
+
+		try {
+			System.setProperty("PROCESSHOST", "true");
+			super.runBattle(robotList, numRounds, initialPositions);
+		} finally {
+			if (oldValue == null) {
+				System.clearProperty("PROCESSHOST");
+			} else {
+				System.setProperty("PROCESSHOST", oldValue);
+			}
+		}
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		if (event.getTurnSnapshot().getRobots()[1].getOutputStreamSnapshot().contains("I have been a sitting duck")) {
+			hasOutput = true;
+		}
+	}
+
+	@Override
+	public void onBattleCompleted(BattleCompletedEvent event) {
+		results = event.getIndexedResults();
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertNotNull(results);
+		Assert.assertEquals(getNumRounds(), results[0].getFirsts());
+		Assert.assertTrue("No output from the robot process", hasOutput);
+	}
+}
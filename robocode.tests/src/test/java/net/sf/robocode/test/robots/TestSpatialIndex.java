@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.control.RandomFactory;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.IBulletSnapshot;
+import robocode.control.snapshot.IRobotSnapshot;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Runs the same melee battle with and without the spatial index used for collisions and scans,
+ * and checks that both battles are identical turn by turn.
+ */
+public class TestSpatialIndex extends RobocodeTestBed {
+
+	private List<String> currentTurns;
+	private final List<String> bruteForceTurns = new ArrayList<String>();
+	private final List<String> indexedTurns = new ArrayList<String>();
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "sample.RamFire,sample.Fire,sample.Crazy,sample.SpinBot,sample.Walls,sample.TrackFire,sample.Tracker,"
+				+ "sample.Corners";
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final String oldValue = System.getProperty("SPATIALINDEX");
+
+		try {
+			System.setProperty("SPATIALINDEX", "false");
+			currentTurns = bruteForceTurns;
+			super.runBattle(robotList, numRounds, initialPositions);
+
+			RandomFactory.resetDeterministic(0);
+
+			System.setProperty("SPATIALINDEX", "true");
+			currentTurns = indexedTurns;
+			super.runBattle(robotList, numRounds, initialPositions);
+		} finally {
+			if (oldValue == null) {
+				System.clearProperty("SPATIALINDEX");
+			} else {
+				System.setProperty("SPATIALINDEX", oldValue);
+			}
+		}
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		final ITurnSnapshot snapshot = event.getTurnSnapshot();
+		final StringBuilder sb = new StringBuilder();
+
+		sb.append(snapshot.getRound()).append(':').append(snapshot.getTurn());
+		for (IRobotSnapshot robot : snapshot.getRobots()) {
+			sb.append(" R").append(robot.getRobotIndex()).append(' ').append(robot.getState());
+			sb.append(' ').append(robot.getX()).append(',').append(robot.getY()).append(' ').append(robot.getEnergy());
+			sb.append(' ').append(robot.getBodyHeading()).append(' ').append(robot.getRadarHeading());
+		}
+		for (IBulletSnapshot bullet : snapshot.getBullets()) {
+			sb.append(" B").append(bullet.getOwnerIndex()).append('/').append(bullet.getBulletId());
+			sb.append(' ').append(bullet.getState()).append(' ').append(bullet.getX()).append(',').append(bullet.getY());
+			sb.append(' ').append(bullet.getVictimIndex());
+		}
+		currentTurns.add(sb.toString());
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertTrue("No turns were played", bruteForceTurns.size() > 0);
+
+		final int turns = Math.min(bruteForceTurns.size(), indexedTurns.size());
+
+		for (int i = 0; i < turns; i++) {
+			Assert.assertEquals("Turns differ with and without the spatial index", bruteForceTurns.get(i),
+					indexedTurns.get(i));
+		}
+		Assert.assertEquals("Battles have a different number of turns", bruteForceTurns.size(), indexedTurns.size());
+	}
+}
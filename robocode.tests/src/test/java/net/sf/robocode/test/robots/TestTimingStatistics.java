@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2001-2018 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * https://robocode.sourceforge.io/license/epl-v10.html
+ */
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.control.events.RoundEndedEvent;
+import robocode.control.events.TimingHistogram;
+import robocode.control.events.TimingStatisticsEvent;
+import robocode.control.events.TurnPhase;
+
+
+/**
+ * Checks that the durations of the turns of every round are reported after the round has ended.
+ */
+public class TestTimingStatistics extends RobocodeTestBed {
+	private int roundTurns;
+	private int events;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "sample.Fire,sample.Crazy";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 2;
+	}
+
+	@Override
+	public void onRoundEnded(RoundEndedEvent event) {
+		roundTurns = event.getTurns();
+	}
+
+	@Override
+	public void onTimingStatistics(TimingStatisticsEvent event) {
+		Assert.assertEquals(events, event.getRound());
+		events++;
+
+		final TimingHistogram turns = event.getPhaseTimings(TurnPhase.TURN);
+
+		// The first turn of a round is started, when the robots are started
+		Assert.assertTrue(turns.getCount() >= roundTurns - 1);
+		Assert.assertTrue(turns.getCount() <= roundTurns);
+		for (TurnPhase phase : TurnPhase.values()) {
+			Assert.assertEquals(turns.getCount(), event.getPhaseTimings(phase).getCount());
+			Assert.assertTrue(event.getPhaseTimings(phase).getMaxNanos() <= turns.getMaxNanos());
+		}
+		Assert.assertEquals("sample.Fire", event.getRobotNames()[0]);
+		Assert.assertEquals("sample.Crazy", event.getRobotNames()[1]);
+		Assert.assertTrue(event.getRobotTimings()[0].getCount() > 0);
+		Assert.assertTrue(event.getRobotTimings()[1].getCount() > 0);
+		Assert.assertTrue(event.getRobotTimings()[1].getMaxNanos()
+				<= event.getPhaseTimings(TurnPhase.WAKEUP_ROBOTS).getMaxNanos());
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertEquals(getNumRounds(), events);
+	}
+}